@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.analysis;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JFR event recording a single analysis pass over a module. All of the
+ * analyses requested from a {@link SMModuleAnalysis.Builder} are performed
+ * in the same pass, and so share the duration of this event.
+ *
+ * @see SMAnalyzerEvent
+ */
+
+@Name("com.io7m.jspearmint.Analysis")
+@Label("Analysis")
+@Category({"jspearmint", "Analysis"})
+@Description("An analysis pass over a module")
+@StackTrace(false)
+final class SMAnalysisEvent extends jdk.jfr.Event
+{
+  @Label("Analyzers")
+  @Description("The analyzers driven by the pass")
+  private String analyzers;
+
+  @Label("Instructions")
+  @Description("The number of instructions analyzed")
+  private long instructions;
+
+  SMAnalysisEvent()
+  {
+
+  }
+
+  /**
+   * Set the values of the event and commit it.
+   *
+   * @param inAnalyzers    The analyzers driven by the pass
+   * @param inInstructions The number of instructions analyzed
+   */
+
+  void commitWith(
+    final String inAnalyzers,
+    final long inInstructions)
+  {
+    this.analyzers = inAnalyzers;
+    this.instructions = inInstructions;
+    this.commit();
+  }
+}
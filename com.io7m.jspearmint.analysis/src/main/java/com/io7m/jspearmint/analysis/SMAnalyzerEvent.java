@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.analysis;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A JFR event recording the time spent in a single analyzer during an
+ * analysis pass. The time is estimated by timing the analyzers on a sample
+ * of the instructions and scaling the result to the whole pass, so that
+ * the clock is not read around every call to every analyzer. The event is
+ * disabled by default and must be enabled explicitly in the JFR settings.
+ *
+ * @see SMAnalysisEvent
+ */
+
+@Name("com.io7m.jspearmint.Analyzer")
+@Label("Analyzer")
+@Category({"jspearmint", "Analysis"})
+@Description("The time spent in an analyzer during an analysis pass")
+@StackTrace(false)
+@Enabled(false)
+final class SMAnalyzerEvent extends jdk.jfr.Event
+{
+  @Label("Analyzer")
+  @Description("The analyzer")
+  private String analyzer;
+
+  @Label("Analysis Time")
+  @Description("The estimated total time spent in the analyzer")
+  @Timespan(Timespan.NANOSECONDS)
+  private long analysisTime;
+
+  SMAnalyzerEvent()
+  {
+
+  }
+
+  /**
+   * Set the values of the event and commit it.
+   *
+   * @param inAnalyzer     The analyzer
+   * @param inAnalysisTime The estimated total time spent in the analyzer
+   */
+
+  void commitWith(
+    final String inAnalyzer,
+    final long inAnalysisTime)
+  {
+    this.analyzer = inAnalyzer;
+    this.analysisTime = inAnalysisTime;
+    this.commit();
+  }
+}
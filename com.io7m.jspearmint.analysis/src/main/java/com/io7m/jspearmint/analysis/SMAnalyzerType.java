@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.analysis;
+
+import com.io7m.jspearmint.api.SMInstruction;
+import com.io7m.jspearmint.parser.api.SMParsedHeader;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
+
+/**
+ * An analysis that observes the instructions of a module. Analyzers are
+ * registered with {@link SMModuleAnalysis} and are driven together in a
+ * single traversal of the module.
+ */
+
+public interface SMAnalyzerType
+{
+  /**
+   * Called once before any instructions are analyzed.
+   *
+   * @param header The module header
+   */
+
+  default void begin(
+    final SMParsedHeader header)
+  {
+
+  }
+
+  /**
+   * Analyze an instruction. Instructions with opcodes that are not known
+   * to the instruction registry are not passed to analyzers.
+   *
+   * @param definition  The resolved instruction definition
+   * @param instruction The parsed instruction
+   */
+
+  void analyze(
+    SMInstruction definition,
+    SMParsedInstructionType instruction);
+}
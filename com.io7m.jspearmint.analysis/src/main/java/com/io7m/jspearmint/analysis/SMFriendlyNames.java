@@ -0,0 +1,559 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.analysis;
+
+import com.io7m.jspearmint.api.SMInstruction;
+import com.io7m.jspearmint.api.SMStorageClass;
+import com.io7m.jspearmint.parser.api.SMModule;
+import com.io7m.jspearmint.parser.api.SMParsedHeader;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A set of friendly names for identifiers. Identifiers named with
+ * {@code OpName} take that name (with any characters that cannot appear in
+ * an identifier replaced), and types and scalar constants that have no
+ * name take a name derived from their definition, such as {@code v4float},
+ * {@code _ptr_Uniform_Block}, or {@code int_1}. Names are unique: a name
+ * that collides with one already assigned gains a numeric suffix.
+ */
+
+public final class SMFriendlyNames
+{
+  private final SMIdNameTable names;
+  private Map<Long, String> idToName;
+
+  private SMFriendlyNames(
+    final SMIdNameTable inNames)
+  {
+    this.names = Objects.requireNonNull(inNames, "inNames");
+  }
+
+  /**
+   * Derive friendly names.
+   *
+   * @param module The parsed module
+   *
+   * @return A set of friendly names
+   */
+
+  public static SMFriendlyNames of(
+    final SMModule module)
+  {
+    Objects.requireNonNull(module, "module");
+    return of(module.header(), module.instructions());
+  }
+
+  /**
+   * Derive friendly names.
+   *
+   * @param header       The parsed header
+   * @param instructions The instructions
+   *
+   * @return A set of friendly names
+   */
+
+  public static SMFriendlyNames of(
+    final SMParsedHeader header,
+    final List<? extends SMParsedInstructionType> instructions)
+  {
+    Objects.requireNonNull(header, "header");
+    Objects.requireNonNull(instructions, "instructions");
+
+    return SMModuleAnalysis.builder()
+      .withFriendlyNames()
+      .analyze(header, instructions)
+      .friendlyNames()
+      .orElseThrow();
+  }
+
+  /**
+   * @return A mapping of ids to friendly names
+   */
+
+  public Map<Long, String> idToName()
+  {
+    var result = this.idToName;
+    if (result == null) {
+      result = this.names.toMap();
+      this.idToName = result;
+    }
+    return result;
+  }
+
+  /**
+   * Find the friendly name of the given ID.
+   *
+   * @param id The ID
+   *
+   * @return The name of the ID, or {@code null} if the ID has no name
+   */
+
+  public String nameOrNull(
+    final long id)
+  {
+    return this.names.get(id);
+  }
+
+  /**
+   * Replace any characters that cannot appear in a name.
+   */
+
+  static String sanitize(
+    final String text)
+  {
+    if (text.isEmpty()) {
+      return "_";
+    }
+
+    StringBuilder builder = null;
+    final var length = text.length();
+    for (int index = 0; index < length; ++index) {
+      final var c = text.charAt(index);
+      final var valid = isNameCharacter(c);
+
+      if (!valid && builder == null) {
+        builder = new StringBuilder(length);
+        builder.append(text, 0, index);
+      }
+      if (builder != null) {
+        builder.append(valid ? c : '_');
+      }
+    }
+    return builder == null ? text : builder.toString();
+  }
+
+  private static boolean isNameCharacter(
+    final char c)
+  {
+    if (c == '_' || (c >= '0' && c <= '9')) {
+      return true;
+    }
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  /**
+   * An analyzer that derives friendly names. Each name is derived exactly
+   * once, when the instruction that defines the ID is encountered; the
+   * names of types that refer to other types are built from the names
+   * already assigned to those types, so no type is ever printed more than
+   * once.
+   */
+
+  static final class Analyzer implements SMAnalyzerType
+  {
+    private static final EnumSet<SMInstruction> DERIVED_TYPES =
+      EnumSet.of(
+        SMInstruction.SM_OP_TYPE_VOID,
+        SMInstruction.SM_OP_TYPE_BOOL,
+        SMInstruction.SM_OP_TYPE_SAMPLER,
+        SMInstruction.SM_OP_TYPE_IMAGE,
+        SMInstruction.SM_OP_TYPE_VECTOR,
+        SMInstruction.SM_OP_TYPE_MATRIX,
+        SMInstruction.SM_OP_TYPE_ARRAY,
+        SMInstruction.SM_OP_TYPE_RUNTIME_ARRAY,
+        SMInstruction.SM_OP_TYPE_POINTER,
+        SMInstruction.SM_OP_TYPE_STRUCT,
+        SMInstruction.SM_OP_TYPE_FUNCTION,
+        SMInstruction.SM_OP_TYPE_SAMPLED_IMAGE
+      );
+
+    private final SMStringPool strings;
+    private final SMTypes.Analyzer types;
+    private final HashMap<String, Integer> nextSuffix;
+    private SMIdNameTable names;
+
+    Analyzer(
+      final SMStringPool inStrings,
+      final SMTypes.Analyzer inTypes)
+    {
+      this.strings = Objects.requireNonNull(inStrings, "strings");
+      this.types = Objects.requireNonNull(inTypes, "types");
+      this.nextSuffix = new HashMap<>();
+      this.names = new SMIdNameTable(0L);
+    }
+
+    private static String intName(
+      final long width,
+      final boolean signed)
+    {
+      final String base;
+      if (width == 8L) {
+        base = "char";
+      } else if (width == 16L) {
+        base = "short";
+      } else if (width == 32L) {
+        base = "int";
+      } else if (width == 64L) {
+        base = "long";
+      } else {
+        return (signed ? "i" : "u") + width;
+      }
+      return signed ? base : "u" + base;
+    }
+
+    private static String floatName(
+      final long width)
+    {
+      if (width == 16L) {
+        return "half";
+      }
+      if (width == 32L) {
+        return "float";
+      }
+      if (width == 64L) {
+        return "double";
+      }
+      return "fp" + width;
+    }
+
+    private static String storageClassName(
+      final long value)
+    {
+      final var storageClass = SMStorageClass.ofIntegerOrNull((int) value);
+      if (storageClass == null) {
+        return Long.toUnsignedString(value);
+      }
+      return storageClass.spirName();
+    }
+
+    @Override
+    public void begin(
+      final SMParsedHeader header)
+    {
+      this.names = new SMIdNameTable(header.idBound());
+    }
+
+    @Override
+    public void analyze(
+      final SMInstruction definition,
+      final SMParsedInstructionType instruction)
+    {
+      switch (definition) {
+        case SM_OP_NAME: {
+          if (instruction.operandCount() < 2) {
+            return;
+          }
+          final var id = instruction.operand(0);
+          if (this.names.get(id) == null) {
+            final var name = this.strings.intern(instruction, 1);
+            this.assign(id, sanitize(name.text()));
+          }
+          return;
+        }
+        case SM_OP_CONSTANT_TRUE: {
+          if (instruction.operandCount() < 2) {
+            return;
+          }
+          this.assignIfUnnamed(instruction.operand(1), "true");
+          return;
+        }
+        case SM_OP_CONSTANT_FALSE: {
+          if (instruction.operandCount() < 2) {
+            return;
+          }
+          this.assignIfUnnamed(instruction.operand(1), "false");
+          return;
+        }
+        case SM_OP_CONSTANT: {
+          this.analyzeConstant(instruction);
+          return;
+        }
+        default: {
+          this.analyzeType(definition, instruction);
+          return;
+        }
+      }
+    }
+
+    private void analyzeType(
+      final SMInstruction definition,
+      final SMParsedInstructionType instruction)
+    {
+      switch (definition) {
+        case SM_OP_TYPE_INT: {
+          if (instruction.operandCount() < 3) {
+            return;
+          }
+          final var id = instruction.operand(0);
+          final var width = instruction.operand(1);
+          final var signed = instruction.operand(2) != 0L;
+          this.assignIfUnnamed(id, intName(width, signed));
+          return;
+        }
+        case SM_OP_TYPE_FLOAT: {
+          if (instruction.operandCount() < 2) {
+            return;
+          }
+          final var id = instruction.operand(0);
+          final var width = instruction.operand(1);
+          this.assignIfUnnamed(id, floatName(width));
+          return;
+        }
+        default: {
+          if (DERIVED_TYPES.contains(definition)) {
+            this.analyzeDerivedType(definition, instruction);
+          }
+          return;
+        }
+      }
+    }
+
+    private void analyzeDerivedType(
+      final SMInstruction definition,
+      final SMParsedInstructionType instruction)
+    {
+      if (instruction.operandCount() < minimumOperands(definition)) {
+        return;
+      }
+
+      final var id = instruction.operand(0);
+      if (this.names.get(id) != null) {
+        return;
+      }
+
+      switch (definition) {
+        case SM_OP_TYPE_VOID: {
+          this.assign(id, "void");
+          return;
+        }
+        case SM_OP_TYPE_BOOL: {
+          this.assign(id, "bool");
+          return;
+        }
+        case SM_OP_TYPE_SAMPLER: {
+          this.assign(id, "sampler");
+          return;
+        }
+        case SM_OP_TYPE_IMAGE: {
+          this.assign(id, "image");
+          return;
+        }
+        case SM_OP_TYPE_VECTOR: {
+          this.assign(id, String.format(
+            "v%d%s",
+            Long.valueOf(instruction.operand(2)),
+            this.nameOf(instruction.operand(1))));
+          return;
+        }
+        case SM_OP_TYPE_MATRIX: {
+          this.assign(id, String.format(
+            "mat%d%s",
+            Long.valueOf(instruction.operand(2)),
+            this.nameOf(instruction.operand(1))));
+          return;
+        }
+        case SM_OP_TYPE_ARRAY: {
+          this.assign(id, String.format(
+            "_arr_%s_%s",
+            this.nameOf(instruction.operand(1)),
+            this.nameOf(instruction.operand(2))));
+          return;
+        }
+        case SM_OP_TYPE_RUNTIME_ARRAY: {
+          this.assign(id, "_runtimearr_" + this.nameOf(instruction.operand(1)));
+          return;
+        }
+        case SM_OP_TYPE_POINTER: {
+          this.assign(id, String.format(
+            "_ptr_%s_%s",
+            storageClassName(instruction.operand(1)),
+            this.nameOf(instruction.operand(2))));
+          return;
+        }
+        case SM_OP_TYPE_STRUCT: {
+          this.assign(id, "_struct_" + id);
+          return;
+        }
+        case SM_OP_TYPE_FUNCTION: {
+          final var builder = new StringBuilder(32);
+          builder.append("fn");
+          final var operandCount = instruction.operandCount();
+          for (int index = 1; index < operandCount; ++index) {
+            builder.append('_');
+            builder.append(this.nameOf(instruction.operand(index)));
+          }
+          this.assign(id, builder.toString());
+          return;
+        }
+        case SM_OP_TYPE_SAMPLED_IMAGE: {
+          this.assign(id, "_sampled_" + this.nameOf(instruction.operand(1)));
+          return;
+        }
+        default: {
+          return;
+        }
+      }
+    }
+
+    /**
+     * @return The number of operands a derived type declaration must have
+     * for a name to be derived from it
+     */
+
+    private static int minimumOperands(
+      final SMInstruction definition)
+    {
+      switch (definition) {
+        case SM_OP_TYPE_VECTOR:
+        case SM_OP_TYPE_MATRIX:
+        case SM_OP_TYPE_ARRAY:
+        case SM_OP_TYPE_POINTER: {
+          return 3;
+        }
+        case SM_OP_TYPE_RUNTIME_ARRAY:
+        case SM_OP_TYPE_SAMPLED_IMAGE: {
+          return 2;
+        }
+        default: {
+          return 1;
+        }
+      }
+    }
+
+    private void analyzeConstant(
+      final SMParsedInstructionType instruction)
+    {
+      if (instruction.operandCount() < 3) {
+        return;
+      }
+
+      final var type = instruction.operand(0);
+      final var id = instruction.operand(1);
+      if (this.names.get(id) != null) {
+        return;
+      }
+
+      final var table = this.types.table();
+      final var scalar = table.get(type);
+      if (scalar != SMInstruction.SM_OP_TYPE_INT
+        && scalar != SMInstruction.SM_OP_TYPE_FLOAT) {
+        return;
+      }
+
+      /*
+       * The number of words in the literal is determined by the width of
+       * the result type, exactly as it is when the constant is disassembled.
+       */
+
+      final var width = table.width(type);
+      final var wide = width > 32 && instruction.operandCount() > 3;
+      final var low = instruction.operand(2) & 0xffff_ffffL;
+      final var bits =
+        wide ? (instruction.operand(3) << 32) | low : low;
+
+      final String value;
+      if (scalar == SMInstruction.SM_OP_TYPE_FLOAT) {
+        value = floatValueName(bits, width);
+      } else if (table.signed(type)) {
+        final long signed = wide ? bits : (long) (int) bits;
+        value = signed < 0L
+          ? "n" + Long.toUnsignedString(-signed)
+          : Long.toString(signed);
+      } else {
+        value = Long.toUnsignedString(bits);
+      }
+
+      this.assign(id, this.nameOf(type) + "_" + value);
+    }
+
+    private static String floatValueName(
+      final long bits,
+      final int width)
+    {
+      final String text;
+      switch (width) {
+        case 16: {
+          text = Float.toString(Float.float16ToFloat((short) bits));
+          break;
+        }
+        case 64: {
+          text = Double.toString(Double.longBitsToDouble(bits));
+          break;
+        }
+        default: {
+          text = Float.toString(Float.intBitsToFloat((int) bits));
+          break;
+        }
+      }
+
+      return sanitize(
+        (text.endsWith(".0")
+          ? text.substring(0, text.length() - 2)
+          : text)
+          .replace('-', 'n'));
+    }
+
+    private String nameOf(
+      final long id)
+    {
+      final var name = this.names.get(id);
+      if (name == null) {
+        return Long.toUnsignedString(id);
+      }
+      return name;
+    }
+
+    private void assignIfUnnamed(
+      final long id,
+      final String base)
+    {
+      if (this.names.get(id) == null) {
+        this.assign(id, base);
+      }
+    }
+
+    /**
+     * Assign a unique name to the given ID. The first ID to claim a name
+     * takes it unmodified; subsequent IDs take the name followed by the
+     * next unused suffix.
+     */
+
+    private void assign(
+      final long id,
+      final String base)
+    {
+      final var next = this.nextSuffix.putIfAbsent(base, Integer.valueOf(0));
+      if (next == null) {
+        this.names.put(id, base);
+        return;
+      }
+
+      var suffix = next.intValue();
+      while (true) {
+        final var candidate = base + "_" + suffix;
+        ++suffix;
+        if (!this.nextSuffix.containsKey(candidate)) {
+          this.nextSuffix.put(base, Integer.valueOf(suffix));
+          this.nextSuffix.put(candidate, Integer.valueOf(0));
+          this.names.put(id, candidate);
+          return;
+        }
+      }
+    }
+
+    SMFriendlyNames build()
+    {
+      return new SMFriendlyNames(this.names);
+    }
+  }
+}
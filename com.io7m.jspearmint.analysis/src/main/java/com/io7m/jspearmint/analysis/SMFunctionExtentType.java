@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.analysis;
+
+import com.io7m.immutables.styles.ImmutablesStyleType;
+import org.immutables.value.Value;
+
+/**
+ * The extent of a function within a module: The byte range covering the
+ * instructions from {@code OpFunction} through to {@code OpFunctionEnd}
+ * inclusive.
+ */
+
+@ImmutablesStyleType
+@Value.Immutable
+public interface SMFunctionExtentType
+{
+  /**
+   * @return The result ID of the function
+   */
+
+  @Value.Parameter
+  long functionId();
+
+  /**
+   * @return The byte offset of the {@code OpFunction} instruction
+   */
+
+  @Value.Parameter
+  long startByteOffset();
+
+  /**
+   * @return The byte offset immediately following the
+   * {@code OpFunctionEnd} instruction
+   */
+
+  @Value.Parameter
+  long endByteOffset();
+
+  /**
+   * Check preconditions for the type.
+   */
+
+  @Value.Check
+  default void checkPreconditions()
+  {
+    if (this.startByteOffset() > this.endByteOffset()) {
+      throw new IllegalArgumentException(
+        String.format(
+          "Start offset %d must not exceed end offset %d",
+          Long.valueOf(this.startByteOffset()),
+          Long.valueOf(this.endByteOffset()))
+      );
+    }
+  }
+}
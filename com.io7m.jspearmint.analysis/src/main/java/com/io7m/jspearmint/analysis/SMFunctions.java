@@ -0,0 +1,197 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.analysis;
+
+import com.io7m.jspearmint.api.SMInstruction;
+import com.io7m.jspearmint.parser.api.SMModule;
+import com.io7m.jspearmint.parser.api.SMParsedHeader;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The functions and entry points declared in a module, along with the
+ * extent of each function. The extents are recorded in a single pass, and
+ * allow for individual functions to be located without searching the
+ * module.
+ */
+
+public final class SMFunctions
+{
+  private final List<SMFunctionExtent> extents;
+  private final Map<Long, SMFunctionExtent> byId;
+  private final Map<String, Long> entryPoints;
+
+  private SMFunctions(
+    final List<SMFunctionExtent> inExtents,
+    final Map<Long, SMFunctionExtent> inById,
+    final Map<String, Long> inEntryPoints)
+  {
+    this.extents = Objects.requireNonNull(inExtents, "inExtents");
+    this.byId = Objects.requireNonNull(inById, "inById");
+    this.entryPoints = Objects.requireNonNull(inEntryPoints, "inEntryPoints");
+  }
+
+  /**
+   * Collect functions.
+   *
+   * @param module The parsed module
+   *
+   * @return A set of functions
+   */
+
+  public static SMFunctions of(
+    final SMModule module)
+  {
+    Objects.requireNonNull(module, "module");
+    return of(module.header(), module.instructions());
+  }
+
+  /**
+   * Collect functions.
+   *
+   * @param header       The parsed header
+   * @param instructions The instructions
+   *
+   * @return A set of functions
+   */
+
+  public static SMFunctions of(
+    final SMParsedHeader header,
+    final List<? extends SMParsedInstructionType> instructions)
+  {
+    Objects.requireNonNull(header, "header");
+    Objects.requireNonNull(instructions, "instructions");
+
+    return SMModuleAnalysis.builder()
+      .withFunctions()
+      .analyze(header, instructions)
+      .functions()
+      .orElseThrow();
+  }
+
+  /**
+   * @return The extents of the functions in the module, in declaration order
+   */
+
+  public List<SMFunctionExtent> extents()
+  {
+    return this.extents;
+  }
+
+  /**
+   * @return A mapping of entry point names to function ids
+   */
+
+  public Map<String, Long> entryPoints()
+  {
+    return this.entryPoints;
+  }
+
+  /**
+   * Find the extent of the given function.
+   *
+   * @param functionId The function ID
+   *
+   * @return The extent of the function, or {@code null} if no complete
+   * function has the given ID
+   */
+
+  public SMFunctionExtent extentOrNull(
+    final long functionId)
+  {
+    return this.byId.get(Long.valueOf(functionId));
+  }
+
+  /**
+   * An analyzer that collects functions.
+   */
+
+  static final class Analyzer implements SMAnalyzerType
+  {
+    private final SMStringPool strings;
+    private final ArrayList<SMFunctionExtent> extents;
+    private final HashMap<Long, SMFunctionExtent> byId;
+    private final LinkedHashMap<String, Long> entryPoints;
+    private long openId;
+    private long openOffset;
+    private boolean open;
+
+    Analyzer(
+      final SMStringPool inStrings)
+    {
+      this.strings = Objects.requireNonNull(inStrings, "strings");
+      this.extents = new ArrayList<>();
+      this.byId = new HashMap<>();
+      this.entryPoints = new LinkedHashMap<>();
+    }
+
+    @Override
+    public void analyze(
+      final SMInstruction definition,
+      final SMParsedInstructionType instruction)
+    {
+      switch (definition) {
+        case SM_OP_ENTRY_POINT: {
+          final var name = this.strings.intern(instruction, 2);
+          this.entryPoints.putIfAbsent(
+            name.text(),
+            Long.valueOf(instruction.operand(1)));
+          return;
+        }
+        case SM_OP_FUNCTION: {
+          this.open = true;
+          this.openId = instruction.operand(1);
+          this.openOffset = instruction.byteOffset();
+          return;
+        }
+        case SM_OP_FUNCTION_END: {
+          if (this.open) {
+            final var extent =
+              SMFunctionExtent.of(
+                this.openId,
+                this.openOffset,
+                instruction.byteOffset() + instruction.wordCount() * 4L
+              );
+            this.extents.add(extent);
+            this.byId.putIfAbsent(Long.valueOf(this.openId), extent);
+            this.open = false;
+          }
+          return;
+        }
+        default: {
+          return;
+        }
+      }
+    }
+
+    SMFunctions build()
+    {
+      return new SMFunctions(
+        List.copyOf(this.extents),
+        Map.copyOf(this.byId),
+        Collections.unmodifiableMap(new LinkedHashMap<>(this.entryPoints))
+      );
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.analysis;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A table of names indexed by ID. IDs below the ID bound declared in the
+ * module header are stored in a dense array. IDs outside of the declared
+ * bound, and all IDs in modules whose bound exceeds {@link #DENSE_LIMIT},
+ * are stored in a map.
+ */
+
+final class SMIdNameTable
+{
+  /**
+   * The largest ID bound for which a dense table will be allocated.
+   */
+
+  static final int DENSE_LIMIT = 1 << 20;
+
+  private final String[] dense;
+  private final HashMap<Long, String> sparse;
+
+  SMIdNameTable(
+    final long idBound)
+  {
+    if (idBound > 0L && idBound <= DENSE_LIMIT) {
+      this.dense = new String[(int) idBound];
+    } else {
+      this.dense = new String[0];
+    }
+    this.sparse = new HashMap<>();
+  }
+
+  void put(
+    final long id,
+    final String name)
+  {
+    if (id >= 0L && id < this.dense.length) {
+      this.dense[(int) id] = name;
+    } else {
+      this.sparse.put(Long.valueOf(id), name);
+    }
+  }
+
+  String get(
+    final long id)
+  {
+    if (id >= 0L && id < this.dense.length) {
+      return this.dense[(int) id];
+    }
+    if (this.sparse.isEmpty()) {
+      return null;
+    }
+    return this.sparse.get(Long.valueOf(id));
+  }
+
+  Map<Long, String> toMap()
+  {
+    final var result = new HashMap<>(this.sparse);
+    for (int index = 0; index < this.dense.length; ++index) {
+      final var name = this.dense[index];
+      if (name != null) {
+        result.put(Long.valueOf(index), name);
+      }
+    }
+    return Map.copyOf(result);
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.analysis;
+
+import com.io7m.jspearmint.api.SMInstruction;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A table of type-declaring instructions indexed by ID. Types are stored
+ * as instruction ordinals offset by one in a dense {@code short} array,
+ * with zero denoting the absence of a type. The widths of scalar numeric
+ * types are stored in a parallel {@code short} array, with zero denoting
+ * the absence of a width, and with the signedness of integer types held in
+ * a flag bit above the width. As with {@link SMIdNameTable}, IDs outside of
+ * the dense range are stored in maps.
+ */
+
+final class SMIdTypeTable
+{
+  private static final SMInstruction[] INSTRUCTIONS =
+    SMInstruction.values();
+
+  private static final int WIDTH_MASK = 0x3fff;
+  private static final int SIGNED = 0x4000;
+
+  private final short[] dense;
+  private final short[] denseWidths;
+  private final HashMap<Long, SMInstruction> sparse;
+  private final HashMap<Long, Integer> sparseWidths;
+
+  SMIdTypeTable(
+    final long idBound)
+  {
+    if (idBound > 0L && idBound <= SMIdNameTable.DENSE_LIMIT) {
+      this.dense = new short[(int) idBound];
+    } else {
+      this.dense = new short[0];
+    }
+    this.denseWidths = new short[this.dense.length];
+    this.sparse = new HashMap<>();
+    this.sparseWidths = new HashMap<>();
+  }
+
+  void put(
+    final long id,
+    final SMInstruction type)
+  {
+    if (id >= 0L && id < this.dense.length) {
+      this.dense[(int) id] = (short) (type.ordinal() + 1);
+    } else {
+      this.sparse.put(Long.valueOf(id), type);
+    }
+  }
+
+  /**
+   * Record the width and signedness of a scalar numeric type. Widths too
+   * large to be represented are saturated; no valid type is that wide.
+   */
+
+  void putScalar(
+    final long id,
+    final long width,
+    final boolean signed)
+  {
+    final var code =
+      (int) Math.min(Math.max(width, 0L), WIDTH_MASK) | (signed ? SIGNED : 0);
+
+    if (id >= 0L && id < this.denseWidths.length) {
+      this.denseWidths[(int) id] = (short) code;
+    } else {
+      this.sparseWidths.put(Long.valueOf(id), Integer.valueOf(code));
+    }
+  }
+
+  private int scalar(
+    final long id)
+  {
+    if (id >= 0L && id < this.denseWidths.length) {
+      return this.denseWidths[(int) id];
+    }
+    if (this.sparseWidths.isEmpty()) {
+      return 0;
+    }
+    final var code = this.sparseWidths.get(Long.valueOf(id));
+    return code == null ? 0 : code.intValue();
+  }
+
+  int width(
+    final long id)
+  {
+    return this.scalar(id) & WIDTH_MASK;
+  }
+
+  boolean signed(
+    final long id)
+  {
+    return (this.scalar(id) & SIGNED) != 0;
+  }
+
+  SMInstruction get(
+    final long id)
+  {
+    if (id >= 0L && id < this.dense.length) {
+      final var code = this.dense[(int) id];
+      if (code == 0) {
+        return null;
+      }
+      return INSTRUCTIONS[code - 1];
+    }
+    if (this.sparse.isEmpty()) {
+      return null;
+    }
+    return this.sparse.get(Long.valueOf(id));
+  }
+
+  Map<Long, SMInstruction> toMap()
+  {
+    final var result = new HashMap<>(this.sparse);
+    for (int index = 0; index < this.dense.length; ++index) {
+      final var code = this.dense[index];
+      if (code != 0) {
+        result.put(Long.valueOf(index), INSTRUCTIONS[code - 1]);
+      }
+    }
+    return Map.copyOf(result);
+  }
+}
@@ -16,9 +16,10 @@
 
 package com.io7m.jspearmint.analysis;
 
-import com.io7m.jspearmint.api.SMInstructions;
+import com.io7m.jspearmint.api.SMInstruction;
+import com.io7m.jspearmint.parser.api.SMModule;
 import com.io7m.jspearmint.parser.api.SMParsedHeader;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,14 +38,30 @@ public final class SMIdentifiers
     LoggerFactory.getLogger(SMIdentifiers.class);
 
   private final Map<String, Long> nameToId;
-  private final Map<Long, String> idToName;
+  private final SMIdNameTable names;
+  private Map<Long, String> idToName;
 
   private SMIdentifiers(
     final Map<String, Long> inNameToId,
-    final Map<Long, String> inIdToName)
+    final SMIdNameTable inNames)
   {
     this.nameToId = Objects.requireNonNull(inNameToId, "inNameToId");
-    this.idToName = Objects.requireNonNull(inIdToName, "inIdToName");
+    this.names = Objects.requireNonNull(inNames, "inNames");
+  }
+
+  /**
+   * Collect identifiers.
+   *
+   * @param module The parsed module
+   *
+   * @return A set of identifiers
+   */
+
+  public static SMIdentifiers of(
+    final SMModule module)
+  {
+    Objects.requireNonNull(module, "module");
+    return of(module.header(), module.instructions());
   }
 
   /**
@@ -58,50 +75,16 @@ public final class SMIdentifiers
 
   public static SMIdentifiers of(
     final SMParsedHeader header,
-    final List<SMParsedInstruction> instructions)
+    final List<? extends SMParsedInstructionType> instructions)
   {
     Objects.requireNonNull(header, "header");
     Objects.requireNonNull(instructions, "instructions");
 
-    final var nameToId =
-      new HashMap<String, Long>(instructions.size());
-    final var idToName =
-      new HashMap<Long, String>(instructions.size());
-
-    for (final var instruction : instructions) {
-      final var definitionOpt = SMInstructions.byOpCode(instruction.opCode());
-      if (definitionOpt.isEmpty()) {
-        continue;
-      }
-      final var definition = definitionOpt.get();
-      switch (definition) {
-        case SM_OP_NAME: {
-          final var id = instruction.operands().get(0);
-          var name = SMStrings.consumeUTF8String(instruction.operands(), 1);
-          if (name.text().isEmpty()) {
-            name = name.withText("_");
-          }
-
-          if (nameToId.containsKey(name.text())) {
-            throw new IllegalArgumentException(
-              String.format("Name redefinition: %s", name.text())
-            );
-          }
-
-          nameToId.put(name.text(), id);
-          idToName.put(id, name.text());
-          break;
-        }
-        default: {
-
-        }
-      }
-    }
-
-    return new SMIdentifiers(
-      Map.copyOf(nameToId),
-      Map.copyOf(idToName)
-    );
+    return SMModuleAnalysis.builder()
+      .withIdentifiers()
+      .analyze(header, instructions)
+      .identifiers()
+      .orElseThrow();
   }
 
   /**
@@ -119,7 +102,79 @@ public final class SMIdentifiers
 
   public Map<Long, String> idToName()
   {
-    return this.idToName;
+    var result = this.idToName;
+    if (result == null) {
+      result = this.names.toMap();
+      this.idToName = result;
+    }
+    return result;
   }
 
+  /**
+   * Find the name of the given ID.
+   *
+   * @param id The ID
+   *
+   * @return The name of the ID, or {@code null} if the ID has no name
+   */
+
+  public String nameOrNull(
+    final long id)
+  {
+    return this.names.get(id);
+  }
+
+  /**
+   * An analyzer that collects identifiers.
+   */
+
+  static final class Analyzer implements SMAnalyzerType
+  {
+    private final HashMap<String, Long> nameToId;
+    private final SMStringPool strings;
+    private SMIdNameTable names;
+
+    Analyzer(
+      final SMStringPool inStrings)
+    {
+      this.strings = Objects.requireNonNull(inStrings, "strings");
+      this.nameToId = new HashMap<>();
+      this.names = new SMIdNameTable(0L);
+    }
+
+    @Override
+    public void begin(
+      final SMParsedHeader header)
+    {
+      this.names = new SMIdNameTable(header.idBound());
+    }
+
+    @Override
+    public void analyze(
+      final SMInstruction definition,
+      final SMParsedInstructionType instruction)
+    {
+      if (definition == SMInstruction.SM_OP_NAME) {
+        final var id = instruction.operand(0);
+        var name = this.strings.intern(instruction, 1);
+        if (name.text().isEmpty()) {
+          name = name.withText("_");
+        }
+
+        if (this.nameToId.containsKey(name.text())) {
+          throw new IllegalArgumentException(
+            String.format("Name redefinition: %s", name.text())
+          );
+        }
+
+        this.nameToId.put(name.text(), Long.valueOf(id));
+        this.names.put(id, name.text());
+      }
+    }
+
+    SMIdentifiers build()
+    {
+      return new SMIdentifiers(Map.copyOf(this.nameToId), this.names);
+    }
+  }
 }
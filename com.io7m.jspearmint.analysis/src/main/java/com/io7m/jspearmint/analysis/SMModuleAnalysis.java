@@ -0,0 +1,675 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.analysis;
+
+import com.io7m.jspearmint.api.SMInstruction;
+import com.io7m.jspearmint.api.SMInstructions;
+import com.io7m.jspearmint.parser.api.SMInstructionWindow;
+import com.io7m.jspearmint.parser.api.SMModule;
+import com.io7m.jspearmint.parser.api.SMParseException;
+import com.io7m.jspearmint.parser.api.SMParsedHeader;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
+import com.io7m.jspearmint.parser.api.SMParserType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The results of a set of analyses performed together over a module. Each
+ * instruction in the module is visited exactly once, its opcode is resolved
+ * exactly once, and the resolved instruction is passed to every registered
+ * analyzer in registration order.
+ */
+
+public final class SMModuleAnalysis
+{
+  private final SMParsedHeader header;
+  private final Optional<SMIdentifiers> identifiers;
+  private final Optional<SMTypes> types;
+  private final Optional<SMFriendlyNames> friendlyNames;
+  private final Optional<SMFunctions> functions;
+  private final SMStringPool strings;
+  private final long instructionCount;
+  private final long unrecognizedInstructionCount;
+
+  private SMModuleAnalysis(
+    final SMParsedHeader inHeader,
+    final Optional<SMIdentifiers> inIdentifiers,
+    final Optional<SMTypes> inTypes,
+    final Optional<SMFriendlyNames> inFriendlyNames,
+    final Optional<SMFunctions> inFunctions,
+    final SMStringPool inStrings,
+    final long inInstructionCount,
+    final long inUnrecognizedInstructionCount)
+  {
+    this.header =
+      Objects.requireNonNull(inHeader, "header");
+    this.identifiers =
+      Objects.requireNonNull(inIdentifiers, "identifiers");
+    this.types =
+      Objects.requireNonNull(inTypes, "types");
+    this.friendlyNames =
+      Objects.requireNonNull(inFriendlyNames, "friendlyNames");
+    this.functions =
+      Objects.requireNonNull(inFunctions, "functions");
+    this.strings =
+      Objects.requireNonNull(inStrings, "strings");
+    this.instructionCount =
+      inInstructionCount;
+    this.unrecognizedInstructionCount =
+      inUnrecognizedInstructionCount;
+  }
+
+  /**
+   * @return A new analysis builder
+   */
+
+  public static Builder builder()
+  {
+    return new Builder();
+  }
+
+  /**
+   * @return The header of the analyzed module
+   */
+
+  public SMParsedHeader header()
+  {
+    return this.header;
+  }
+
+  /**
+   * @return The pool of strings decoded during analysis
+   */
+
+  public SMStringPool strings()
+  {
+    return this.strings;
+  }
+
+  /**
+   * @return The number of instructions analyzed
+   */
+
+  public long instructionCount()
+  {
+    return this.instructionCount;
+  }
+
+  /**
+   * @return The number of analyzed instructions with unrecognized opcodes
+   */
+
+  public long unrecognizedInstructionCount()
+  {
+    return this.unrecognizedInstructionCount;
+  }
+
+  /**
+   * @return The identifiers, if identifier analysis was requested
+   */
+
+  public Optional<SMIdentifiers> identifiers()
+  {
+    return this.identifiers;
+  }
+
+  /**
+   * @return The types, if type analysis was requested
+   */
+
+  public Optional<SMTypes> types()
+  {
+    return this.types;
+  }
+
+  /**
+   * @return The friendly names, if friendly name analysis was requested
+   */
+
+  public Optional<SMFriendlyNames> friendlyNames()
+  {
+    return this.friendlyNames;
+  }
+
+  /**
+   * @return The functions, if function analysis was requested
+   */
+
+  public Optional<SMFunctions> functions()
+  {
+    return this.functions;
+  }
+
+  /**
+   * @return A mapping of ids to names (empty if identifier analysis was not
+   * requested)
+   */
+
+  public Map<Long, String> idToName()
+  {
+    return this.identifiers.map(SMIdentifiers::idToName).orElse(Map.of());
+  }
+
+  /**
+   * @return A mapping of ids to types (empty if type analysis was not
+   * requested)
+   */
+
+  public Map<Long, SMInstruction> idToType()
+  {
+    return this.types.map(SMTypes::idToType).orElse(Map.of());
+  }
+
+  /**
+   * Find the name of the given ID.
+   *
+   * @param id The ID
+   *
+   * @return The name of the ID, or {@code null} if the ID has no name or
+   * identifier analysis was not requested
+   */
+
+  public String nameOrNull(
+    final long id)
+  {
+    final var values = this.identifiers.orElse(null);
+    if (values == null) {
+      return null;
+    }
+    return values.nameOrNull(id);
+  }
+
+  /**
+   * Find the friendly name of the given ID.
+   *
+   * @param id The ID
+   *
+   * @return The friendly name of the ID, or {@code null} if the ID has no
+   * friendly name or friendly name analysis was not requested
+   */
+
+  public String friendlyNameOrNull(
+    final long id)
+  {
+    final var values = this.friendlyNames.orElse(null);
+    if (values == null) {
+      return null;
+    }
+    return values.nameOrNull(id);
+  }
+
+  /**
+   * Find the type declared by the given ID.
+   *
+   * @param id The ID
+   *
+   * @return The instruction that declared the type, or {@code null} if the
+   * ID does not name a type or type analysis was not requested
+   */
+
+  public SMInstruction typeOrNull(
+    final long id)
+  {
+    final var values = this.types.orElse(null);
+    if (values == null) {
+      return null;
+    }
+    return values.typeOrNull(id);
+  }
+
+  /**
+   * Find the width of the scalar numeric type declared by the given ID.
+   *
+   * @param id The ID
+   *
+   * @return The width in bits of the integer or floating point type declared
+   * by the given ID, or {@code 0} if the ID does not name such a type or if
+   * type analysis was not requested
+   */
+
+  public int scalarWidth(
+    final long id)
+  {
+    final var values = this.types.orElse(null);
+    if (values == null) {
+      return 0;
+    }
+    return values.scalarWidth(id);
+  }
+
+  /**
+   * Determine whether the given ID names a signed integer type.
+   *
+   * @param id The ID
+   *
+   * @return {@code true} if the ID names a signed integer type, or
+   * {@code false} if it does not or if type analysis was not requested
+   */
+
+  public boolean scalarSigned(
+    final long id)
+  {
+    final var values = this.types.orElse(null);
+    if (values == null) {
+      return false;
+    }
+    return values.scalarSigned(id);
+  }
+
+  /**
+   * A builder for module analyses.
+   */
+
+  public static final class Builder
+  {
+    private final List<SMAnalyzerType> analyzers;
+    private SMStringPool strings;
+    private boolean wantIdentifiers;
+    private boolean wantTypes;
+    private boolean wantFriendlyNames;
+    private boolean wantFunctions;
+
+    private Builder()
+    {
+      this.analyzers = new ArrayList<>();
+    }
+
+    /**
+     * Request identifier analysis.
+     *
+     * @return this
+     */
+
+    public Builder withIdentifiers()
+    {
+      this.wantIdentifiers = true;
+      return this;
+    }
+
+    /**
+     * Request type analysis.
+     *
+     * @return this
+     */
+
+    public Builder withTypes()
+    {
+      this.wantTypes = true;
+      return this;
+    }
+
+    /**
+     * Request friendly name analysis.
+     *
+     * @return this
+     *
+     * @see SMFriendlyNames
+     */
+
+    public Builder withFriendlyNames()
+    {
+      this.wantFriendlyNames = true;
+      return this;
+    }
+
+    /**
+     * Request function analysis.
+     *
+     * @return this
+     *
+     * @see SMFunctions
+     */
+
+    public Builder withFunctions()
+    {
+      this.wantFunctions = true;
+      return this;
+    }
+
+    /**
+     * Set the pool into which strings decoded during analysis are interned.
+     * If no pool is specified, each analysis uses a new pool.
+     *
+     * @param pool The string pool
+     *
+     * @return this
+     */
+
+    public Builder withStringPool(
+      final SMStringPool pool)
+    {
+      this.strings = Objects.requireNonNull(pool, "pool");
+      return this;
+    }
+
+    /**
+     * Register an additional analyzer. The analyzer is driven in the same
+     * traversal as the built-in analyses.
+     *
+     * @param analyzer The analyzer
+     *
+     * @return this
+     */
+
+    public Builder withAnalyzer(
+      final SMAnalyzerType analyzer)
+    {
+      this.analyzers.add(Objects.requireNonNull(analyzer, "analyzer"));
+      return this;
+    }
+
+    /**
+     * Analyze a module.
+     *
+     * @param module The module
+     *
+     * @return The analysis results
+     */
+
+    public SMModuleAnalysis analyze(
+      final SMModule module)
+    {
+      Objects.requireNonNull(module, "module");
+      return this.analyze(module.header(), module.instructions());
+    }
+
+    /**
+     * Analyze a list of instructions.
+     *
+     * @param header       The module header
+     * @param instructions The instructions
+     *
+     * @return The analysis results
+     */
+
+    public SMModuleAnalysis analyze(
+      final SMParsedHeader header,
+      final List<? extends SMParsedInstructionType> instructions)
+    {
+      Objects.requireNonNull(header, "header");
+      Objects.requireNonNull(instructions, "instructions");
+
+      final var pass = this.begin(header);
+      for (final var instruction : instructions) {
+        pass.analyze(instruction);
+      }
+      return pass.finish();
+    }
+
+    /**
+     * Analyze a module as it is parsed. The instructions are not retained;
+     * analyzers are passed a view of each instruction that is only valid
+     * for the duration of the call to
+     * {@link SMAnalyzerType#analyze(SMInstruction, SMParsedInstructionType)}.
+     *
+     * @param parser The parser
+     *
+     * @return The analysis results
+     *
+     * @throws SMParseException On parse errors
+     */
+
+    public SMModuleAnalysis analyze(
+      final SMParserType parser)
+      throws SMParseException
+    {
+      Objects.requireNonNull(parser, "parser");
+
+      final var pass = this.begin(parser.header());
+      final var window = new SMInstructionWindow();
+      parser.visitAllInstructions((opCode, wordCount, offset, words, start) -> {
+        pass.analyze(window.set(opCode, wordCount, offset, words, start));
+      });
+      return pass.finish();
+    }
+
+    private Pass begin(
+      final SMParsedHeader header)
+    {
+      final var all = new ArrayList<SMAnalyzerType>(this.analyzers.size() + 4);
+      final var pool =
+        this.strings != null ? this.strings : SMStringPool.create();
+
+      SMIdentifiers.Analyzer identifierAnalyzer = null;
+      if (this.wantIdentifiers) {
+        identifierAnalyzer = new SMIdentifiers.Analyzer(pool);
+        all.add(identifierAnalyzer);
+      }
+
+      /*
+       * Friendly names for constants depend on the widths of their types,
+       * and so type analysis is always performed for friendly names, even
+       * if the types themselves were not requested.
+       */
+
+      SMTypes.Analyzer typeAnalyzer = null;
+      if (this.wantTypes || this.wantFriendlyNames) {
+        typeAnalyzer = new SMTypes.Analyzer();
+        all.add(typeAnalyzer);
+      }
+
+      SMFriendlyNames.Analyzer friendlyAnalyzer = null;
+      if (this.wantFriendlyNames) {
+        friendlyAnalyzer = new SMFriendlyNames.Analyzer(pool, typeAnalyzer);
+        all.add(friendlyAnalyzer);
+      }
+
+      SMFunctions.Analyzer functionAnalyzer = null;
+      if (this.wantFunctions) {
+        functionAnalyzer = new SMFunctions.Analyzer(pool);
+        all.add(functionAnalyzer);
+      }
+
+      all.addAll(this.analyzers);
+
+      final var pass =
+        new Pass(
+          header,
+          pool,
+          identifierAnalyzer,
+          this.wantTypes ? typeAnalyzer : null,
+          friendlyAnalyzer,
+          functionAnalyzer,
+          all.toArray(new SMAnalyzerType[0])
+        );
+
+      for (final var analyzer : pass.analyzerArray) {
+        analyzer.begin(header);
+      }
+      pass.beginEvents();
+      return pass;
+    }
+  }
+
+  /**
+   * The state of a single traversal over a module.
+   */
+
+  private static final class Pass
+  {
+    /**
+     * The analyzers are timed on one in every {@code SAMPLE_INTERVAL}
+     * instructions when the per-analyzer event is enabled.
+     */
+
+    private static final int SAMPLE_INTERVAL = 64;
+
+    private final SMParsedHeader header;
+    private final SMStringPool pool;
+    private final SMIdentifiers.Analyzer identifierAnalyzer;
+    private final SMTypes.Analyzer typeAnalyzer;
+    private final SMFriendlyNames.Analyzer friendlyAnalyzer;
+    private final SMFunctions.Analyzer functionAnalyzer;
+    private final SMAnalyzerType[] analyzerArray;
+    private final SMAnalysisEvent event;
+    private SMAnalyzerEvent[] analyzerEvents;
+    private long[] analyzerTimes;
+    private long instructions;
+    private long unrecognized;
+    private long sampled;
+    private int untilSample;
+
+    Pass(
+      final SMParsedHeader inHeader,
+      final SMStringPool inPool,
+      final SMIdentifiers.Analyzer inIdentifierAnalyzer,
+      final SMTypes.Analyzer inTypeAnalyzer,
+      final SMFriendlyNames.Analyzer inFriendlyAnalyzer,
+      final SMFunctions.Analyzer inFunctionAnalyzer,
+      final SMAnalyzerType[] inAnalyzerArray)
+    {
+      this.header = inHeader;
+      this.pool = inPool;
+      this.identifierAnalyzer = inIdentifierAnalyzer;
+      this.typeAnalyzer = inTypeAnalyzer;
+      this.friendlyAnalyzer = inFriendlyAnalyzer;
+      this.functionAnalyzer = inFunctionAnalyzer;
+      this.analyzerArray = inAnalyzerArray;
+      this.event = new SMAnalysisEvent();
+    }
+
+    /**
+     * Start the JFR events for the pass. The time spent in each analyzer
+     * is only sampled if the per-analyzer event is enabled.
+     */
+
+    void beginEvents()
+    {
+      final var probe = new SMAnalyzerEvent();
+      if (probe.isEnabled()) {
+        final var count = this.analyzerArray.length;
+        this.analyzerTimes = new long[count];
+        this.analyzerEvents = new SMAnalyzerEvent[count];
+        for (var index = 0; index < count; ++index) {
+          this.analyzerEvents[index] = new SMAnalyzerEvent();
+          this.analyzerEvents[index].begin();
+        }
+      }
+      this.event.begin();
+    }
+
+    void analyze(
+      final SMParsedInstructionType instruction)
+    {
+      this.instructions += 1L;
+
+      final var definition =
+        SMInstructions.byOpCodeOrNull(instruction.opCode());
+      if (definition == null) {
+        this.unrecognized += 1L;
+        return;
+      }
+
+      if (this.analyzerTimes != null) {
+        this.analyzeSampled(definition, instruction);
+        return;
+      }
+
+      for (final var analyzer : this.analyzerArray) {
+        analyzer.analyze(definition, instruction);
+      }
+    }
+
+    private void analyzeSampled(
+      final SMInstruction definition,
+      final SMParsedInstructionType instruction)
+    {
+      this.untilSample -= 1;
+      if (this.untilSample > 0) {
+        for (final var analyzer : this.analyzerArray) {
+          analyzer.analyze(definition, instruction);
+        }
+        return;
+      }
+
+      this.untilSample = SAMPLE_INTERVAL;
+      this.sampled += 1L;
+      for (var index = 0; index < this.analyzerArray.length; ++index) {
+        final var timeThen = System.nanoTime();
+        this.analyzerArray[index].analyze(definition, instruction);
+        this.analyzerTimes[index] += System.nanoTime() - timeThen;
+      }
+    }
+
+    private void commitEvents()
+    {
+      this.event.end();
+      if (this.event.shouldCommit()) {
+        final var names = new StringBuilder(64);
+        for (final var analyzer : this.analyzerArray) {
+          if (!names.isEmpty()) {
+            names.append(',');
+          }
+          names.append(analyzer.getClass().getName());
+        }
+        this.event.commitWith(names.toString(), this.instructions);
+      }
+
+      if (this.analyzerEvents != null) {
+        for (var index = 0; index < this.analyzerEvents.length; ++index) {
+          final var analyzerEvent = this.analyzerEvents[index];
+          analyzerEvent.end();
+          if (analyzerEvent.shouldCommit()) {
+            analyzerEvent.commitWith(
+              this.analyzerArray[index].getClass().getName(),
+              this.estimatedTime(index)
+            );
+          }
+        }
+      }
+    }
+
+    /**
+     * Scale the sampled time of the given analyzer to all of the recognized
+     * instructions of the pass.
+     */
+
+    private long estimatedTime(
+      final int index)
+    {
+      if (this.sampled == 0L) {
+        return 0L;
+      }
+      final var recognized = this.instructions - this.unrecognized;
+      return (long) ((double) this.analyzerTimes[index]
+        * ((double) recognized / (double) this.sampled));
+    }
+
+    SMModuleAnalysis finish()
+    {
+      this.commitEvents();
+      return new SMModuleAnalysis(
+        this.header,
+        Optional.ofNullable(this.identifierAnalyzer)
+          .map(SMIdentifiers.Analyzer::build),
+        Optional.ofNullable(this.typeAnalyzer)
+          .map(SMTypes.Analyzer::build),
+        Optional.ofNullable(this.friendlyAnalyzer)
+          .map(SMFriendlyNames.Analyzer::build),
+        Optional.ofNullable(this.functionAnalyzer)
+          .map(SMFunctions.Analyzer::build),
+        this.pool,
+        this.instructions,
+        this.unrecognized
+      );
+    }
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.analysis;
+
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
+
+import java.util.Objects;
+
+/**
+ * A pool of decoded strings. Strings are hashed and compared directly
+ * against the operand words of instructions, so looking up a string that
+ * has already been decoded performs no allocation. Pools are typically
+ * scoped to a single module.
+ *
+ * <p>Pools are not thread-safe.</p>
+ */
+
+public final class SMStringPool
+{
+  private static final int INITIAL_CAPACITY = 256;
+
+  private Entry[] entries;
+  private int size;
+
+  private SMStringPool()
+  {
+    this.entries = new Entry[INITIAL_CAPACITY];
+  }
+
+  /**
+   * @return A new, empty pool
+   */
+
+  public static SMStringPool create()
+  {
+    return new SMStringPool();
+  }
+
+  /**
+   * @return The number of distinct strings in the pool
+   */
+
+  public int size()
+  {
+    return this.size;
+  }
+
+  /**
+   * Consume a UTF-8 string from the operands of the given instruction,
+   * returning a previously decoded string if one exists with the same
+   * bytes.
+   *
+   * @param instruction The instruction
+   * @param index       The index of the first operand of the string
+   *
+   * @return A string
+   *
+   * @see SMStrings#consumeUTF8String(SMParsedInstructionType, int)
+   */
+
+  public SMString intern(
+    final SMParsedInstructionType instruction,
+    final int index)
+  {
+    final var length = SMStrings.byteLength(instruction, index);
+
+    int hash = length;
+    for (int offset = 0; offset < length; ++offset) {
+      hash = 31 * hash + SMStrings.byteAt(instruction, index, offset);
+    }
+    hash ^= hash >>> 16;
+
+    final var mask = this.entries.length - 1;
+    for (var entry = this.entries[hash & mask]; entry != null; entry = entry.next) {
+      if (entry.hash == hash && entry.matches(instruction, index, length)) {
+        return entry.value;
+      }
+    }
+
+    final var bytes = new byte[length];
+    for (int offset = 0; offset < length; ++offset) {
+      bytes[offset] = (byte) SMStrings.byteAt(instruction, index, offset);
+    }
+
+    final var value =
+      SMString.builder()
+        .setUsedWords(SMStrings.usedWords(length))
+        .setText(SMStrings.decode(instruction, index, length))
+        .build();
+
+    this.insert(new Entry(hash, bytes, value));
+    return value;
+  }
+
+  private void insert(
+    final Entry newEntry)
+  {
+    if (this.size >= (this.entries.length >>> 1) + (this.entries.length >>> 2)) {
+      final var old = this.entries;
+      this.entries = new Entry[old.length << 1];
+      for (final var bucket : old) {
+        var entry = bucket;
+        while (entry != null) {
+          final var next = entry.next;
+          this.link(entry);
+          entry = next;
+        }
+      }
+    }
+    this.link(newEntry);
+    ++this.size;
+  }
+
+  private void link(
+    final Entry entry)
+  {
+    final var slot = entry.hash & (this.entries.length - 1);
+    entry.next = this.entries[slot];
+    this.entries[slot] = entry;
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[SMStringPool %s]",
+      Integer.valueOf(this.size)
+    );
+  }
+
+  private static final class Entry
+  {
+    private final int hash;
+    private final byte[] bytes;
+    private final SMString value;
+    private Entry next;
+
+    Entry(
+      final int inHash,
+      final byte[] inBytes,
+      final SMString inValue)
+    {
+      this.hash = inHash;
+      this.bytes = Objects.requireNonNull(inBytes, "bytes");
+      this.value = Objects.requireNonNull(inValue, "value");
+    }
+
+    boolean matches(
+      final SMParsedInstructionType instruction,
+      final int index,
+      final int length)
+    {
+      if (this.bytes.length != length) {
+        return false;
+      }
+      for (int offset = 0; offset < length; ++offset) {
+        if ((this.bytes[offset] & 0xff) != SMStrings.byteAt(instruction, index, offset)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.analysis;
+
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
+
+import java.util.Objects;
+
+/**
+ * A lazy view of a UTF-8 string held in the operands of an instruction.
+ * Strings consisting entirely of ASCII characters are read directly from
+ * the operand words and are never decoded; other strings are decoded on
+ * first access. The view reads from the instruction it was created from
+ * and is therefore only valid for as long as that instruction's operands
+ * are.
+ *
+ * <p>The content of the view is the same as the text returned by
+ * {@link SMStrings#decodeUTF8(SMParsedInstructionType, int)}, and its hash
+ * code is the hash code of that text.</p>
+ */
+
+public final class SMStringView implements CharSequence
+{
+  private final SMParsedInstructionType instruction;
+  private final int index;
+  private final int usedWords;
+  private final int start;
+  private final int end;
+  private final boolean ascii;
+  private String decoded;
+  private int hash;
+
+  SMStringView(
+    final SMParsedInstructionType inInstruction,
+    final int inIndex,
+    final int length)
+  {
+    this.instruction =
+      Objects.requireNonNull(inInstruction, "instruction");
+    this.index = inIndex;
+    this.usedWords = SMStrings.usedWords(length);
+    this.start = SMStrings.trimStart(inInstruction, inIndex, length);
+    this.end = SMStrings.trimEnd(inInstruction, inIndex, this.start, length);
+
+    boolean isAscii = true;
+    for (int offset = this.start; offset < this.end; ++offset) {
+      if (SMStrings.byteAt(inInstruction, inIndex, offset) >= 0x80) {
+        isAscii = false;
+        break;
+      }
+    }
+    this.ascii = isAscii;
+  }
+
+  /**
+   * @return The number of words consumed for the string
+   */
+
+  public int usedWords()
+  {
+    return this.usedWords;
+  }
+
+  private String decoded()
+  {
+    var result = this.decoded;
+    if (result == null) {
+      result = SMStrings.decodeUTF8(this.instruction, this.index);
+      this.decoded = result;
+    }
+    return result;
+  }
+
+  @Override
+  public int length()
+  {
+    if (this.ascii) {
+      return this.end - this.start;
+    }
+    return this.decoded().length();
+  }
+
+  @Override
+  public char charAt(
+    final int charIndex)
+  {
+    if (this.ascii) {
+      Objects.checkIndex(charIndex, this.end - this.start);
+      return (char) SMStrings.byteAt(
+        this.instruction, this.index, this.start + charIndex);
+    }
+    return this.decoded().charAt(charIndex);
+  }
+
+  @Override
+  public CharSequence subSequence(
+    final int startIndex,
+    final int endIndex)
+  {
+    return this.toString().substring(startIndex, endIndex);
+  }
+
+  /**
+   * Determine if the view has the same content as the given sequence.
+   *
+   * @param other The sequence
+   *
+   * @return {@code true} if the content is equal
+   */
+
+  public boolean contentEquals(
+    final CharSequence other)
+  {
+    Objects.requireNonNull(other, "other");
+
+    final var length = this.length();
+    if (length != other.length()) {
+      return false;
+    }
+    for (int charIndex = 0; charIndex < length; ++charIndex) {
+      if (this.charAt(charIndex) != other.charAt(charIndex)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean equals(
+    final Object other)
+  {
+    if (this == other) {
+      return true;
+    }
+    if (other == null || !Objects.equals(this.getClass(), other.getClass())) {
+      return false;
+    }
+    final var view = (SMStringView) other;
+    return this.hashCode() == view.hashCode() && this.contentEquals(view);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    var result = this.hash;
+    if (result == 0) {
+      final var length = this.length();
+      for (int charIndex = 0; charIndex < length; ++charIndex) {
+        result = 31 * result + this.charAt(charIndex);
+      }
+      this.hash = result;
+    }
+    return result;
+  }
+
+  @Override
+  public String toString()
+  {
+    return this.decoded();
+  }
+}
@@ -16,17 +16,23 @@
 
 package com.io7m.jspearmint.analysis;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+import com.io7m.jspearmint.parser.api.SMParsedInstruction;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
+
 import java.util.List;
 import java.util.Objects;
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * Functions over strings.
+ *
+ * <p>SPIR-V literal strings are stored as UTF-8 bytes packed little-endian
+ * into operand words, terminated by a NUL byte. The functions here scan the
+ * operand words in place, and decode directly from them. The decoded text
+ * has leading and trailing characters less than or equal to {@code U+0020}
+ * removed, in the manner of {@link String#trim()}.</p>
  */
 
 public final class SMStrings
@@ -51,51 +57,205 @@ public final class SMStrings
   {
     Objects.requireNonNull(operands, "operands");
 
-    final var buffer =
-      ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
-    final var words =
-      operands.subList(index, operands.size());
-
-    try (var outputStream = new ByteArrayOutputStream(words.size() * 4)) {
-      int wordsUsed = 1;
-      for (final var word : words) {
-        buffer.putInt(0, word.intValue());
-        final byte byte0 = buffer.get(0);
-        if ((int) byte0 == 0) {
-          break;
-        }
-        outputStream.write(byte0);
-        final byte byte1 = buffer.get(1);
-        if ((int) byte1 == 0) {
-          break;
-        }
-        outputStream.write(byte1);
-        final byte byte2 = buffer.get(2);
-        if ((int) byte2 == 0) {
-          break;
-        }
-        outputStream.write(byte2);
-        final byte byte3 = buffer.get(3);
-        if ((int) byte3 == 0) {
-          break;
-        }
-        outputStream.write(byte3);
-        ++wordsUsed;
+    final var size = operands.size();
+    Objects.checkFromToIndex(index, size, size);
+
+    final var words = new int[size];
+    for (int wordIndex = index; wordIndex < size; ++wordIndex) {
+      words[wordIndex] = operands.get(wordIndex).intValue();
+    }
+    return consumeUTF8String(
+      SMParsedInstruction.ofOperandWords(0L, 0L, size + 1L, words),
+      index
+    );
+  }
+
+  /**
+   * Consume a UTF-8 string from the operands of the given instruction.
+   *
+   * @param instruction The instruction
+   * @param index       The index of the first operand of the string
+   *
+   * @return A string
+   */
+
+  public static SMString consumeUTF8String(
+    final SMParsedInstructionType instruction,
+    final int index)
+  {
+    final var length = byteLength(instruction, index);
+    return SMString.builder()
+      .setUsedWords(usedWords(length))
+      .setText(decode(instruction, index, length))
+      .build();
+  }
+
+  /**
+   * Decode the text of a UTF-8 string from the operands of the given
+   * instruction.
+   *
+   * @param instruction The instruction
+   * @param index       The index of the first operand of the string
+   *
+   * @return The string text
+   */
+
+  public static String decodeUTF8(
+    final SMParsedInstructionType instruction,
+    final int index)
+  {
+    return decode(instruction, index, byteLength(instruction, index));
+  }
+
+  /**
+   * Determine the number of operand words occupied by a UTF-8 string,
+   * without decoding it.
+   *
+   * @param instruction The instruction
+   * @param index       The index of the first operand of the string
+   *
+   * @return The number of words consumed by the string
+   */
+
+  public static int usedWordsUTF8(
+    final SMParsedInstructionType instruction,
+    final int index)
+  {
+    return usedWords(byteLength(instruction, index));
+  }
+
+  /**
+   * Obtain a lazy view of a UTF-8 string in the operands of the given
+   * instruction. The view reads directly from the instruction and so is
+   * only valid for as long as the instruction's operands are.
+   *
+   * @param instruction The instruction
+   * @param index       The index of the first operand of the string
+   *
+   * @return A view of the string
+   */
+
+  public static SMStringView viewUTF8String(
+    final SMParsedInstructionType instruction,
+    final int index)
+  {
+    return new SMStringView(instruction, index, byteLength(instruction, index));
+  }
+
+  /**
+   * Determine the number of bytes in the string starting at the given
+   * operand, excluding the terminating NUL.
+   */
+
+  static int byteLength(
+    final SMParsedInstructionType instruction,
+    final int index)
+  {
+    Objects.requireNonNull(instruction, "instruction");
+
+    final var size = instruction.operandCount();
+    Objects.checkFromToIndex(index, size, size);
+
+    int length = 0;
+    for (int wordIndex = index; wordIndex < size; ++wordIndex) {
+      final var word = (int) instruction.operand(wordIndex);
+      if ((word & 0xff) == 0) {
+        return length;
+      }
+      if ((word & 0xff00) == 0) {
+        return length + 1;
+      }
+      if ((word & 0xff0000) == 0) {
+        return length + 2;
       }
-      return SMString.builder()
-        .setUsedWords(wordsUsed)
-        .setText(makeString(outputStream))
-        .build();
-    } catch (final IOException e) {
-      throw new IllegalStateException(e);
+      if ((word & 0xff000000) == 0) {
+        return length + 3;
+      }
+      length += 4;
     }
+    return length;
+  }
+
+  /**
+   * The number of words used by a string is the number of whole words of
+   * text plus the word containing the terminator. An unterminated string
+   * is counted as if it had been terminated.
+   */
+
+  static int usedWords(
+    final int length)
+  {
+    return (length / 4) + 1;
   }
 
-  private static String makeString(
-    final ByteArrayOutputStream outputStream)
+  static int byteAt(
+    final SMParsedInstructionType instruction,
+    final int index,
+    final int offset)
   {
+    final var word = (int) instruction.operand(index + (offset >>> 2));
+    return (word >>> ((offset & 3) << 3)) & 0xff;
+  }
+
+  /**
+   * Find the offset of the first byte after any leading whitespace.
+   */
+
+  static int trimStart(
+    final SMParsedInstructionType instruction,
+    final int index,
+    final int length)
+  {
+    int start = 0;
+    while (start < length && byteAt(instruction, index, start) <= 0x20) {
+      ++start;
+    }
+    return start;
+  }
+
+  /**
+   * Find the offset after the last byte before any trailing whitespace.
+   */
+
+  static int trimEnd(
+    final SMParsedInstructionType instruction,
+    final int index,
+    final int start,
+    final int length)
+  {
+    int end = length;
+    while (end > start && byteAt(instruction, index, end - 1) <= 0x20) {
+      --end;
+    }
+    return end;
+  }
+
+  /**
+   * Decode the given byte range. Whitespace is trimmed at the byte level:
+   * bytes less than or equal to {@code 0x20} never occur within a multibyte
+   * UTF-8 sequence, so this is equivalent to trimming the decoded text.
+   */
+
+  static String decode(
+    final SMParsedInstructionType instruction,
+    final int index,
+    final int length)
+  {
+    final var start = trimStart(instruction, index, length);
+    final var end = trimEnd(instruction, index, start, length);
+    if (start == end) {
+      return "";
+    }
+
+    final var bytes = new byte[end - start];
+    boolean ascii = true;
+    for (int offset = start; offset < end; ++offset) {
+      final var b = byteAt(instruction, index, offset);
+      ascii &= b < 0x80;
+      bytes[offset - start] = (byte) b;
+    }
     // CHECKSTYLE:OFF
-    return outputStream.toString(UTF_8).trim();
+    return new String(bytes, ascii ? ISO_8859_1 : UTF_8);
     // CHECKSTYLE:ON
   }
 }
@@ -17,11 +17,10 @@
 package com.io7m.jspearmint.analysis;
 
 import com.io7m.jspearmint.api.SMInstruction;
-import com.io7m.jspearmint.api.SMInstructions;
+import com.io7m.jspearmint.parser.api.SMModule;
 import com.io7m.jspearmint.parser.api.SMParsedHeader;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -32,12 +31,28 @@ import java.util.Objects;
 
 public final class SMTypes
 {
-  private final Map<Long, SMInstruction> idToType;
+  private final SMIdTypeTable types;
+  private Map<Long, SMInstruction> idToType;
 
   private SMTypes(
-    final Map<Long, SMInstruction> inIdToType)
+    final SMIdTypeTable inTypes)
   {
-    this.idToType = Objects.requireNonNull(inIdToType, "inIdToType");
+    this.types = Objects.requireNonNull(inTypes, "inTypes");
+  }
+
+  /**
+   * Consume types from a module.
+   *
+   * @param module The parsed module
+   *
+   * @return A set of types
+   */
+
+  public static SMTypes of(
+    final SMModule module)
+  {
+    Objects.requireNonNull(module, "module");
+    return of(module.header(), module.instructions());
   }
 
   /**
@@ -51,32 +66,131 @@ public final class SMTypes
 
   public static SMTypes of(
     final SMParsedHeader header,
-    final List<SMParsedInstruction> instructions)
+    final List<? extends SMParsedInstructionType> instructions)
   {
     Objects.requireNonNull(header, "header");
     Objects.requireNonNull(instructions, "instructions");
 
-    final var idToType =
-      new HashMap<Long, SMInstruction>(instructions.size());
+    return SMModuleAnalysis.builder()
+      .withTypes()
+      .analyze(header, instructions)
+      .types()
+      .orElseThrow();
+  }
 
-    for (final var instruction : instructions) {
-      final var definitionOpt = SMInstructions.byOpCode(instruction.opCode());
-      if (definitionOpt.isEmpty()) {
-        continue;
-      }
-      final var definition = definitionOpt.get();
+  /**
+   * @return The type for the given ID
+   */
+
+  public Map<Long, SMInstruction> idToType()
+  {
+    var result = this.idToType;
+    if (result == null) {
+      result = this.types.toMap();
+      this.idToType = result;
+    }
+    return result;
+  }
+
+  /**
+   * Find the type declared by the given ID.
+   *
+   * @param id The ID
+   *
+   * @return The instruction that declared the type, or {@code null} if the
+   * ID does not name a type
+   */
+
+  public SMInstruction typeOrNull(
+    final long id)
+  {
+    return this.types.get(id);
+  }
+
+  /**
+   * Find the width of the scalar numeric type declared by the given ID.
+   *
+   * @param id The ID
+   *
+   * @return The width in bits of the integer or floating point type declared
+   * by the given ID, or {@code 0} if the ID does not name such a type
+   */
+
+  public int scalarWidth(
+    final long id)
+  {
+    return this.types.width(id);
+  }
+
+  /**
+   * Determine whether the given ID names a signed integer type.
+   *
+   * @param id The ID
+   *
+   * @return {@code true} if the ID names an integer type with signedness
+   * {@code 1}
+   */
+
+  public boolean scalarSigned(
+    final long id)
+  {
+    return this.types.signed(id);
+  }
+
+  /**
+   * An analyzer that collects types.
+   */
+
+  static final class Analyzer implements SMAnalyzerType
+  {
+    private SMIdTypeTable types;
+
+    Analyzer()
+    {
+      this.types = new SMIdTypeTable(0L);
+    }
+
+    @Override
+    public void begin(
+      final SMParsedHeader header)
+    {
+      this.types = new SMIdTypeTable(header.idBound());
+    }
+
+    @Override
+    public void analyze(
+      final SMInstruction definition,
+      final SMParsedInstructionType instruction)
+    {
       switch (definition) {
-        case SM_OP_TYPE_INT:
+        case SM_OP_TYPE_INT: {
+          this.types.put(instruction.operand(0), definition);
+          if (instruction.operandCount() > 1) {
+            this.types.putScalar(
+              instruction.operand(0),
+              instruction.operand(1),
+              instruction.operandCount() > 2 && instruction.operand(2) != 0L);
+          }
+          break;
+        }
+        case SM_OP_TYPE_FLOAT: {
+          this.types.put(instruction.operand(0), definition);
+          if (instruction.operandCount() > 1) {
+            this.types.putScalar(
+              instruction.operand(0),
+              instruction.operand(1),
+              false);
+          }
+          break;
+        }
         case SM_OP_TYPE_FUNCTION:
         case SM_OP_TYPE_POINTER:
         case SM_OP_TYPE_STRUCT:
         case SM_OP_TYPE_VECTOR:
         case SM_OP_TYPE_VOID:
         case SM_OP_TYPE_ARRAY:
-        case SM_OP_TYPE_BOOL:
-        case SM_OP_TYPE_FLOAT: {
-          final var id = instruction.operands().get(0);
-          idToType.put(id, definition);
+        case SM_OP_TYPE_BOOL: {
+          this.types.put(instruction.operand(0), definition);
           break;
         }
         default: {
@@ -85,17 +199,18 @@ public final class SMTypes
       }
     }
 
-    return new SMTypes(
-      Map.copyOf(idToType)
-    );
-  }
+    /**
+     * @return The table of types collected so far
+     */
 
-  /**
-   * @return The type for the given ID
-   */
+    SMIdTypeTable table()
+    {
+      return this.types;
+    }
 
-  public Map<Long, SMInstruction> idToType()
-  {
-    return this.idToType;
+    SMTypes build()
+    {
+      return new SMTypes(this.types);
+    }
   }
 }
@@ -27,6 +27,7 @@ module com.io7m.jspearmint.analysis
 
   requires transitive com.io7m.jspearmint.parser.api;
   requires com.io7m.jspearmint.api;
+  requires jdk.jfr;
   requires org.slf4j;
 
   exports com.io7m.jspearmint.analysis;
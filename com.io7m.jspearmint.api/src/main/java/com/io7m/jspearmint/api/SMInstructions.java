@@ -16,8 +16,6 @@
 
 package com.io7m.jspearmint.api;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -26,33 +24,57 @@ import java.util.Optional;
 
 public final class SMInstructions
 {
-  private static final Map<Long, SMInstruction> BY_OPCODE =
-    makeByOpCode();
-
   private SMInstructions()
   {
 
   }
 
-  private static Map<Long, SMInstruction> makeByOpCode()
+  /**
+   * @param opCode The opcode
+   *
+   * @return The instruction associated with the opcode
+   */
+
+  public static Optional<SMInstruction> byOpCode(
+    final long opCode)
   {
-    final var values = SMInstruction.values();
-    final var byOpCode = new HashMap<Long, SMInstruction>(values.length);
-    for (final var value : values) {
-      byOpCode.put(Long.valueOf(value.value()), value);
-    }
-    return Map.copyOf(byOpCode);
+    return Optional.ofNullable(byOpCodeOrNull(opCode));
   }
 
   /**
+   * Find the instruction associated with the given opcode. This is a bounds
+   * check and an array load, and is intended for use in code that resolves
+   * the opcode of every instruction in a module.
+   *
    * @param opCode The opcode
    *
-   * @return The instruction associated with the opcode
+   * @return The instruction associated with the opcode, or {@code null} if
+   * no instruction has the given opcode
    */
 
-  public static Optional<SMInstruction> byOpCode(
+  public static SMInstruction byOpCodeOrNull(
+    final int opCode)
+  {
+    return SMInstruction.byOpCodeOrNull(opCode);
+  }
+
+  /**
+   * Find the instruction associated with the given opcode.
+   *
+   * @param opCode The opcode
+   *
+   * @return The instruction associated with the opcode, or {@code null} if
+   * no instruction has the given opcode
+   *
+   * @see #byOpCodeOrNull(int)
+   */
+
+  public static SMInstruction byOpCodeOrNull(
     final long opCode)
   {
-    return Optional.ofNullable(BY_OPCODE.get(Long.valueOf(opCode)));
+    if (opCode < 0L || opCode > (long) Integer.MAX_VALUE) {
+      return null;
+    }
+    return SMInstruction.byOpCodeOrNull((int) opCode);
   }
 }
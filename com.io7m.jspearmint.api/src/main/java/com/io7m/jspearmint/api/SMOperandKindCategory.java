@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.api;
+
+/**
+ * The category of an operand kind.
+ */
+
+public enum SMOperandKindCategory
+{
+  /**
+   * The operand is a mask of bits, each of which may be followed by
+   * parameters.
+   */
+
+  SM_BIT_ENUM,
+
+  /**
+   * The operand is a single enumerant, which may be followed by parameters.
+   */
+
+  SM_VALUE_ENUM,
+
+  /**
+   * The operand is an ID.
+   */
+
+  SM_ID,
+
+  /**
+   * The operand is a literal value.
+   */
+
+  SM_LITERAL,
+
+  /**
+   * The operand is a sequence of operands of other kinds.
+   */
+
+  SM_COMPOSITE
+}
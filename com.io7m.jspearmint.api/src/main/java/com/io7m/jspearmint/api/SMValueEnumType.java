@@ -16,11 +16,23 @@
 
 package com.io7m.jspearmint.api;
 
+import java.util.List;
+
 /**
  * The base type of value enums.
  */
 
 public interface SMValueEnumType extends SMEnumType
 {
+  /**
+   * @return The SPIR-V name of the enumerant
+   */
+
+  String spirName();
+
+  /**
+   * @return The parameters that follow the enumerant
+   */
 
+  List<SMOperand> parameters();
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.benchmarks;
+
+import com.io7m.jspearmint.analysis.SMIdentifiers;
+import com.io7m.jspearmint.analysis.SMTypes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analysis benchmarks.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SMAnalysisBenchmark
+{
+  /**
+   * Construct the benchmark.
+   */
+
+  public SMAnalysisBenchmark()
+  {
+
+  }
+
+  /**
+   * Collect the identifiers of a parsed module.
+   *
+   * @param state    The module state
+   * @param counters The counters
+   *
+   * @return The identifiers
+   */
+
+  @Benchmark
+  public SMIdentifiers identifiers(
+    final SMBenchmarkModuleState state,
+    final SMBenchmarkCounters counters)
+  {
+    final var result = SMIdentifiers.of(state.module());
+    counters.processed(state);
+    return result;
+  }
+
+  /**
+   * Collect the types of a parsed module.
+   *
+   * @param state    The module state
+   * @param counters The counters
+   *
+   * @return The types
+   */
+
+  @Benchmark
+  public SMTypes types(
+    final SMBenchmarkModuleState state,
+    final SMBenchmarkCounters counters)
+  {
+    final var result = SMTypes.of(state.module());
+    counters.processed(state);
+    return result;
+  }
+}
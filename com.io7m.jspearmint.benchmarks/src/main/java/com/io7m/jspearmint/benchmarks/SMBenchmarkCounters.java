@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Counters reported alongside each benchmark's own score. JMH reports the
+ * counters as rates, yielding instructions per second and bytes per second
+ * for the work done by each benchmark invocation.
+ */
+
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class SMBenchmarkCounters
+{
+  private long instructions;
+  private long bytes;
+
+  /**
+   * Construct the counters.
+   */
+
+  public SMBenchmarkCounters()
+  {
+
+  }
+
+  /**
+   * Reset the counters at the start of each iteration.
+   */
+
+  @Setup(Level.Iteration)
+  public void reset()
+  {
+    this.instructions = 0L;
+    this.bytes = 0L;
+  }
+
+  /**
+   * @return The number of instructions processed
+   */
+
+  public long instructions()
+  {
+    return this.instructions;
+  }
+
+  /**
+   * @return The number of module bytes processed
+   */
+
+  public long bytes()
+  {
+    return this.bytes;
+  }
+
+  /**
+   * Record that instructions were processed.
+   *
+   * @param instructionCount The number of instructions
+   * @param byteCount        The number of bytes
+   */
+
+  public void add(
+    final long instructionCount,
+    final long byteCount)
+  {
+    this.instructions += instructionCount;
+    this.bytes += byteCount;
+  }
+
+  /**
+   * Record that a module was processed.
+   *
+   * @param state The module state
+   */
+
+  public void processed(
+    final SMBenchmarkModuleState state)
+  {
+    this.add(state.module().instructionCount(), state.sizeInBytes());
+  }
+}
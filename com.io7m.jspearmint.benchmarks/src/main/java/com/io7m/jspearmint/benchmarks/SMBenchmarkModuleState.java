@@ -0,0 +1,151 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.benchmarks;
+
+import com.io7m.jspearmint.parser.api.SMModule;
+import com.io7m.jspearmint.parser.api.SMParseException;
+import com.io7m.jspearmint.parser.api.SMParserProviderType;
+import com.io7m.jspearmint.parser.vanilla.SMParsers;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The per-trial state shared by the benchmarks: an encoded module of the
+ * requested size and byte order, and the same module already parsed.
+ */
+
+@State(Scope.Benchmark)
+public class SMBenchmarkModuleState
+{
+  private static final URI SOURCE = URI.create("urn:benchmark");
+
+  /**
+   * The module size.
+   */
+
+  @Param({"SMALL", "MEDIUM", "LARGE"})
+  protected SMBenchmarkModules.Size size;
+
+  /**
+   * The module byte order.
+   */
+
+  @Param({"LITTLE_ENDIAN", "BIG_ENDIAN"})
+  protected String byteOrder;
+
+  private SMParserProviderType parsers;
+  private ByteBuffer data;
+  private byte[] bytes;
+  private SMModule module;
+
+  /**
+   * Construct the state.
+   */
+
+  public SMBenchmarkModuleState()
+  {
+
+  }
+
+  /**
+   * Encode and parse the module.
+   *
+   * @throws IOException      On errors
+   * @throws SMParseException On errors
+   */
+
+  @Setup
+  public void setup()
+    throws IOException, SMParseException
+  {
+    final var order =
+      "BIG_ENDIAN".equals(this.byteOrder)
+        ? ByteOrder.BIG_ENDIAN
+        : ByteOrder.LITTLE_ENDIAN;
+
+    this.parsers = new SMParsers();
+    this.data = SMBenchmarkModules.module(this.size, order);
+    this.bytes = new byte[this.data.remaining()];
+    this.data().get(this.bytes);
+    try (var parser = this.parsers.createFromByteBuffer(SOURCE, this.data())) {
+      this.module = parser.parseModule();
+    }
+  }
+
+  /**
+   * @return The parser provider
+   */
+
+  public SMParserProviderType parsers()
+  {
+    return this.parsers;
+  }
+
+  /**
+   * @return A source URI for parsers
+   */
+
+  public URI source()
+  {
+    return SOURCE;
+  }
+
+  /**
+   * @return A fresh view of the encoded module
+   */
+
+  public ByteBuffer data()
+  {
+    return this.data.duplicate();
+  }
+
+  /**
+   * @return A fresh stream of the encoded module
+   */
+
+  public InputStream stream()
+  {
+    return new ByteArrayInputStream(this.bytes);
+  }
+
+  /**
+   * @return The size of the encoded module in bytes
+   */
+
+  public int sizeInBytes()
+  {
+    return this.data.capacity();
+  }
+
+  /**
+   * @return The parsed module
+   */
+
+  public SMModule module()
+  {
+    return this.module;
+  }
+}
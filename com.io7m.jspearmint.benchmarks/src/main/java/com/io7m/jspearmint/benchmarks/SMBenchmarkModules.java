@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.benchmarks;
+
+import com.io7m.jspearmint.synthetic.SMSyntheticModuleParameters;
+import com.io7m.jspearmint.synthetic.SMSyntheticModules;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * The modules used as benchmark inputs.
+ */
+
+public final class SMBenchmarkModules
+{
+  private static final int MAGIC = 0x07230203;
+
+  private SMBenchmarkModules()
+  {
+
+  }
+
+  /**
+   * The size of a benchmark module.
+   */
+
+  public enum Size
+  {
+    /**
+     * The {@code clip_space_triangle.vert.spv} module from the test suite.
+     */
+
+    SMALL,
+
+    /**
+     * A synthetic module of roughly one megabyte.
+     */
+
+    MEDIUM,
+
+    /**
+     * A synthetic module of roughly twenty megabytes.
+     */
+
+    LARGE
+  }
+
+  /**
+   * Produce a module of the given size, encoded in the given byte order.
+   *
+   * @param size  The module size
+   * @param order The byte order
+   *
+   * @return A read-only buffer containing the module
+   */
+
+  public static ByteBuffer module(
+    final Size size,
+    final ByteOrder order)
+  {
+    Objects.requireNonNull(size, "size");
+    Objects.requireNonNull(order, "order");
+
+    final var words = switch (size) {
+      case SMALL -> baseWords();
+      case MEDIUM -> SMSyntheticModules.generateWords(
+        SMSyntheticModuleParameters.builder()
+          .setFunctionCount(200)
+          .setInstructionsPerFunction(200)
+          .setTypeCount(1_000)
+          .setConstantCount(2_000)
+          .setDecorationCount(500)
+          .setNameCount(5_000)
+          .build()
+      );
+      case LARGE -> SMSyntheticModules.generateWords(
+        SMSyntheticModuleParameters.builder()
+          .setFunctionCount(2_000)
+          .setInstructionsPerFunction(500)
+          .setTypeCount(20_000)
+          .setConstantCount(50_000)
+          .setDecorationCount(10_000)
+          .setNameCount(100_000)
+          .build()
+      );
+    };
+
+    final var buffer = ByteBuffer.allocate(words.length * 4).order(order);
+    buffer.asIntBuffer().put(words);
+    return buffer.asReadOnlyBuffer();
+  }
+
+  private static int[] baseWords()
+  {
+    final byte[] data;
+    try (var stream = SMBenchmarkModules.class.getResourceAsStream(
+      "/com/io7m/jspearmint/benchmarks/clip_space_triangle.vert.spv")) {
+      data = Objects.requireNonNull(stream, "stream").readAllBytes();
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    final var buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+    if (buffer.getInt(0) != MAGIC) {
+      buffer.order(ByteOrder.BIG_ENDIAN);
+    }
+
+    final var words = new int[data.length / 4];
+    buffer.asIntBuffer().get(words);
+    return words;
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.benchmarks;
+
+import com.io7m.jspearmint.disassembly.api.SMDisassemblerConfiguration;
+import com.io7m.jspearmint.disassembly.api.SMDisassemblerConfigurationType.Format;
+import com.io7m.jspearmint.disassembly.api.SMDisassemblerType;
+import com.io7m.jspearmint.disassembly.vanilla.SMDisassemblers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Disassembler benchmarks.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SMDisassemblerBenchmark
+{
+  /**
+   * The output format.
+   */
+
+  @Param({"TEXT", "JSON"})
+  protected Format format;
+
+  private SMDisassemblerType disassembler;
+  private SMDisassemblerConfiguration configuration;
+
+  /**
+   * Construct the benchmark.
+   */
+
+  public SMDisassemblerBenchmark()
+  {
+
+  }
+
+  /**
+   * Create a disassembler.
+   */
+
+  @Setup
+  public void setup()
+  {
+    this.disassembler = new SMDisassemblers().create();
+    this.configuration =
+      SMDisassemblerConfiguration.builder()
+        .setFormat(this.format)
+        .build();
+  }
+
+  /**
+   * Close the disassembler.
+   *
+   * @throws IOException On errors
+   */
+
+  @TearDown
+  public void tearDown()
+    throws IOException
+  {
+    this.disassembler.close();
+  }
+
+  /**
+   * Disassemble a parsed module, discarding the output.
+   *
+   * @param state    The module state
+   * @param counters The counters
+   *
+   * @throws IOException On errors
+   */
+
+  @Benchmark
+  public void disassemble(
+    final SMBenchmarkModuleState state,
+    final SMBenchmarkCounters counters)
+    throws IOException
+  {
+    this.disassembler.disassemble(
+      this.configuration,
+      state.module(),
+      OutputStream.nullOutputStream()
+    );
+    counters.processed(state);
+  }
+}
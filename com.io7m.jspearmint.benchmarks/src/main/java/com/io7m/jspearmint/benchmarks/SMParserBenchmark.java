@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.benchmarks;
+
+import com.io7m.jspearmint.parser.api.SMParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parser benchmarks.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SMParserBenchmark
+{
+  /**
+   * Construct the benchmark.
+   */
+
+  public SMParserBenchmark()
+  {
+
+  }
+
+  /**
+   * Parse a module from a buffer one instruction at a time with
+   * {@code parseNextInstruction}.
+   *
+   * @param state    The module state
+   * @param counters The counters
+   * @param hole     The blackhole
+   *
+   * @throws IOException      On errors
+   * @throws SMParseException On errors
+   */
+
+  @Benchmark
+  public void parseNextInstruction(
+    final SMBenchmarkModuleState state,
+    final SMBenchmarkCounters counters,
+    final Blackhole hole)
+    throws IOException, SMParseException
+  {
+    try (var parser =
+           state.parsers().createFromByteBuffer(state.source(), state.data())) {
+      hole.consume(parser.header());
+      while (true) {
+        final var instruction = parser.parseNextInstruction();
+        if (instruction.isEmpty()) {
+          break;
+        }
+        hole.consume(instruction.get());
+      }
+    }
+    counters.processed(state);
+  }
+
+  /**
+   * Parse a module from a stream one instruction at a time with
+   * {@code parseNextInstruction}.
+   *
+   * @param state    The module state
+   * @param counters The counters
+   * @param hole     The blackhole
+   *
+   * @throws IOException      On errors
+   * @throws SMParseException On errors
+   */
+
+  @Benchmark
+  public void parseNextInstructionStream(
+    final SMBenchmarkModuleState state,
+    final SMBenchmarkCounters counters,
+    final Blackhole hole)
+    throws IOException, SMParseException
+  {
+    try (var parser =
+           state.parsers().create(state.source(), state.stream())) {
+      hole.consume(parser.header());
+      while (true) {
+        final var instruction = parser.parseNextInstruction();
+        if (instruction.isEmpty()) {
+          break;
+        }
+        hole.consume(instruction.get());
+      }
+    }
+    counters.processed(state);
+  }
+
+  /**
+   * Parse a module from a buffer into its compact in-memory representation.
+   *
+   * @param state    The module state
+   * @param counters The counters
+   * @param hole     The blackhole
+   *
+   * @throws IOException      On errors
+   * @throws SMParseException On errors
+   */
+
+  @Benchmark
+  public void parseModule(
+    final SMBenchmarkModuleState state,
+    final SMBenchmarkCounters counters,
+    final Blackhole hole)
+    throws IOException, SMParseException
+  {
+    try (var parser =
+           state.parsers().createFromByteBuffer(state.source(), state.data())) {
+      hole.consume(parser.parseModule());
+    }
+    counters.processed(state);
+  }
+
+  /**
+   * Parse a module from a stream into its compact in-memory representation.
+   *
+   * @param state    The module state
+   * @param counters The counters
+   * @param hole     The blackhole
+   *
+   * @throws IOException      On errors
+   * @throws SMParseException On errors
+   */
+
+  @Benchmark
+  public void parseModuleStream(
+    final SMBenchmarkModuleState state,
+    final SMBenchmarkCounters counters,
+    final Blackhole hole)
+    throws IOException, SMParseException
+  {
+    try (var parser =
+           state.parsers().create(state.source(), state.stream())) {
+      hole.consume(parser.parseModule());
+    }
+    counters.processed(state);
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.benchmarks;
+
+import com.io7m.jspearmint.analysis.SMStrings;
+import com.io7m.jspearmint.api.SMInstruction;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * String decoding benchmarks.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SMStringsBenchmark
+{
+  private List<SMParsedInstructionType> instructions;
+
+  /**
+   * Construct the benchmark.
+   */
+
+  public SMStringsBenchmark()
+  {
+
+  }
+
+  /**
+   * Collect the string-bearing instructions of the module.
+   *
+   * @param state The module state
+   */
+
+  @Setup
+  public void setup(
+    final SMBenchmarkModuleState state)
+  {
+    this.instructions =
+      state.module()
+        .instructions()
+        .stream()
+        .filter(SMStringsBenchmark::hasString)
+        .toList();
+  }
+
+  private static boolean hasString(
+    final SMParsedInstructionType instruction)
+  {
+    final var opCode = instruction.opCode();
+    return opCode == SMInstruction.SM_OP_STRING.value()
+      || opCode == SMInstruction.SM_OP_NAME.value();
+  }
+
+  /**
+   * Decode every {@code OpString} and {@code OpName} string in the module.
+   * The instruction counter counts the decoded strings, and the byte counter
+   * counts the bytes of the instructions that contained them.
+   *
+   * @param counters The counters
+   * @param hole     The blackhole
+   */
+
+  @Benchmark
+  public void consumeUTF8String(
+    final SMBenchmarkCounters counters,
+    final Blackhole hole)
+  {
+    for (final var instruction : this.instructions) {
+      hole.consume(SMStrings.consumeUTF8String(instruction, 1));
+      counters.add(1L, instruction.wordCount() * 4L);
+    }
+  }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+/**
+ * SPIR-V toolkit (Benchmarks)
+ *
+ * <p>JMH benchmarks for the parser, analysis, string decoding, and
+ * disassembler stages. Each benchmark runs over small, medium, and large
+ * modules in both byte orders, and reports instructions per second and
+ * bytes per second as secondary results. The {@code benchmarks} jar is
+ * a self-contained JMH launcher; allocation rates can be obtained with
+ * the standard GC profiler:</p>
+ *
+ * <pre>
+ * java -jar com.io7m.jspearmint.benchmarks-*-benchmarks.jar -prof gc
+ * </pre>
+ */
+
+package com.io7m.jspearmint.benchmarks;
@@ -21,7 +21,10 @@ import com.io7m.claypot.core.CLPCommandConstructorType;
 import com.io7m.claypot.core.CLPCommandType;
 import com.io7m.claypot.core.Claypot;
 import com.io7m.claypot.core.ClaypotType;
+import com.io7m.jspearmint.cmdline.internal.SMCommandClient;
 import com.io7m.jspearmint.cmdline.internal.SMCommandDisassemble;
+import com.io7m.jspearmint.cmdline.internal.SMCommandDisassembleBatch;
+import com.io7m.jspearmint.cmdline.internal.SMCommandServer;
 import com.io7m.jspearmint.cmdline.internal.SMCommandVersion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,6 +62,9 @@ public final class Main implements Runnable
     final List<CLPCommandConstructorType> commands =
       List.of(
         SMCommandDisassemble::new,
+        SMCommandDisassembleBatch::new,
+        SMCommandClient::new,
+        SMCommandServer::new,
         SMCommandVersion::new
       );
 
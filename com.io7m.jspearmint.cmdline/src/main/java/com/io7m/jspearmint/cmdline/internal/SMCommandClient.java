@@ -0,0 +1,148 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.cmdline.internal;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import com.io7m.claypot.core.CLPAbstractCommand;
+import com.io7m.claypot.core.CLPCommandContextType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Forward a request to a disassembly server.
+ */
+
+@Parameters(commandDescription = "Forward a request to a running server")
+public final class SMCommandClient extends CLPAbstractCommand
+{
+  @Parameter(
+    description = "The path of the Unix domain socket on which the server is listening.",
+    names = "--socket",
+    required = false
+  )
+  private Path socket;
+
+  @Parameter(
+    description = "The localhost TCP port on which the server is listening.",
+    names = "--port",
+    required = false
+  )
+  private Integer port;
+
+  @Parameter(
+    description = "The request to forward: analyze, disassemble, parse, or shutdown, followed by its arguments."
+  )
+  private List<String> arguments = new ArrayList<>();
+
+  /**
+   * Construct a command.
+   *
+   * @param context The context
+   */
+
+  public SMCommandClient(
+    final CLPCommandContextType context)
+  {
+    super(context);
+  }
+
+  @Override
+  public String name()
+  {
+    return "client";
+  }
+
+  @Override
+  public Status executeActual()
+    throws Exception
+  {
+    final var address =
+      SMServerProtocol.address(this.socket, this.port);
+
+    final SocketChannel channel;
+    if (address instanceof UnixDomainSocketAddress) {
+      channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+    } else {
+      channel = SocketChannel.open();
+    }
+
+    try (channel) {
+      channel.connect(address);
+
+      final var output =
+        new DataOutputStream(
+          new BufferedOutputStream(Channels.newOutputStream(channel)));
+      final var input =
+        new DataInputStream(
+          new BufferedInputStream(Channels.newInputStream(channel)));
+
+      SMServerProtocol.writeRequest(
+        output,
+        Paths.get("").toAbsolutePath().toString(),
+        this.arguments
+      );
+
+      final var status = this.readResponse(input);
+      System.out.flush();
+      return status == 0 ? Status.SUCCESS : Status.FAILURE;
+    }
+  }
+
+  private int readResponse(
+    final DataInputStream input)
+    throws IOException
+  {
+    while (true) {
+      final var type = input.readByte();
+      final var payload = SMServerProtocol.readFramePayload(input);
+
+      switch (type) {
+        case SMServerProtocol.FRAME_OUTPUT: {
+          System.out.write(payload);
+          break;
+        }
+        case SMServerProtocol.FRAME_ERROR: {
+          this.logger().error("{}", UTF_8.decode(ByteBuffer.wrap(payload)));
+          break;
+        }
+        case SMServerProtocol.FRAME_EXIT: {
+          return ByteBuffer.wrap(payload).getInt();
+        }
+        default: {
+          throw new IOException(
+            String.format("Unrecognized frame type 0x%02x", Byte.valueOf(type)));
+        }
+      }
+    }
+  }
+}
@@ -21,8 +21,9 @@ import com.beust.jcommander.Parameters;
 import com.io7m.claypot.core.CLPAbstractCommand;
 import com.io7m.claypot.core.CLPCommandContextType;
 import com.io7m.jspearmint.disassembly.api.SMDisassemblerConfiguration;
+import com.io7m.jspearmint.disassembly.api.SMDisassemblerConfigurationType;
+import com.io7m.jspearmint.parser.api.SMParserSourceType;
 
-import java.nio.file.Files;
 import java.nio.file.Path;
 
 /**
@@ -39,6 +40,29 @@ public final class SMCommandDisassemble extends CLPAbstractCommand
   )
   private Path inputFile;
 
+  @Parameter(
+    description = "The number of threads used to format instructions.",
+    names = "--parallelism",
+    required = false
+  )
+  private int parallelism = 1;
+
+  @Parameter(
+    description = "The output format.",
+    names = "--format",
+    required = false
+  )
+  private SMDisassemblerConfigurationType.Format format =
+    SMDisassemblerConfigurationType.Format.TEXT;
+
+  @Parameter(
+    description = "The printing behaviour for identifiers.",
+    names = "--identifiers",
+    required = false
+  )
+  private SMDisassemblerConfigurationType.Identifiers identifiers =
+    SMDisassemblerConfigurationType.Identifiers.NAMED;
+
   /**
    * Construct a command.
    *
@@ -68,20 +92,29 @@ public final class SMCommandDisassemble extends CLPAbstractCommand
 
     final var configuration =
       SMDisassemblerConfiguration.builder()
+        .setParallelism(this.parallelism)
+        .setFormat(this.format)
+        .setIdentifiers(this.identifiers)
         .build();
 
-    try (var stream = Files.newInputStream(this.inputFile)) {
-      try (var parser = parsers.create(this.inputFile.toUri(), stream)) {
+    if (this.parallelism > 1) {
+      try (var parser = parsers.createFromPath(this.inputFile)) {
         try (var disassembler = disassemblers.create()) {
-          final var instructions = parser.parseAllInstructions();
           disassembler.disassemble(
             configuration,
-            parser.header(),
-            instructions,
+            parser.parseModule(),
             System.out
           );
         }
       }
+    } else {
+      try (var disassembler = disassemblers.create()) {
+        disassembler.disassemble(
+          configuration,
+          SMParserSourceType.ofPath(parsers, this.inputFile),
+          System.out
+        );
+      }
     }
 
     System.out.flush();
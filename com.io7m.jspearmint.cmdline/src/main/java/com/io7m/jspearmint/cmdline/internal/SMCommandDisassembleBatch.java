@@ -0,0 +1,394 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.cmdline.internal;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import com.io7m.claypot.core.CLPAbstractCommand;
+import com.io7m.claypot.core.CLPCommandContextType;
+import com.io7m.jspearmint.disassembly.api.SMDisassemblerConfiguration;
+import com.io7m.jspearmint.disassembly.api.SMDisassemblerConfigurationType;
+import com.io7m.jspearmint.disassembly.api.SMDisassemblerProviderType;
+import com.io7m.jspearmint.parser.api.SMParserProviderType;
+import com.io7m.jspearmint.parser.api.SMParserSourceType;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Pattern;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Disassemble many files.
+ */
+
+@Parameters(commandDescription = "Disassemble many SPIR-V files")
+public final class SMCommandDisassembleBatch extends CLPAbstractCommand
+{
+  private static final String GLOB_CHARACTERS = "*?[{";
+
+  @Parameter(
+    description = "An input file, a directory that will be searched for *.spv files, or a glob pattern.",
+    names = "--input",
+    required = true
+  )
+  private List<String> inputs = new ArrayList<>();
+
+  @Parameter(
+    description = "The directory that will contain disassembled files.",
+    names = "--outputDirectory",
+    required = true
+  )
+  private Path outputDirectory;
+
+  @Parameter(
+    description = "The maximum number of files processed at once.",
+    names = "--threads",
+    required = false
+  )
+  private int threads = Runtime.getRuntime().availableProcessors();
+
+  @Parameter(
+    description = "The output format.",
+    names = "--format",
+    required = false
+  )
+  private SMDisassemblerConfigurationType.Format format =
+    SMDisassemblerConfigurationType.Format.TEXT;
+
+  @Parameter(
+    description = "The printing behaviour for identifiers.",
+    names = "--identifiers",
+    required = false
+  )
+  private SMDisassemblerConfigurationType.Identifiers identifiers =
+    SMDisassemblerConfigurationType.Identifiers.NAMED;
+
+  /**
+   * Construct a command.
+   *
+   * @param context The context
+   */
+
+  public SMCommandDisassembleBatch(
+    final CLPCommandContextType context)
+  {
+    super(context);
+  }
+
+  @Override
+  public String name()
+  {
+    return "disassemble-batch";
+  }
+
+  @Override
+  public Status executeActual()
+    throws Exception
+  {
+    if (this.threads < 1) {
+      throw new IllegalArgumentException(
+        String.format(
+          "Thread count %d must be at least 1",
+          Integer.valueOf(this.threads))
+      );
+    }
+
+    final var parsers =
+      SMServices.findParsers();
+    final var disassemblers =
+      SMServices.findDisassemblers();
+
+    final var configuration =
+      SMDisassemblerConfiguration.builder()
+        .setFormat(this.format)
+        .setIdentifiers(this.identifiers)
+        .build();
+
+    final var collected = new ArrayList<Item>();
+    for (final var input : this.inputs) {
+      collectInputs(input, collected);
+    }
+
+    final var failures = new ConcurrentLinkedQueue<Failure>();
+    final var items = this.assignOutputs(collected, failures);
+    final var total = items.size() + failures.size();
+    final var permits = new Semaphore(this.threads);
+
+    /*
+     * Each file is read, parsed, analyzed, formatted, and written on its
+     * own virtual thread. The semaphore bounds the number of files in
+     * flight, and therefore the amount of memory used, regardless of the
+     * size of the corpus. The stages of a single file are strictly
+     * sequential and the streaming disassembler never holds a module's
+     * instructions in memory, so running whole files concurrently keeps
+     * every thread busy without the hand-offs of a staged pipeline.
+     */
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (final var item : items) {
+        permits.acquire();
+        executor.execute(() -> {
+          try {
+            this.disassembleOne(parsers, disassemblers, configuration, item);
+          } catch (final Exception e) {
+            failures.add(new Failure(item, e));
+          } finally {
+            permits.release();
+          }
+        });
+      }
+    }
+
+    final var sorted = new ArrayList<>(failures);
+    sorted.sort(Comparator.comparing(failure -> failure.item.input));
+    for (final var failure : sorted) {
+      this.logger().error(
+        "{}: {}",
+        failure.item.input,
+        Objects.requireNonNullElse(
+          failure.exception.getMessage(),
+          failure.exception.getClass().getName()));
+    }
+
+    this.logger().info(
+      "Disassembled {} of {} files",
+      Integer.valueOf(total - sorted.size()),
+      Integer.valueOf(total));
+
+    return sorted.isEmpty() ? Status.SUCCESS : Status.FAILURE;
+  }
+
+  /**
+   * Assign an output file to each input. Inputs that name the same file
+   * more than once are disassembled once, and inputs whose output file
+   * would also be written for an earlier input are reported as failures
+   * rather than being allowed to overwrite each other.
+   */
+
+  private List<Item> assignOutputs(
+    final List<Item> collected,
+    final ConcurrentLinkedQueue<Failure> failures)
+  {
+    final var seenInputs = new HashSet<Path>();
+    final var outputs = new HashMap<Path, Item>();
+    final var items = new ArrayList<Item>(collected.size());
+
+    for (final var item : collected) {
+      if (!seenInputs.add(item.input.toAbsolutePath().normalize())) {
+        continue;
+      }
+
+      final var output =
+        this.outputDirectory.resolve(outputName(item.relative, this.format))
+          .toAbsolutePath()
+          .normalize();
+
+      final var existing = outputs.putIfAbsent(output, item);
+      if (existing != null) {
+        failures.add(new Failure(item, new IOException(
+          String.format(
+            "Output file %s is already written for input %s",
+            output,
+            existing.input)
+        )));
+        continue;
+      }
+
+      item.output = output;
+      items.add(item);
+    }
+    return items;
+  }
+
+  private void disassembleOne(
+    final SMParserProviderType parsers,
+    final SMDisassemblerProviderType disassemblers,
+    final SMDisassemblerConfiguration configuration,
+    final Item item)
+    throws Exception
+  {
+    final var output = item.output;
+    Files.createDirectories(output.getParent());
+
+    final var temporary =
+      Files.createTempFile(
+        output.getParent(),
+        output.getFileName().toString(),
+        ".tmp");
+
+    try {
+      try (var stream = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+        try (var disassembler = disassemblers.create()) {
+          disassembler.disassemble(
+            configuration,
+            SMParserSourceType.ofPath(parsers, item.input),
+            stream
+          );
+        }
+      }
+      Files.move(temporary, output, REPLACE_EXISTING, ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  private static Path outputName(
+    final Path relative,
+    final SMDisassemblerConfigurationType.Format format)
+  {
+    final var name = relative.getFileName().toString();
+    final var base =
+      name.toLowerCase(Locale.ROOT).endsWith(".spv")
+        ? name.substring(0, name.length() - 4)
+        : name;
+
+    switch (format) {
+      case TEXT:
+        return relative.resolveSibling(base + ".txt");
+      case JSON:
+        return relative.resolveSibling(base + ".json");
+      case CBOR:
+        return relative.resolveSibling(base + ".cbor");
+    }
+    throw new IllegalStateException("Unreachable code");
+  }
+
+  private static boolean isSpirV(
+    final Path path)
+  {
+    return Files.isRegularFile(path)
+      && path.getFileName()
+      .toString()
+      .toLowerCase(Locale.ROOT)
+      .endsWith(".spv");
+  }
+
+  /**
+   * Resolve an input into a list of files. Directories are searched
+   * recursively for SPIR-V files, and patterns containing glob characters
+   * are matched against the files below their longest literal prefix.
+   * Each file is paired with the path, relative to the input, at which its
+   * output will be placed.
+   */
+
+  private static void collectInputs(
+    final String input,
+    final List<Item> items)
+    throws IOException
+  {
+    final var literal = Paths.get(input);
+    if (Files.isDirectory(literal)) {
+      try (var stream = Files.walk(literal)) {
+        stream.filter(SMCommandDisassembleBatch::isSpirV)
+          .sorted()
+          .forEach(path -> items.add(new Item(path, literal.relativize(path))));
+      }
+      return;
+    }
+
+    if (!containsGlob(input)) {
+      items.add(new Item(literal, literal.getFileName()));
+      return;
+    }
+
+    final var separator = FileSystems.getDefault().getSeparator();
+    final var elements = input.split(Pattern.quote(separator));
+    var prefixLength = 0;
+    while (prefixLength < elements.length && !containsGlob(elements[prefixLength])) {
+      ++prefixLength;
+    }
+
+    final var base =
+      prefixLength == 0
+        ? Paths.get("")
+        : Paths.get(String.join(separator, List.of(elements).subList(0, prefixLength)));
+    final var pattern =
+      String.join(separator, List.of(elements).subList(prefixLength, elements.length));
+    final var matcher =
+      FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+    final var root =
+      prefixLength == 0 ? Paths.get(".") : base;
+
+    if (!Files.isDirectory(root)) {
+      return;
+    }
+
+    try (var stream = Files.walk(root)) {
+      stream.filter(Files::isRegularFile)
+        .map(root::relativize)
+        .filter(matcher::matches)
+        .sorted()
+        .forEach(relative -> items.add(new Item(base.resolve(relative), relative)));
+    }
+  }
+
+  private static boolean containsGlob(
+    final String text)
+  {
+    for (int index = 0; index < text.length(); ++index) {
+      if (GLOB_CHARACTERS.indexOf(text.charAt(index)) >= 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static final class Item
+  {
+    private final Path input;
+    private final Path relative;
+    private Path output;
+
+    Item(
+      final Path inInput,
+      final Path inRelative)
+    {
+      this.input = Objects.requireNonNull(inInput, "input");
+      this.relative = Objects.requireNonNull(inRelative, "relative");
+    }
+  }
+
+  private static final class Failure
+  {
+    private final Item item;
+    private final Exception exception;
+
+    Failure(
+      final Item inItem,
+      final Exception inException)
+    {
+      this.item = Objects.requireNonNull(inItem, "item");
+      this.exception = Objects.requireNonNull(inException, "exception");
+    }
+  }
+}
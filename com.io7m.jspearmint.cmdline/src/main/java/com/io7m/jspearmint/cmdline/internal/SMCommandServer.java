@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.cmdline.internal;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import com.io7m.claypot.core.CLPAbstractCommand;
+import com.io7m.claypot.core.CLPCommandContextType;
+
+import java.nio.file.Path;
+
+/**
+ * Run a disassembly server.
+ */
+
+@Parameters(commandDescription = "Run a server that executes requests from the client command")
+public final class SMCommandServer extends CLPAbstractCommand
+{
+  @Parameter(
+    description = "The path of the Unix domain socket on which to listen.",
+    names = "--socket",
+    required = false
+  )
+  private Path socket;
+
+  @Parameter(
+    description = "The localhost TCP port on which to listen. Any local user can connect to the port, so --root is required.",
+    names = "--port",
+    required = false
+  )
+  private Integer port;
+
+  @Parameter(
+    description = "The directory that must contain every input file. Required with --port.",
+    names = "--root",
+    required = false
+  )
+  private Path root;
+
+  @Parameter(
+    description = "The maximum number of requests executed at once.",
+    names = "--maximumRequests",
+    required = false
+  )
+  private int maximumRequests = Runtime.getRuntime().availableProcessors();
+
+  @Parameter(
+    description = "Allow clients to stop the server with a shutdown request.",
+    names = "--allowShutdown",
+    required = false
+  )
+  private boolean allowShutdown;
+
+  /**
+   * Construct a command.
+   *
+   * @param context The context
+   */
+
+  public SMCommandServer(
+    final CLPCommandContextType context)
+  {
+    super(context);
+  }
+
+  @Override
+  public String name()
+  {
+    return "server";
+  }
+
+  @Override
+  public Status executeActual()
+    throws Exception
+  {
+    if (this.maximumRequests < 1) {
+      throw new IllegalArgumentException(
+        String.format(
+          "Request count %d must be at least 1",
+          Integer.valueOf(this.maximumRequests))
+      );
+    }
+
+    final var address =
+      SMServerProtocol.address(this.socket, this.port);
+
+    try (var server = SMServer.open(
+      this.logger(),
+      SMServices.findParsers(),
+      SMServices.findDisassemblers(),
+      address,
+      this.root,
+      this.maximumRequests,
+      this.allowShutdown)) {
+      this.logger().info("listening on {}", server.address());
+      server.run();
+    }
+    return Status.SUCCESS;
+  }
+}
@@ -0,0 +1,526 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.cmdline.internal;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.io7m.jspearmint.analysis.SMModuleAnalysis;
+import com.io7m.jspearmint.api.SMInstructions;
+import com.io7m.jspearmint.disassembly.api.SMDisassemblerConfiguration;
+import com.io7m.jspearmint.disassembly.api.SMDisassemblerConfigurationType;
+import com.io7m.jspearmint.disassembly.api.SMDisassemblerProviderType;
+import com.io7m.jspearmint.parser.api.SMParserProviderType;
+import com.io7m.jspearmint.parser.api.SMParserSourceType;
+import org.slf4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A server that executes parse, analyze, and disassemble requests on behalf
+ * of clients. The parser and disassembler providers are resolved once, and
+ * the instruction tables and the tables that the disassembler otherwise
+ * builds lazily are initialized before the first request is accepted, so
+ * requests do not pay for service lookup, class initialization, or table
+ * construction. Each connection carries a single request, and requests
+ * are executed concurrently on virtual threads, up to a fixed maximum
+ * number at once. Clients may only stop the server with a {@code shutdown}
+ * request if the server was opened with shutdown requests enabled.
+ *
+ * <p>Requests read files with the permissions of the server, and return
+ * their contents to the client. A Unix domain socket is therefore made
+ * accessible only to the owner of the server. Any local user can connect
+ * to a TCP port, so a server listening on a port must be given a root
+ * directory, and it refuses requests for files outside that directory.</p>
+ *
+ * @see SMServerProtocol
+ */
+
+final class SMServer implements Closeable
+{
+  private final Logger logger;
+  private final SMParserProviderType parsers;
+  private final SMDisassemblerProviderType disassemblers;
+  private final ServerSocketChannel channel;
+  private final SocketAddress address;
+  private final Path root;
+  private final Semaphore permits;
+  private final boolean allowShutdown;
+
+  private SMServer(
+    final Logger inLogger,
+    final SMParserProviderType inParsers,
+    final SMDisassemblerProviderType inDisassemblers,
+    final ServerSocketChannel inChannel,
+    final SocketAddress inAddress,
+    final Path inRoot,
+    final int inMaximumRequests,
+    final boolean inAllowShutdown)
+  {
+    this.logger =
+      Objects.requireNonNull(inLogger, "logger");
+    this.parsers =
+      Objects.requireNonNull(inParsers, "parsers");
+    this.disassemblers =
+      Objects.requireNonNull(inDisassemblers, "disassemblers");
+    this.channel =
+      Objects.requireNonNull(inChannel, "channel");
+    this.address =
+      Objects.requireNonNull(inAddress, "address");
+    this.root =
+      inRoot;
+    this.permits =
+      new Semaphore(inMaximumRequests);
+    this.allowShutdown =
+      inAllowShutdown;
+  }
+
+  /**
+   * Open a server listening on the given address.
+   *
+   * @param logger          The logger
+   * @param parsers         The parser provider
+   * @param disassemblers   The disassembler provider
+   * @param address         The address
+   * @param root            The directory that must contain all input files,
+   *                        or {@code null} to allow any file; required if
+   *                        the address is not a Unix domain socket
+   * @param maximumRequests The maximum number of requests executed at once
+   * @param allowShutdown   {@code true} if clients may stop the server
+   *
+   * @return A server
+   *
+   * @throws IOException On errors
+   */
+
+  static SMServer open(
+    final Logger logger,
+    final SMParserProviderType parsers,
+    final SMDisassemblerProviderType disassemblers,
+    final SocketAddress address,
+    final Path root,
+    final int maximumRequests,
+    final boolean allowShutdown)
+    throws IOException
+  {
+    if (!(address instanceof UnixDomainSocketAddress) && root == null) {
+      throw new IllegalArgumentException(
+        "Any local user can connect to a TCP port, so a --root directory must be specified with --port");
+    }
+
+    final var realRoot = root != null ? root.toRealPath() : null;
+
+    final ServerSocketChannel channel;
+    if (address instanceof UnixDomainSocketAddress) {
+      channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+    } else {
+      channel = ServerSocketChannel.open();
+    }
+
+    try {
+      channel.bind(address);
+      if (address instanceof final UnixDomainSocketAddress unix) {
+        restrictToOwner(unix.getPath());
+      }
+    } catch (final IOException e) {
+      channel.close();
+      throw e;
+    }
+
+    /*
+     * Force initialization of the instruction tables, and of the operand
+     * walkers and op disassemblers that would otherwise be created as each
+     * instruction is first encountered.
+     */
+
+    SMInstructions.byOpCodeOrNull(0);
+    disassemblers.initializeTables();
+
+    return new SMServer(
+      logger,
+      parsers,
+      disassemblers,
+      channel,
+      channel.getLocalAddress(),
+      realRoot,
+      maximumRequests,
+      allowShutdown
+    );
+  }
+
+  private static void restrictToOwner(
+    final Path socket)
+    throws IOException
+  {
+    if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+      Files.setPosixFilePermissions(
+        socket,
+        PosixFilePermissions.fromString("rw-------"));
+    }
+  }
+
+  /**
+   * @return The address on which the server is listening
+   */
+
+  SocketAddress address()
+  {
+    return this.address;
+  }
+
+  /**
+   * Accept connections until the server is closed. Requests that are in
+   * progress when the server is closed are allowed to complete.
+   *
+   * @throws IOException On errors
+   */
+
+  void run()
+    throws IOException
+  {
+    /*
+     * A request may parse an entire module into memory. A permit is taken
+     * before each connection is accepted, so that the number of requests
+     * in flight, and therefore the amount of memory used, is bounded.
+     * Connections beyond the limit wait in the listen backlog.
+     */
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      while (true) {
+        try {
+          this.permits.acquire();
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+
+        final SocketChannel connection;
+        try {
+          connection = this.channel.accept();
+        } catch (final ClosedChannelException e) {
+          return;
+        }
+        executor.execute(() -> {
+          try {
+            this.serve(connection);
+          } finally {
+            this.permits.release();
+          }
+        });
+      }
+    }
+  }
+
+  @Override
+  public void close()
+    throws IOException
+  {
+    this.channel.close();
+    if (this.address instanceof final UnixDomainSocketAddress unix) {
+      Files.deleteIfExists(unix.getPath());
+    }
+  }
+
+  private void serve(
+    final SocketChannel connection)
+  {
+    try (connection) {
+      final var input =
+        new DataInputStream(
+          new BufferedInputStream(Channels.newInputStream(connection)));
+      final var output =
+        new DataOutputStream(
+          new BufferedOutputStream(Channels.newOutputStream(connection)));
+
+      int status;
+      try {
+        if (!SMServerProtocol.readMagic(input)) {
+          this.logger.trace("client disconnected without a request");
+          return;
+        }
+
+        final var directory =
+          Paths.get(SMServerProtocol.readWorkingDirectory(input));
+        final var arguments =
+          SMServerProtocol.readArguments(input);
+        status = this.execute(directory, arguments, output);
+      } catch (final Exception e) {
+        this.logger.warn("request failed: ", e);
+        SMServerProtocol.writeError(
+          output,
+          Objects.requireNonNullElse(e.getMessage(), e.getClass().getName()));
+        status = 1;
+      }
+      SMServerProtocol.writeExit(output, status);
+    } catch (final IOException e) {
+      this.logger.error("connection failed: ", e);
+    }
+  }
+
+  private int execute(
+    final Path directory,
+    final List<String> arguments,
+    final DataOutputStream output)
+    throws Exception
+  {
+    if (arguments.isEmpty()) {
+      throw new IllegalArgumentException("No request was specified");
+    }
+
+    final var name = arguments.get(0);
+    this.logger.debug("request: {}", arguments);
+
+    switch (name) {
+      case "disassemble": {
+        this.executeDisassemble(this.request(directory, arguments), output);
+        return 0;
+      }
+      case "parse": {
+        this.executeParse(this.request(directory, arguments), output);
+        return 0;
+      }
+      case "analyze": {
+        this.executeAnalyze(this.request(directory, arguments), output);
+        return 0;
+      }
+      case "shutdown": {
+        if (!this.allowShutdown) {
+          throw new IllegalStateException(
+            "This server does not accept shutdown requests (start it with --allowShutdown)"
+          );
+        }
+        this.close();
+        return 0;
+      }
+      default: {
+        throw new IllegalArgumentException(
+          String.format(
+            "Unrecognized request '%s' (must be one of: analyze, disassemble, parse, shutdown)",
+            name)
+        );
+      }
+    }
+  }
+
+  private Request request(
+    final Path directory,
+    final List<String> arguments)
+  {
+    final var request = new Request();
+    JCommander.newBuilder()
+      .addObject(request)
+      .build()
+      .parse(arguments.subList(1, arguments.size()).toArray(new String[0]));
+
+    request.inputFile = this.confine(directory.resolve(request.inputFile));
+    return request;
+  }
+
+  /**
+   * Check that the given file is inside the root directory, if there is
+   * one. Links are resolved before the check. Files that do not exist
+   * are reported in the same way as files outside the root directory, so
+   * that clients cannot discover which files exist outside it.
+   */
+
+  private Path confine(
+    final Path file)
+  {
+    if (this.root == null) {
+      return file;
+    }
+
+    try {
+      final var real = file.toRealPath();
+      if (real.startsWith(this.root)) {
+        return real;
+      }
+    } catch (final IOException e) {
+      this.logger.debug("cannot resolve {}: ", file, e);
+    }
+
+    throw new IllegalArgumentException(
+      String.format(
+        "Input file %s does not exist or is outside the server root directory",
+        file)
+    );
+  }
+
+  private void executeDisassemble(
+    final Request request,
+    final DataOutputStream output)
+    throws Exception
+  {
+    final var configuration =
+      SMDisassemblerConfiguration.builder()
+        .setParallelism(request.parallelism)
+        .setFormat(request.format)
+        .setIdentifiers(request.identifiers)
+        .build();
+
+    final var out = new SMServerProtocol.FrameOutputStream(output);
+    try (var disassembler = this.disassemblers.create()) {
+      if (request.parallelism > 1) {
+        try (var parser = this.parsers.createFromPath(request.inputFile)) {
+          disassembler.disassemble(configuration, parser.parseModule(), out);
+        }
+      } else {
+        disassembler.disassemble(
+          configuration,
+          SMParserSourceType.ofPath(this.parsers, request.inputFile),
+          out
+        );
+      }
+    }
+  }
+
+  private void executeParse(
+    final Request request,
+    final DataOutputStream output)
+    throws Exception
+  {
+    try (var parser = this.parsers.createFromPath(request.inputFile)) {
+      final var module = parser.parseModule();
+      final var header = module.header();
+
+      final var writer =
+        new OutputStreamWriter(
+          new SMServerProtocol.FrameOutputStream(output), UTF_8);
+      writer.write(String.format(
+        "version: %d.%d%n",
+        Long.valueOf(header.versionMajor()),
+        Long.valueOf(header.versionMinor())));
+      writer.write(String.format(
+        "bound: %d%n",
+        Long.valueOf(header.idBound())));
+      writer.write(String.format(
+        "instructions: %d%n",
+        Integer.valueOf(module.instructionCount())));
+      writer.flush();
+    }
+  }
+
+  private void executeAnalyze(
+    final Request request,
+    final DataOutputStream output)
+    throws Exception
+  {
+    final SMModuleAnalysis analysis;
+    try (var parser = this.parsers.createFromPath(request.inputFile)) {
+      analysis =
+        SMModuleAnalysis.builder()
+          .withIdentifiers()
+          .withTypes()
+          .withFunctions()
+          .analyze(parser);
+    }
+
+    final var writer =
+      new OutputStreamWriter(
+        new SMServerProtocol.FrameOutputStream(output), UTF_8);
+    writer.write(String.format(
+      "bound: %d%n",
+      Long.valueOf(analysis.header().idBound())));
+    writer.write(String.format(
+      "names: %d%n",
+      Integer.valueOf(analysis.idToName().size())));
+    writer.write(String.format(
+      "types: %d%n",
+      Integer.valueOf(analysis.idToType().size())));
+
+    final var functions = analysis.functions().orElseThrow();
+    for (final var extent : functions.extents()) {
+      writer.write(String.format(
+        "function: %%%d 0x%08x 0x%08x%n",
+        Long.valueOf(extent.functionId()),
+        Long.valueOf(extent.startByteOffset()),
+        Long.valueOf(extent.endByteOffset())));
+    }
+    for (final var entry : functions.entryPoints().entrySet()) {
+      writer.write(String.format(
+        "entryPoint: %s %%%d%n",
+        entry.getKey(),
+        entry.getValue()));
+    }
+    writer.flush();
+  }
+
+  /**
+   * The parameters of a single request.
+   */
+
+  private static final class Request
+  {
+    @Parameter(
+      description = "The input file.",
+      names = "--inputFile",
+      required = true
+    )
+    private Path inputFile;
+
+    @Parameter(
+      description = "The number of threads used to format instructions.",
+      names = "--parallelism",
+      required = false
+    )
+    private int parallelism = 1;
+
+    @Parameter(
+      description = "The output format.",
+      names = "--format",
+      required = false
+    )
+    private SMDisassemblerConfigurationType.Format format =
+      SMDisassemblerConfigurationType.Format.TEXT;
+
+    @Parameter(
+      description = "The printing behaviour for identifiers.",
+      names = "--identifiers",
+      required = false
+    )
+    private SMDisassemblerConfigurationType.Identifiers identifiers =
+      SMDisassemblerConfigurationType.Identifiers.NAMED;
+
+    Request()
+    {
+
+    }
+  }
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.cmdline.internal;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The framed protocol spoken between the {@code client} and {@code server}
+ * commands.
+ *
+ * <p>A client sends a single request consisting of the protocol magic
+ * number, the client's working directory, and the list of arguments, each
+ * string encoded as a length-prefixed UTF-8 sequence. The server replies
+ * with a sequence of frames, each consisting of a one-byte frame type, a
+ * four-byte length, and a payload. Output frames carry the output of the
+ * request, error frames carry error messages, and the final exit frame
+ * carries the exit status of the request.</p>
+ */
+
+final class SMServerProtocol
+{
+  /**
+   * The protocol magic number.
+   */
+
+  static final int MAGIC = 0x534d5331;
+
+  /**
+   * A frame containing output data.
+   */
+
+  static final byte FRAME_OUTPUT = 'O';
+
+  /**
+   * A frame containing a UTF-8 error message.
+   */
+
+  static final byte FRAME_ERROR = 'E';
+
+  /**
+   * The final frame of a response, containing the four-byte exit status.
+   */
+
+  static final byte FRAME_EXIT = 'X';
+
+  private static final int MAXIMUM_ARGUMENTS = 1024;
+  private static final int MAXIMUM_STRING = 65536;
+  private static final int MAXIMUM_FRAME = 1 << 20;
+
+  private SMServerProtocol()
+  {
+
+  }
+
+  /**
+   * Determine the address of a server.
+   *
+   * @param socket The path of a Unix domain socket, if any
+   * @param port   The localhost TCP port, if any
+   *
+   * @return The address
+   */
+
+  static SocketAddress address(
+    final Path socket,
+    final Integer port)
+  {
+    if (socket != null && port != null) {
+      throw new IllegalArgumentException(
+        "At most one of --socket or --port may be specified");
+    }
+    if (socket != null) {
+      return UnixDomainSocketAddress.of(socket);
+    }
+    if (port != null) {
+      return new InetSocketAddress(InetAddress.getLoopbackAddress(), port.intValue());
+    }
+    throw new IllegalArgumentException(
+      "One of --socket or --port must be specified");
+  }
+
+  static void writeRequest(
+    final DataOutputStream output,
+    final String workingDirectory,
+    final List<String> arguments)
+    throws IOException
+  {
+    output.writeInt(MAGIC);
+    writeString(output, workingDirectory);
+    output.writeInt(arguments.size());
+    for (final var argument : arguments) {
+      writeString(output, argument);
+    }
+    output.flush();
+  }
+
+  /**
+   * Read the magic number that starts a request.
+   *
+   * @param input The input
+   *
+   * @return {@code false} if the client disconnected before sending anything
+   *
+   * @throws IOException On I/O errors, or if the magic number is incorrect
+   */
+
+  static boolean readMagic(
+    final DataInputStream input)
+    throws IOException
+  {
+    final var first = input.read();
+    if (first == -1) {
+      return false;
+    }
+
+    final var magic =
+      (first << 24)
+        | (input.readUnsignedByte() << 16)
+        | (input.readUnsignedShort());
+
+    if (magic != MAGIC) {
+      throw new IOException(
+        String.format(
+          "Unrecognized protocol magic number 0x%08x",
+          Integer.valueOf(magic))
+      );
+    }
+    return true;
+  }
+
+  static String readWorkingDirectory(
+    final DataInputStream input)
+    throws IOException
+  {
+    return readString(input);
+  }
+
+  static List<String> readArguments(
+    final DataInputStream input)
+    throws IOException
+  {
+    final var count = input.readInt();
+    if (count < 0 || count > MAXIMUM_ARGUMENTS) {
+      throw new IOException(
+        String.format("Invalid argument count %d", Integer.valueOf(count)));
+    }
+
+    final var arguments = new ArrayList<String>(count);
+    for (int index = 0; index < count; ++index) {
+      arguments.add(readString(input));
+    }
+    return arguments;
+  }
+
+  static void writeFrame(
+    final DataOutputStream output,
+    final byte type,
+    final byte[] data,
+    final int offset,
+    final int length)
+    throws IOException
+  {
+    output.writeByte(type);
+    output.writeInt(length);
+    output.write(data, offset, length);
+  }
+
+  static void writeError(
+    final DataOutputStream output,
+    final String message)
+    throws IOException
+  {
+    final var data = message.getBytes(UTF_8);
+    writeFrame(output, FRAME_ERROR, data, 0, data.length);
+  }
+
+  static void writeExit(
+    final DataOutputStream output,
+    final int status)
+    throws IOException
+  {
+    output.writeByte(FRAME_EXIT);
+    output.writeInt(4);
+    output.writeInt(status);
+    output.flush();
+  }
+
+  static byte[] readFramePayload(
+    final DataInputStream input)
+    throws IOException
+  {
+    final var length = input.readInt();
+    if (length < 0 || length > MAXIMUM_FRAME) {
+      throw new IOException(
+        String.format("Invalid frame length %d", Integer.valueOf(length)));
+    }
+    return readExactly(input, length);
+  }
+
+  private static byte[] readExactly(
+    final DataInputStream input,
+    final int length)
+    throws IOException
+  {
+    final var data = new byte[length];
+    input.readFully(data);
+    return data;
+  }
+
+  private static void writeString(
+    final DataOutputStream output,
+    final String text)
+    throws IOException
+  {
+    final var data = text.getBytes(UTF_8);
+    if (data.length > MAXIMUM_STRING) {
+      throw new IOException(
+        String.format("String too long (%d bytes)", Integer.valueOf(data.length)));
+    }
+    output.writeInt(data.length);
+    output.write(data);
+  }
+
+  private static String readString(
+    final DataInputStream input)
+    throws IOException
+  {
+    final var length = input.readInt();
+    if (length < 0 || length > MAXIMUM_STRING) {
+      throw new IOException(
+        String.format("Invalid string length %d", Integer.valueOf(length)));
+    }
+    return UTF_8.decode(ByteBuffer.wrap(readExactly(input, length))).toString();
+  }
+
+  /**
+   * An output stream that divides everything written to it into output
+   * frames. Buffered data is written as a frame when the stream is
+   * flushed.
+   */
+
+  static final class FrameOutputStream extends OutputStream
+  {
+    private final DataOutputStream output;
+    private final byte[] buffer;
+    private int used;
+
+    FrameOutputStream(
+      final DataOutputStream inOutput)
+    {
+      this.output = Objects.requireNonNull(inOutput, "output");
+      this.buffer = new byte[65536];
+    }
+
+    @Override
+    public void write(
+      final int b)
+      throws IOException
+    {
+      if (this.used == this.buffer.length) {
+        this.flush();
+      }
+      this.buffer[this.used] = (byte) b;
+      ++this.used;
+    }
+
+    @Override
+    public void write(
+      final byte[] data,
+      final int offset,
+      final int length)
+      throws IOException
+    {
+      Objects.checkFromIndexSize(offset, length, data.length);
+
+      var position = offset;
+      var remaining = length;
+      while (remaining > 0) {
+        if (this.used == this.buffer.length) {
+          this.flush();
+        }
+        final var count = Math.min(remaining, this.buffer.length - this.used);
+        System.arraycopy(data, position, this.buffer, this.used, count);
+        this.used += count;
+        position += count;
+        remaining -= count;
+      }
+    }
+
+    @Override
+    public void flush()
+      throws IOException
+    {
+      if (this.used > 0) {
+        writeFrame(this.output, FRAME_OUTPUT, this.buffer, 0, this.used);
+        this.used = 0;
+      }
+      this.output.flush();
+    }
+  }
+}
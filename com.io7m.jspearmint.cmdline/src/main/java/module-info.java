@@ -24,6 +24,7 @@ module com.io7m.jspearmint.cmdline
   requires static org.osgi.annotation.versioning;
 
   requires ch.qos.logback.classic;
+  requires com.io7m.jspearmint.analysis;
   requires com.io7m.jspearmint.api;
   requires com.io7m.jspearmint.parser.api;
   requires com.io7m.jspearmint.disassembly.api;
@@ -43,7 +43,16 @@ public interface SMDisassemblerConfigurationType
      * Display friendly names for identifiers.
      */
 
-    NAMED
+    NAMED,
+
+    /**
+     * Display friendly names for identifiers, deriving names for unnamed
+     * types and constants from their definitions (such as {@code %v4float}
+     * or {@code %_ptr_Uniform_Block}), and falling back to numeric
+     * identifiers for anything else.
+     */
+
+    FRIENDLY
   }
 
   /**
@@ -55,4 +64,89 @@ public interface SMDisassemblerConfigurationType
   {
     return Identifiers.NAMED;
   }
+
+  /**
+   * The output format.
+   */
+
+  enum Format
+  {
+    /**
+     * Human-readable text, one instruction per line.
+     */
+
+    TEXT,
+
+    /**
+     * A sequence of JSON objects separated by newlines: A header record
+     * followed by one record per instruction.
+     */
+
+    JSON,
+
+    /**
+     * A sequence of CBOR objects with the same structure as the
+     * {@link #JSON} format.
+     */
+
+    CBOR
+  }
+
+  /**
+   * @return The output format
+   */
+
+  @Value.Default
+  default Format format()
+  {
+    return Format.TEXT;
+  }
+
+  /**
+   * The number of threads used to format instructions. A value of {@code 1}
+   * disassembles sequentially. Disassemblers produce identical output
+   * regardless of the level of parallelism.
+   *
+   * @return The number of threads used to format instructions
+   */
+
+  @Value.Default
+  default int parallelism()
+  {
+    return 1;
+  }
+
+  /**
+   * @return The number of instructions formatted together as a single unit
+   * of work when disassembling in parallel
+   */
+
+  @Value.Default
+  default int chunkSize()
+  {
+    return 4096;
+  }
+
+  /**
+   * Check preconditions for the type.
+   */
+
+  @Value.Check
+  default void checkPreconditions()
+  {
+    if (this.parallelism() < 1) {
+      throw new IllegalArgumentException(
+        String.format(
+          "Parallelism %d must be at least 1",
+          Integer.valueOf(this.parallelism()))
+      );
+    }
+    if (this.chunkSize() < 1) {
+      throw new IllegalArgumentException(
+        String.format(
+          "Chunk size %d must be at least 1",
+          Integer.valueOf(this.chunkSize()))
+      );
+    }
+  }
 }
@@ -27,4 +27,16 @@ public interface SMDisassemblerProviderType
    */
 
   SMDisassemblerType create();
+
+  /**
+   * Build, in advance, any tables that disassemblers would otherwise build
+   * lazily as instructions are first encountered. Long-running processes
+   * may call this once at startup so that the first disassembly does not
+   * pay for it. The default implementation does nothing.
+   */
+
+  default void initializeTables()
+  {
+
+  }
 }
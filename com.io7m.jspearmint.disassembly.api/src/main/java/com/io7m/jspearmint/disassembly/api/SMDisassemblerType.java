@@ -16,8 +16,11 @@
 
 package com.io7m.jspearmint.disassembly.api;
 
+import com.io7m.jspearmint.parser.api.SMModule;
+import com.io7m.jspearmint.parser.api.SMParseException;
 import com.io7m.jspearmint.parser.api.SMParsedHeader;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
+import com.io7m.jspearmint.parser.api.SMParserSourceType;
 
 import java.io.Closeable;
 import java.io.IOException;
@@ -26,6 +29,11 @@ import java.util.List;
 
 /**
  * A disassembler.
+ *
+ * <p>Output streams passed to the methods of this interface remain owned
+ * by the caller: each method flushes the stream when it completes, but
+ * never closes it. This is the same contract as that of
+ * {@link SMModuleDisassemblerType}.</p>
  */
 
 public interface SMDisassemblerType extends Closeable
@@ -44,7 +52,73 @@ public interface SMDisassemblerType extends Closeable
   void disassemble(
     SMDisassemblerConfiguration configuration,
     SMParsedHeader header,
-    List<SMParsedInstruction> instructions,
+    List<? extends SMParsedInstructionType> instructions,
     OutputStream out)
     throws IOException;
+
+  /**
+   * Execute the disassembler on a parsed module.
+   *
+   * @param configuration The disassembler configuration
+   * @param module        The parsed module
+   * @param out           The output stream
+   *
+   * @throws IOException On I/O errors
+   */
+
+  default void disassemble(
+    final SMDisassemblerConfiguration configuration,
+    final SMModule module,
+    final OutputStream out)
+    throws IOException
+  {
+    this.disassemble(
+      configuration,
+      module.header(),
+      module.instructions(),
+      out
+    );
+  }
+
+  /**
+   * Execute the disassembler on a module read from the given source. The
+   * source may be opened more than once. Implementations are encouraged to
+   * stream instructions from the source rather than materializing the
+   * module; the default implementation parses the whole module and then
+   * disassembles it.
+   *
+   * @param configuration The disassembler configuration
+   * @param source        The source of the module
+   * @param out           The output stream
+   *
+   * @throws IOException      On I/O errors
+   * @throws SMParseException On parse errors
+   */
+
+  default void disassemble(
+    final SMDisassemblerConfiguration configuration,
+    final SMParserSourceType source,
+    final OutputStream out)
+    throws IOException, SMParseException
+  {
+    try (var parser = source.open()) {
+      this.disassemble(configuration, parser.parseModule(), out);
+    }
+  }
+
+  /**
+   * Open a disassembler that provides random access to the given module.
+   * The module is analyzed once, and the returned disassembler may then be
+   * used to disassemble individual functions, entry points, or byte ranges
+   * without disassembling the rest of the module.
+   *
+   * @param configuration The disassembler configuration
+   * @param module        The parsed module
+   *
+   * @return A disassembler for the module
+   */
+
+  SMModuleDisassemblerType openModule(
+    SMDisassemblerConfiguration configuration,
+    SMModule module);
 }
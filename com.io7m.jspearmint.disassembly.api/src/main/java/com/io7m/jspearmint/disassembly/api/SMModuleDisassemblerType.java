@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.disassembly.api;
+
+import com.io7m.jspearmint.parser.api.SMModule;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A disassembler bound to a single module, providing random access to
+ * parts of the module. The module is analyzed once, when the disassembler
+ * is opened, and the results of the analysis (including the location of
+ * every function) are reused by each subsequent request. Output consists
+ * of exactly the instructions requested, formatted as they would be in a
+ * disassembly of the whole module, without a module header.
+ *
+ * <p>Output streams passed to the methods of this interface remain owned
+ * by the caller: each request flushes the stream when it completes, but
+ * never closes it, and so several requests may be written to the same
+ * stream in turn.</p>
+ *
+ * @see SMDisassemblerType#openModule(SMDisassemblerConfiguration, SMModule)
+ */
+
+public interface SMModuleDisassemblerType
+{
+  /**
+   * @return The module
+   */
+
+  SMModule module();
+
+  /**
+   * @return The IDs of the functions in the module, in declaration order
+   */
+
+  List<Long> functions();
+
+  /**
+   * @return A mapping of entry point names to function IDs
+   */
+
+  Map<String, Long> entryPoints();
+
+  /**
+   * Disassemble every instruction that overlaps the byte range
+   * {@code [startByteOffset, endByteOffset)}.
+   *
+   * @param startByteOffset The start of the range (inclusive)
+   * @param endByteOffset   The end of the range (exclusive)
+   * @param out             The output stream
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void disassembleRange(
+    long startByteOffset,
+    long endByteOffset,
+    OutputStream out)
+    throws IOException;
+
+  /**
+   * Disassemble a single function, from {@code OpFunction} through to
+   * {@code OpFunctionEnd} inclusive.
+   *
+   * @param functionId The function ID
+   * @param out        The output stream
+   *
+   * @throws IOException              On I/O errors
+   * @throws IllegalArgumentException If the module has no such function
+   */
+
+  void disassembleFunction(
+    long functionId,
+    OutputStream out)
+    throws IOException;
+
+  /**
+   * Disassemble the function that implements the named entry point.
+   *
+   * @param name The entry point name
+   * @param out  The output stream
+   *
+   * @throws IOException              On I/O errors
+   * @throws IllegalArgumentException If the module has no such entry point
+   */
+
+  default void disassembleEntryPoint(
+    final String name,
+    final OutputStream out)
+    throws IOException
+  {
+    final var function = this.entryPoints().get(name);
+    if (function == null) {
+      throw new IllegalArgumentException(
+        String.format("No such entry point: %s", name)
+      );
+    }
+    this.disassembleFunction(function.longValue(), out);
+  }
+}
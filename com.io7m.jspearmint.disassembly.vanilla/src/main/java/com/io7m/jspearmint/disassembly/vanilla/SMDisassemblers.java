@@ -19,8 +19,12 @@ package com.io7m.jspearmint.disassembly.vanilla;
 import com.io7m.jspearmint.disassembly.api.SMDisassemblerProviderType;
 import com.io7m.jspearmint.disassembly.api.SMDisassemblerType;
 import com.io7m.jspearmint.disassembly.vanilla.internal.SMDisassembler;
+import com.io7m.jspearmint.parser.api.SMMetricsListenerType;
 import org.osgi.service.component.annotations.Component;
 
+import java.util.Objects;
+import java.util.ServiceLoader;
+
 /**
  * The default provider of disassemblers.
  */
@@ -28,18 +32,43 @@ import org.osgi.service.component.annotations.Component;
 @Component(service = SMDisassemblerProviderType.class)
 public final class SMDisassemblers implements SMDisassemblerProviderType
 {
+  private final SMMetricsListenerType metrics;
+
   /**
-   * Construct a provider.
+   * Construct a provider that delivers metrics to the given listener.
+   *
+   * @param inMetrics The metrics listener
    */
 
-  public SMDisassemblers()
+  public SMDisassemblers(
+    final SMMetricsListenerType inMetrics)
   {
+    this.metrics = Objects.requireNonNull(inMetrics, "metrics");
+  }
+
+  /**
+   * Construct a provider. Metrics are delivered to the first available
+   * {@link SMMetricsListenerType} service, if any.
+   */
 
+  public SMDisassemblers()
+  {
+    this(
+      ServiceLoader.load(SMMetricsListenerType.class)
+        .findFirst()
+        .orElseGet(SMMetricsListenerType::noOp)
+    );
   }
 
   @Override
   public SMDisassemblerType create()
   {
-    return new SMDisassembler();
+    return new SMDisassembler(this.metrics);
+  }
+
+  @Override
+  public void initializeTables()
+  {
+    SMDisassembler.initializeTables();
   }
 }
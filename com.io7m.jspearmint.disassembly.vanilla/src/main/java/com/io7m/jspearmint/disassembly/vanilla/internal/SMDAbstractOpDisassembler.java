@@ -17,9 +17,8 @@
 package com.io7m.jspearmint.disassembly.vanilla.internal;
 
 import com.io7m.jspearmint.api.SMInstruction;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
-import java.util.List;
 import java.util.Objects;
 
 abstract class SMDAbstractOpDisassembler implements SMOpDisassemblerType
@@ -39,12 +38,14 @@ abstract class SMDAbstractOpDisassembler implements SMOpDisassemblerType
   }
 
   @Override
-  public final List<String> disassemble(
+  public final void disassemble(
     final SMOpDisassemblerContextType context,
-    final SMParsedInstruction parsedInstruction)
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
   {
     Objects.requireNonNull(context, "context");
     Objects.requireNonNull(parsedInstruction, "instruction");
+    Objects.requireNonNull(output, "output");
 
     final int definedOpcode = this.instruction.value();
     final long parsedOpcode = parsedInstruction.opCode();
@@ -58,7 +59,7 @@ abstract class SMDAbstractOpDisassembler implements SMOpDisassemblerType
       );
     }
 
-    final int parsedCount = parsedInstruction.operands().size();
+    final int parsedCount = parsedInstruction.operandCount();
     final int minimumCount = this.instruction.minimumOperandCount();
     if (parsedCount < minimumCount) {
       throw new IllegalArgumentException(
@@ -70,11 +71,21 @@ abstract class SMDAbstractOpDisassembler implements SMOpDisassemblerType
       );
     }
 
-    return this.disassembleActual(context, parsedInstruction);
+    this.disassembleActual(context, parsedInstruction, output);
   }
 
-  protected abstract List<String> disassembleActual(
+  /**
+   * Append the operands of the given instruction to the output. Each
+   * operand is preceded by a space.
+   *
+   * @param context           The disassembler context
+   * @param parsedInstruction The instruction
+   * @param output            The output
+   */
+
+  protected abstract void disassembleActual(
     SMOpDisassemblerContextType context,
-    SMParsedInstruction parsedInstruction
+    SMParsedInstructionType parsedInstruction,
+    SMTextOutput output
   );
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.disassembly.vanilla.internal;
+
+import com.io7m.jspearmint.api.SMInstruction;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
+
+/**
+ * A disassembler driven entirely by the operand definitions of an
+ * instruction in the grammar. Operands are formatted according to their
+ * kind: IDs are formatted as IDs, strings are quoted, enumerants are
+ * formatted by name and are followed by any parameters that they declare,
+ * and composite operands are formatted as the sequence of their bases. The
+ * result ID, if any, is omitted as it appears in the assignment column. Any
+ * words left over after all defined operands have been consumed are
+ * formatted as literals.
+ *
+ * @see SMOperandWalker
+ */
+
+public final class SMDGenericOpDisassembler
+  extends SMDAbstractOpDisassembler
+{
+  private final SMOperandWalker walker;
+
+  /**
+   * Construct an op.
+   *
+   * @param inInstruction The instruction definition
+   */
+
+  public SMDGenericOpDisassembler(
+    final SMInstruction inInstruction)
+  {
+    super(inInstruction);
+    this.walker = SMOperandWalker.of(inInstruction);
+  }
+
+  @Override
+  protected void disassembleActual(
+    final SMOpDisassemblerContextType context,
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
+  {
+    this.walker.walk(
+      context,
+      parsedInstruction,
+      context.textReceiver(output)
+    );
+  }
+}
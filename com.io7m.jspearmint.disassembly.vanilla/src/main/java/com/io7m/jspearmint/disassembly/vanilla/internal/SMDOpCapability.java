@@ -18,9 +18,7 @@ package com.io7m.jspearmint.disassembly.vanilla.internal;
 
 import com.io7m.jspearmint.api.SMCapability;
 import com.io7m.jspearmint.api.SMInstruction;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
-
-import java.util.List;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 /**
  * OpCapability.
@@ -39,13 +37,14 @@ public final class SMDOpCapability
   }
 
   @Override
-  protected List<String> disassembleActual(
+  protected void disassembleActual(
     final SMOpDisassemblerContextType context,
-    final SMParsedInstruction parsedInstruction)
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
   {
     final var capability =
-      SMCapability.ofInteger(parsedInstruction.operands().get(0).intValue());
+      SMCapability.ofInteger((int) parsedInstruction.operand(0));
 
-    return List.of(capability.spirName());
+    output.appendOperand(capability.spirName());
   }
 }
@@ -17,10 +17,7 @@
 package com.io7m.jspearmint.disassembly.vanilla.internal;
 
 import com.io7m.jspearmint.api.SMInstruction;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 /**
  * OpCompositeConstruct
@@ -39,16 +36,15 @@ public final class SMDOpCompositeConstruct
   }
 
   @Override
-  protected List<String> disassembleActual(
+  protected void disassembleActual(
     final SMOpDisassemblerContextType context,
-    final SMParsedInstruction parsedInstruction)
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
   {
-    final var parsedOperands = parsedInstruction.operands();
-    final var items = new ArrayList<String>();
-    items.add(context.idString(parsedOperands.get(0)));
-    for (final var rest : parsedOperands.subList(2, parsedOperands.size())) {
-      items.add(context.idString(rest));
+    final var operandCount = parsedInstruction.operandCount();
+    output.appendOperand(context.idString(parsedInstruction.operand(0)));
+    for (var index = 2; index < operandCount; ++index) {
+      output.appendOperand(context.idString(parsedInstruction.operand(index)));
     }
-    return List.copyOf(items);
   }
 }
@@ -17,10 +17,7 @@
 package com.io7m.jspearmint.disassembly.vanilla.internal;
 
 import com.io7m.jspearmint.api.SMInstruction;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 /**
  * OpConstant
@@ -38,14 +35,20 @@ public final class SMDOpConstant
   }
 
   @Override
-  protected List<String> disassembleActual(
+  protected void disassembleActual(
     final SMOpDisassemblerContextType context,
-    final SMParsedInstruction parsedInstruction)
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
   {
-    final var operands = parsedInstruction.operands();
-    final var items = new ArrayList<String>();
-    items.add(context.idString(operands.get(0)));
-    items.add(context.literalTyped(operands.get(0), operands.get(2)));
-    return List.copyOf(items);
+    final var type = parsedInstruction.operand(0);
+    final var words =
+      SMOperandWalker.literalTypedWords(context, parsedInstruction, type, 2);
+
+    output.appendOperand(context.idString(type));
+    output.appendOperand(context.literalTyped(
+      type, SMOperandWalker.literalTypedValue(parsedInstruction, 2, words)));
+    for (var index = 2 + words; index < parsedInstruction.operandCount(); ++index) {
+      output.appendLiteralOperand(parsedInstruction.operand(index));
+    }
   }
 }
@@ -18,10 +18,7 @@ package com.io7m.jspearmint.disassembly.vanilla.internal;
 
 import com.io7m.jspearmint.api.SMDecoration;
 import com.io7m.jspearmint.api.SMInstruction;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 /**
  * OpDecorate
@@ -39,24 +36,18 @@ public final class SMDOpDecorate
   }
 
   @Override
-  protected List<String> disassembleActual(
+  protected void disassembleActual(
     final SMOpDisassemblerContextType context,
-    final SMParsedInstruction parsedInstruction)
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
   {
-    final var parsedOperands = parsedInstruction.operands();
-
-    final var items = new ArrayList<String>();
-    items.add(context.idString(parsedOperands.get(0)));
-    items.add(SMDecoration.ofInteger(parsedOperands.get(1).intValue()).spirName());
+    final var operandCount = parsedInstruction.operandCount();
+    output.appendOperand(context.idString(parsedInstruction.operand(0)));
+    output.appendOperand(
+      SMDecoration.ofInteger((int) parsedInstruction.operand(1)).spirName());
 
-    final var remainingIter =
-      parsedOperands.subList(2, parsedOperands.size()).iterator();
-
-    while (remainingIter.hasNext()) {
-      final var item = remainingIter.next();
-      items.add(context.literal(item));
+    for (var index = 2; index < operandCount; ++index) {
+      output.appendLiteralOperand(parsedInstruction.operand(index));
     }
-
-    return List.copyOf(items);
   }
 }
@@ -16,13 +16,9 @@
 
 package com.io7m.jspearmint.disassembly.vanilla.internal;
 
-import com.io7m.jspearmint.analysis.SMStrings;
 import com.io7m.jspearmint.api.SMExecutionModel;
 import com.io7m.jspearmint.api.SMInstruction;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 /**
  * OpEntryPoint
@@ -40,26 +36,23 @@ public final class SMDOpEntryPoint
   }
 
   @Override
-  protected List<String> disassembleActual(
+  protected void disassembleActual(
     final SMOpDisassemblerContextType context,
-    final SMParsedInstruction parsedInstruction)
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
   {
-    final var operands =
-      parsedInstruction.operands();
+    final var operandCount =
+      parsedInstruction.operandCount();
     final var execution =
-      SMExecutionModel.ofInteger(operands.get(0).intValue());
+      SMExecutionModel.ofInteger((int) parsedInstruction.operand(0));
     final var name =
-      SMStrings.consumeUTF8String(operands, 2);
-    final var remaining =
-      operands.subList(2 + name.usedWords(), operands.size());
+      context.string(parsedInstruction, 2);
 
-    final var items = new ArrayList<String>();
-    items.add(execution.spirName());
-    items.add(context.idString(operands.get(1)));
-    items.add(context.quoteString(name));
-    for (final var id : remaining) {
-      items.add(context.idString(id));
+    output.appendOperand(execution.spirName());
+    output.appendOperand(context.idString(parsedInstruction.operand(1)));
+    output.appendOperand(context.quoteString(name));
+    for (var index = 2 + name.usedWords(); index < operandCount; ++index) {
+      output.appendOperand(context.idString(parsedInstruction.operand(index)));
     }
-    return List.copyOf(items);
   }
 }
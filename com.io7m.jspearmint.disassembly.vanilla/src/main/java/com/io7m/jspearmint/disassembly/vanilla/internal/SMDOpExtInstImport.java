@@ -16,11 +16,8 @@
 
 package com.io7m.jspearmint.disassembly.vanilla.internal;
 
-import com.io7m.jspearmint.analysis.SMStrings;
 import com.io7m.jspearmint.api.SMInstruction;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
-
-import java.util.List;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 /**
  * OpExtInstImport
@@ -38,13 +35,14 @@ public final class SMDOpExtInstImport
   }
 
   @Override
-  protected List<String> disassembleActual(
+  protected void disassembleActual(
     final SMOpDisassemblerContextType context,
-    final SMParsedInstruction parsedInstruction)
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
   {
     final var text =
-      SMStrings.consumeUTF8String(parsedInstruction.operands(), 1);
+      context.string(parsedInstruction, 1);
 
-    return List.of(context.quoteString(text));
+    output.appendOperand(context.quoteString(text));
   }
 }
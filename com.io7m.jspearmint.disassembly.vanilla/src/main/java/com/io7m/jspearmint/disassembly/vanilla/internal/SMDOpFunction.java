@@ -18,9 +18,7 @@ package com.io7m.jspearmint.disassembly.vanilla.internal;
 
 import com.io7m.jspearmint.api.SMFunctionControl;
 import com.io7m.jspearmint.api.SMInstruction;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
-
-import java.util.List;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 /**
  * OpFunction
@@ -38,15 +36,21 @@ public final class SMDOpFunction
   }
 
   @Override
-  protected List<String> disassembleActual(
+  protected void disassembleActual(
     final SMOpDisassemblerContextType context,
-    final SMParsedInstruction parsedInstruction)
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
   {
-    final var parsedOperands = parsedInstruction.operands();
-    return List.of(
-      context.idString(parsedOperands.get(0)),
-      SMFunctionControl.ofInteger(parsedOperands.get(2).intValue()).spirName(),
-      context.idString(parsedOperands.get(3))
-    );
+    output.appendOperand(context.idString(parsedInstruction.operand(0)));
+
+    final var mask = parsedInstruction.operand(2);
+    final var control = SMFunctionControl.ofMaskOrNull(mask);
+    if (control == null) {
+      output.appendHexLiteralOperand(mask);
+    } else {
+      output.appendBitEnumerants(control);
+    }
+
+    output.appendOperand(context.idString(parsedInstruction.operand(3)));
   }
 }
@@ -17,9 +17,7 @@
 package com.io7m.jspearmint.disassembly.vanilla.internal;
 
 import com.io7m.jspearmint.api.SMInstruction;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
-
-import java.util.List;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 /**
  * OpLoad
@@ -37,15 +35,12 @@ public final class SMDOpLoad
   }
 
   @Override
-  protected List<String> disassembleActual(
+  protected void disassembleActual(
     final SMOpDisassemblerContextType context,
-    final SMParsedInstruction parsedInstruction)
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
   {
-    final var parsedOperands = parsedInstruction.operands();
-
-    return List.of(
-      context.idString(parsedOperands.get(0)),
-      context.idString(parsedOperands.get(2))
-    );
+    output.appendOperand(context.idString(parsedInstruction.operand(0)));
+    output.appendOperand(context.idString(parsedInstruction.operand(2)));
   }
 }
@@ -18,10 +18,7 @@ package com.io7m.jspearmint.disassembly.vanilla.internal;
 
 import com.io7m.jspearmint.api.SMDecoration;
 import com.io7m.jspearmint.api.SMInstruction;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 /**
  * OpMemberDecorate
@@ -39,25 +36,19 @@ public final class SMDOpMemberDecorate
   }
 
   @Override
-  protected List<String> disassembleActual(
+  protected void disassembleActual(
     final SMOpDisassemblerContextType context,
-    final SMParsedInstruction parsedInstruction)
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
   {
-    final var parsedOperands = parsedInstruction.operands();
-
-    final var items = new ArrayList<String>();
-    items.add(context.idString(parsedOperands.get(0)));
-    items.add(context.literal(parsedOperands.get(1)));
-    items.add(SMDecoration.ofInteger(parsedOperands.get(2).intValue()).spirName());
-
-    final var remainingIter =
-      parsedOperands.subList(3, parsedOperands.size()).iterator();
-
-    while (remainingIter.hasNext()) {
-      final var item = remainingIter.next();
-      items.add(context.literal(item));
+    final var operandCount = parsedInstruction.operandCount();
+    output.appendOperand(context.idString(parsedInstruction.operand(0)));
+    output.appendLiteralOperand(parsedInstruction.operand(1));
+    output.appendOperand(
+      SMDecoration.ofInteger((int) parsedInstruction.operand(2)).spirName());
+
+    for (var index = 3; index < operandCount; ++index) {
+      output.appendLiteralOperand(parsedInstruction.operand(index));
     }
-
-    return List.copyOf(items);
   }
 }
@@ -16,11 +16,8 @@
 
 package com.io7m.jspearmint.disassembly.vanilla.internal;
 
-import com.io7m.jspearmint.analysis.SMStrings;
 import com.io7m.jspearmint.api.SMInstruction;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
-
-import java.util.List;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 /**
  * OpMemberName
@@ -38,18 +35,15 @@ public final class SMDOpMemberName
   }
 
   @Override
-  protected List<String> disassembleActual(
+  protected void disassembleActual(
     final SMOpDisassemblerContextType context,
-    final SMParsedInstruction parsedInstruction)
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
   {
-    final var parsedOperands = parsedInstruction.operands();
-    final var id = parsedOperands.get(0);
-    final var text = SMStrings.consumeUTF8String(parsedOperands, 2);
+    final var text = context.string(parsedInstruction, 2);
 
-    return List.of(
-      context.idString(id),
-      context.literal(parsedOperands.get(1)),
-      context.quoteString(text)
-    );
+    output.appendOperand(context.idString(parsedInstruction.operand(0)));
+    output.appendLiteralOperand(parsedInstruction.operand(1));
+    output.appendOperand(context.quoteString(text));
   }
 }
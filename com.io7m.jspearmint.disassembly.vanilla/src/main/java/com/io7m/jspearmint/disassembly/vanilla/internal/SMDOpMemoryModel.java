@@ -19,9 +19,7 @@ package com.io7m.jspearmint.disassembly.vanilla.internal;
 import com.io7m.jspearmint.api.SMAddressingModel;
 import com.io7m.jspearmint.api.SMInstruction;
 import com.io7m.jspearmint.api.SMMemoryModel;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
-
-import java.util.List;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 /**
  * OpMemoryModel
@@ -39,13 +37,17 @@ public final class SMDOpMemoryModel
   }
 
   @Override
-  protected List<String> disassembleActual(
+  protected void disassembleActual(
     final SMOpDisassemblerContextType context,
-    final SMParsedInstruction parsedInstruction)
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
   {
-    final var operands = parsedInstruction.operands();
-    final var addr = SMAddressingModel.ofInteger(operands.get(0).intValue());
-    final var mem = SMMemoryModel.ofInteger(operands.get(1).intValue());
-    return List.of(addr.spirName(), mem.spirName());
+    final var addr =
+      SMAddressingModel.ofInteger((int) parsedInstruction.operand(0));
+    final var mem =
+      SMMemoryModel.ofInteger((int) parsedInstruction.operand(1));
+
+    output.appendOperand(addr.spirName());
+    output.appendOperand(mem.spirName());
   }
 }
@@ -16,11 +16,8 @@
 
 package com.io7m.jspearmint.disassembly.vanilla.internal;
 
-import com.io7m.jspearmint.analysis.SMStrings;
 import com.io7m.jspearmint.api.SMInstruction;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
-
-import java.util.List;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 /**
  * OpName
@@ -38,17 +35,14 @@ public final class SMDOpName
   }
 
   @Override
-  protected List<String> disassembleActual(
+  protected void disassembleActual(
     final SMOpDisassemblerContextType context,
-    final SMParsedInstruction parsedInstruction)
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
   {
-    final var parsedOperands = parsedInstruction.operands();
-    final var id = parsedOperands.get(0);
-    final var text = SMStrings.consumeUTF8String(parsedOperands, 1);
+    final var text = context.string(parsedInstruction, 1);
 
-    return List.of(
-      context.idString(id),
-      context.quoteString(text)
-    );
+    output.appendOperand(context.idString(parsedInstruction.operand(0)));
+    output.appendOperand(context.quoteString(text));
   }
 }
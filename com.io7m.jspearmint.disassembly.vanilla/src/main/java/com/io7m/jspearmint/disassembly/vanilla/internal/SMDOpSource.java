@@ -18,9 +18,7 @@ package com.io7m.jspearmint.disassembly.vanilla.internal;
 
 import com.io7m.jspearmint.api.SMInstruction;
 import com.io7m.jspearmint.api.SMSourceLanguage;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
-
-import java.util.List;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 /**
  * OpSource
@@ -38,15 +36,13 @@ public final class SMDOpSource
   }
 
   @Override
-  protected List<String> disassembleActual(
+  protected void disassembleActual(
     final SMOpDisassemblerContextType context,
-    final SMParsedInstruction parsedInstruction)
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
   {
-    final var parsedOperands = parsedInstruction.operands();
-
-    return List.of(
-      SMSourceLanguage.ofInteger(parsedOperands.get(0).intValue()).spirName(),
-      context.literal(parsedOperands.get(1))
-    );
+    output.appendOperand(
+      SMSourceLanguage.ofInteger((int) parsedInstruction.operand(0)).spirName());
+    output.appendLiteralOperand(parsedInstruction.operand(1));
   }
 }
@@ -18,10 +18,7 @@ package com.io7m.jspearmint.disassembly.vanilla.internal;
 
 import com.io7m.jspearmint.api.SMInstruction;
 import com.io7m.jspearmint.api.SMMemoryAccess;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 /**
  * OpStore
@@ -30,31 +27,36 @@ import java.util.List;
 public final class SMDOpStore
   extends SMDAbstractOpDisassembler
 {
+  private final SMOperandWalker walker;
+
   /**
    * Construct an op.
    */
   public SMDOpStore()
   {
     super(SMInstruction.SM_OP_STORE);
+    this.walker = SMOperandWalker.of(SMInstruction.SM_OP_STORE);
   }
 
   @Override
-  protected List<String> disassembleActual(
+  protected void disassembleActual(
     final SMOpDisassemblerContextType context,
-    final SMParsedInstruction parsedInstruction)
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
   {
-    final var parsedOperands = parsedInstruction.operands();
-
-    final var items = new ArrayList<String>();
-    items.add(context.idString(parsedOperands.get(0)));
-    items.add(context.idString(parsedOperands.get(1)));
-
-    if (parsedOperands.size() >= 3) {
-      items.add(SMMemoryAccess.ofInteger(parsedOperands.get(2).intValue()).spirName());
-    } else {
-      items.add(SMMemoryAccess.SM_NONE.spirName());
+    /*
+     * The walker decodes the memory access mask and its parameters; an
+     * absent mask is written explicitly.
+     */
+
+    this.walker.walk(
+      context,
+      parsedInstruction,
+      context.textReceiver(output)
+    );
+
+    if (parsedInstruction.operandCount() < 3) {
+      output.appendOperand(SMMemoryAccess.SM_NONE.spirName());
     }
-
-    return List.copyOf(items);
   }
 }
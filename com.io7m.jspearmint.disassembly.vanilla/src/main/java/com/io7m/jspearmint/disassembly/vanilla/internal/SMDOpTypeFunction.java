@@ -17,10 +17,7 @@
 package com.io7m.jspearmint.disassembly.vanilla.internal;
 
 import com.io7m.jspearmint.api.SMInstruction;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
-
-import java.util.List;
-import java.util.stream.Collectors;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 /**
  * OpTypeFunction
@@ -38,14 +35,14 @@ public final class SMDOpTypeFunction
   }
 
   @Override
-  protected List<String> disassembleActual(
+  protected void disassembleActual(
     final SMOpDisassemblerContextType context,
-    final SMParsedInstruction parsedInstruction)
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
   {
-    return parsedInstruction.operands()
-      .stream()
-      .skip(1L)
-      .map(context::idString)
-      .collect(Collectors.toList());
+    final var operandCount = parsedInstruction.operandCount();
+    for (var index = 1; index < operandCount; ++index) {
+      output.appendOperand(context.idString(parsedInstruction.operand(index)));
+    }
   }
 }
@@ -17,9 +17,7 @@
 package com.io7m.jspearmint.disassembly.vanilla.internal;
 
 import com.io7m.jspearmint.api.SMInstruction;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
-
-import java.util.List;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 /**
  * OpTypeInt
@@ -37,13 +35,12 @@ public final class SMDOpTypeInt
   }
 
   @Override
-  protected List<String> disassembleActual(
+  protected void disassembleActual(
     final SMOpDisassemblerContextType context,
-    final SMParsedInstruction parsedInstruction)
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
   {
-    return List.of(
-      context.literal(parsedInstruction.operands().get(1)),
-      context.literal(parsedInstruction.operands().get(2))
-    );
+    output.appendLiteralOperand(parsedInstruction.operand(1));
+    output.appendLiteralOperand(parsedInstruction.operand(2));
   }
 }
@@ -18,9 +18,7 @@ package com.io7m.jspearmint.disassembly.vanilla.internal;
 
 import com.io7m.jspearmint.api.SMInstruction;
 import com.io7m.jspearmint.api.SMStorageClass;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
-
-import java.util.List;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 /**
  * OpTypePointer
@@ -39,13 +37,13 @@ public final class SMDOpTypePointer
   }
 
   @Override
-  protected List<String> disassembleActual(
+  protected void disassembleActual(
     final SMOpDisassemblerContextType context,
-    final SMParsedInstruction parsedInstruction)
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
   {
-    return List.of(
-      SMStorageClass.ofInteger(parsedInstruction.operands().get(1).intValue()).spirName(),
-      context.idString(parsedInstruction.operands().get(2))
-    );
+    output.appendOperand(
+      SMStorageClass.ofInteger((int) parsedInstruction.operand(1)).spirName());
+    output.appendOperand(context.idString(parsedInstruction.operand(2)));
   }
 }
@@ -17,9 +17,7 @@
 package com.io7m.jspearmint.disassembly.vanilla.internal;
 
 import com.io7m.jspearmint.api.SMInstruction;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
-
-import java.util.List;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 /**
  * OpTypeVector
@@ -37,14 +35,12 @@ public final class SMDOpTypeVector
   }
 
   @Override
-  protected List<String> disassembleActual(
+  protected void disassembleActual(
     final SMOpDisassemblerContextType context,
-    final SMParsedInstruction parsedInstruction)
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
   {
-    final var operands = parsedInstruction.operands();
-    return List.of(
-      context.idString(operands.get(1)),
-      context.literal(operands.get(2))
-    );
+    output.appendOperand(context.idString(parsedInstruction.operand(1)));
+    output.appendLiteralOperand(parsedInstruction.operand(2));
   }
 }
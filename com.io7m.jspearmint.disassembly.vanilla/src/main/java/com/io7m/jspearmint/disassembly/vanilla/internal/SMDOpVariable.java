@@ -18,10 +18,7 @@ package com.io7m.jspearmint.disassembly.vanilla.internal;
 
 import com.io7m.jspearmint.api.SMInstruction;
 import com.io7m.jspearmint.api.SMStorageClass;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 /**
  * OpVariable
@@ -39,17 +36,16 @@ public final class SMDOpVariable
   }
 
   @Override
-  protected List<String> disassembleActual(
+  protected void disassembleActual(
     final SMOpDisassemblerContextType context,
-    final SMParsedInstruction parsedInstruction)
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
   {
-    final var items = new ArrayList<String>();
-    final var operands = parsedInstruction.operands();
-    items.add(context.idString(operands.get(0)));
-    items.add(SMStorageClass.ofInteger(operands.get(2).intValue()).spirName());
-    if (operands.size() >= 4) {
-      items.add(context.idString(operands.get(3)));
+    output.appendOperand(context.idString(parsedInstruction.operand(0)));
+    output.appendOperand(
+      SMStorageClass.ofInteger((int) parsedInstruction.operand(2)).spirName());
+    if (parsedInstruction.operandCount() >= 4) {
+      output.appendOperand(context.idString(parsedInstruction.operand(3)));
     }
-    return List.copyOf(items);
   }
 }
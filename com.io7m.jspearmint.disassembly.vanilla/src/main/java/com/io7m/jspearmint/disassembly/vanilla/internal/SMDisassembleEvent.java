@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.disassembly.vanilla.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A JFR event recording the disassembly of a module. The duration of the
+ * event is divided into the time spent writing to the output stream, and
+ * the remaining time, which is spent analyzing and formatting the module.
+ */
+
+@Name("com.io7m.jspearmint.Disassemble")
+@Label("Disassemble")
+@Category({"jspearmint", "Disassembler"})
+@Description("The disassembly of a module")
+@StackTrace(false)
+final class SMDisassembleEvent extends jdk.jfr.Event
+{
+  @Label("Format")
+  @Description("The output format")
+  private String format;
+
+  @Label("Bytes Written")
+  @Description("The number of bytes written to the output")
+  @DataAmount(DataAmount.BYTES)
+  private long bytesWritten;
+
+  @Label("Format Time")
+  @Description("The time spent analyzing and formatting the module")
+  @Timespan(Timespan.NANOSECONDS)
+  private long formatTime;
+
+  @Label("Write Time")
+  @Description("The time spent writing to the output")
+  @Timespan(Timespan.NANOSECONDS)
+  private long writeTime;
+
+  SMDisassembleEvent()
+  {
+
+  }
+
+  /**
+   * Set the values of the event and commit it.
+   *
+   * @param inFormat The output format
+   * @param output   The output to which the module was written
+   */
+
+  void commitWith(
+    final String inFormat,
+    final SMTimedOutputStream output)
+  {
+    this.format = inFormat;
+    this.bytesWritten = output.bytesWritten();
+    this.writeTime = output.writeTime();
+    this.formatTime = Math.max(0L, output.elapsedTime() - this.writeTime);
+    this.commit();
+  }
+}
@@ -16,150 +16,171 @@
 
 package com.io7m.jspearmint.disassembly.vanilla.internal;
 
-import com.io7m.jspearmint.analysis.SMIdentifiers;
-import com.io7m.jspearmint.analysis.SMTypes;
+import com.io7m.jspearmint.analysis.SMModuleAnalysis;
 import com.io7m.jspearmint.api.SMInstruction;
 import com.io7m.jspearmint.api.SMInstructions;
 import com.io7m.jspearmint.disassembly.api.SMDisassemblerConfiguration;
 import com.io7m.jspearmint.disassembly.api.SMDisassemblerType;
+import com.io7m.jspearmint.disassembly.api.SMModuleDisassemblerType;
+import com.io7m.jspearmint.parser.api.SMInstructionWindow;
+import com.io7m.jspearmint.parser.api.SMMetricsListenerType;
+import com.io7m.jspearmint.parser.api.SMModule;
+import com.io7m.jspearmint.parser.api.SMParseException;
 import com.io7m.jspearmint.parser.api.SMParsedHeader;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
+import com.io7m.jspearmint.parser.api.SMParserSourceType;
 
-import java.io.BufferedWriter;
+import java.io.CharArrayWriter;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
-import static com.io7m.jspearmint.api.SMOperandKind.SM_ID_RESULT;
-import static com.io7m.jspearmint.api.SMOperandKind.SM_ID_RESULT_TYPE;
+import static com.io7m.jspearmint.disassembly.api.SMDisassemblerConfigurationType.Format.TEXT;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
- * A basic disassembler.
+ * A basic disassembler. Configurations that request a structured output
+ * format are written by {@link SMStructuredDisassembler}. Each module
+ * is reported to the metrics listener once it has been written.
  */
 
 public final class SMDisassembler implements SMDisassemblerType
 {
+  private static final String NO_ASSIGNMENT =
+    String.format("%-12s", "");
+
+  private final SMMetricsListenerType metrics;
+
   /**
    * A basic disassembler.
+   *
+   * @param inMetrics The metrics listener
    */
 
-  public SMDisassembler()
+  public SMDisassembler(
+    final SMMetricsListenerType inMetrics)
   {
-
+    this.metrics = Objects.requireNonNull(inMetrics, "metrics");
   }
 
-  private static String formatOffset(
-    final SMParsedInstruction parsedInstruction)
+  /**
+   * A basic disassembler that ignores metrics.
+   */
+
+  public SMDisassembler()
   {
-    return String.format(
-      "0x%08x |",
-      Long.valueOf(parsedInstruction.byteOffset()));
+    this(SMMetricsListenerType.noOp());
   }
 
-  private static String formatRawOperand(final Long operand)
+  private static void appendOffset(
+    final SMTextOutput output,
+    final SMParsedInstructionType parsedInstruction)
   {
-    return String.format("$0x%08x", Long.valueOf(operand.longValue()));
+    output.append("0x");
+    output.appendHex(parsedInstruction.byteOffset(), 8);
+    output.append(" |");
   }
 
   private static void disassembleInstruction(
-    final BufferedWriter writer,
+    final SMTextOutput output,
     final SMOpDisassemblerContextType context,
     final SMOpDisassemblers disassemblers,
-    final SMParsedInstruction parsedInstruction)
+    final SMParsedInstructionType parsedInstruction)
     throws IOException
   {
-    final var instructionDefinitionOpt =
-      SMInstructions.byOpCode(parsedInstruction.opCode());
+    final var instructionDefinition =
+      SMInstructions.byOpCodeOrNull(parsedInstruction.opCode());
 
-    if (instructionDefinitionOpt.isEmpty()) {
-      disassembleRaw(parsedInstruction, writer);
+    if (instructionDefinition == null) {
+      disassembleRaw(parsedInstruction, output);
       return;
     }
 
-    final var instructionDefinition = instructionDefinitionOpt.get();
-    writer.append(formatOffset(parsedInstruction));
-    writer.append(" ");
-    writer.append(
-      formatAssignment(instructionDefinitionOpt, parsedInstruction)
-    );
-    writer.append(" ");
-    writer.append(instructionDefinition.spirName());
-
-    final var operands =
-      formatInstructionOperands(context, disassemblers, parsedInstruction);
-    if (!operands.isEmpty()) {
-      writer.append(" ");
-      writer.append(operands);
-    }
+    appendOffset(output, parsedInstruction);
+    output.append(' ');
+    appendAssignment(output, instructionDefinition, parsedInstruction);
+    output.append(' ');
+    output.append(instructionDefinition.spirName());
 
-    writer.newLine();
-    writer.flush();
-  }
+    disassemblers.findDisassembler(instructionDefinition)
+      .disassemble(context, parsedInstruction, output);
 
-  private static String formatInstructionOperands(
-    final SMOpDisassemblerContextType context,
-    final SMOpDisassemblers disassemblers,
-    final SMParsedInstruction parsedInstruction)
-  {
-    return String.join(
-      " ", disassemblers.findDisassembler(parsedInstruction)
-        .disassemble(context, parsedInstruction));
+    output.newLine();
   }
 
   private static void disassembleRaw(
-    final SMParsedInstruction parsedInstruction,
-    final BufferedWriter writer)
+    final SMParsedInstructionType parsedInstruction,
+    final SMTextOutput output)
     throws IOException
   {
-    writer.append(formatOffset(parsedInstruction));
-    writer.append(" ");
-    writer.append(formatAssignment(Optional.empty(), parsedInstruction));
-    writer.append(" ");
-    writer.append("?");
-    writer.append(" ");
-
-    for (final var operand : parsedInstruction.operands()) {
-      writer.append(formatRawOperand(operand));
-      writer.append(" ");
+    appendOffset(output, parsedInstruction);
+    output.append(' ');
+    output.append(NO_ASSIGNMENT);
+    output.append(" ? ");
+
+    final var operandCount = parsedInstruction.operandCount();
+    for (var index = 0; index < operandCount; ++index) {
+      output.append("$0x");
+      output.appendHex(parsedInstruction.operand(index), 8);
+      output.append(' ');
     }
 
-    writer.newLine();
-    writer.flush();
+    output.newLine();
   }
 
-  private static String formatAssignment(
-    final Optional<SMInstruction> instructionDefinitionOpt,
-    final SMParsedInstruction parsedInstruction)
+  private static void appendAssignment(
+    final SMTextOutput output,
+    final SMInstruction instructionDefinition,
+    final SMParsedInstructionType parsedInstruction)
   {
-    final List<Long> parsedOperands = parsedInstruction.operands();
+    final var resultIdIndex =
+      SMOperandWalker.of(instructionDefinition).resultIdIndex();
 
-    if (instructionDefinitionOpt.isPresent()) {
-      final var instructionDefinition = instructionDefinitionOpt.get();
-      final var definedOperands = instructionDefinition.operands();
+    if (resultIdIndex >= 0) {
+      appendAssignmentId(output, parsedInstruction.operand(resultIdIndex));
+      return;
+    }
 
-      if (definedOperands.size() >= 2) {
-        final var resultType = definedOperands.get(0);
-        final var resultId = definedOperands.get(1);
-        if (resultType.kind() == SM_ID_RESULT_TYPE && resultId.kind() == SM_ID_RESULT) {
-          final var idValue = parsedOperands.get(1);
-          return String.format("%12s", String.format("%%%d =", idValue));
-        }
-      }
+    output.append(NO_ASSIGNMENT);
+  }
 
-      if (definedOperands.size() >= 1) {
-        final var resultId = definedOperands.get(0);
-        if (resultId.kind() == SM_ID_RESULT) {
-          final var idValue = parsedOperands.get(0);
-          return String.format("%12s", String.format("%%%d =", idValue));
-        }
-      }
-    }
+  /**
+   * Append an assignment of the form {@code %id =}, right-aligned to the
+   * width of {@link #NO_ASSIGNMENT}.
+   */
+
+  private static void appendAssignmentId(
+    final SMTextOutput output,
+    final long id)
+  {
+    final var width = 3 + SMTextOutput.decimalDigits(id);
+    output.appendSpaces(NO_ASSIGNMENT.length() - width);
+    output.append('%');
+    output.append(id);
+    output.append(" =");
+  }
 
-    return String.format("%-12s", "");
+  /**
+   * Create the operand walker and the op disassembler of every
+   * instruction, which are otherwise created the first time that each
+   * instruction is encountered.
+   */
+
+  public static void initializeTables()
+  {
+    final var disassemblers = SMOpDisassemblers.shared();
+    for (final var instruction : SMInstruction.values()) {
+      SMOperandWalker.of(instruction);
+      disassemblers.findDisassembler(instruction);
+    }
   }
 
   @Override
@@ -172,7 +193,7 @@ public final class SMDisassembler implements SMDisassemblerType
   public void disassemble(
     final SMDisassemblerConfiguration configuration,
     final SMParsedHeader header,
-    final List<SMParsedInstruction> instructions,
+    final List<? extends SMParsedInstructionType> instructions,
     final OutputStream out)
     throws IOException
   {
@@ -181,51 +202,314 @@ public final class SMDisassembler implements SMDisassemblerType
     Objects.requireNonNull(instructions, "instructions");
     Objects.requireNonNull(out, "out");
 
-    final var identifiers = SMIdentifiers.of(header, instructions);
-    final var types = SMTypes.of(header, instructions);
-    final var disassemblers = SMOpDisassemblers.create();
-
-    final SMOpDisassemblerContextType context =
-      new SMOpDisassemblerContext(identifiers, types, configuration);
-
-    try (var writer = new BufferedWriter(new OutputStreamWriter(out, UTF_8))) {
-      writer.append("; SPIR-V");
-      writer.newLine();
-
-      writer.append(String.format(
-        "; Version %s.%s",
-        Long.valueOf(header.versionMajor()),
-        Long.valueOf(header.versionMinor())
-      ));
-      writer.newLine();
-
-      writer.append(String.format(
-        "; Generator: 0x%s",
-        Long.toUnsignedString(header.generatorMagicNumber(), 16)
-      ));
-      writer.newLine();
-
-      writer.append(String.format(
-        "; Bound: %s",
-        Long.valueOf(header.idBound())
-      ));
-      writer.newLine();
-
-      writer.append(String.format(
-        "; Schema: %s",
-        Long.valueOf(header.schema())
-      ));
-      writer.newLine();
-      writer.newLine();
-
-      for (final var parsedInstruction : instructions) {
-        disassembleInstruction(
-          writer,
-          context,
-          disassemblers,
-          parsedInstruction
-        );
+    final var event = new SMDisassembleEvent();
+    final var timed = event.isEnabled() ? new SMTimedOutputStream(out) : null;
+    event.begin();
+    final var timeThen = System.nanoTime();
+
+    final var analysis =
+      SMOpDisassemblerContext.analysisBuilder(configuration)
+        .analyze(header, instructions);
+
+    final var target = timed != null ? timed : out;
+    if (configuration.format() != TEXT) {
+      SMStructuredDisassembler.writeModule(
+        configuration, analysis, instructions, target);
+    } else {
+      disassembleText(configuration, analysis, instructions, target);
+    }
+
+    this.finish(configuration, analysis, timeThen, event, timed);
+  }
+
+  private void finish(
+    final SMDisassemblerConfiguration configuration,
+    final SMModuleAnalysis analysis,
+    final long timeThen,
+    final SMDisassembleEvent event,
+    final SMTimedOutputStream timed)
+  {
+    final var time = System.nanoTime() - timeThen;
+    event.end();
+
+    final var format = configuration.format().name();
+    if (timed != null && event.shouldCommit()) {
+      event.commitWith(format, timed);
+    }
+
+    this.metrics.onModuleDisassembled(
+      format,
+      analysis.instructionCount(),
+      analysis.unrecognizedInstructionCount(),
+      time
+    );
+  }
+
+  private static void disassembleText(
+    final SMDisassemblerConfiguration configuration,
+    final SMModuleAnalysis analysis,
+    final List<? extends SMParsedInstructionType> instructions,
+    final OutputStream out)
+    throws IOException
+  {
+    final var header = analysis.header();
+    final var disassemblers = SMOpDisassemblers.shared();
+
+    final var context =
+      new SMOpDisassemblerContext(analysis, configuration);
+
+    /*
+     * The stream belongs to the caller, so the output is flushed rather
+     * than closed.
+     */
+
+    final var output = new SMTextOutput(new OutputStreamWriter(out, UTF_8));
+    writeHeader(output, header);
+
+    if (configuration.parallelism() > 1
+      && instructions.size() > configuration.chunkSize()) {
+      disassembleParallel(
+        configuration,
+        output,
+        context,
+        disassemblers,
+        instructions
+      );
+    } else {
+      disassembleRange(
+        output,
+        context,
+        disassemblers,
+        instructions,
+        0,
+        instructions.size()
+      );
+    }
+    output.flush();
+  }
+
+  /**
+   * Disassemble a module in two passes over the given source. The first
+   * pass collects names and types, and the second pass formats each
+   * instruction as it is parsed, so the instructions of the module are
+   * never held in memory. The second pass reopens the source so that the
+   * module is reported to metrics listeners as parsed once. Streaming
+   * disassembly is always sequential; the configured parallelism is ignored.
+   */
+
+  @Override
+  public void disassemble(
+    final SMDisassemblerConfiguration configuration,
+    final SMParserSourceType source,
+    final OutputStream out)
+    throws IOException, SMParseException
+  {
+    Objects.requireNonNull(configuration, "configuration");
+    Objects.requireNonNull(source, "source");
+    Objects.requireNonNull(out, "out");
+
+    final var event = new SMDisassembleEvent();
+    final var timed = event.isEnabled() ? new SMTimedOutputStream(out) : null;
+    event.begin();
+    final var timeThen = System.nanoTime();
+
+    final SMModuleAnalysis analysis;
+    try (var parser = source.open()) {
+      analysis =
+        SMOpDisassemblerContext.analysisBuilder(configuration)
+          .analyze(parser);
+    }
+
+    final var target = timed != null ? timed : out;
+    if (configuration.format() != TEXT) {
+      SMStructuredDisassembler.writeModule(
+        configuration, analysis, source, target);
+    } else {
+      disassembleText(configuration, analysis, source, target);
+    }
+
+    this.finish(configuration, analysis, timeThen, event, timed);
+  }
+
+  private static void disassembleText(
+    final SMDisassemblerConfiguration configuration,
+    final SMModuleAnalysis analysis,
+    final SMParserSourceType source,
+    final OutputStream out)
+    throws IOException, SMParseException
+  {
+    final var disassemblers = SMOpDisassemblers.shared();
+    final var context =
+      new SMOpDisassemblerContext(analysis, configuration);
+
+    try (var parser = source.reopen()) {
+      final var output = new SMTextOutput(new OutputStreamWriter(out, UTF_8));
+      writeHeader(output, parser.header());
+
+      final var window = new SMInstructionWindow();
+      try {
+        parser.visitAllInstructions((opCode, wordCount, offset, words, start) -> {
+          try {
+            disassembleInstruction(
+              output,
+              context,
+              disassemblers,
+              window.set(opCode, wordCount, offset, words, start)
+            );
+          } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      } catch (final UncheckedIOException e) {
+        throw e.getCause();
+      }
+      output.flush();
+    }
+  }
+
+  @Override
+  public SMModuleDisassemblerType openModule(
+    final SMDisassemblerConfiguration configuration,
+    final SMModule module)
+  {
+    return SMModuleDisassembler.open(configuration, module);
+  }
+
+  private static void writeHeader(
+    final SMTextOutput output,
+    final SMParsedHeader header)
+    throws IOException
+  {
+    output.append("; SPIR-V");
+    output.newLine();
+
+    output.append(String.format(
+      "; Version %s.%s",
+      Long.valueOf(header.versionMajor()),
+      Long.valueOf(header.versionMinor())
+    ));
+    output.newLine();
+
+    output.append(String.format(
+      "; Generator: 0x%s",
+      Long.toUnsignedString(header.generatorMagicNumber(), 16)
+    ));
+    output.newLine();
+
+    output.append(String.format(
+      "; Bound: %s",
+      Long.valueOf(header.idBound())
+    ));
+    output.newLine();
+
+    output.append(String.format(
+      "; Schema: %s",
+      Long.valueOf(header.schema())
+    ));
+    output.newLine();
+    output.newLine();
+  }
+
+  static void disassembleRange(
+    final SMTextOutput output,
+    final SMOpDisassemblerContextType context,
+    final SMOpDisassemblers disassemblers,
+    final List<? extends SMParsedInstructionType> instructions,
+    final int start,
+    final int end)
+    throws IOException
+  {
+    for (int index = start; index < end; ++index) {
+      disassembleInstruction(
+        output,
+        context,
+        disassemblers,
+        instructions.get(index)
+      );
+    }
+  }
+
+  /**
+   * Disassemble instructions in parallel. The instructions are divided into
+   * chunks, each chunk is formatted into its own buffer on a pool of
+   * threads, and the buffers are written to the output strictly in order.
+   * At most two chunks per thread are in flight at any given time, bounding
+   * the amount of buffered text.
+   */
+
+  private static void disassembleParallel(
+    final SMDisassemblerConfiguration configuration,
+    final SMTextOutput output,
+    final SMOpDisassemblerContext context,
+    final SMOpDisassemblers disassemblers,
+    final List<? extends SMParsedInstructionType> instructions)
+    throws IOException
+  {
+    final var parallelism = configuration.parallelism();
+    final var chunkSize = configuration.chunkSize();
+    final var size = instructions.size();
+    final var chunkCount = (size + chunkSize - 1) / chunkSize;
+    final var window = parallelism * 2;
+
+    final var pool = new ForkJoinPool(parallelism);
+    final var pending = new ArrayDeque<Future<CharArrayWriter>>(window);
+
+    try {
+      int nextChunk = 0;
+      while (nextChunk < chunkCount || !pending.isEmpty()) {
+        while (nextChunk < chunkCount && pending.size() < window) {
+          final var start = nextChunk * chunkSize;
+          final var end = Math.min(size, start + chunkSize);
+          pending.addLast(pool.submit(() -> {
+            final var buffer = new CharArrayWriter();
+            try (var chunkOutput = new SMTextOutput(buffer)) {
+              disassembleRange(
+                chunkOutput,
+                context.forWorker(),
+                disassemblers,
+                instructions,
+                start,
+                end
+              );
+            }
+            return buffer;
+          }));
+          ++nextChunk;
+        }
+
+        output.append(awaitChunk(pending.removeFirst()));
+      }
+    } finally {
+      for (final var future : pending) {
+        future.cancel(true);
+      }
+      pool.shutdownNow();
+    }
+  }
+
+  private static CharArrayWriter awaitChunk(
+    final Future<CharArrayWriter> future)
+    throws IOException
+  {
+    try {
+      return future.get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      final var ex = new InterruptedIOException();
+      ex.initCause(e);
+      throw ex;
+    } catch (final ExecutionException e) {
+      final var cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
       }
+      throw new IOException(cause);
     }
   }
 }
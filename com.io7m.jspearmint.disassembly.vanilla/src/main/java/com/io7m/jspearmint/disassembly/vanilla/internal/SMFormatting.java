@@ -145,4 +145,102 @@ public final class SMFormatting
   {
     return literalFloat(value.longValue());
   }
+
+  /**
+   * @param value The bits of the value
+   * @param width The width of the floating point type in bits
+   *
+   * @return The literal of the given value
+   */
+
+  public static String literalFloat(
+    final long value,
+    final int width)
+  {
+    switch (width) {
+      case 16:
+        return "$" + Float.float16ToFloat((short) value);
+      case 64:
+        return "$" + Double.longBitsToDouble(value);
+      default:
+        return literalFloat(value);
+    }
+  }
+
+  /**
+   * @param value The bits of the value
+   * @param width The width of the integer type in bits
+   *
+   * @return The literal of the given value
+   */
+
+  public static String literalInteger(
+    final long value,
+    final int width)
+  {
+    return literal(maskInteger(value, width));
+  }
+
+  /**
+   * @param value  The bits of the value
+   * @param width  The width of the integer type in bits
+   * @param signed {@code true} if the integer type is signed
+   *
+   * @return The literal of the given value
+   */
+
+  public static String literalInteger(
+    final long value,
+    final int width,
+    final boolean signed)
+  {
+    if (signed) {
+      return "$" + signExtendInteger(value, width);
+    }
+    return literalInteger(value, width);
+  }
+
+  /**
+   * Sign-extend a value from the width of its signed integer type to a full
+   * {@code long}.
+   *
+   * @param value The bits of the value
+   * @param width The width of the integer type in bits
+   *
+   * @return The sign-extended value
+   */
+
+  public static long signExtendInteger(
+    final long value,
+    final int width)
+  {
+    if (width > 0 && width < 64) {
+      final var shift = 64 - width;
+      return (value << shift) >> shift;
+    }
+    return value;
+  }
+
+  /**
+   * Discard the bits of a value above the width of its integer type. Values
+   * narrower than a word are sign-extended to a full word in SPIR-V.
+   *
+   * @param value The bits of the value
+   * @param width The width of the integer type in bits
+   *
+   * @return The masked value
+   */
+
+  public static long maskInteger(
+    final long value,
+    final int width)
+  {
+    if (width > 0 && width < 32) {
+      return value & ((1L << width) - 1L);
+    }
+    if (width == 32) {
+      return value & 0xFFFF_FFFFL;
+    }
+    return value;
+  }
 }
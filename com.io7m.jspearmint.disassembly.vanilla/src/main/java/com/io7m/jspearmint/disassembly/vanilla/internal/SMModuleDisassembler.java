@@ -0,0 +1,231 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.disassembly.vanilla.internal;
+
+import com.io7m.jspearmint.analysis.SMFunctionExtent;
+import com.io7m.jspearmint.analysis.SMFunctions;
+import com.io7m.jspearmint.analysis.SMModuleAnalysis;
+import com.io7m.jspearmint.disassembly.api.SMDisassemblerConfiguration;
+import com.io7m.jspearmint.disassembly.api.SMModuleDisassemblerType;
+import com.io7m.jspearmint.parser.api.SMModule;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.io7m.jspearmint.disassembly.api.SMDisassemblerConfigurationType.Format.TEXT;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A disassembler bound to a single module. The module is analyzed once on
+ * creation; requests are resolved to instruction indices using the
+ * recorded function extents and the module's offset index, so the cost of
+ * each request is proportional to the size of the output rather than the
+ * size of the module. Output streams passed to this disassembler are
+ * flushed, but never closed.
+ */
+
+final class SMModuleDisassembler implements SMModuleDisassemblerType
+{
+  private final SMDisassemblerConfiguration configuration;
+  private final SMModule module;
+  private final SMModuleAnalysis analysis;
+  private final SMFunctions functions;
+  private final List<Long> functionIds;
+  private final SMOpDisassemblerContext context;
+
+  private SMModuleDisassembler(
+    final SMDisassemblerConfiguration inConfiguration,
+    final SMModule inModule,
+    final SMModuleAnalysis inAnalysis)
+  {
+    this.configuration =
+      Objects.requireNonNull(inConfiguration, "configuration");
+    this.module =
+      Objects.requireNonNull(inModule, "module");
+    this.analysis =
+      Objects.requireNonNull(inAnalysis, "analysis");
+    this.functions =
+      inAnalysis.functions().orElseThrow();
+    this.functionIds =
+      this.functions.extents()
+        .stream()
+        .map(extent -> Long.valueOf(extent.functionId()))
+        .toList();
+    this.context =
+      new SMOpDisassemblerContext(inAnalysis, inConfiguration);
+  }
+
+  /**
+   * Analyze a module and open a disassembler for it.
+   *
+   * @param configuration The disassembler configuration
+   * @param module        The module
+   *
+   * @return A disassembler
+   */
+
+  static SMModuleDisassembler open(
+    final SMDisassemblerConfiguration configuration,
+    final SMModule module)
+  {
+    Objects.requireNonNull(configuration, "configuration");
+    Objects.requireNonNull(module, "module");
+
+    final var analysis =
+      SMOpDisassemblerContext.analysisBuilder(configuration)
+        .withFunctions()
+        .analyze(module);
+
+    return new SMModuleDisassembler(configuration, module, analysis);
+  }
+
+  @Override
+  public SMModule module()
+  {
+    return this.module;
+  }
+
+  @Override
+  public List<Long> functions()
+  {
+    return this.functionIds;
+  }
+
+  @Override
+  public Map<String, Long> entryPoints()
+  {
+    return this.functions.entryPoints();
+  }
+
+  @Override
+  public void disassembleRange(
+    final long startByteOffset,
+    final long endByteOffset,
+    final OutputStream out)
+    throws IOException
+  {
+    Objects.requireNonNull(out, "out");
+
+    if (startByteOffset > endByteOffset) {
+      throw new IllegalArgumentException(
+        String.format(
+          "Start offset %d must not exceed end offset %d",
+          Long.valueOf(startByteOffset),
+          Long.valueOf(endByteOffset))
+      );
+    }
+
+    final var start = this.startIndex(startByteOffset);
+    final var end = Math.max(start, this.endIndex(endByteOffset));
+    this.disassembleIndices(start, end, out);
+  }
+
+  @Override
+  public void disassembleFunction(
+    final long functionId,
+    final OutputStream out)
+    throws IOException
+  {
+    Objects.requireNonNull(out, "out");
+
+    final SMFunctionExtent extent = this.functions.extentOrNull(functionId);
+    if (extent == null) {
+      throw new IllegalArgumentException(
+        String.format("No such function: %d", Long.valueOf(functionId))
+      );
+    }
+
+    this.disassembleRange(
+      extent.startByteOffset(),
+      extent.endByteOffset(),
+      out
+    );
+  }
+
+  /**
+   * @return The index of the first instruction that ends after the given
+   * offset
+   */
+
+  private int startIndex(
+    final long byteOffset)
+  {
+    final var count = this.module.instructionCount();
+    if (count == 0 || byteOffset <= this.module.byteOffset(0)) {
+      return 0;
+    }
+    final var index = this.module.instructionAtByteOffset(byteOffset);
+    return index < 0 ? count : index;
+  }
+
+  /**
+   * @return The index following the last instruction that starts before the
+   * given offset
+   */
+
+  private int endIndex(
+    final long byteOffset)
+  {
+    final var count = this.module.instructionCount();
+    if (count == 0 || byteOffset <= this.module.byteOffset(0)) {
+      return 0;
+    }
+    final var index = this.module.instructionAtByteOffset(byteOffset - 1L);
+    return index < 0 ? count : index + 1;
+  }
+
+  private void disassembleIndices(
+    final int start,
+    final int end,
+    final OutputStream out)
+    throws IOException
+  {
+    final var instructions = this.module.instructions();
+
+    if (this.configuration.format() != TEXT) {
+      SMStructuredDisassembler.disassembleInstructions(
+        this.configuration,
+        this.analysis,
+        instructions,
+        start,
+        end,
+        out
+      );
+      return;
+    }
+
+    /*
+     * The stream belongs to the caller, who may issue several requests
+     * against it, so the output is flushed rather than closed.
+     */
+
+    final var output = new SMTextOutput(new OutputStreamWriter(out, UTF_8));
+    SMDisassembler.disassembleRange(
+      output,
+      this.context.forWorker(),
+      SMOpDisassemblers.shared(),
+      instructions,
+      start,
+      end
+    );
+    output.flush();
+  }
+}
@@ -16,82 +16,217 @@
 
 package com.io7m.jspearmint.disassembly.vanilla.internal;
 
-import com.io7m.jspearmint.analysis.SMIdentifiers;
+import com.io7m.jspearmint.analysis.SMModuleAnalysis;
 import com.io7m.jspearmint.analysis.SMString;
-import com.io7m.jspearmint.analysis.SMTypes;
+import com.io7m.jspearmint.analysis.SMStringPool;
 import com.io7m.jspearmint.disassembly.api.SMDisassemblerConfiguration;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 import java.util.Objects;
 
+import static com.io7m.jspearmint.disassembly.api.SMDisassemblerConfigurationType.Identifiers.FRIENDLY;
+
 final class SMOpDisassemblerContext
   implements SMOpDisassemblerContextType
 {
-  private final SMIdentifiers identifiers;
+  private static final int ID_CACHE_LIMIT = 1 << 20;
+
+  private final SMModuleAnalysis analysis;
   private final SMDisassemblerConfiguration configuration;
-  private final SMTypes types;
+  private final SMStringPool strings;
+
+  /*
+   * The cache of formatted IDs may be shared between contexts used on
+   * different threads. Races on the cache are benign: the formatted strings
+   * are immutable, and a thread that misses another thread's write simply
+   * formats the same string again.
+   */
+
+  private final String[] idStrings;
+
+  /*
+   * Contexts are never used by more than one thread at a time, and so the
+   * receiver used to format operands is created once and reused for every
+   * instruction.
+   */
+
+  private SMTextOperandReceiver textReceiver;
 
   SMOpDisassemblerContext(
-    final SMIdentifiers inIdentifiers,
-    final SMTypes inTypes,
+    final SMModuleAnalysis inAnalysis,
     final SMDisassemblerConfiguration inConfiguration)
   {
-    this.identifiers =
-      Objects.requireNonNull(inIdentifiers, "identifiers");
-    this.types =
-      Objects.requireNonNull(inTypes, "inTypes");
+    this(
+      inAnalysis,
+      inConfiguration,
+      inAnalysis.strings(),
+      createIdCache(inAnalysis)
+    );
+  }
+
+  private SMOpDisassemblerContext(
+    final SMModuleAnalysis inAnalysis,
+    final SMDisassemblerConfiguration inConfiguration,
+    final SMStringPool inStrings,
+    final String[] inIdStrings)
+  {
+    this.analysis =
+      Objects.requireNonNull(inAnalysis, "analysis");
     this.configuration =
       Objects.requireNonNull(inConfiguration, "configuration");
+    this.strings =
+      Objects.requireNonNull(inStrings, "strings");
+    this.idStrings =
+      Objects.requireNonNull(inIdStrings, "idStrings");
+  }
+
+  /**
+   * Create an analysis builder that requests the analyses required to
+   * disassemble a module with the given configuration.
+   */
+
+  static SMModuleAnalysis.Builder analysisBuilder(
+    final SMDisassemblerConfiguration configuration)
+  {
+    final var builder =
+      SMModuleAnalysis.builder()
+        .withIdentifiers()
+        .withTypes();
+
+    if (configuration.identifiers() == FRIENDLY) {
+      builder.withFriendlyNames();
+    }
+    return builder;
+  }
+
+  private static String[] createIdCache(
+    final SMModuleAnalysis analysis)
+  {
+    final var idBound = analysis.header().idBound();
+    if (idBound > 0L && idBound <= ID_CACHE_LIMIT) {
+      return new String[(int) idBound];
+    }
+    return new String[0];
+  }
+
+  /**
+   * Create a context for use on another thread. The new context shares
+   * this context's cache of formatted IDs, but has its own string pool.
+   *
+   * @return A new context
+   */
+
+  SMOpDisassemblerContext forWorker()
+  {
+    return new SMOpDisassemblerContext(
+      this.analysis,
+      this.configuration,
+      SMStringPool.create(),
+      this.idStrings
+    );
   }
 
   @Override
-  public String idString(final Long x)
+  public String idString(final long x)
+  {
+    if (x >= 0L && x < this.idStrings.length) {
+      final var index = (int) x;
+      var result = this.idStrings[index];
+      if (result == null) {
+        result = this.formatId(x);
+        this.idStrings[index] = result;
+      }
+      return result;
+    }
+    return this.formatId(x);
+  }
+
+  private String formatId(final long x)
   {
     switch (this.configuration.identifiers()) {
       case RAW_NUMERIC: {
         return SMFormatting.idString(x);
       }
       case NAMED: {
-        final String name = this.identifiers.idToName().get(x);
-        final String id = SMFormatting.idString(x);
+        final String name = this.analysis.nameOrNull(x);
         if (name == null) {
-          return id;
+          return SMFormatting.idString(x);
         }
-        return String.format("%%%s", name);
+        return "%" + name;
+      }
+      case FRIENDLY: {
+        final String name = this.analysis.friendlyNameOrNull(x);
+        if (name == null) {
+          return SMFormatting.idString(x);
+        }
+        return "%" + name;
       }
     }
     throw new IllegalStateException("Unreachable code");
   }
 
   @Override
-  public String literal(final Long value)
+  public String literal(final long value)
   {
     return SMFormatting.literal(value);
   }
 
   @Override
   public String literalTyped(
-    final Long type,
-    final Long value)
+    final long type,
+    final long value)
   {
-    final var idToType = this.types.idToType();
-    final var typeValue = idToType.get(type);
+    final var typeValue = this.analysis.typeOrNull(type);
     if (typeValue == null) {
-      return "$?" + value;
+      return "$?" + Long.toUnsignedString(value);
     }
 
+    final var width = this.analysis.scalarWidth(type);
     switch (typeValue) {
       case SM_OP_TYPE_FLOAT:
-        return SMFormatting.literalFloat(value);
+        return SMFormatting.literalFloat(value, width);
       case SM_OP_TYPE_INT:
-        return SMFormatting.literal(value);
+        return SMFormatting.literalInteger(
+          value,
+          width,
+          this.analysis.scalarSigned(type));
       default:
-        return "$?" + value;
+        return "$?" + Long.toUnsignedString(value);
     }
   }
 
+  @Override
+  public int literalTypedWords(
+    final long type)
+  {
+    return this.analysis.scalarWidth(type) > 32 ? 2 : 1;
+  }
+
+  @Override
+  public SMString string(
+    final SMParsedInstructionType instruction,
+    final int index)
+  {
+    return this.strings.intern(instruction, index);
+  }
+
   @Override
   public String quoteString(final SMString name)
   {
     return SMFormatting.quoteString(name);
   }
+
+  @Override
+  public SMOperandReceiverType textReceiver(
+    final SMTextOutput output)
+  {
+    final var existing = this.textReceiver;
+    if (existing != null) {
+      return existing.withOutput(output);
+    }
+
+    final var receiver = new SMTextOperandReceiver(this, output);
+    this.textReceiver = receiver;
+    return receiver;
+  }
 }
@@ -17,6 +17,7 @@
 package com.io7m.jspearmint.disassembly.vanilla.internal;
 
 import com.io7m.jspearmint.analysis.SMString;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 /**
  * A disassembler context.
@@ -31,7 +32,7 @@ public interface SMOpDisassemblerContextType
    */
 
   String idString(
-    Long id
+    long id
   );
 
   /**
@@ -41,7 +42,7 @@ public interface SMOpDisassemblerContextType
    */
 
   String literal(
-    Long value
+    long value
   );
 
   /**
@@ -52,8 +53,31 @@ public interface SMOpDisassemblerContextType
    */
 
   String literalTyped(
-    Long type,
-    Long value
+    long type,
+    long value
+  );
+
+  /**
+   * @param type The type
+   *
+   * @return The number of words occupied by a literal number of the given
+   * type; {@code 2} for 64-bit types, and {@code 1} otherwise
+   */
+
+  int literalTypedWords(
+    long type
+  );
+
+  /**
+   * @param instruction The instruction
+   * @param index       The index of the first operand of the string
+   *
+   * @return The UTF-8 string starting at the given operand
+   */
+
+  SMString string(
+    SMParsedInstructionType instruction,
+    int index
   );
 
   /**
@@ -65,4 +89,18 @@ public interface SMOpDisassemblerContextType
   String quoteString(
     SMString name
   );
+
+  /**
+   * @param output The output
+   *
+   * @return A receiver that appends decoded operands to the given output;
+   * implementations may return the same receiver from every call, and so
+   * the receiver must not be retained
+   */
+
+  default SMOperandReceiverType textReceiver(
+    final SMTextOutput output)
+  {
+    return new SMTextOperandReceiver(this, output);
+  }
 }
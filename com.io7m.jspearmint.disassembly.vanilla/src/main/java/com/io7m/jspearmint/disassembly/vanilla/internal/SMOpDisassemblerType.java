@@ -16,14 +16,13 @@
 
 package com.io7m.jspearmint.disassembly.vanilla.internal;
 
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
-
-import java.util.List;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 
 interface SMOpDisassemblerType
 {
-  List<String> disassemble(
+  void disassemble(
     SMOpDisassemblerContextType context,
-    SMParsedInstruction instruction
+    SMParsedInstructionType instruction,
+    SMTextOutput output
   );
 }
@@ -17,15 +17,9 @@
 package com.io7m.jspearmint.disassembly.vanilla.internal;
 
 import com.io7m.jspearmint.api.SMInstruction;
-import com.io7m.jspearmint.api.SMInstructions;
-import com.io7m.jspearmint.parser.api.SMParsedInstruction;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.stream.Collector;
-import java.util.stream.Collectors;
 
 final class SMOpDisassemblers
 {
@@ -60,40 +54,77 @@ final class SMOpDisassemblers
       new SMDOpVariable()
     );
 
-  private final Map<SMInstruction, SMDAbstractOpDisassembler> disassemblers;
-  private final SMRawDisassembler rawDisassembler;
+  private static final SMOpDisassemblers SHARED = create();
+
+  private final SMOpDisassemblerType[] byOpCode;
 
   private SMOpDisassemblers(
-    final Map<SMInstruction, SMDAbstractOpDisassembler> inDisassemblers)
+    final SMOpDisassemblerType[] inByOpCode)
   {
-    this.disassemblers =
-      Objects.requireNonNull(inDisassemblers, "disassemblers");
-    this.rawDisassembler =
-      new SMRawDisassembler();
+    this.byOpCode =
+      Objects.requireNonNull(inByOpCode, "byOpCode");
   }
 
+  /**
+   * Create a set of disassemblers. Instructions without a dedicated
+   * disassembler are handled by a generic disassembler driven by the
+   * operand definitions in the grammar; generic disassemblers are created
+   * the first time that their instruction is encountered. The disassemblers
+   * are stateless, and so callers should generally prefer {@link #shared()}
+   * to creating new sets.
+   *
+   * @return A set of disassemblers
+   */
+
   public static SMOpDisassemblers create()
   {
-    final Map<SMInstruction, SMDAbstractOpDisassembler> disassemblers =
-      OP_DISASSEMBLERS.stream().collect(collectToMap());
+    var maximum = 0;
+    for (final var instruction : SMInstruction.values()) {
+      maximum = Math.max(maximum, instruction.value());
+    }
 
-    return new SMOpDisassemblers(disassemblers);
+    final var byOpCode = new SMOpDisassemblerType[maximum + 1];
+    for (final var disassembler : OP_DISASSEMBLERS) {
+      byOpCode[disassembler.instruction().value()] = disassembler;
+    }
+    return new SMOpDisassemblers(byOpCode);
   }
 
-  private static Collector<SMDAbstractOpDisassembler, ?, Map<SMInstruction, SMDAbstractOpDisassembler>> collectToMap()
+  /**
+   * @return The set of disassemblers shared by all disassembler instances
+   */
+
+  public static SMOpDisassemblers shared()
   {
-    return Collectors.toMap(
-      SMDAbstractOpDisassembler::instruction,
-      o -> o
-    );
+    return SHARED;
   }
 
+  /**
+   * Find a disassembler for the given instruction. Instructions with
+   * unrecognized opcodes have no definition, and must be handled by the
+   * caller.
+   *
+   * @param instruction The instruction definition
+   *
+   * @return A disassembler
+   */
+
   public SMOpDisassemblerType findDisassembler(
-    final SMParsedInstruction parsedInstruction)
+    final SMInstruction instruction)
   {
-    return SMInstructions.byOpCode(parsedInstruction.opCode())
-      .flatMap(i -> Optional.ofNullable(this.disassemblers.get(i)))
-      .map(o -> (SMOpDisassemblerType) o)
-      .orElse(this.rawDisassembler);
+    final var index = instruction.value();
+    final var existing = this.byOpCode[index];
+    if (existing != null) {
+      return existing;
+    }
+
+    /*
+     * Generic disassemblers are immutable, and so a race to fill a slot is
+     * harmless; at worst two identical disassemblers are created.
+     */
+
+    final var disassembler = new SMDGenericOpDisassembler(instruction);
+    this.byOpCode[index] = disassembler;
+    return disassembler;
   }
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.jspearmint.disassembly.vanilla.internal;
+
+import com.io7m.jspearmint.analysis.SMString;
+import com.io7m.jspearmint.api.SMBitEnumType;
+import com.io7m.jspearmint.api.SMOperandKind;
+import com.io7m.jspearmint.api.SMValueEnumType;
+
+import java.util.Set;
+
+/**
+ * A receiver of decoded operands.
+ *
+ * @see SMOperandWalker
+ */
+
+public interface SMOperandReceiverType
+{
+  /**
+   * An ID operand was decoded.
+   *
+   * @param kind The operand kind
+   * @param id   The ID
+   */
+
+  void id(
+    SMOperandKind kind,
+    long id);
+
+  /**
+   * A literal operand was decoded.
+   *
+   * @param kind  The operand kind
+   * @param value The literal value
+   */
+
+  void literal(
+    SMOperandKind kind,
+    long value);
+
+  /**
+   * A literal number whose interpretation depends on the result type of
+   * the instruction was decoded.
+   *
+   * @param type  The result type ID
+   * @param value The literal value
+   */
+
+  void literalTyped(
+    long type,
+    long value);
+
+  /**
+   * A literal string was decoded.
+   *
+   * @param text The string
+   */
+
+  void string(SMString text);
+
+  /**
+   * A value enum operand was decoded. Any parameters of the enumerant are
+   * delivered after this call.
+   *
+   * @param kind      The operand kind
+   * @param enumerant The enumerant
+   */
+
+  void valueEnumerant(
+    SMOperandKind kind,
+    SMValueEnumType enumerant);
+
+  /**
+   * A bit enum operand was decoded. Any parameters of the enumerants are
+   * delivered after this call, in the order of the enumerants.
+   *
+   * @param kind       The operand kind
+   * @param mask       The raw mask
+   * @param enumerants The enumerants in the mask
+   */
+
+  void bitEnumerants(
+    SMOperandKind kind,
+    long mask,
+    Set<? extends SMBitEnumType> enumerants);
+
+  /**
+   * A word that could not be decoded according to the grammar was
+   * encountered. This may be an unrecognized enumerant, or a word that
+   * follows all of the operands defined for the instruction.
+   *
+   * @param value The word
+   */
+
+  void unrecognized(long value);
+
+  /**
+   * A bit enum operand contained bits that do not correspond to any
+   * enumerant. The parameters of the operand, if any, cannot be determined
+   * and so any words that follow are delivered as unrecognized words.
+   *
+   * @param kind The operand kind
+   * @param mask The raw mask
+   */
+
+  default void unrecognizedBitEnum(
+    final SMOperandKind kind,
+    final long mask)
+  {
+    this.unrecognized(mask);
+  }
+}
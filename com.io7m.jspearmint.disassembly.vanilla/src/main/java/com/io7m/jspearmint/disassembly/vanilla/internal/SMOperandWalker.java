@@ -0,0 +1,419 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.disassembly.vanilla.internal;
+
+import com.io7m.jspearmint.api.SMBitEnumType;
+import com.io7m.jspearmint.api.SMInstruction;
+import com.io7m.jspearmint.api.SMOperand;
+import com.io7m.jspearmint.api.SMOperandKind;
+import com.io7m.jspearmint.api.SMValueEnumType;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.io7m.jspearmint.api.SMOperandKind.SM_ID_RESULT;
+import static com.io7m.jspearmint.api.SMOperandKind.SM_ID_RESULT_TYPE;
+
+/**
+ * A decoder of operands driven entirely by the operand definitions of an
+ * instruction in the grammar. Each operand is decoded according to its
+ * kind and quantifier and delivered to a receiver: enumerants are followed
+ * by any parameters that they declare, and composite operands are decoded
+ * as the sequence of their bases. Any words left over after all defined
+ * operands have been consumed are delivered as unrecognized words.
+ */
+
+final class SMOperandWalker
+{
+  /**
+   * Walkers are created on first use, so that only the operand definitions
+   * of instructions that actually appear in a module are ever decoded. The
+   * walkers are immutable and so a race to fill a slot is harmless; at worst
+   * two identical walkers are created.
+   */
+
+  private static final SMOperandWalker[] BY_OP_CODE = makeByOpCode();
+
+  private final SMOperand[] operands;
+  private final boolean hasResultType;
+  private final int resultIdIndex;
+
+  private SMOperandWalker(
+    final SMInstruction instruction)
+  {
+    this.operands =
+      instruction.operands().toArray(new SMOperand[0]);
+    this.hasResultType =
+      this.operands.length > 0 && this.operands[0].kind() == SM_ID_RESULT_TYPE;
+    this.resultIdIndex =
+      findResultIdIndex(this.operands);
+  }
+
+  private static int findResultIdIndex(
+    final SMOperand[] operands)
+  {
+    if (operands.length >= 2) {
+      if (operands[0].kind() == SM_ID_RESULT_TYPE
+        && operands[1].kind() == SM_ID_RESULT) {
+        return 1;
+      }
+    }
+    if (operands.length >= 1) {
+      if (operands[0].kind() == SM_ID_RESULT) {
+        return 0;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return The index of the operand that holds the result ID of the
+   * instruction, or {@code -1} if the instruction has no result ID
+   */
+
+  int resultIdIndex()
+  {
+    return this.resultIdIndex;
+  }
+
+  private static SMOperandWalker[] makeByOpCode()
+  {
+    var maximum = 0;
+    for (final var instruction : SMInstruction.values()) {
+      maximum = Math.max(maximum, instruction.value());
+    }
+
+    return new SMOperandWalker[maximum + 1];
+  }
+
+  /**
+   * @param instruction The instruction definition
+   *
+   * @return The walker for the given instruction
+   */
+
+  static SMOperandWalker of(
+    final SMInstruction instruction)
+  {
+    Objects.requireNonNull(instruction, "instruction");
+
+    final var index = instruction.value();
+    final var existing = BY_OP_CODE[index];
+    if (existing != null) {
+      return existing;
+    }
+
+    final var walker = new SMOperandWalker(instruction);
+    BY_OP_CODE[index] = walker;
+    return walker;
+  }
+
+  /**
+   * Decode all operands of the given instruction.
+   *
+   * @param context           The disassembler context
+   * @param parsedInstruction The instruction
+   * @param receiver          The receiver of operands
+   */
+
+  void walk(
+    final SMOpDisassemblerContextType context,
+    final SMParsedInstructionType parsedInstruction,
+    final SMOperandReceiverType receiver)
+  {
+    final var operandCount = parsedInstruction.operandCount();
+
+    var index = 0;
+    for (final var operand : this.operands) {
+      index = this.disassembleOperand(
+        context,
+        parsedInstruction,
+        receiver,
+        operand,
+        index
+      );
+    }
+
+    while (index < operandCount) {
+      receiver.unrecognized(parsedInstruction.operand(index));
+      ++index;
+    }
+  }
+
+  private int disassembleOperand(
+    final SMOpDisassemblerContextType context,
+    final SMParsedInstructionType parsedInstruction,
+    final SMOperandReceiverType receiver,
+    final SMOperand operand,
+    final int index)
+  {
+    final var operandCount = parsedInstruction.operandCount();
+
+    switch (operand.quantifier()) {
+      case SM_ONE:
+      case SM_OPTIONAL: {
+        if (index < operandCount) {
+          return this.disassembleKind(
+            context,
+            parsedInstruction,
+            receiver,
+            operand.kind(),
+            index
+          );
+        }
+        return index;
+      }
+      case SM_REPEATED: {
+        var current = index;
+        while (current < operandCount) {
+          current = this.disassembleKind(
+            context,
+            parsedInstruction,
+            receiver,
+            operand.kind(),
+            current
+          );
+        }
+        return current;
+      }
+    }
+
+    throw new IllegalStateException("Unreachable code");
+  }
+
+  private int disassembleKind(
+    final SMOpDisassemblerContextType context,
+    final SMParsedInstructionType parsedInstruction,
+    final SMOperandReceiverType receiver,
+    final SMOperandKind kind,
+    final int index)
+  {
+    switch (kind.category()) {
+      case SM_ID: {
+        receiver.id(kind, parsedInstruction.operand(index));
+        return index + 1;
+      }
+      case SM_LITERAL:
+        return this.disassembleLiteral(
+          context, parsedInstruction, receiver, kind, index);
+      case SM_VALUE_ENUM:
+        return this.disassembleValueEnum(
+          context, parsedInstruction, receiver, kind, index);
+      case SM_BIT_ENUM:
+        return this.disassembleBitEnum(
+          context, parsedInstruction, receiver, kind, index);
+      case SM_COMPOSITE:
+        return this.disassembleComposite(
+          context, parsedInstruction, receiver, kind, index);
+    }
+
+    throw new IllegalStateException("Unreachable code");
+  }
+
+  private int disassembleLiteral(
+    final SMOpDisassemblerContextType context,
+    final SMParsedInstructionType parsedInstruction,
+    final SMOperandReceiverType receiver,
+    final SMOperandKind kind,
+    final int index)
+  {
+    final var word = parsedInstruction.operand(index);
+
+    switch (kind) {
+      case SM_LITERAL_STRING: {
+        final var text = context.string(parsedInstruction, index);
+        receiver.string(text);
+        return index + text.usedWords();
+      }
+      case SM_LITERAL_CONTEXT_DEPENDENT_NUMBER: {
+        if (this.hasResultType) {
+          final var type = parsedInstruction.operand(0);
+          final var words =
+            literalTypedWords(context, parsedInstruction, type, index);
+          receiver.literalTyped(
+            type, literalTypedValue(parsedInstruction, index, words));
+          return index + words;
+        }
+        receiver.literal(kind, word);
+        return index + 1;
+      }
+      default: {
+        receiver.literal(kind, word);
+        return index + 1;
+      }
+    }
+  }
+
+  private int disassembleValueEnum(
+    final SMOpDisassemblerContextType context,
+    final SMParsedInstructionType parsedInstruction,
+    final SMOperandReceiverType receiver,
+    final SMOperandKind kind,
+    final int index)
+  {
+    final var word = parsedInstruction.operand(index);
+    final var enumerant = valueEnumerantOrNull(kind, word);
+    if (enumerant == null) {
+      receiver.unrecognized(word);
+      return index + 1;
+    }
+
+    receiver.valueEnumerant(kind, enumerant);
+    return this.disassembleParameters(
+      context,
+      parsedInstruction,
+      receiver,
+      enumerant.parameters(),
+      index + 1
+    );
+  }
+
+  private int disassembleBitEnum(
+    final SMOpDisassemblerContextType context,
+    final SMParsedInstructionType parsedInstruction,
+    final SMOperandReceiverType receiver,
+    final SMOperandKind kind,
+    final int index)
+  {
+    final var word = parsedInstruction.operand(index);
+    final var enumerants = bitEnumerantsOrNull(kind, word);
+    if (enumerants == null) {
+      receiver.unrecognizedBitEnum(kind, word);
+      return index + 1;
+    }
+
+    receiver.bitEnumerants(kind, word, enumerants);
+
+    var current = index + 1;
+    for (final var enumerant : enumerants) {
+      current = this.disassembleParameters(
+        context,
+        parsedInstruction,
+        receiver,
+        enumerant.parameters(),
+        current
+      );
+    }
+    return current;
+  }
+
+  private int disassembleComposite(
+    final SMOpDisassemblerContextType context,
+    final SMParsedInstructionType parsedInstruction,
+    final SMOperandReceiverType receiver,
+    final SMOperandKind kind,
+    final int index)
+  {
+    var current = index;
+    for (final var base : kind.bases()) {
+      if (current >= parsedInstruction.operandCount()) {
+        break;
+      }
+      current = this.disassembleKind(
+        context,
+        parsedInstruction,
+        receiver,
+        base,
+        current
+      );
+    }
+    return current;
+  }
+
+  private int disassembleParameters(
+    final SMOpDisassemblerContextType context,
+    final SMParsedInstructionType parsedInstruction,
+    final SMOperandReceiverType receiver,
+    final List<SMOperand> parameters,
+    final int index)
+  {
+    var current = index;
+    for (final var parameter : parameters) {
+      current = this.disassembleOperand(
+        context,
+        parsedInstruction,
+        receiver,
+        parameter,
+        current
+      );
+    }
+    return current;
+  }
+
+  /**
+   * Determine the number of words occupied by a literal number whose width
+   * is given by a result type. Literals of 64-bit types occupy two words,
+   * low-order word first.
+   *
+   * @param context           The disassembler context
+   * @param parsedInstruction The instruction
+   * @param type              The result type ID
+   * @param index             The index of the first word of the literal
+   *
+   * @return The number of words occupied by the literal
+   */
+
+  static int literalTypedWords(
+    final SMOpDisassemblerContextType context,
+    final SMParsedInstructionType parsedInstruction,
+    final long type,
+    final int index)
+  {
+    if (context.literalTypedWords(type) == 2
+      && index + 1 < parsedInstruction.operandCount()) {
+      return 2;
+    }
+    return 1;
+  }
+
+  /**
+   * @param parsedInstruction The instruction
+   * @param index             The index of the first word of the literal
+   * @param words             The number of words occupied by the literal
+   *
+   * @return The bits of a literal number occupying one or two words
+   */
+
+  static long literalTypedValue(
+    final SMParsedInstructionType parsedInstruction,
+    final int index,
+    final int words)
+  {
+    final var low = parsedInstruction.operand(index);
+    if (words == 2) {
+      final var high = parsedInstruction.operand(index + 1);
+      return (low & 0xFFFF_FFFFL) | (high << 32);
+    }
+    return low;
+  }
+
+  private static SMValueEnumType valueEnumerantOrNull(
+    final SMOperandKind kind,
+    final long word)
+  {
+    return kind.valueEnumerantOrNull((int) word);
+  }
+
+  private static Set<? extends SMBitEnumType> bitEnumerantsOrNull(
+    final SMOperandKind kind,
+    final long word)
+  {
+    return kind.bitEnumerantsOrNull(word);
+  }
+}
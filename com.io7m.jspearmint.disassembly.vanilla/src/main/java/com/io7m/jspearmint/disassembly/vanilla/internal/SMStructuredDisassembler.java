@@ -0,0 +1,456 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.jspearmint.disassembly.vanilla.internal;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.io7m.jspearmint.analysis.SMModuleAnalysis;
+import com.io7m.jspearmint.analysis.SMString;
+import com.io7m.jspearmint.api.SMBitEnumType;
+import com.io7m.jspearmint.api.SMInstruction;
+import com.io7m.jspearmint.api.SMInstructions;
+import com.io7m.jspearmint.api.SMOperandKind;
+import com.io7m.jspearmint.api.SMValueEnumType;
+import com.io7m.jspearmint.disassembly.api.SMDisassemblerConfiguration;
+import com.io7m.jspearmint.parser.api.SMInstructionWindow;
+import com.io7m.jspearmint.parser.api.SMParseException;
+import com.io7m.jspearmint.parser.api.SMParsedHeader;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
+import com.io7m.jspearmint.parser.api.SMParserSourceType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Set;
+
+import static com.io7m.jspearmint.api.SMOperandKind.SM_ID_RESULT;
+import static com.io7m.jspearmint.disassembly.api.SMDisassemblerConfigurationType.Identifiers.FRIENDLY;
+
+/**
+ * Functions that produce a stream of structured records rather than
+ * text. The output consists of a header record followed by one record per
+ * instruction. Each instruction record carries the byte offset of the
+ * instruction, the opcode name, the result ID and its resolved name (if
+ * any), and the operands of the instruction decoded according to the
+ * grammar. Structured disassembly is always sequential; the configured
+ * parallelism is ignored.
+ */
+
+final class SMStructuredDisassembler
+{
+  private static final JsonFactory JSON_FACTORY =
+    new JsonFactoryBuilder()
+      .rootValueSeparator("\n")
+      .build();
+
+  private static final CBORFactory CBOR_FACTORY =
+    CBORFactory.builder()
+      .build();
+
+  private static final BigInteger TWO_TO_64 =
+    BigInteger.ONE.shiftLeft(64);
+
+  private SMStructuredDisassembler()
+  {
+
+  }
+
+  /**
+   * Create a generator for the configured format. The stream belongs to the
+   * caller, so closing the generator flushes the stream but does not close
+   * it.
+   */
+
+  private static JsonGenerator createGenerator(
+    final SMDisassemblerConfiguration configuration,
+    final OutputStream out)
+    throws IOException
+  {
+    switch (configuration.format()) {
+      case JSON:
+        return JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)
+          .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      case CBOR:
+        return CBOR_FACTORY.createGenerator(out)
+          .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      case TEXT:
+        break;
+    }
+
+    throw new IllegalArgumentException(
+      String.format(
+        "Unsupported structured format: %s",
+        configuration.format())
+    );
+  }
+
+  /**
+   * Disassemble a list of instructions using an existing analysis of the
+   * module.
+   */
+
+  static void writeModule(
+    final SMDisassemblerConfiguration configuration,
+    final SMModuleAnalysis analysis,
+    final List<? extends SMParsedInstructionType> instructions,
+    final OutputStream out)
+    throws IOException
+  {
+    try (var generator = createGenerator(configuration, out)) {
+      final var writer = new RecordWriter(generator, analysis, configuration);
+      writer.writeHeader(analysis.header());
+      for (final var instruction : instructions) {
+        writer.writeInstruction(instruction);
+      }
+    } catch (final UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Disassemble a module from the given source using an existing analysis
+   * of the module. The source has already been opened for the analysis, and
+   * so is reopened here.
+   */
+
+  static void writeModule(
+    final SMDisassemblerConfiguration configuration,
+    final SMModuleAnalysis analysis,
+    final SMParserSourceType source,
+    final OutputStream out)
+    throws IOException, SMParseException
+  {
+    try (var parser = source.reopen()) {
+      try (var generator = createGenerator(configuration, out)) {
+        final var writer = new RecordWriter(generator, analysis, configuration);
+        writer.writeHeader(parser.header());
+
+        final var window = new SMInstructionWindow();
+        parser.visitAllInstructions((opCode, wordCount, offset, words, start) -> {
+          writer.writeInstruction(
+            window.set(opCode, wordCount, offset, words, start));
+        });
+      } catch (final UncheckedIOException e) {
+        throw e.getCause();
+      }
+    }
+  }
+
+  /**
+   * Write one record for each instruction in the range {@code [start, end)}
+   * of the given list, without a header record. The output stream is
+   * flushed, but not closed.
+   */
+
+  static void disassembleInstructions(
+    final SMDisassemblerConfiguration configuration,
+    final SMModuleAnalysis analysis,
+    final List<? extends SMParsedInstructionType> instructions,
+    final int start,
+    final int end,
+    final OutputStream out)
+    throws IOException
+  {
+    try (var generator = createGenerator(configuration, out)) {
+      final var writer = new RecordWriter(generator, analysis, configuration);
+      for (int index = start; index < end; ++index) {
+        writer.writeInstruction(instructions.get(index));
+      }
+    } catch (final UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * A writer of records. Operands are delivered by an
+   * {@link SMOperandWalker}; I/O errors are raised as
+   * {@link UncheckedIOException} and unwrapped by the caller.
+   */
+
+  private static final class RecordWriter implements SMOperandReceiverType
+  {
+    private final JsonGenerator generator;
+    private final SMModuleAnalysis analysis;
+    private final SMOpDisassemblerContext context;
+    private final boolean friendly;
+
+    RecordWriter(
+      final JsonGenerator inGenerator,
+      final SMModuleAnalysis inAnalysis,
+      final SMDisassemblerConfiguration configuration)
+    {
+      this.generator = inGenerator;
+      this.analysis = inAnalysis;
+      this.context = new SMOpDisassemblerContext(inAnalysis, configuration);
+      this.friendly = configuration.identifiers() == FRIENDLY;
+    }
+
+    private String nameOrNull(
+      final long id)
+    {
+      if (this.friendly) {
+        return this.analysis.friendlyNameOrNull(id);
+      }
+      return this.analysis.nameOrNull(id);
+    }
+
+    void writeHeader(
+      final SMParsedHeader header)
+    {
+      try {
+        final var g = this.generator;
+        g.writeStartObject();
+        g.writeStringField("record", "header");
+        g.writeNumberField("versionMajor", header.versionMajor());
+        g.writeNumberField("versionMinor", header.versionMinor());
+        g.writeNumberField("generator", header.generatorMagicNumber());
+        g.writeNumberField("bound", header.idBound());
+        g.writeNumberField("schema", header.schema());
+        g.writeEndObject();
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    void writeInstruction(
+      final SMParsedInstructionType instruction)
+    {
+      try {
+        final var g = this.generator;
+        g.writeStartObject();
+        g.writeStringField("record", "instruction");
+        g.writeNumberField("offset", instruction.byteOffset());
+        g.writeNumberField("opcodeValue", instruction.opCode());
+
+        final var definition =
+          SMInstructions.byOpCodeOrNull(instruction.opCode());
+
+        if (definition == null) {
+          g.writeArrayFieldStart("operands");
+          final var operandCount = instruction.operandCount();
+          for (var index = 0; index < operandCount; ++index) {
+            this.unrecognized(instruction.operand(index));
+          }
+          g.writeEndArray();
+          g.writeEndObject();
+          return;
+        }
+
+        g.writeStringField("opcode", definition.spirName());
+
+        final var walker = SMOperandWalker.of(definition);
+        final var resultIdIndex = walker.resultIdIndex();
+        if (resultIdIndex >= 0) {
+          final var resultId = instruction.operand(resultIdIndex);
+          g.writeNumberField("resultId", resultId);
+          final var name = this.nameOrNull(resultId);
+          if (name != null) {
+            g.writeStringField("name", name);
+          }
+        }
+
+        g.writeArrayFieldStart("operands");
+        walker.walk(this.context, instruction, this);
+        g.writeEndArray();
+        g.writeEndObject();
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void id(
+      final SMOperandKind kind,
+      final long id)
+    {
+      if (kind == SM_ID_RESULT) {
+        return;
+      }
+
+      try {
+        final var g = this.generator;
+        g.writeStartObject();
+        g.writeStringField("kind", kind.spirName());
+        g.writeNumberField("id", id);
+        final var name = this.nameOrNull(id);
+        if (name != null) {
+          g.writeStringField("name", name);
+        }
+        g.writeEndObject();
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void literal(
+      final SMOperandKind kind,
+      final long value)
+    {
+      try {
+        final var g = this.generator;
+        g.writeStartObject();
+        g.writeStringField("kind", kind.spirName());
+        g.writeNumberField("value", value);
+        g.writeEndObject();
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    private static void writeFloat(
+      final JsonGenerator g,
+      final long value,
+      final int width)
+      throws IOException
+    {
+      switch (width) {
+        case 16: {
+          g.writeNumberField("value", Float.float16ToFloat((short) value));
+          break;
+        }
+        case 64: {
+          g.writeNumberField("value", Double.longBitsToDouble(value));
+          break;
+        }
+        default: {
+          g.writeNumberField("value", Float.intBitsToFloat((int) value));
+          break;
+        }
+      }
+    }
+
+    private static void writeUnsigned(
+      final JsonGenerator g,
+      final long value)
+      throws IOException
+    {
+      if (value < 0L) {
+        g.writeNumberField("value", BigInteger.valueOf(value).add(TWO_TO_64));
+      } else {
+        g.writeNumberField("value", value);
+      }
+    }
+
+    @Override
+    public void literalTyped(
+      final long type,
+      final long value)
+    {
+      try {
+        final var g = this.generator;
+        g.writeStartObject();
+        g.writeStringField(
+          "kind",
+          SMOperandKind.SM_LITERAL_CONTEXT_DEPENDENT_NUMBER.spirName());
+
+        final var typeValue = this.analysis.typeOrNull(type);
+        final var width = this.analysis.scalarWidth(type);
+        if (typeValue == SMInstruction.SM_OP_TYPE_FLOAT) {
+          writeFloat(g, value, width);
+        } else if (typeValue == SMInstruction.SM_OP_TYPE_INT) {
+          if (this.analysis.scalarSigned(type)) {
+            g.writeNumberField(
+              "value",
+              SMFormatting.signExtendInteger(value, width));
+          } else {
+            writeUnsigned(g, SMFormatting.maskInteger(value, width));
+          }
+        } else {
+          writeUnsigned(g, value);
+        }
+        g.writeEndObject();
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void string(
+      final SMString text)
+    {
+      try {
+        final var g = this.generator;
+        g.writeStartObject();
+        g.writeStringField(
+          "kind",
+          SMOperandKind.SM_LITERAL_STRING.spirName());
+        g.writeStringField("value", text.text());
+        g.writeEndObject();
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void valueEnumerant(
+      final SMOperandKind kind,
+      final SMValueEnumType enumerant)
+    {
+      try {
+        final var g = this.generator;
+        g.writeStartObject();
+        g.writeStringField("kind", kind.spirName());
+        g.writeNumberField("value", enumerant.value());
+        g.writeStringField("enumerant", enumerant.spirName());
+        g.writeEndObject();
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void bitEnumerants(
+      final SMOperandKind kind,
+      final long mask,
+      final Set<? extends SMBitEnumType> enumerants)
+    {
+      try {
+        final var g = this.generator;
+        g.writeStartObject();
+        g.writeStringField("kind", kind.spirName());
+        g.writeNumberField("value", mask);
+        g.writeArrayFieldStart("enumerants");
+        for (final var enumerant : enumerants) {
+          g.writeString(enumerant.spirName());
+        }
+        g.writeEndArray();
+        g.writeEndObject();
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void unrecognized(
+      final long value)
+    {
+      try {
+        final var g = this.generator;
+        g.writeStartObject();
+        g.writeNumberField("word", value);
+        g.writeEndObject();
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
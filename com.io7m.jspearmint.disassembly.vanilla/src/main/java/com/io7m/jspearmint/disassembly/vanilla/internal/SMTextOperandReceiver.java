@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.disassembly.vanilla.internal;
+
+import com.io7m.jspearmint.analysis.SMString;
+import com.io7m.jspearmint.api.SMBitEnumType;
+import com.io7m.jspearmint.api.SMOperandKind;
+import com.io7m.jspearmint.api.SMValueEnumType;
+
+import java.util.Objects;
+import java.util.Set;
+
+import static com.io7m.jspearmint.api.SMOperandKind.SM_ID_RESULT;
+
+/**
+ * A receiver that appends decoded operands to a text output. The result
+ * ID, if any, is omitted as it appears in the assignment column. A
+ * receiver is owned by a single disassembler context and is reused for
+ * every instruction formatted with that context.
+ */
+
+final class SMTextOperandReceiver implements SMOperandReceiverType
+{
+  private final SMOpDisassemblerContextType context;
+  private SMTextOutput output;
+
+  SMTextOperandReceiver(
+    final SMOpDisassemblerContextType inContext,
+    final SMTextOutput inOutput)
+  {
+    this.context = Objects.requireNonNull(inContext, "context");
+    this.output = Objects.requireNonNull(inOutput, "output");
+  }
+
+  /**
+   * Direct subsequent operands to the given output.
+   *
+   * @param inOutput The output
+   *
+   * @return This receiver
+   */
+
+  SMTextOperandReceiver withOutput(
+    final SMTextOutput inOutput)
+  {
+    this.output = Objects.requireNonNull(inOutput, "output");
+    return this;
+  }
+
+  @Override
+  public void id(
+    final SMOperandKind kind,
+    final long id)
+  {
+    if (kind != SM_ID_RESULT) {
+      this.output.appendOperand(this.context.idString(id));
+    }
+  }
+
+  @Override
+  public void literal(
+    final SMOperandKind kind,
+    final long value)
+  {
+    this.output.appendLiteralOperand(value);
+  }
+
+  @Override
+  public void literalTyped(
+    final long type,
+    final long value)
+  {
+    this.output.appendOperand(this.context.literalTyped(type, value));
+  }
+
+  @Override
+  public void string(
+    final SMString text)
+  {
+    this.output.appendOperand(this.context.quoteString(text));
+  }
+
+  @Override
+  public void valueEnumerant(
+    final SMOperandKind kind,
+    final SMValueEnumType enumerant)
+  {
+    this.output.appendOperand(enumerant.spirName());
+  }
+
+  @Override
+  public void bitEnumerants(
+    final SMOperandKind kind,
+    final long mask,
+    final Set<? extends SMBitEnumType> enumerants)
+  {
+    this.output.appendBitEnumerants(enumerants);
+  }
+
+  @Override
+  public void unrecognized(
+    final long value)
+  {
+    this.output.appendLiteralOperand(value);
+  }
+
+  @Override
+  public void unrecognizedBitEnum(
+    final SMOperandKind kind,
+    final long mask)
+  {
+    this.output.appendHexLiteralOperand(mask);
+  }
+}
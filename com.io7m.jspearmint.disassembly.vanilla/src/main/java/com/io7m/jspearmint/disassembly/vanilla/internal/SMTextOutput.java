@@ -0,0 +1,262 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.disassembly.vanilla.internal;
+
+import com.io7m.jspearmint.api.SMBitEnumType;
+
+import java.io.CharArrayWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+
+/**
+ * A text output buffer. Text is accumulated in a reused buffer, and is
+ * written to the underlying writer only when the buffer fills or the
+ * output is flushed.
+ */
+
+public final class SMTextOutput implements Closeable
+{
+  private static final int FLUSH_THRESHOLD = 1 << 16;
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+
+  private final Writer writer;
+  private final StringBuilder buffer;
+  private char[] chars;
+
+  /**
+   * Create a text output buffer.
+   *
+   * @param inWriter The underlying writer
+   */
+
+  public SMTextOutput(
+    final Writer inWriter)
+  {
+    this.writer = Objects.requireNonNull(inWriter, "writer");
+    this.buffer = new StringBuilder(FLUSH_THRESHOLD + 1024);
+    this.chars = new char[0];
+  }
+
+  SMTextOutput append(
+    final CharSequence text)
+  {
+    this.buffer.append(text);
+    return this;
+  }
+
+  SMTextOutput append(
+    final char c)
+  {
+    this.buffer.append(c);
+    return this;
+  }
+
+  SMTextOutput append(
+    final long value)
+  {
+    this.buffer.append(value);
+    return this;
+  }
+
+  /**
+   * Append an instruction operand, preceded by a space.
+   */
+
+  SMTextOutput appendOperand(
+    final CharSequence text)
+  {
+    this.buffer.append(' ');
+    this.buffer.append(text);
+    return this;
+  }
+
+  /**
+   * Append a literal instruction operand of the form {@code $n}, preceded
+   * by a space. The value is treated as unsigned.
+   */
+
+  SMTextOutput appendLiteralOperand(
+    final long value)
+  {
+    this.buffer.append(" $");
+    if (value >= 0L) {
+      this.buffer.append(value);
+    } else {
+      this.buffer.append(Long.toUnsignedString(value));
+    }
+    return this;
+  }
+
+  /**
+   * Append a literal instruction operand of the form {@code $0xn}, preceded
+   * by a space. The value is treated as unsigned.
+   */
+
+  SMTextOutput appendHexLiteralOperand(
+    final long value)
+  {
+    this.buffer.append(" $0x");
+    return this.appendHex(value, 8);
+  }
+
+  /**
+   * Append the names of a set of bit enumerants as a single operand of the
+   * form {@code A|B|C}, preceded by a space.
+   */
+
+  SMTextOutput appendBitEnumerants(
+    final Iterable<? extends SMBitEnumType> enumerants)
+  {
+    this.buffer.append(' ');
+    var first = true;
+    for (final var enumerant : enumerants) {
+      if (!first) {
+        this.buffer.append('|');
+      }
+      this.buffer.append(enumerant.spirName());
+      first = false;
+    }
+    return this;
+  }
+
+  /**
+   * Append text that was formatted separately. Any text already buffered is
+   * written first, and the given text is then written directly to the
+   * underlying writer.
+   *
+   * @throws IOException On I/O errors
+   */
+
+  SMTextOutput append(
+    final CharArrayWriter text)
+    throws IOException
+  {
+    this.drain();
+    text.writeTo(this.writer);
+    return this;
+  }
+
+  /**
+   * Append the given value as lower-case hexadecimal, zero-padded to at
+   * least the given number of digits. The value is treated as unsigned.
+   */
+
+  SMTextOutput appendHex(
+    final long value,
+    final int minimumDigits)
+  {
+    final var significant =
+      Math.max(1, (Long.SIZE - Long.numberOfLeadingZeros(value) + 3) >>> 2);
+    final var digits = Math.max(significant, minimumDigits);
+    for (int digit = digits - 1; digit >= 0; --digit) {
+      final int nibble;
+      if (digit >= 16) {
+        nibble = 0;
+      } else {
+        nibble = (int) ((value >>> (digit << 2)) & 0xfL);
+      }
+      this.buffer.append(HEX_DIGITS[nibble]);
+    }
+    return this;
+  }
+
+  /**
+   * Append the given number of spaces.
+   */
+
+  SMTextOutput appendSpaces(
+    final int count)
+  {
+    for (int index = 0; index < count; ++index) {
+      this.buffer.append(' ');
+    }
+    return this;
+  }
+
+  /**
+   * @return The number of decimal digits required to represent the given
+   * non-negative value
+   */
+
+  static int decimalDigits(
+    final long value)
+  {
+    long limit = 10L;
+    for (int digits = 1; digits < 19; ++digits) {
+      if (value < limit) {
+        return digits;
+      }
+      limit *= 10L;
+    }
+    return 19;
+  }
+
+  /**
+   * End the current line, writing the buffer to the underlying writer if
+   * it has filled.
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void newLine()
+    throws IOException
+  {
+    this.buffer.append(LINE_SEPARATOR);
+    if (this.buffer.length() >= FLUSH_THRESHOLD) {
+      this.drain();
+    }
+  }
+
+  private void drain()
+    throws IOException
+  {
+    final var length = this.buffer.length();
+    if (this.chars.length < length) {
+      this.chars = new char[length];
+    }
+    this.buffer.getChars(0, length, this.chars, 0);
+    this.writer.write(this.chars, 0, length);
+    this.buffer.setLength(0);
+  }
+
+  /**
+   * Write any buffered text and flush the underlying writer.
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void flush()
+    throws IOException
+  {
+    this.drain();
+    this.writer.flush();
+  }
+
+  @Override
+  public void close()
+    throws IOException
+  {
+    try {
+      this.drain();
+    } finally {
+      this.writer.close();
+    }
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.disassembly.vanilla.internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * An output stream that measures the time spent in, and the number of bytes
+ * passed to, the stream that it wraps.
+ */
+
+final class SMTimedOutputStream extends OutputStream
+{
+  private final OutputStream delegate;
+  private final long timeCreated;
+  private long bytesWritten;
+  private long writeTime;
+
+  SMTimedOutputStream(
+    final OutputStream inDelegate)
+  {
+    this.delegate = Objects.requireNonNull(inDelegate, "delegate");
+    this.timeCreated = System.nanoTime();
+  }
+
+  long elapsedTime()
+  {
+    return System.nanoTime() - this.timeCreated;
+  }
+
+  long bytesWritten()
+  {
+    return this.bytesWritten;
+  }
+
+  long writeTime()
+  {
+    return this.writeTime;
+  }
+
+  @Override
+  public void write(
+    final int b)
+    throws IOException
+  {
+    final var timeThen = System.nanoTime();
+    try {
+      this.delegate.write(b);
+      this.bytesWritten += 1L;
+    } finally {
+      this.writeTime += System.nanoTime() - timeThen;
+    }
+  }
+
+  @Override
+  public void write(
+    final byte[] data,
+    final int offset,
+    final int length)
+    throws IOException
+  {
+    final var timeThen = System.nanoTime();
+    try {
+      this.delegate.write(data, offset, length);
+      this.bytesWritten += length;
+    } finally {
+      this.writeTime += System.nanoTime() - timeThen;
+    }
+  }
+
+  @Override
+  public void flush()
+    throws IOException
+  {
+    final var timeThen = System.nanoTime();
+    try {
+      this.delegate.flush();
+    } finally {
+      this.writeTime += System.nanoTime() - timeThen;
+    }
+  }
+
+  @Override
+  public void close()
+    throws IOException
+  {
+    final var timeThen = System.nanoTime();
+    try {
+      this.delegate.close();
+    } finally {
+      this.writeTime += System.nanoTime() - timeThen;
+    }
+  }
+}
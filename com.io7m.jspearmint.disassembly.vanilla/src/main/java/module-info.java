@@ -28,14 +28,18 @@ module com.io7m.jspearmint.disassembly.vanilla
 
   requires transitive com.io7m.jspearmint.disassembly.api;
 
+  requires com.fasterxml.jackson.core;
+  requires com.fasterxml.jackson.dataformat.cbor;
   requires com.io7m.jspearmint.analysis;
   requires com.io7m.jspearmint.api;
   requires com.io7m.jspearmint.parser.api;
+  requires jdk.jfr;
   requires org.apache.commons.text;
-  requires org.slf4j;
 
   provides com.io7m.jspearmint.disassembly.api.SMDisassemblerProviderType
     with SMDisassemblers;
 
+  uses com.io7m.jspearmint.parser.api.SMMetricsListenerType;
+
   exports com.io7m.jspearmint.disassembly.vanilla;
 }
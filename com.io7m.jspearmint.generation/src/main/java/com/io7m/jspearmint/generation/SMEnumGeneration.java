@@ -16,18 +16,25 @@
 
 package com.io7m.jspearmint.generation;
 
+import com.io7m.jspearmint.json_registry.SMJSONEnumerant;
 import com.io7m.jspearmint.json_registry.SMJSONOperandKind;
+import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeSpec;
 
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 
+import static com.io7m.jspearmint.generation.SMInstructionEnumGeneration.listOfOperands;
 import static com.io7m.jspearmint.generation.SMInstructionEnumGeneration.transformEnumConstantName;
 import static com.squareup.javapoet.TypeName.INT;
+import static com.squareup.javapoet.TypeName.LONG;
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
@@ -89,35 +96,88 @@ public final class SMEnumGeneration
     }
 
     typeBuilder.addJavadoc(generateClassJavadoc(kind));
+
+    final var table = new SMOperandTableGeneration();
     for (final var enumConstant : kind.enumerants) {
+      final var offset = table.count();
+      for (final var parameter : enumConstant.parameters) {
+        table.add(parameter.kind, parameter.quantifier, parameter.name);
+      }
       typeBuilder.addEnumConstant(
         transformEnumConstantName(enumConstant.enumerant),
         TypeSpec.anonymousClassBuilder(
-            "$L,$S",
+            "$L,$S,$L,$L",
             enumConstant.value,
-            enumConstant.enumerant
+            enumConstant.enumerant,
+            Integer.valueOf(offset),
+            Integer.valueOf(enumConstant.parameters.size())
           ).addJavadoc(enumConstant.enumerant)
           .build()
       );
     }
 
-    typeBuilder.addFields(generateValueFields());
+    typeBuilder.addType(table.generate(packageName));
+    typeBuilder.addFields(generateValueFields(packageName));
     typeBuilder.addMethod(generateEnumConstructor());
-    typeBuilder.addMethods(generateValueMethods(qualifiedName));
+    typeBuilder.addMethods(generateValueMethods(packageName, kind));
+    typeBuilder.addMethod(generateOfIntegerOrNull(qualifiedName, kind.enumerants));
+    typeBuilder.addMethod(generateOfInteger(qualifiedName));
+
+    if (Objects.equals(kind.category, "BitEnum")) {
+      typeBuilder.addField(generateBitTableField(qualifiedName));
+      typeBuilder.addMethod(generateBitTableMethod(qualifiedName));
+      typeBuilder.addMethod(generateOfMaskOrNull(qualifiedName, kind.enumerants));
+      typeBuilder.addMethod(generateOfMask(qualifiedName));
+    }
     return typeBuilder.build();
   }
 
-  private static List<FieldSpec> generateValueFields()
+  private static List<FieldSpec> generateValueFields(
+    final String packageName)
   {
     return List.of(
       FieldSpec.builder(INT, "value", FINAL, PRIVATE).build(),
-      FieldSpec.builder(String.class, "spirName", FINAL, PRIVATE).build()
+      FieldSpec.builder(String.class, "spirName", FINAL, PRIVATE).build(),
+      FieldSpec.builder(INT, "parameterOffset", FINAL, PRIVATE).build(),
+      FieldSpec.builder(INT, "parameterCount", FINAL, PRIVATE).build(),
+      FieldSpec.builder(listOfOperands(packageName), "parameters", PRIVATE)
+        .addJavadoc(
+          "The parameters, decoded on first use. Races are benign: the list is immutable.\n")
+        .build()
     );
   }
 
   private static List<MethodSpec> generateValueMethods(
-    final ClassName thisType)
+    final String packageName,
+    final SMJSONOperandKind kind)
   {
+    final var spirName =
+      MethodSpec.methodBuilder("spirName")
+        .addModifiers(PUBLIC)
+        .returns(String.class)
+        .addCode("return this.spirName;");
+
+    final var parameters =
+      MethodSpec.methodBuilder("parameters")
+        .addJavadoc("@return The parameters that follow this enumerant\n")
+        .addModifiers(PUBLIC)
+        .returns(listOfOperands(packageName))
+        .beginControlFlow("if (this.parameterCount == 0)")
+        .addStatement("return $T.of()", List.class)
+        .endControlFlow()
+        .addStatement("$T result = this.parameters", listOfOperands(packageName))
+        .beginControlFlow("if (result == null)")
+        .addStatement(
+          "result = OperandTable.operands(this.parameterOffset, this.parameterCount)")
+        .addStatement("this.parameters = result")
+        .endControlFlow()
+        .addStatement("return result");
+
+    if (isEnumCategory(kind)) {
+      spirName.addAnnotation(Override.class);
+      parameters.addAnnotation(Override.class);
+    }
+
     return List.of(
       MethodSpec.methodBuilder("value")
         .addAnnotation(Override.class)
@@ -125,27 +185,196 @@ public final class SMEnumGeneration
         .returns(INT)
         .addCode("return this.value;")
         .build(),
+      spirName.build(),
+      parameters.build()
+    );
+  }
 
-      MethodSpec.methodBuilder("spirName")
-        .addModifiers(PUBLIC)
-        .returns(String.class)
-        .addCode("return this.spirName;")
-        .build(),
+  /**
+   * @param kind The operand kind
+   *
+   * @return {@code true} if the kind is a value or bit enum
+   */
 
-      MethodSpec.methodBuilder("ofInteger")
-        .addModifiers(PUBLIC, STATIC)
-        .addParameter(INT, "x", FINAL)
-        .returns(thisType)
-        .beginControlFlow("for (var v : $L.values())\n", thisType)
-        .beginControlFlow("if (v.value() == x)")
-        .addCode("return v;")
-        .endControlFlow()
-        .endControlFlow()
-        .addCode(
-          "throw new IllegalArgumentException($S + x);\n",
-          String.format("Unrecognized %s value: ", thisType.simpleName()))
-        .build()
-    );
+  private static boolean isEnumCategory(
+    final SMJSONOperandKind kind)
+  {
+    return Objects.equals(kind.category, "ValueEnum")
+      || Objects.equals(kind.category, "BitEnum");
+  }
+
+  private static int enumerantValue(
+    final SMJSONEnumerant enumerant)
+  {
+    return Long.decode(enumerant.value).intValue();
+  }
+
+  /**
+   * Generate a switch-based {@code ofIntegerOrNull} method. As with the
+   * linear scan that preceded it, the first enumerant declared with a given
+   * value wins. Unrecognized values yield {@code null} so that callers on
+   * hot paths need not construct exceptions.
+   */
+
+  private static MethodSpec generateOfIntegerOrNull(
+    final ClassName thisType,
+    final List<SMJSONEnumerant> enumerants)
+  {
+    final var seen = new HashSet<Integer>(enumerants.size());
+    final var code = CodeBlock.builder();
+    code.beginControlFlow("switch (x)");
+    for (final var enumerant : enumerants) {
+      final var value = Integer.valueOf(enumerantValue(enumerant));
+      if (seen.add(value)) {
+        code.add("case $L:\n", value);
+        code.indent();
+        code.addStatement(
+          "return $L",
+          transformEnumConstantName(enumerant.enumerant));
+        code.unindent();
+      }
+    }
+    code.add("default:\n");
+    code.indent();
+    code.addStatement("return null");
+    code.unindent();
+    code.endControlFlow();
+
+    return MethodSpec.methodBuilder("ofIntegerOrNull")
+      .addJavadoc("@param x The value\n\n")
+      .addJavadoc("@return The enumerant with the given value, or {@code null} if there is no such enumerant\n")
+      .addModifiers(PUBLIC, STATIC)
+      .addParameter(INT, "x", FINAL)
+      .returns(thisType)
+      .addCode(code.build())
+      .build();
+  }
+
+  private static MethodSpec generateOfInteger(
+    final ClassName thisType)
+  {
+    return MethodSpec.methodBuilder("ofInteger")
+      .addModifiers(PUBLIC, STATIC)
+      .addParameter(INT, "x", FINAL)
+      .returns(thisType)
+      .addStatement("final $T result = ofIntegerOrNull(x)", thisType)
+      .beginControlFlow("if (result == null)")
+      .addStatement(
+        "throw new IllegalArgumentException($S + x)",
+        String.format("Unrecognized %s value: ", thisType.simpleName()))
+      .endControlFlow()
+      .addStatement("return result")
+      .build();
+  }
+
+  private static FieldSpec generateBitTableField(
+    final ClassName thisType)
+  {
+    return FieldSpec.builder(
+        ArrayTypeName.of(thisType), "BITS", PRIVATE, STATIC, FINAL)
+      .initializer("makeBits()")
+      .build();
+  }
+
+  /**
+   * Generate a method that builds a table of single-bit enumerants indexed
+   * by bit position. The first enumerant declared for a given bit wins, in
+   * the same manner as {@code ofInteger}.
+   */
+
+  private static MethodSpec generateBitTableMethod(
+    final ClassName thisType)
+  {
+    return MethodSpec.methodBuilder("makeBits")
+      .addModifiers(PRIVATE, STATIC)
+      .returns(ArrayTypeName.of(thisType))
+      .addStatement(
+        "final $T[] table = new $T[32]",
+        thisType,
+        thisType)
+      .beginControlFlow("for (final $T v : values())", thisType)
+      .beginControlFlow("if (Integer.bitCount(v.value) == 1)")
+      .addStatement("final int index = Integer.numberOfTrailingZeros(v.value)")
+      .beginControlFlow("if (table[index] == null)")
+      .addStatement("table[index] = v")
+      .endControlFlow()
+      .endControlFlow()
+      .endControlFlow()
+      .addStatement("return table")
+      .build();
+  }
+
+  private static MethodSpec generateOfMaskOrNull(
+    final ClassName thisType,
+    final List<SMJSONEnumerant> enumerants)
+  {
+    final var zero = CodeBlock.builder();
+    enumerants.stream()
+      .filter(e -> enumerantValue(e) == 0)
+      .findFirst()
+      .ifPresent(e -> zero.addStatement(
+        "result.add($L)", transformEnumConstantName(e.enumerant)));
+
+    return MethodSpec.methodBuilder("ofMaskOrNull")
+      .addJavadoc("Decompose a mask into the set of enumerants it contains. ")
+      .addJavadoc("A mask of {@code 0} yields the enumerant with value ")
+      .addJavadoc("{@code 0}, if one exists.\n\n")
+      .addJavadoc("@param mask The mask\n\n")
+      .addJavadoc("@return The set of enumerants in the mask, or {@code null} if the mask ")
+      .addJavadoc("contains unrecognized bits\n")
+      .addModifiers(PUBLIC, STATIC)
+      .addParameter(LONG, "mask", FINAL)
+      .returns(ParameterizedTypeName.get(ClassName.get(EnumSet.class), thisType))
+      .beginControlFlow("if ((mask & 0xffff_ffff_0000_0000L) != 0L)")
+      .addStatement("return null")
+      .endControlFlow()
+      .addStatement(
+        "final $T<$T> result = $T.noneOf($T.class)",
+        EnumSet.class,
+        thisType,
+        EnumSet.class,
+        thisType)
+      .beginControlFlow("if (mask == 0L)")
+      .addCode(zero.build())
+      .addStatement("return result")
+      .endControlFlow()
+      .addStatement("int remaining = (int) mask")
+      .beginControlFlow("while (remaining != 0)")
+      .addStatement("final $T v = BITS[Integer.numberOfTrailingZeros(remaining)]", thisType)
+      .beginControlFlow("if (v == null)")
+      .addStatement("return null")
+      .endControlFlow()
+      .addStatement("result.add(v)")
+      .addStatement("remaining &= remaining - 1")
+      .endControlFlow()
+      .addStatement("return result")
+      .build();
+  }
+
+  private static MethodSpec generateOfMask(
+    final ClassName thisType)
+  {
+    final var setType =
+      ParameterizedTypeName.get(ClassName.get(EnumSet.class), thisType);
+
+    return MethodSpec.methodBuilder("ofMask")
+      .addJavadoc("Decompose a mask into the set of enumerants it contains. ")
+      .addJavadoc("A mask of {@code 0} yields the enumerant with value ")
+      .addJavadoc("{@code 0}, if one exists.\n\n")
+      .addJavadoc("@param mask The mask\n\n")
+      .addJavadoc("@return The set of enumerants in the mask\n\n")
+      .addJavadoc("@throws IllegalArgumentException If the mask contains unrecognized bits\n")
+      .addModifiers(PUBLIC, STATIC)
+      .addParameter(LONG, "mask", FINAL)
+      .returns(setType)
+      .addStatement("final $T result = ofMaskOrNull(mask)", setType)
+      .beginControlFlow("if (result == null)")
+      .addStatement(
+        "throw new IllegalArgumentException($S + Long.toUnsignedString(mask, 16))",
+        String.format("Unrecognized %s mask: 0x", thisType.simpleName()))
+      .endControlFlow()
+      .addStatement("return result")
+      .build();
   }
 
   private static String generateClassJavadoc(
@@ -170,10 +399,14 @@ public final class SMEnumGeneration
     return MethodSpec.constructorBuilder()
       .addParameter(INT, "inValue", FINAL)
       .addParameter(String.class, "inSpirName", FINAL)
+      .addParameter(INT, "inParameterOffset", FINAL)
+      .addParameter(INT, "inParameterCount", FINAL)
       .addCode(
         CodeBlock.builder()
-          .add("this.value = inValue;")
-          .add("this.spirName = inSpirName;")
+          .addStatement("this.value = inValue")
+          .addStatement("this.spirName = inSpirName")
+          .addStatement("this.parameterOffset = inParameterOffset")
+          .addStatement("this.parameterCount = inParameterCount")
           .build()
       ).build();
   }
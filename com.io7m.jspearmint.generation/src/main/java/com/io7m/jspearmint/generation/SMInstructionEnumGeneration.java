@@ -18,6 +18,7 @@ package com.io7m.jspearmint.generation;
 
 import com.io7m.jspearmint.json_registry.SMJSONInstruction;
 import com.io7m.jspearmint.json_registry.SMJSONInstructionOperand;
+import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
@@ -27,12 +28,12 @@ import com.squareup.javapoet.TypeSpec;
 
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
 
 import static com.squareup.javapoet.TypeName.INT;
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
 
 /**
  * Functions to generate instruction enums.
@@ -69,26 +70,92 @@ public final class SMInstructionEnumGeneration
         .addSuperinterface(ClassName.get(packageName, "SMEnumType"))
         .addModifiers(PUBLIC);
 
+    final var table = new SMOperandTableGeneration();
     for (final var instruction : instructions) {
+      final var offset = table.count();
+      for (final var operand : instruction.operands) {
+        table.add(operand.kind, operand.quantifier, operand.name);
+      }
       typeBuilder.addEnumConstant(
         transformEnumConstantName(instruction.name),
         TypeSpec.anonymousClassBuilder(
-            "$L,$S,$L,$L",
+            "$L,$S,$L,$L,$L",
             instruction.opcode,
             instruction.name,
-            instructionOperandList(packageName, instruction.operands),
+            Integer.valueOf(offset),
+            Integer.valueOf(instruction.operands.size()),
             Integer.valueOf(instructionMinimumOperands(instruction.operands))
           ).addJavadoc(instruction.name)
           .build()
       );
     }
 
+    typeBuilder.addType(table.generate(packageName));
     typeBuilder.addFields(generateFields(packageName));
+    typeBuilder.addField(generateOpCodeTableField(className));
     typeBuilder.addMethods(generateMethods(packageName));
-    typeBuilder.addMethod(generateEnumConstructor(packageName));
+    typeBuilder.addMethod(generateOpCodeTableMethod(className, instructions));
+    typeBuilder.addMethod(generateByOpCodeOrNull(className));
+    typeBuilder.addMethod(generateEnumConstructor());
     return typeBuilder.build();
   }
 
+  private static FieldSpec generateOpCodeTableField(
+    final ClassName className)
+  {
+    return FieldSpec.builder(
+        ArrayTypeName.of(className), "BY_OP_CODE", PRIVATE, STATIC, FINAL)
+      .initializer("makeByOpCode()")
+      .build();
+  }
+
+  /**
+   * Generate a method that builds a dense table of instructions indexed by
+   * opcode. As with the map-based lookups that preceded it, the last
+   * instruction declared with a given opcode wins.
+   */
+
+  private static MethodSpec generateOpCodeTableMethod(
+    final ClassName className,
+    final List<SMJSONInstruction> instructions)
+  {
+    final var maximum =
+      instructions.stream()
+        .mapToInt(i -> i.opcode.intValueExact())
+        .max()
+        .orElse(0);
+
+    return MethodSpec.methodBuilder("makeByOpCode")
+      .addModifiers(PRIVATE, STATIC)
+      .returns(ArrayTypeName.of(className))
+      .addStatement(
+        "final $T[] table = new $T[$L]",
+        className,
+        className,
+        Integer.valueOf(maximum + 1))
+      .beginControlFlow("for (final $T instruction : values())", className)
+      .addStatement("table[instruction.value] = instruction")
+      .endControlFlow()
+      .addStatement("return table")
+      .build();
+  }
+
+  private static MethodSpec generateByOpCodeOrNull(
+    final ClassName className)
+  {
+    return MethodSpec.methodBuilder("byOpCodeOrNull")
+      .addJavadoc("@param opCode The opcode\n\n")
+      .addJavadoc("@return The instruction with the given opcode, or {@code null} if there is no such instruction\n")
+      .addModifiers(PUBLIC, STATIC)
+      .addParameter(INT, "opCode", FINAL)
+      .returns(className)
+      .beginControlFlow("if (opCode >= 0 && opCode < BY_OP_CODE.length)")
+      .addStatement("return BY_OP_CODE[opCode]")
+      .endControlFlow()
+      .addStatement("return null")
+      .build();
+  }
+
   private static int instructionMinimumOperands(
     final List<SMJSONInstructionOperand> operands)
   {
@@ -110,7 +177,13 @@ public final class SMInstructionEnumGeneration
       MethodSpec.methodBuilder("operands")
         .addModifiers(PUBLIC)
         .returns(listOfOperands(packageName))
-        .addCode("return this.operands;")
+        .addStatement("$T result = this.operands", listOfOperands(packageName))
+        .beginControlFlow("if (result == null)")
+        .addStatement(
+          "result = OperandTable.operands(this.operandOffset, this.operandCount)")
+        .addStatement("this.operands = result")
+        .endControlFlow()
+        .addStatement("return result")
         .build(),
       MethodSpec.methodBuilder("spirName")
         .addModifiers(PUBLIC)
@@ -131,36 +204,13 @@ public final class SMInstructionEnumGeneration
     );
   }
 
-  private static CodeBlock instructionOperandList(
-    final String packageName,
-    final List<SMJSONInstructionOperand> operands)
-  {
-    final CodeBlock.Builder codeBuilder =
-      CodeBlock.builder()
-        .add("java.util.List.of(");
-
-    final int count = operands.size();
-    for (int index = 0; index < count; ++index) {
-      final var operand = operands.get(index);
-      codeBuilder.add(
-        "SMOperand.of($T.$L,$T.$L,$S)",
-        ClassName.get(packageName, "SMOperandKind"),
-        transformEnumConstantName(operand.kind),
-        ClassName.get(packageName, "SMOperandQuantifier"),
-        transformQuantifier(operand.quantifier),
-        Optional.ofNullable(operand.name).orElse("").replace("'", "")
-      );
-
-      if (index + 1 < count) {
-        codeBuilder.add(",");
-      }
-    }
-
-    return codeBuilder.add(")")
-      .build();
-  }
+  /**
+   * @param quantifier The raw quantifier
+   *
+   * @return The name of the corresponding quantifier constant
+   */
 
-  private static String transformQuantifier(
+  static String transformQuantifier(
     final String quantifier)
   {
     switch (quantifier) {
@@ -220,35 +270,45 @@ public final class SMInstructionEnumGeneration
         .build(),
       FieldSpec.builder(String.class, "spirName", FINAL, PRIVATE)
         .build(),
-      FieldSpec.builder(listParameterized, "operands", FINAL, PRIVATE)
+      FieldSpec.builder(INT, "operandOffset", FINAL, PRIVATE)
+        .build(),
+      FieldSpec.builder(INT, "operandCount", FINAL, PRIVATE)
+        .build(),
+      FieldSpec.builder(listParameterized, "operands", PRIVATE)
+        .addJavadoc(
+          "The operands, decoded on first use. Races are benign: the list is immutable.\n")
         .build(),
       FieldSpec.builder(INT, "minimumOperandCount", FINAL, PRIVATE)
         .build()
     );
   }
 
-  private static MethodSpec generateEnumConstructor(
-    final String packageName)
+  private static MethodSpec generateEnumConstructor()
   {
-    final ParameterizedTypeName listParameterized =
-      listOfOperands(packageName);
-
     return MethodSpec.constructorBuilder()
       .addParameter(INT, "inValue", FINAL)
       .addParameter(String.class, "inSpirName", FINAL)
-      .addParameter(listParameterized, "inOperands", FINAL)
+      .addParameter(INT, "inOperandOffset", FINAL)
+      .addParameter(INT, "inOperandCount", FINAL)
       .addParameter(INT, "inMinimumOperandCount", FINAL)
       .addCode(
         CodeBlock.builder()
           .addStatement("this.value = inValue")
           .addStatement("this.spirName = inSpirName")
-          .addStatement("this.operands = inOperands")
+          .addStatement("this.operandOffset = inOperandOffset")
+          .addStatement("this.operandCount = inOperandCount")
           .addStatement("this.minimumOperandCount = inMinimumOperandCount")
           .build()
       ).build();
   }
 
-  private static ParameterizedTypeName listOfOperands(
+  /**
+   * @param packageName The package name
+   *
+   * @return The type {@code List<SMOperand>}
+   */
+
+  static ParameterizedTypeName listOfOperands(
     final String packageName)
   {
     final var listName =
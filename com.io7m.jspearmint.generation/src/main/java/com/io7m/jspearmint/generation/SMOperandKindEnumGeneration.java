@@ -21,13 +21,17 @@ import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import static com.io7m.jspearmint.generation.SMInstructionEnumGeneration.transformEnumConstantName;
 import static com.squareup.javapoet.TypeName.INT;
+import static com.squareup.javapoet.TypeName.LONG;
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
@@ -72,20 +76,232 @@ public final class SMOperandKindEnumGeneration
       typeBuilder.addEnumConstant(
         transformEnumConstantName(operandKind.kind),
         TypeSpec.anonymousClassBuilder(
-            "$L,$S",
+            "$L,$S,$T.$L",
             Integer.valueOf(index),
-            operandKind.kind
+            operandKind.kind,
+            categoryType(packageName),
+            transformCategory(operandKind.category)
           ).addJavadoc(operandJavaDoc(operandKind))
           .build()
       );
     }
 
-    typeBuilder.addFields(generateValueFields());
-    typeBuilder.addMethod(generateEnumConstructor());
-    typeBuilder.addMethods(generateValueMethods());
+    typeBuilder.addFields(generateValueFields(packageName));
+    typeBuilder.addMethod(generateEnumConstructor(packageName));
+    typeBuilder.addMethods(generateValueMethods(packageName));
+    typeBuilder.addMethod(generateBases(className, operandKinds));
+    typeBuilder.addMethod(generateValueEnumerant(packageName, operandKinds));
+    typeBuilder.addMethod(generateValueEnumerantOrNull(packageName, operandKinds));
+    typeBuilder.addMethod(generateBitEnumerants(packageName, operandKinds));
+    typeBuilder.addMethod(generateBitEnumerantsOrNull(packageName, operandKinds));
     return typeBuilder.build();
   }
 
+  private static ClassName categoryType(
+    final String packageName)
+  {
+    return ClassName.get(packageName, "SMOperandKindCategory");
+  }
+
+  private static String transformCategory(
+    final String category)
+  {
+    switch (category) {
+      case "BitEnum":
+        return "SM_BIT_ENUM";
+      case "ValueEnum":
+        return "SM_VALUE_ENUM";
+      case "Id":
+        return "SM_ID";
+      case "Literal":
+        return "SM_LITERAL";
+      case "Composite":
+        return "SM_COMPOSITE";
+      default:
+        throw new IllegalStateException(
+          String.format("Unrecognized operand kind category: %s", category));
+    }
+  }
+
+  private static MethodSpec generateBases(
+    final ClassName className,
+    final List<SMJSONOperandKind> operandKinds)
+  {
+    final var code = CodeBlock.builder();
+    code.beginControlFlow("switch (this)");
+    for (final var operandKind : operandKinds) {
+      if (operandKind.bases.isEmpty()) {
+        continue;
+      }
+
+      final var bases = CodeBlock.builder();
+      for (int index = 0; index < operandKind.bases.size(); ++index) {
+        bases.add("$L", transformEnumConstantName(operandKind.bases.get(index)));
+        if (index + 1 < operandKind.bases.size()) {
+          bases.add(",");
+        }
+      }
+
+      code.add("case $L:\n", transformEnumConstantName(operandKind.kind));
+      code.indent();
+      code.addStatement("return $T.of($L)", List.class, bases.build());
+      code.unindent();
+    }
+    code.add("default:\n");
+    code.indent();
+    code.addStatement("return $T.of()", List.class);
+    code.unindent();
+    code.endControlFlow();
+
+    return MethodSpec.methodBuilder("bases")
+      .addJavadoc("@return The kinds that make up a composite operand kind, in order, or an ")
+      .addJavadoc("empty list for non-composite kinds\n")
+      .addModifiers(PUBLIC)
+      .returns(ParameterizedTypeName.get(ClassName.get(List.class), className))
+      .addCode(code.build())
+      .build();
+  }
+
+  /**
+   * Generate a switch over the enum kinds of the given category that
+   * delegates to a static method of the enum type of each kind.
+   */
+
+  private static CodeBlock generateEnumDispatch(
+    final String packageName,
+    final List<SMJSONOperandKind> operandKinds,
+    final String category,
+    final String statement,
+    final String unsupported)
+  {
+    final var code = CodeBlock.builder();
+    code.beginControlFlow("switch (this)");
+    for (final var operandKind : operandKinds) {
+      if (operandKind.enumerants.isEmpty()
+        || !Objects.equals(operandKind.category, category)) {
+        continue;
+      }
+      code.add("case $L:\n", transformEnumConstantName(operandKind.kind));
+      code.indent();
+      code.addStatement(statement, enumType(packageName, operandKind));
+      code.unindent();
+    }
+    code.add("default:\n");
+    code.indent();
+    code.addStatement(
+      "throw new $T($S + this.spirName)",
+      UnsupportedOperationException.class,
+      unsupported);
+    code.unindent();
+    code.endControlFlow();
+    return code.build();
+  }
+
+  private static MethodSpec generateValueEnumerant(
+    final String packageName,
+    final List<SMJSONOperandKind> operandKinds)
+  {
+    return MethodSpec.methodBuilder("valueEnumerant")
+      .addJavadoc("Find the enumerant of this value enum kind with the given value.\n\n")
+      .addJavadoc("@param value The value\n\n")
+      .addJavadoc("@return The enumerant\n\n")
+      .addJavadoc("@throws IllegalArgumentException If no enumerant has the given value\n")
+      .addJavadoc("@throws UnsupportedOperationException If this kind is not a value enum\n")
+      .addModifiers(PUBLIC)
+      .addParameter(INT, "value", FINAL)
+      .returns(ClassName.get(packageName, "SMValueEnumType"))
+      .addCode(generateEnumDispatch(
+        packageName,
+        operandKinds,
+        "ValueEnum",
+        "return $T.ofInteger(value)",
+        "Not a value enum: "))
+      .build();
+  }
+
+  private static MethodSpec generateValueEnumerantOrNull(
+    final String packageName,
+    final List<SMJSONOperandKind> operandKinds)
+  {
+    return MethodSpec.methodBuilder("valueEnumerantOrNull")
+      .addJavadoc("Find the enumerant of this value enum kind with the given value.\n\n")
+      .addJavadoc("@param value The value\n\n")
+      .addJavadoc("@return The enumerant, or {@code null} if no enumerant has the given value\n\n")
+      .addJavadoc("@throws UnsupportedOperationException If this kind is not a value enum\n")
+      .addModifiers(PUBLIC)
+      .addParameter(INT, "value", FINAL)
+      .returns(ClassName.get(packageName, "SMValueEnumType"))
+      .addCode(generateEnumDispatch(
+        packageName,
+        operandKinds,
+        "ValueEnum",
+        "return $T.ofIntegerOrNull(value)",
+        "Not a value enum: "))
+      .build();
+  }
+
+  private static ParameterizedTypeName bitEnumSetType(
+    final String packageName)
+  {
+    return ParameterizedTypeName.get(
+      ClassName.get(Set.class),
+      WildcardTypeName.subtypeOf(ClassName.get(packageName, "SMBitEnumType"))
+    );
+  }
+
+  private static MethodSpec generateBitEnumerants(
+    final String packageName,
+    final List<SMJSONOperandKind> operandKinds)
+  {
+    return MethodSpec.methodBuilder("bitEnumerants")
+      .addJavadoc("Decompose a mask into the enumerants of this bit enum kind. The ")
+      .addJavadoc("enumerants are returned in declaration order.\n\n")
+      .addJavadoc("@param mask The mask\n\n")
+      .addJavadoc("@return The set of enumerants in the mask\n\n")
+      .addJavadoc("@throws IllegalArgumentException If the mask contains unrecognized bits\n")
+      .addJavadoc("@throws UnsupportedOperationException If this kind is not a bit enum\n")
+      .addModifiers(PUBLIC)
+      .addParameter(LONG, "mask", FINAL)
+      .returns(bitEnumSetType(packageName))
+      .addCode(generateEnumDispatch(
+        packageName,
+        operandKinds,
+        "BitEnum",
+        "return $T.ofMask(mask)",
+        "Not a bit enum: "))
+      .build();
+  }
+
+  private static MethodSpec generateBitEnumerantsOrNull(
+    final String packageName,
+    final List<SMJSONOperandKind> operandKinds)
+  {
+    return MethodSpec.methodBuilder("bitEnumerantsOrNull")
+      .addJavadoc("Decompose a mask into the enumerants of this bit enum kind. The ")
+      .addJavadoc("enumerants are returned in declaration order.\n\n")
+      .addJavadoc("@param mask The mask\n\n")
+      .addJavadoc("@return The set of enumerants in the mask, or {@code null} if the mask ")
+      .addJavadoc("contains unrecognized bits\n\n")
+      .addJavadoc("@throws UnsupportedOperationException If this kind is not a bit enum\n")
+      .addModifiers(PUBLIC)
+      .addParameter(LONG, "mask", FINAL)
+      .returns(bitEnumSetType(packageName))
+      .addCode(generateEnumDispatch(
+        packageName,
+        operandKinds,
+        "BitEnum",
+        "return $T.ofMaskOrNull(mask)",
+        "Not a bit enum: "))
+      .build();
+  }
+
+  private static ClassName enumType(
+    final String packageName,
+    final SMJSONOperandKind operandKind)
+  {
+    return ClassName.get(packageName, String.format("SM%s", operandKind.kind));
+  }
+
   private static String operandJavaDoc(
     final SMJSONOperandKind operandKind)
   {
@@ -101,17 +317,21 @@ public final class SMOperandKindEnumGeneration
     return operandKind.doc;
   }
 
-  private static List<FieldSpec> generateValueFields()
+  private static List<FieldSpec> generateValueFields(
+    final String packageName)
   {
     return List.of(
       FieldSpec.builder(INT, "value", FINAL, PRIVATE)
         .build(),
       FieldSpec.builder(String.class, "spirName", FINAL, PRIVATE)
+        .build(),
+      FieldSpec.builder(categoryType(packageName), "category", FINAL, PRIVATE)
         .build()
     );
   }
 
-  private static List<MethodSpec> generateValueMethods()
+  private static List<MethodSpec> generateValueMethods(
+    final String packageName)
   {
     return List.of(
       MethodSpec.methodBuilder("value")
@@ -125,19 +345,29 @@ public final class SMOperandKindEnumGeneration
         .addModifiers(PUBLIC)
         .returns(String.class)
         .addCode("return this.spirName;")
+        .build(),
+
+      MethodSpec.methodBuilder("category")
+        .addJavadoc("@return The category of the operand kind\n")
+        .addModifiers(PUBLIC)
+        .returns(categoryType(packageName))
+        .addCode("return this.category;")
         .build()
     );
   }
 
-  private static MethodSpec generateEnumConstructor()
+  private static MethodSpec generateEnumConstructor(
+    final String packageName)
   {
     return MethodSpec.constructorBuilder()
       .addParameter(INT, "inValue", FINAL)
       .addParameter(String.class, "inSpirName", FINAL)
+      .addParameter(categoryType(packageName), "inCategory", FINAL)
       .addCode(
         CodeBlock.builder()
           .add("this.value = inValue;")
           .add("this.spirName = inSpirName;")
+          .add("this.category = inCategory;")
           .build()
       ).build();
   }
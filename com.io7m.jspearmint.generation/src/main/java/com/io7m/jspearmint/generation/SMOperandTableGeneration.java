@@ -0,0 +1,229 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.generation;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeSpec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.io7m.jspearmint.generation.SMInstructionEnumGeneration.listOfOperands;
+import static com.io7m.jspearmint.generation.SMInstructionEnumGeneration.transformEnumConstantName;
+import static com.io7m.jspearmint.generation.SMInstructionEnumGeneration.transformQuantifier;
+import static com.squareup.javapoet.TypeName.INT;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * The packed operand metadata of all instructions, or of all enumerant
+ * parameters of an operand kind. Rather than constructing a list of
+ * operands for each instruction or enumerant during class initialization,
+ * each one records the offset and length of its operands in a shared table,
+ * and a nested class that holds the table is initialized on the first
+ * request for any operands. Operands are encoded as one character each in a
+ * string constant (the kind index multiplied by the number of quantifiers,
+ * plus the quantifier index, offset by a constant), with the operand names
+ * held in a separate NUL-separated string constant. String constants
+ * are stored in the constant pool and so cost nothing during class
+ * initialization.
+ */
+
+final class SMOperandTableGeneration
+{
+  private static final List<String> QUANTIFIERS =
+    List.of("SM_ONE", "SM_OPTIONAL", "SM_REPEATED");
+
+  /*
+   * The maximum length of each string constant. Constants are limited to
+   * 65535 bytes in their modified UTF-8 form, and each character occupies
+   * at most three bytes.
+   */
+
+  private static final int CHUNK_LENGTH = 8192;
+
+  /*
+   * The value added to each operand code so that the codes of small tables
+   * are printable characters.
+   */
+
+  private static final int CODE_BASE = '0';
+
+  /*
+   * The character that separates operand names. Names in the grammar may
+   * contain newlines (such as the repeated operands of OpExtInst), but never
+   * NUL characters.
+   */
+
+  private static final char NAME_SEPARATOR = '\0';
+
+  private final List<String> kinds;
+  private final StringBuilder codes;
+  private final StringBuilder names;
+  private int count;
+
+  SMOperandTableGeneration()
+  {
+    this.kinds = new ArrayList<>();
+    this.codes = new StringBuilder(1024);
+    this.names = new StringBuilder(4096);
+  }
+
+  /**
+   * @return The number of operands in the table, and therefore the offset
+   * of the next operand to be added
+   */
+
+  int count()
+  {
+    return this.count;
+  }
+
+  /**
+   * Add an operand to the table.
+   *
+   * @param kind       The operand kind
+   * @param quantifier The operand quantifier
+   * @param name       The operand name, if any
+   */
+
+  void add(
+    final String kind,
+    final String quantifier,
+    final String name)
+  {
+    var kindIndex = this.kinds.indexOf(kind);
+    if (kindIndex == -1) {
+      kindIndex = this.kinds.size();
+      this.kinds.add(kind);
+    }
+
+    final var quantifierIndex =
+      QUANTIFIERS.indexOf(transformQuantifier(quantifier));
+
+    final var nameText =
+      Optional.ofNullable(name).orElse("").replace("'", "");
+    if (nameText.indexOf(NAME_SEPARATOR) != -1) {
+      throw new IllegalStateException(
+        String.format("Operand name contains a NUL character: %s", nameText));
+    }
+
+    this.codes.append(
+      (char) (CODE_BASE + kindIndex * QUANTIFIERS.size() + quantifierIndex));
+    if (this.count > 0) {
+      this.names.append(NAME_SEPARATOR);
+    }
+    this.names.append(nameText);
+    ++this.count;
+  }
+
+  private static CodeBlock chunkedString(
+    final String text)
+  {
+    if (text.length() <= CHUNK_LENGTH) {
+      return CodeBlock.of("$S", text);
+    }
+
+    final var chunks = new ArrayList<CodeBlock>();
+    for (int index = 0; index < text.length(); index += CHUNK_LENGTH) {
+      chunks.add(CodeBlock.of(
+        "$S",
+        text.substring(index, Math.min(text.length(), index + CHUNK_LENGTH))));
+    }
+    return CodeBlock.of("String.join(\"\", $L)", CodeBlock.join(chunks, ", "));
+  }
+
+  /**
+   * Generate the nested class that holds the table.
+   *
+   * @param packageName The package name
+   *
+   * @return The nested class {@code OperandTable}
+   */
+
+  TypeSpec generate(
+    final String packageName)
+  {
+    final var operandClass =
+      ClassName.get(packageName, "SMOperand");
+    final var kindClass =
+      ClassName.get(packageName, "SMOperandKind");
+    final var quantifierClass =
+      ClassName.get(packageName, "SMOperandQuantifier");
+
+    final var kindConstants =
+      this.kinds.stream()
+        .map(kind -> CodeBlock.of("$T.$L", kindClass, transformEnumConstantName(kind)))
+        .collect(CodeBlock.joining(", "));
+    final var quantifierConstants =
+      QUANTIFIERS.stream()
+        .map(quantifier -> CodeBlock.of("$T.$L", quantifierClass, quantifier))
+        .collect(CodeBlock.joining(", "));
+
+    return TypeSpec.classBuilder("OperandTable")
+      .addModifiers(PRIVATE, STATIC, FINAL)
+      .addField(
+        FieldSpec.builder(ArrayTypeName.of(kindClass), "KINDS", PRIVATE, STATIC, FINAL)
+          .initializer("new $T[]{$L}", kindClass, kindConstants)
+          .build())
+      .addField(
+        FieldSpec.builder(ArrayTypeName.of(quantifierClass), "QUANTIFIERS", PRIVATE, STATIC, FINAL)
+          .initializer("new $T[]{$L}", quantifierClass, quantifierConstants)
+          .build())
+      .addField(
+        FieldSpec.builder(String.class, "CODES", PRIVATE, STATIC, FINAL)
+          .initializer(chunkedString(this.codes.toString()))
+          .build())
+      .addField(
+        FieldSpec.builder(ArrayTypeName.of(String.class), "NAMES", PRIVATE, STATIC, FINAL)
+          .initializer(
+            "($L).split($S, -1)",
+            chunkedString(this.names.toString()),
+            String.valueOf(NAME_SEPARATOR))
+          .build())
+      .addMethod(
+        MethodSpec.constructorBuilder()
+          .addModifiers(PRIVATE)
+          .build())
+      .addMethod(
+        MethodSpec.methodBuilder("operands")
+          .addModifiers(STATIC)
+          .addParameter(INT, "offset", FINAL)
+          .addParameter(INT, "count", FINAL)
+          .returns(listOfOperands(packageName))
+          .addStatement("final $T[] result = new $T[count]", operandClass, operandClass)
+          .beginControlFlow("for (int index = 0; index < count; ++index)")
+          .addStatement(
+            "final int code = CODES.charAt(offset + index) - $L",
+            Integer.valueOf(CODE_BASE))
+          .addStatement(
+            "result[index] = $T.of(KINDS[code / $L], QUANTIFIERS[code % $L], NAMES[offset + index])",
+            operandClass,
+            Integer.valueOf(QUANTIFIERS.size()),
+            Integer.valueOf(QUANTIFIERS.size()))
+          .endControlFlow()
+          .addStatement("return $T.of(result)", List.class)
+          .build())
+      .build();
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.jspearmint.parser.api;
+
+/**
+ * A visitor that receives instructions as they are parsed.
+ *
+ * The words of each instruction are delivered in an array that is owned by
+ * the caller and that is typically reused for every instruction; visitors
+ * must not retain or modify the array, and must copy any words that they
+ * wish to keep.
+ */
+
+@FunctionalInterface
+public interface SMInstructionVisitorType
+{
+  /**
+   * Visit an instruction. The instruction occupies the
+   * {@code max(1, wordCount)} words starting at {@code words[start]}: The
+   * word at {@code words[start]} is the combined word count and opcode word,
+   * and the operand words, if any, begin at {@code words[start + 1]}.
+   *
+   * @param opCode     The opcode of the instruction
+   * @param wordCount  The number of words used by the instruction
+   * @param byteOffset The byte offset of the instruction
+   * @param words      The array holding the instruction's words
+   * @param start      The index of the instruction's first word
+   */
+
+  void visit(
+    int opCode,
+    int wordCount,
+    long byteOffset,
+    int[] words,
+    int start
+  );
+}
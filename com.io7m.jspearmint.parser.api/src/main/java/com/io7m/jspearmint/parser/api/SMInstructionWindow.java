@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.parser.api;
+
+import java.util.Objects;
+
+/**
+ * A reusable view of a single instruction delivered to an
+ * {@link SMInstructionVisitorType}. The view reads directly from the array
+ * of words passed to the visitor, and is therefore only valid until the
+ * visitor returns; callers that need to retain an instruction must copy it.
+ */
+
+public final class SMInstructionWindow implements SMParsedInstructionType
+{
+  private int opCode;
+  private int wordCount;
+  private long byteOffset;
+  private int[] words;
+  private int start;
+  private int operandCount;
+
+  /**
+   * Create an empty window.
+   */
+
+  public SMInstructionWindow()
+  {
+    this.words = new int[1];
+  }
+
+  /**
+   * Point the window at an instruction. The parameters are those passed to
+   * {@link SMInstructionVisitorType#visit(int, int, long, int[], int)}.
+   *
+   * @param inOpCode     The opcode of the instruction
+   * @param inWordCount  The number of words used by the instruction
+   * @param inByteOffset The byte offset of the instruction
+   * @param inWords      The array holding the instruction's words
+   * @param inStart      The index of the instruction's first word
+   *
+   * @return this
+   */
+
+  public SMInstructionWindow set(
+    final int inOpCode,
+    final int inWordCount,
+    final long inByteOffset,
+    final int[] inWords,
+    final int inStart)
+  {
+    this.opCode = inOpCode;
+    this.wordCount = inWordCount;
+    this.byteOffset = inByteOffset;
+    this.words = inWords;
+    this.start = inStart;
+    this.operandCount = Math.max(0, inWordCount - 1);
+    return this;
+  }
+
+  @Override
+  public long wordCount()
+  {
+    return Integer.toUnsignedLong(this.wordCount);
+  }
+
+  @Override
+  public long opCode()
+  {
+    return Integer.toUnsignedLong(this.opCode);
+  }
+
+  @Override
+  public long byteOffset()
+  {
+    return this.byteOffset;
+  }
+
+  @Override
+  public int operandCount()
+  {
+    return this.operandCount;
+  }
+
+  @Override
+  public long operand(
+    final int operand)
+  {
+    return Integer.toUnsignedLong(
+      this.words[this.start + 1 + Objects.checkIndex(operand, this.operandCount)]
+    );
+  }
+
+  /**
+   * @return An immutable copy of the instruction currently in view
+   */
+
+  public SMParsedInstruction copy()
+  {
+    final var operands = new int[this.operandCount];
+    System.arraycopy(this.words, this.start + 1, operands, 0, this.operandCount);
+    return SMParsedInstruction.ofOperandWords(
+      this.byteOffset,
+      this.opCode(),
+      this.wordCount(),
+      operands
+    );
+  }
+
+  @Override
+  public String toString()
+  {
+    return new StringBuilder(64)
+      .append("SMInstructionWindow{wordCount=")
+      .append(this.wordCount())
+      .append(", opCode=")
+      .append(this.opCode())
+      .append(", operands=")
+      .append(this.operands())
+      .append(", byteOffset=")
+      .append(this.byteOffset())
+      .append('}')
+      .toString();
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.parser.api;
+
+import java.net.URI;
+
+/**
+ * A listener that receives metrics from parsers and disassemblers.
+ *
+ * Callbacks are delivered once per module (or once per failure) rather than
+ * once per instruction, and receive only primitive counts and durations so
+ * that implementations can feed counters and latency histograms in their
+ * own metrics registries. All methods have empty default implementations.
+ * Listeners may be called from multiple threads concurrently, and must not
+ * throw exceptions.
+ *
+ * Implementations may be registered as services; the default parser and
+ * disassembler providers use the first listener found by
+ * {@link java.util.ServiceLoader} when constructed without an explicit
+ * listener, and {@link #noOp()} otherwise.
+ */
+
+public interface SMMetricsListenerType
+{
+  /**
+   * @return A listener that ignores all metrics
+   */
+
+  static SMMetricsListenerType noOp()
+  {
+    return SMMetricsListenerNoOp.INSTANCE;
+  }
+
+  /**
+   * A module was parsed completely.
+   *
+   * @param uri          The URI of the source document
+   * @param bytes        The number of bytes of instructions parsed
+   * @param instructions The number of instructions parsed
+   * @param timeNanos    The time taken to parse the instructions
+   */
+
+  default void onModuleParsed(
+    final URI uri,
+    final long bytes,
+    final long instructions,
+    final long timeNanos)
+  {
+
+  }
+
+  /**
+   * Parsing a module failed.
+   *
+   * @param uri       The URI of the source document
+   * @param exception The exception raised; the cause, if any, indicates the
+   *                  underlying I/O error
+   */
+
+  default void onParseFailed(
+    final URI uri,
+    final SMParseException exception)
+  {
+
+  }
+
+  /**
+   * A module was disassembled completely.
+   *
+   * @param format                   The name of the output format
+   * @param instructions             The number of instructions
+   * @param unrecognizedInstructions The number of instructions with
+   *                                 unrecognized opcodes
+   * @param timeNanos                The time taken to disassemble the module,
+   *                                 including analysis
+   */
+
+  default void onModuleDisassembled(
+    final String format,
+    final long instructions,
+    final long unrecognizedInstructions,
+    final long timeNanos)
+  {
+
+  }
+}
@@ -0,0 +1,397 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.jspearmint.parser.api;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A parsed module held as a small number of flat arrays. All instruction
+ * words (including the leading word count/opcode word of each instruction)
+ * are held in a single {@code int[]} array, and parallel arrays hold the
+ * start index, opcode, and declared word count of each instruction. Any
+ * instruction can be accessed in constant time by index, and the instruction
+ * containing a given byte offset can be located by binary search.
+ *
+ * Instructions are assumed to be contiguous in the original file; the byte
+ * offset of each instruction is derived from the byte offset of the first
+ * instruction.
+ */
+
+public final class SMModule
+{
+  private final SMParsedHeader header;
+  private final long baseByteOffset;
+  private final int[] words;
+  private final int[] starts;
+  private final int[] opCodes;
+  private final int[] wordCounts;
+
+  private SMModule(
+    final SMParsedHeader inHeader,
+    final long inBaseByteOffset,
+    final int[] inWords,
+    final int[] inStarts,
+    final int[] inOpCodes,
+    final int[] inWordCounts)
+  {
+    this.header =
+      Objects.requireNonNull(inHeader, "header");
+    this.baseByteOffset =
+      inBaseByteOffset;
+    this.words =
+      Objects.requireNonNull(inWords, "words");
+    this.starts =
+      Objects.requireNonNull(inStarts, "starts");
+    this.opCodes =
+      Objects.requireNonNull(inOpCodes, "opCodes");
+    this.wordCounts =
+      Objects.requireNonNull(inWordCounts, "wordCounts");
+  }
+
+  /**
+   * Create a new mutable builder.
+   *
+   * @param header         The module header
+   * @param baseByteOffset The byte offset of the first instruction
+   *
+   * @return A new builder
+   */
+
+  public static Builder builder(
+    final SMParsedHeader header,
+    final long baseByteOffset)
+  {
+    return new Builder(header, baseByteOffset);
+  }
+
+  /**
+   * Create a module from a list of instructions. Instructions are laid out
+   * contiguously starting at the byte offset of the first instruction,
+   * regardless of the byte offsets reported by subsequent instructions.
+   *
+   * @param header       The module header
+   * @param instructions The instructions
+   *
+   * @return A module
+   */
+
+  public static SMModule of(
+    final SMParsedHeader header,
+    final List<? extends SMParsedInstructionType> instructions)
+  {
+    Objects.requireNonNull(header, "header");
+    Objects.requireNonNull(instructions, "instructions");
+
+    final var base =
+      instructions.isEmpty() ? 0L : instructions.get(0).byteOffset();
+    final var builder =
+      builder(header, base);
+
+    var operands = new int[16];
+    for (final var instruction : instructions) {
+      final var operandCount = instruction.operandCount();
+      if (operands.length < operandCount) {
+        operands = new int[operandCount];
+      }
+      for (var index = 0; index < operandCount; ++index) {
+        operands[index] = (int) instruction.operand(index);
+      }
+      builder.addInstruction(
+        (int) instruction.opCode(),
+        (int) instruction.wordCount(),
+        operands,
+        0,
+        operandCount
+      );
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return The module header
+   */
+
+  public SMParsedHeader header()
+  {
+    return this.header;
+  }
+
+  /**
+   * @return The number of instructions in the module
+   */
+
+  public int instructionCount()
+  {
+    return this.starts.length;
+  }
+
+  /**
+   * @return The total number of instruction words in the module
+   */
+
+  public int sizeInWords()
+  {
+    return this.words.length;
+  }
+
+  /**
+   * @param instruction The instruction index
+   *
+   * @return The opcode of the given instruction
+   */
+
+  public int opCode(
+    final int instruction)
+  {
+    return this.opCodes[instruction];
+  }
+
+  /**
+   * @param instruction The instruction index
+   *
+   * @return The word count declared by the given instruction
+   */
+
+  public int wordCount(
+    final int instruction)
+  {
+    return this.wordCounts[instruction];
+  }
+
+  /**
+   * @param instruction The instruction index
+   *
+   * @return The byte offset of the given instruction
+   */
+
+  public long byteOffset(
+    final int instruction)
+  {
+    return this.baseByteOffset + ((long) this.starts[instruction] * 4L);
+  }
+
+  /**
+   * @param instruction The instruction index
+   *
+   * @return The number of operand words held by the given instruction
+   */
+
+  public int operandCount(
+    final int instruction)
+  {
+    final var next = instruction + 1;
+    final var end =
+      next < this.starts.length ? this.starts[next] : this.words.length;
+    return end - this.starts[instruction] - 1;
+  }
+
+  /**
+   * @param instruction The instruction index
+   * @param operand     The operand index
+   *
+   * @return The given operand of the given instruction, as an unsigned value
+   *
+   * @throws IndexOutOfBoundsException If either index is out of range
+   */
+
+  public long operand(
+    final int instruction,
+    final int operand)
+    throws IndexOutOfBoundsException
+  {
+    Objects.checkIndex(operand, this.operandCount(instruction));
+    return Integer.toUnsignedLong(
+      this.words[this.starts[instruction] + 1 + operand]);
+  }
+
+  /**
+   * @param instruction The instruction index
+   *
+   * @return A view of the given instruction
+   */
+
+  public SMParsedInstructionType instruction(
+    final int instruction)
+  {
+    Objects.checkIndex(instruction, this.starts.length);
+    return new SMModuleInstruction(this, instruction);
+  }
+
+  /**
+   * Retrieve a read-only list view of the instructions in the module. The
+   * elements of the list are lightweight views that refer to the module's
+   * arrays; no words are copied.
+   *
+   * @return The instructions in the module
+   */
+
+  public List<SMParsedInstructionType> instructions()
+  {
+    return new SMModuleInstructions(this);
+  }
+
+  /**
+   * Find the index of the instruction that contains the given byte offset.
+   *
+   * @param byteOffset The byte offset
+   *
+   * @return The index of the instruction, or {@code -1} if no instruction
+   * contains the given offset
+   */
+
+  public int instructionAtByteOffset(
+    final long byteOffset)
+  {
+    final var relative = byteOffset - this.baseByteOffset;
+    if (relative < 0L || relative >= (long) this.words.length * 4L) {
+      return -1;
+    }
+
+    final var wordIndex = (int) (relative / 4L);
+    final var found = Arrays.binarySearch(this.starts, wordIndex);
+    if (found >= 0) {
+      return found;
+    }
+    return -(found + 1) - 1;
+  }
+
+  /**
+   * Pass each instruction in the module to the given visitor, in order. The
+   * visitor receives the module's own word array, which it must not modify.
+   *
+   * @param visitor The instruction visitor
+   */
+
+  public void visit(
+    final SMInstructionVisitorType visitor)
+  {
+    Objects.requireNonNull(visitor, "visitor");
+
+    for (var index = 0; index < this.starts.length; ++index) {
+      visitor.visit(
+        this.opCodes[index],
+        this.wordCounts[index],
+        this.byteOffset(index),
+        this.words,
+        this.starts[index]
+      );
+    }
+  }
+
+  /**
+   * A mutable builder for modules.
+   */
+
+  public static final class Builder
+  {
+    private final SMParsedHeader header;
+    private final long baseByteOffset;
+    private int[] words;
+    private int wordsUsed;
+    private int[] starts;
+    private int[] opCodes;
+    private int[] wordCounts;
+    private int instructionCount;
+
+    private Builder(
+      final SMParsedHeader inHeader,
+      final long inBaseByteOffset)
+    {
+      this.header = Objects.requireNonNull(inHeader, "header");
+      this.baseByteOffset = inBaseByteOffset;
+      this.words = new int[256];
+      this.starts = new int[64];
+      this.opCodes = new int[64];
+      this.wordCounts = new int[64];
+    }
+
+    /**
+     * @return The byte offset at which the next instruction will be placed
+     */
+
+    public long nextByteOffset()
+    {
+      return this.baseByteOffset + ((long) this.wordsUsed * 4L);
+    }
+
+    /**
+     * Add an instruction.
+     *
+     * @param opCode       The opcode
+     * @param wordCount    The declared word count
+     * @param operands     An array holding the operand words
+     * @param offset       The index of the first operand in {@code operands}
+     * @param operandCount The number of operands
+     *
+     * @return this
+     */
+
+    public Builder addInstruction(
+      final int opCode,
+      final int wordCount,
+      final int[] operands,
+      final int offset,
+      final int operandCount)
+    {
+      Objects.requireNonNull(operands, "operands");
+      Objects.checkFromIndexSize(offset, operandCount, operands.length);
+
+      if (this.instructionCount == this.starts.length) {
+        final var size = this.starts.length * 2;
+        this.starts = Arrays.copyOf(this.starts, size);
+        this.opCodes = Arrays.copyOf(this.opCodes, size);
+        this.wordCounts = Arrays.copyOf(this.wordCounts, size);
+      }
+
+      final var required = this.wordsUsed + 1 + operandCount;
+      if (required > this.words.length) {
+        this.words = Arrays.copyOf(
+          this.words,
+          Math.max(required, this.words.length * 2));
+      }
+
+      final var start = this.wordsUsed;
+      this.starts[this.instructionCount] = start;
+      this.opCodes[this.instructionCount] = opCode & 0xffff;
+      this.wordCounts[this.instructionCount] = wordCount & 0xffff;
+      this.words[start] = ((wordCount & 0xffff) << 16) | (opCode & 0xffff);
+      System.arraycopy(operands, offset, this.words, start + 1, operandCount);
+
+      this.wordsUsed = required;
+      ++this.instructionCount;
+      return this;
+    }
+
+    /**
+     * @return A new module
+     */
+
+    public SMModule build()
+    {
+      final var count = this.instructionCount;
+      return new SMModule(
+        this.header,
+        this.baseByteOffset,
+        Arrays.copyOf(this.words, this.wordsUsed),
+        Arrays.copyOf(this.starts, count),
+        Arrays.copyOf(this.opCodes, count),
+        Arrays.copyOf(this.wordCounts, count)
+      );
+    }
+  }
+}
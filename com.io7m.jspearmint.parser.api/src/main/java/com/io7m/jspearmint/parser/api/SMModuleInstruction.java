@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.jspearmint.parser.api;
+
+import java.util.Objects;
+
+/**
+ * A view of a single instruction within a module.
+ */
+
+final class SMModuleInstruction implements SMParsedInstructionType
+{
+  private final SMModule module;
+  private final int index;
+
+  SMModuleInstruction(
+    final SMModule inModule,
+    final int inIndex)
+  {
+    this.module = Objects.requireNonNull(inModule, "module");
+    this.index = inIndex;
+  }
+
+  @Override
+  public long wordCount()
+  {
+    return Integer.toUnsignedLong(this.module.wordCount(this.index));
+  }
+
+  @Override
+  public long opCode()
+  {
+    return Integer.toUnsignedLong(this.module.opCode(this.index));
+  }
+
+  @Override
+  public long byteOffset()
+  {
+    return this.module.byteOffset(this.index);
+  }
+
+  @Override
+  public int operandCount()
+  {
+    return this.module.operandCount(this.index);
+  }
+
+  @Override
+  public long operand(
+    final int operand)
+  {
+    return this.module.operand(this.index, operand);
+  }
+
+  @Override
+  public String toString()
+  {
+    return new StringBuilder(64)
+      .append("SMModuleInstruction{wordCount=")
+      .append(this.wordCount())
+      .append(", opCode=")
+      .append(this.opCode())
+      .append(", operands=")
+      .append(this.operands())
+      .append(", byteOffset=")
+      .append(this.byteOffset())
+      .append('}')
+      .toString();
+  }
+}
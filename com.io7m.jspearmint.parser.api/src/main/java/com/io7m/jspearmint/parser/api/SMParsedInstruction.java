@@ -0,0 +1,332 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.jspearmint.parser.api;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A parsed instruction. Operand words are held in a single {@code int[]}
+ * array rather than as individually boxed values.
+ */
+
+public final class SMParsedInstruction implements SMParsedInstructionType
+{
+  private static final int[] NO_OPERANDS = new int[0];
+
+  private final long wordCount;
+  private final long opCode;
+  private final long byteOffset;
+  private final int[] operands;
+
+  private SMParsedInstruction(
+    final long inWordCount,
+    final long inOpCode,
+    final long inByteOffset,
+    final int[] inOperands)
+  {
+    this.wordCount = inWordCount;
+    this.opCode = inOpCode;
+    this.byteOffset = inByteOffset;
+    this.operands = Objects.requireNonNull(inOperands, "operands");
+  }
+
+  /**
+   * Create a parsed instruction from an array of operand words. The array
+   * is <i>not</i> copied, and the caller must not modify the array after
+   * calling this method.
+   *
+   * @param byteOffset The byte offset of the instruction
+   * @param opCode     The opcode of the instruction
+   * @param wordCount  The number of words used by the instruction
+   * @param operands   The operand words
+   *
+   * @return A parsed instruction
+   */
+
+  public static SMParsedInstruction ofOperandWords(
+    final long byteOffset,
+    final long opCode,
+    final long wordCount,
+    final int[] operands)
+  {
+    return new SMParsedInstruction(wordCount, opCode, byteOffset, operands);
+  }
+
+  /**
+   * @return A new mutable builder
+   */
+
+  public static Builder builder()
+  {
+    return new Builder();
+  }
+
+  @Override
+  public long wordCount()
+  {
+    return this.wordCount;
+  }
+
+  @Override
+  public long opCode()
+  {
+    return this.opCode;
+  }
+
+  @Override
+  public long byteOffset()
+  {
+    return this.byteOffset;
+  }
+
+  @Override
+  public int operandCount()
+  {
+    return this.operands.length;
+  }
+
+  @Override
+  public long operand(
+    final int index)
+  {
+    return Integer.toUnsignedLong(this.operands[index]);
+  }
+
+  @Override
+  public boolean equals(
+    final Object other)
+  {
+    if (this == other) {
+      return true;
+    }
+    if (other == null || !Objects.equals(this.getClass(), other.getClass())) {
+      return false;
+    }
+    final var that = (SMParsedInstruction) other;
+    return this.wordCount == that.wordCount
+      && this.opCode == that.opCode
+      && this.byteOffset == that.byteOffset
+      && Arrays.equals(this.operands, that.operands);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    var h = 5381;
+    h += (h << 5) + Long.hashCode(this.wordCount);
+    h += (h << 5) + Long.hashCode(this.opCode);
+    h += (h << 5) + Arrays.hashCode(this.operands);
+    h += (h << 5) + Long.hashCode(this.byteOffset);
+    return h;
+  }
+
+  @Override
+  public String toString()
+  {
+    return new StringBuilder(64)
+      .append("SMParsedInstruction{wordCount=")
+      .append(this.wordCount)
+      .append(", opCode=")
+      .append(this.opCode)
+      .append(", operands=")
+      .append(this.operands())
+      .append(", byteOffset=")
+      .append(this.byteOffset)
+      .append('}')
+      .toString();
+  }
+
+  /**
+   * A mutable builder for {@link SMParsedInstruction} values.
+   */
+
+  public static final class Builder
+  {
+    private long wordCount;
+    private long opCode;
+    private long byteOffset;
+    private boolean wordCountSet;
+    private boolean opCodeSet;
+    private boolean byteOffsetSet;
+    private int[] operands;
+    private int operandCount;
+
+    private Builder()
+    {
+      this.operands = NO_OPERANDS;
+    }
+
+    private static int checkWord(
+      final long value)
+    {
+      if ((value & 0xFFFF_FFFF_0000_0000L) != 0L) {
+        throw new IllegalArgumentException(
+          String.format(
+            "Operand value %s is not representable as a 32-bit word",
+            Long.toUnsignedString(value))
+        );
+      }
+      return (int) value;
+    }
+
+    /**
+     * Set the word count.
+     *
+     * @param newWordCount The number of words used by the instruction
+     *
+     * @return this
+     */
+
+    public Builder setWordCount(
+      final long newWordCount)
+    {
+      this.wordCount = newWordCount;
+      this.wordCountSet = true;
+      return this;
+    }
+
+    /**
+     * Set the opcode.
+     *
+     * @param newOpCode The opcode
+     *
+     * @return this
+     */
+
+    public Builder setOpCode(
+      final long newOpCode)
+    {
+      this.opCode = newOpCode;
+      this.opCodeSet = true;
+      return this;
+    }
+
+    /**
+     * Set the byte offset.
+     *
+     * @param newByteOffset The byte offset
+     *
+     * @return this
+     */
+
+    public Builder setByteOffset(
+      final long newByteOffset)
+    {
+      this.byteOffset = newByteOffset;
+      this.byteOffsetSet = true;
+      return this;
+    }
+
+    /**
+     * Add an operand.
+     *
+     * @param operand The operand word
+     *
+     * @return this
+     */
+
+    public Builder addOperands(
+      final long operand)
+    {
+      final var word = checkWord(operand);
+      if (this.operandCount == this.operands.length) {
+        this.operands = Arrays.copyOf(
+          this.operands,
+          Math.max(8, this.operands.length * 2));
+      }
+      this.operands[this.operandCount] = word;
+      ++this.operandCount;
+      return this;
+    }
+
+    /**
+     * Add operands.
+     *
+     * @param newOperands The operand words
+     *
+     * @return this
+     */
+
+    public Builder addOperands(
+      final long... newOperands)
+    {
+      Objects.requireNonNull(newOperands, "operands");
+      for (final var operand : newOperands) {
+        this.addOperands(operand);
+      }
+      return this;
+    }
+
+    /**
+     * Add operands.
+     *
+     * @param newOperands The operand words
+     *
+     * @return this
+     */
+
+    public Builder addAllOperands(
+      final Iterable<? extends Long> newOperands)
+    {
+      Objects.requireNonNull(newOperands, "operands");
+      for (final var operand : newOperands) {
+        this.addOperands(operand.longValue());
+      }
+      return this;
+    }
+
+    /**
+     * Replace the operands.
+     *
+     * @param newOperands The operand words
+     *
+     * @return this
+     */
+
+    public Builder setOperands(
+      final Iterable<? extends Long> newOperands)
+    {
+      this.operandCount = 0;
+      return this.addAllOperands(newOperands);
+    }
+
+    /**
+     * Build an instruction.
+     *
+     * @return A new instruction
+     *
+     * @throws IllegalStateException If any required attributes are not set
+     */
+
+    public SMParsedInstruction build()
+      throws IllegalStateException
+    {
+      if (!(this.wordCountSet && this.opCodeSet && this.byteOffsetSet)) {
+        throw new IllegalStateException(
+          "Cannot build SMParsedInstruction: The wordCount, opCode, and byteOffset attributes must be set"
+        );
+      }
+
+      return new SMParsedInstruction(
+        this.wordCount,
+        this.opCode,
+        this.byteOffset,
+        Arrays.copyOf(this.operands, this.operandCount)
+      );
+    }
+  }
+}
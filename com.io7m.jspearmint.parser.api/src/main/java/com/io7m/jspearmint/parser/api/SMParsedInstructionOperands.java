@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.jspearmint.parser.api;
+
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * A read-only list view of the operands of an instruction.
+ */
+
+final class SMParsedInstructionOperands
+  extends AbstractList<Long> implements RandomAccess
+{
+  private final SMParsedInstructionType instruction;
+
+  SMParsedInstructionOperands(
+    final SMParsedInstructionType inInstruction)
+  {
+    this.instruction =
+      Objects.requireNonNull(inInstruction, "instruction");
+  }
+
+  @Override
+  public Long get(
+    final int index)
+  {
+    return Long.valueOf(this.instruction.operand(index));
+  }
+
+  @Override
+  public int size()
+  {
+    return this.instruction.operandCount();
+  }
+}
@@ -16,17 +16,12 @@
 
 package com.io7m.jspearmint.parser.api;
 
-import com.io7m.immutables.styles.ImmutablesStyleType;
-import org.immutables.value.Value;
-
 import java.util.List;
 
 /**
  * A parsed instruction.
  */
 
-@ImmutablesStyleType
-@Value.Immutable
 public interface SMParsedInstructionType
 {
   /**
@@ -42,10 +37,35 @@ public interface SMParsedInstructionType
   long opCode();
 
   /**
+   * @return The number of operand words in this instruction
+   */
+
+  int operandCount();
+
+  /**
+   * @param index The operand index in the range {@code [0, operandCount())}
+   *
+   * @return The operand word at the given index, as an unsigned value
+   *
+   * @throws IndexOutOfBoundsException If the index is out of range
+   */
+
+  long operand(int index)
+    throws IndexOutOfBoundsException;
+
+  /**
+   * Retrieve a read-only list view of the operands of this instruction.
+   * The view boxes each operand as it is accessed; code that is sensitive to
+   * allocation should prefer {@link #operandCount()} and
+   * {@link #operand(int)}.
+   *
    * @return The operands of this instruction
    */
 
-  List<Long> operands();
+  default List<Long> operands()
+  {
+    return new SMParsedInstructionOperands(this);
+  }
 
   /**
    * @return The byte offset of the instruction
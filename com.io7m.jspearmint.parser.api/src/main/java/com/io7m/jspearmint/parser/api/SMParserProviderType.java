@@ -16,8 +16,15 @@
 
 package com.io7m.jspearmint.parser.api;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.math.BigInteger;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
 
 /**
  * A provider of parsers.
@@ -41,4 +48,110 @@ public interface SMParserProviderType
     InputStream stream
   )
     throws SMParseException;
+
+  /**
+   * Create a new parser that reads directly from the given buffer. The
+   * words between the buffer's position and its limit are read in place and
+   * are not copied; the byte order of the buffer is ignored in favour of the
+   * byte order declared by the module's magic number. The buffer's position
+   * is not modified, and the contents of the buffer must not be changed while
+   * the parser is in use.
+   *
+   * @param uri    The URI of the source document
+   * @param buffer The buffer containing the source document
+   *
+   * @return A new parser
+   *
+   * @throws SMParseException On errors
+   */
+
+  SMParserType createFromByteBuffer(
+    URI uri,
+    ByteBuffer buffer
+  )
+    throws SMParseException;
+
+  /**
+   * Create a new parser that reads from a read-only memory mapping of the
+   * entire contents of the given channel. The channel may be closed once this
+   * method has returned.
+   *
+   * @param uri     The URI of the source document
+   * @param channel The channel of the source document
+   *
+   * @return A new parser
+   *
+   * @throws SMParseException On errors
+   */
+
+  default SMParserType createFromChannel(
+    final URI uri,
+    final FileChannel channel)
+    throws SMParseException
+  {
+    Objects.requireNonNull(uri, "uri");
+    Objects.requireNonNull(channel, "channel");
+
+    try {
+      final var size = channel.size();
+      if (size > (long) Integer.MAX_VALUE) {
+        throw new SMParseException(
+          String.format(
+            "File of size %s is too large to be mapped",
+            Long.toUnsignedString(size)),
+          uri,
+          BigInteger.ZERO
+        );
+      }
+
+      return this.createFromByteBuffer(
+        uri,
+        channel.map(FileChannel.MapMode.READ_ONLY, 0L, size)
+      );
+    } catch (final IOException e) {
+      throw new SMParseException(e, uri, BigInteger.ZERO);
+    }
+  }
+
+  /**
+   * Create a new parser that reads from a read-only memory mapping of the
+   * file at the given path.
+   *
+   * @param path The file
+   *
+   * @return A new parser
+   *
+   * @throws SMParseException On errors
+   *
+   * @see #createFromChannel(URI, FileChannel)
+   */
+
+  default SMParserType createFromPath(
+    final Path path)
+    throws SMParseException
+  {
+    Objects.requireNonNull(path, "path");
+
+    final var uri = path.toUri();
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return this.createFromChannel(uri, channel);
+    } catch (final IOException e) {
+      throw new SMParseException(e, uri, BigInteger.ZERO);
+    }
+  }
+
+  /**
+   * Obtain a provider of parsers that do not report completed passes over a
+   * module to metrics listeners or as flight recorder events. Failures are
+   * still reported. Consumers that make more than one pass over a module
+   * use such parsers for every pass after the first, so that each module is
+   * reported once. The default implementation returns this provider.
+   *
+   * @return A provider of parsers that do not report completed modules
+   */
+
+  default SMParserProviderType withoutModuleReports()
+  {
+    return this;
+  }
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.parser.api;
+
+import java.util.Objects;
+
+/**
+ * A source of parsers that creates each parser with a provider, using a
+ * provider that does not report completed modules for every pass after
+ * the first.
+ */
+
+final class SMParserSource implements SMParserSourceType
+{
+  private final SMParserProviderType parsers;
+  private final OpenerType opener;
+
+  SMParserSource(
+    final SMParserProviderType inParsers,
+    final OpenerType inOpener)
+  {
+    this.parsers = Objects.requireNonNull(inParsers, "parsers");
+    this.opener = Objects.requireNonNull(inOpener, "opener");
+  }
+
+  @Override
+  public SMParserType open()
+    throws SMParseException
+  {
+    return this.opener.open(this.parsers);
+  }
+
+  @Override
+  public SMParserType reopen()
+    throws SMParseException
+  {
+    return this.opener.open(this.parsers.withoutModuleReports());
+  }
+
+  /**
+   * A function that creates a parser with a given provider.
+   */
+
+  @FunctionalInterface
+  interface OpenerType
+  {
+    /**
+     * Create a parser.
+     *
+     * @param provider The parser provider
+     *
+     * @return A new parser
+     *
+     * @throws SMParseException On errors
+     */
+
+    SMParserType open(SMParserProviderType provider)
+      throws SMParseException;
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.parser.api;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * A source of parsers that can be opened repeatedly. Each call to
+ * {@link #open()} returns a new parser positioned at the start of the same
+ * module, allowing consumers to make more than one pass over a module
+ * without retaining its instructions. Consumers open the source once with
+ * {@link #open()} and use {@link #reopen()} for every further pass, so that
+ * the module is reported to metrics listeners once.
+ */
+
+@FunctionalInterface
+public interface SMParserSourceType
+{
+  /**
+   * Open a new parser at the start of the module.
+   *
+   * @return A new parser
+   *
+   * @throws SMParseException On errors
+   */
+
+  SMParserType open()
+    throws SMParseException;
+
+  /**
+   * Open a new parser at the start of the module for a further pass over a
+   * module that has already been opened with {@link #open()}. The parser
+   * does not report the completed pass to metrics listeners. The default
+   * implementation calls {@link #open()}.
+   *
+   * @return A new parser
+   *
+   * @throws SMParseException On errors
+   *
+   * @see SMParserProviderType#withoutModuleReports()
+   */
+
+  default SMParserType reopen()
+    throws SMParseException
+  {
+    return this.open();
+  }
+
+  /**
+   * Create a source that reads from the given buffer.
+   *
+   * @param parsers The parser provider
+   * @param uri     The URI of the source document
+   * @param buffer  The buffer containing the source document
+   *
+   * @return A parser source
+   *
+   * @see SMParserProviderType#createFromByteBuffer(URI, ByteBuffer)
+   */
+
+  static SMParserSourceType ofByteBuffer(
+    final SMParserProviderType parsers,
+    final URI uri,
+    final ByteBuffer buffer)
+  {
+    Objects.requireNonNull(parsers, "parsers");
+    Objects.requireNonNull(uri, "uri");
+    Objects.requireNonNull(buffer, "buffer");
+    return new SMParserSource(
+      parsers,
+      provider -> provider.createFromByteBuffer(uri, buffer));
+  }
+
+  /**
+   * Create a source that reads from a memory mapping of the given file.
+   *
+   * @param parsers The parser provider
+   * @param path    The file
+   *
+   * @return A parser source
+   *
+   * @see SMParserProviderType#createFromPath(Path)
+   */
+
+  static SMParserSourceType ofPath(
+    final SMParserProviderType parsers,
+    final Path path)
+  {
+    Objects.requireNonNull(parsers, "parsers");
+    Objects.requireNonNull(path, "path");
+    return new SMParserSource(
+      parsers,
+      provider -> provider.createFromPath(path));
+  }
+}
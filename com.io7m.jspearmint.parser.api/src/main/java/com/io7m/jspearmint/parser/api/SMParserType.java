@@ -53,4 +53,28 @@ public interface SMParserType extends Closeable
 
   List<SMParsedInstruction> parseAllInstructions()
     throws SMParseException;
+
+  /**
+   * Parse all remaining instructions into a module.
+   *
+   * @return The parsed module
+   *
+   * @throws SMParseException On errors
+   */
+
+  SMModule parseModule()
+    throws SMParseException;
+
+  /**
+   * Parse all remaining instructions, passing each instruction to the given
+   * visitor as it is parsed. Instructions are not retained, and no objects
+   * are allocated per instruction.
+   *
+   * @param visitor The instruction visitor
+   *
+   * @throws SMParseException On errors
+   */
+
+  void visitAllInstructions(SMInstructionVisitorType visitor)
+    throws SMParseException;
 }
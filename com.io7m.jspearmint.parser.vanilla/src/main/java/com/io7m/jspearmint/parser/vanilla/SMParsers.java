@@ -17,9 +17,11 @@
 package com.io7m.jspearmint.parser.vanilla;
 
 import com.io7m.jbssio.api.BSSReaderProviderType;
+import com.io7m.jspearmint.parser.api.SMMetricsListenerType;
 import com.io7m.jspearmint.parser.api.SMParseException;
 import com.io7m.jspearmint.parser.api.SMParserProviderType;
 import com.io7m.jspearmint.parser.api.SMParserType;
+import com.io7m.jspearmint.parser.vanilla.internal.SMBufferParser;
 import com.io7m.jspearmint.parser.vanilla.internal.SMParser;
 import org.osgi.service.component.annotations.Component;
 
@@ -27,6 +29,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 import java.util.ServiceLoader;
 
@@ -38,21 +41,53 @@ import java.util.ServiceLoader;
 public final class SMParsers implements SMParserProviderType
 {
   private final BSSReaderProviderType readers;
+  private final SMMetricsListenerType metrics;
+  private final boolean reportModules;
+  private final SMParsers unreported;
 
   /**
-   * Construct a parser provider using the given BSSIO readers.
+   * Construct a parser provider using the given BSSIO readers and metrics
+   * listener.
    *
    * @param inReaders The reader provider
+   * @param inMetrics The metrics listener
    */
 
   public SMParsers(
-    final BSSReaderProviderType inReaders)
+    final BSSReaderProviderType inReaders,
+    final SMMetricsListenerType inMetrics)
+  {
+    this(inReaders, inMetrics, true);
+  }
+
+  private SMParsers(
+    final BSSReaderProviderType inReaders,
+    final SMMetricsListenerType inMetrics,
+    final boolean inReportModules)
   {
     this.readers = Objects.requireNonNull(inReaders, "readers");
+    this.metrics = Objects.requireNonNull(inMetrics, "metrics");
+    this.reportModules = inReportModules;
+    this.unreported =
+      inReportModules ? new SMParsers(inReaders, inMetrics, false) : this;
+  }
+
+  /**
+   * Construct a parser provider using the given BSSIO readers. Metrics are
+   * ignored.
+   *
+   * @param inReaders The reader provider
+   */
+
+  public SMParsers(
+    final BSSReaderProviderType inReaders)
+  {
+    this(inReaders, SMMetricsListenerType.noOp());
   }
 
   /**
-   * Construct a parser provider.
+   * Construct a parser provider. Metrics are delivered to the first
+   * available {@link SMMetricsListenerType} service, if any.
    */
 
   public SMParsers()
@@ -63,7 +98,10 @@ public final class SMParsers implements SMParserProviderType
         .orElseThrow(() -> new IllegalStateException(
           String.format(
             "No available implementations of type %s",
-            BSSReaderProviderType.class.getCanonicalName())))
+            BSSReaderProviderType.class.getCanonicalName()))),
+      ServiceLoader.load(SMMetricsListenerType.class)
+        .findFirst()
+        .orElseGet(SMMetricsListenerType::noOp)
     );
   }
 
@@ -81,10 +119,42 @@ public final class SMParsers implements SMParserProviderType
         this.readers.createReaderFromStream(
           uri,
           stream,
-          "root")
+          "root"),
+        this.metrics,
+        this.reportModules
       );
     } catch (final IOException e) {
-      throw new SMParseException(e, uri, BigInteger.ZERO);
+      throw this.failed(uri, new SMParseException(e, uri, BigInteger.ZERO));
+    } catch (final SMParseException e) {
+      throw this.failed(uri, e);
     }
   }
+
+  private SMParseException failed(
+    final URI uri,
+    final SMParseException e)
+  {
+    this.metrics.onParseFailed(uri, e);
+    return e;
+  }
+
+  @Override
+  public SMParserType createFromByteBuffer(
+    final URI uri,
+    final ByteBuffer buffer)
+    throws SMParseException
+  {
+    try {
+      return SMBufferParser.create(
+        uri, buffer, this.metrics, this.reportModules);
+    } catch (final SMParseException e) {
+      throw this.failed(uri, e);
+    }
+  }
+
+  @Override
+  public SMParserProviderType withoutModuleReports()
+  {
+    return this.unreported;
+  }
 }
@@ -0,0 +1,388 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.jspearmint.parser.vanilla.internal;
+
+import com.io7m.jspearmint.parser.api.SMInstructionVisitorType;
+import com.io7m.jspearmint.parser.api.SMMetricsListenerType;
+import com.io7m.jspearmint.parser.api.SMModule;
+import com.io7m.jspearmint.parser.api.SMParseException;
+import com.io7m.jspearmint.parser.api.SMParsedHeader;
+import com.io7m.jspearmint.parser.api.SMParsedInstruction;
+import com.io7m.jspearmint.parser.api.SMParserType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigInteger;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A parser that reads words in place from a (typically memory-mapped) byte
+ * buffer. The buffer is viewed as an {@link IntBuffer} in the byte order
+ * declared by the module's magic number, and so no per-word byte order
+ * dispatch or copying is required.
+ */
+
+public final class SMBufferParser implements SMParserType
+{
+  private static final Logger LOGGER =
+    LoggerFactory.getLogger(SMBufferParser.class);
+
+  private static final int MAGIC = 0x07230203;
+  private static final int MAGIC_REVERSED = 0x03022307;
+  private static final int HEADER_WORDS = 5;
+
+  private final URI uri;
+  private final IntBuffer words;
+  private final SMParsedHeader header;
+  private final SMMetricsListenerType metrics;
+  private final boolean reportModules;
+  private int wordIndex;
+  private int[] buffer;
+
+  private SMBufferParser(
+    final URI inUri,
+    final IntBuffer inWords,
+    final SMParsedHeader inHeader,
+    final SMMetricsListenerType inMetrics,
+    final boolean inReportModules)
+  {
+    this.uri = Objects.requireNonNull(inUri, "uri");
+    this.words = Objects.requireNonNull(inWords, "words");
+    this.header = Objects.requireNonNull(inHeader, "header");
+    this.metrics = Objects.requireNonNull(inMetrics, "metrics");
+    this.reportModules = inReportModules;
+    this.wordIndex = HEADER_WORDS;
+    this.buffer = new int[16];
+  }
+
+  /**
+   * Create a parser.
+   *
+   * @param uri    The URI of the source document
+   * @param buffer The buffer containing the source document
+   *
+   * @return A new parser
+   *
+   * @throws SMParseException On errors
+   */
+
+  public static SMBufferParser create(
+    final URI uri,
+    final ByteBuffer buffer)
+    throws SMParseException
+  {
+    return create(uri, buffer, SMMetricsListenerType.noOp());
+  }
+
+  /**
+   * Create a parser.
+   *
+   * @param uri     The URI of the source document
+   * @param buffer  The buffer containing the source document
+   * @param metrics The metrics listener
+   *
+   * @return A new parser
+   *
+   * @throws SMParseException On errors
+   */
+
+  public static SMBufferParser create(
+    final URI uri,
+    final ByteBuffer buffer,
+    final SMMetricsListenerType metrics)
+    throws SMParseException
+  {
+    return create(uri, buffer, metrics, true);
+  }
+
+  /**
+   * Create a parser.
+   *
+   * @param uri           The URI of the source document
+   * @param buffer        The buffer containing the source document
+   * @param metrics       The metrics listener
+   * @param reportModules {@code true} if completed passes over the module
+   *                      should be reported to the metrics listener and as
+   *                      events
+   *
+   * @return A new parser
+   *
+   * @throws SMParseException On errors
+   */
+
+  public static SMBufferParser create(
+    final URI uri,
+    final ByteBuffer buffer,
+    final SMMetricsListenerType metrics,
+    final boolean reportModules)
+    throws SMParseException
+  {
+    Objects.requireNonNull(uri, "uri");
+    Objects.requireNonNull(buffer, "buffer");
+    Objects.requireNonNull(metrics, "metrics");
+
+    final var bytes = buffer.slice();
+    if (bytes.remaining() < 4) {
+      throw new SMParseException(
+        "Unexpected end of file reading magicNumber",
+        uri,
+        BigInteger.ZERO
+      );
+    }
+
+    final var magic = bytes.order(ByteOrder.BIG_ENDIAN).getInt(0);
+    final ByteOrder order;
+    if (magic == MAGIC) {
+      order = ByteOrder.BIG_ENDIAN;
+    } else if (magic == MAGIC_REVERSED) {
+      order = ByteOrder.LITTLE_ENDIAN;
+    } else {
+      throw new SMParseException(
+        String.format("Unrecognized magic number: 0x%08x", Integer.valueOf(magic)),
+        uri,
+        BigInteger.valueOf(4L)
+      );
+    }
+
+    LOGGER.debug("file is big-endian: {}", Boolean.valueOf(order == ByteOrder.BIG_ENDIAN));
+
+    final var words = bytes.order(order).asIntBuffer();
+    if (words.limit() < HEADER_WORDS) {
+      throw new SMParseException(
+        "Unexpected end of file reading header",
+        uri,
+        BigInteger.valueOf((long) words.limit() * 4L)
+      );
+    }
+
+    /*
+     * The word view silently excludes any trailing bytes that do not form a
+     * complete word, so they are rejected here in the same way that the
+     * stream parser rejects a truncated word.
+     */
+
+    if (bytes.remaining() % 4 != 0) {
+      throw new SMParseException(
+        String.format(
+          "Unexpected end of file: %d trailing bytes do not form a complete word",
+          Integer.valueOf(bytes.remaining() % 4)),
+        uri,
+        BigInteger.valueOf((long) words.limit() * 4L)
+      );
+    }
+
+    final var header =
+      SMParsedHeader.builder()
+        .setRawVersionNumber(Integer.toUnsignedLong(words.get(1)))
+        .setGeneratorMagicNumber(Integer.toUnsignedLong(words.get(2)))
+        .setIdBound(Integer.toUnsignedLong(words.get(3)))
+        .setSchema(Integer.toUnsignedLong(words.get(4)))
+        .build();
+
+    return new SMBufferParser(uri, words, header, metrics, reportModules);
+  }
+
+  @Override
+  public SMParsedHeader header()
+  {
+    return this.header;
+  }
+
+  /**
+   * Check that the instruction that starts at the given word index is
+   * complete.
+   *
+   * @param index The word index of the instruction header word
+   *
+   * @return The number of operands in the instruction
+   */
+
+  private int checkInstruction(
+    final int index)
+    throws SMParseException
+  {
+    final var limit = this.words.limit();
+    final var instructionHeader = this.words.get(index);
+    final var wordCount = instructionHeader >>> 16;
+    final var operandCount = Math.max(0, wordCount - 1);
+
+    if (index + 1 + operandCount > limit) {
+      final var exception =
+        new SMParseException(
+          String.format(
+            "Unexpected end of file: Instruction 0x%x requires %d words but only %d remain",
+            Integer.valueOf(instructionHeader & 0xFFFF),
+            Integer.valueOf(wordCount),
+            Integer.valueOf(limit - index)),
+          this.uri,
+          BigInteger.valueOf((long) limit * 4L)
+        );
+      this.metrics.onParseFailed(this.uri, exception);
+      throw exception;
+    }
+    return operandCount;
+  }
+
+  @Override
+  public Optional<SMParsedInstruction> parseNextInstruction()
+    throws SMParseException
+  {
+    final var index = this.wordIndex;
+    if (index >= this.words.limit()) {
+      return Optional.empty();
+    }
+
+    final var operandCount = this.checkInstruction(index);
+    final var instructionHeader = this.words.get(index);
+    final var operands = new int[operandCount];
+    this.words.get(index + 1, operands);
+    this.wordIndex = index + 1 + operandCount;
+
+    return Optional.of(
+      SMParsedInstruction.ofOperandWords(
+        (long) index * 4L,
+        Integer.toUnsignedLong(instructionHeader & 0xFFFF),
+        Integer.toUnsignedLong(instructionHeader >>> 16),
+        operands)
+    );
+  }
+
+  @Override
+  public List<SMParsedInstruction> parseAllInstructions()
+    throws SMParseException
+  {
+    final var instructions = new ArrayList<SMParsedInstruction>();
+    final var event = new SMParseModuleEvent();
+    event.begin();
+    final var timeThen = System.nanoTime();
+    final var start = this.wordIndex;
+
+    while (true) {
+      final var result = this.parseNextInstruction();
+      if (result.isPresent()) {
+        instructions.add(result.get());
+      } else {
+        break;
+      }
+    }
+
+    this.finishModule(event, timeThen, start, instructions.size());
+    return List.copyOf(instructions);
+  }
+
+  /**
+   * Commit the JFR event and report metrics for a complete pass over the
+   * instructions of the module.
+   */
+
+  private void finishModule(
+    final SMParseModuleEvent event,
+    final long timeThen,
+    final int start,
+    final long instructions)
+  {
+    if (!this.reportModules) {
+      return;
+    }
+
+    final var time = System.nanoTime() - timeThen;
+    event.end();
+
+    final var bytes = (long) (this.wordIndex - start) * 4L;
+    if (event.shouldCommit()) {
+      event.commitWith(this.uri.toString(), bytes, instructions);
+    }
+    this.metrics.onModuleParsed(this.uri, bytes, instructions, time);
+  }
+
+  @Override
+  public SMModule parseModule()
+    throws SMParseException
+  {
+    final var builder =
+      SMModule.builder(this.header, (long) this.wordIndex * 4L);
+
+    this.visitAllInstructions((opCode, wordCount, offset, instructionWords, start) -> {
+      builder.addInstruction(
+        opCode,
+        wordCount,
+        instructionWords,
+        start + 1,
+        Math.max(0, wordCount - 1)
+      );
+    });
+    return builder.build();
+  }
+
+  @Override
+  public void visitAllInstructions(
+    final SMInstructionVisitorType visitor)
+    throws SMParseException
+  {
+    Objects.requireNonNull(visitor, "visitor");
+
+    final var event = new SMParseModuleEvent();
+    event.begin();
+    final var timeThen = System.nanoTime();
+    final var start = this.wordIndex;
+    final var instructions = this.visitInstructions(visitor);
+    this.finishModule(event, timeThen, start, instructions);
+  }
+
+  private long visitInstructions(
+    final SMInstructionVisitorType visitor)
+    throws SMParseException
+  {
+    var instructions = 0L;
+
+    final var limit = this.words.limit();
+    while (this.wordIndex < limit) {
+      final var index = this.wordIndex;
+      final var operandCount = this.checkInstruction(index);
+      final var size = operandCount + 1;
+      if (this.buffer.length < size) {
+        this.buffer = new int[Math.max(size, this.buffer.length * 2)];
+      }
+
+      final var instructionHeader = this.words.get(index);
+      this.words.get(index, this.buffer, 0, size);
+      this.wordIndex = index + size;
+
+      visitor.visit(
+        instructionHeader & 0xFFFF,
+        instructionHeader >>> 16,
+        (long) index * 4L,
+        this.buffer,
+        0
+      );
+      instructions += 1L;
+    }
+    return instructions;
+  }
+
+  @Override
+  public void close()
+  {
+
+  }
+}
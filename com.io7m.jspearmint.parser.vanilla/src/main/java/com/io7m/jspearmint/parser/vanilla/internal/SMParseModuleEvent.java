@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.parser.vanilla.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JFR event recording a complete pass of a parser over the instructions
+ * of a module, such as when a module is parsed into memory. Further passes
+ * over a module that has already been reported, such as the second pass of
+ * a streaming disassembly, are not recorded.
+ */
+
+@Name("com.io7m.jspearmint.ParseModule")
+@Label("Parse Module")
+@Category({"jspearmint", "Parser"})
+@Description("A pass over the instructions of a module")
+@StackTrace(false)
+final class SMParseModuleEvent extends jdk.jfr.Event
+{
+  @Label("URI")
+  @Description("The URI of the module")
+  private String uri;
+
+  @Label("Bytes")
+  @Description("The number of instruction bytes parsed")
+  @DataAmount(DataAmount.BYTES)
+  private long bytes;
+
+  @Label("Instructions")
+  @Description("The number of instructions parsed")
+  private long instructions;
+
+  SMParseModuleEvent()
+  {
+
+  }
+
+  /**
+   * Set the values of the event and commit it.
+   *
+   * @param inUri          The URI of the module
+   * @param inBytes        The number of instruction bytes parsed
+   * @param inInstructions The number of instructions parsed
+   */
+
+  void commitWith(
+    final String inUri,
+    final long inBytes,
+    final long inInstructions)
+  {
+    this.uri = inUri;
+    this.bytes = inBytes;
+    this.instructions = inInstructions;
+    this.commit();
+  }
+}
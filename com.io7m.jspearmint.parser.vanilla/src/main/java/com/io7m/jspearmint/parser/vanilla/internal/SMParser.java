@@ -17,6 +17,9 @@
 package com.io7m.jspearmint.parser.vanilla.internal;
 
 import com.io7m.jbssio.api.BSSReaderSequentialType;
+import com.io7m.jspearmint.parser.api.SMInstructionVisitorType;
+import com.io7m.jspearmint.parser.api.SMMetricsListenerType;
+import com.io7m.jspearmint.parser.api.SMModule;
 import com.io7m.jspearmint.parser.api.SMParseException;
 import com.io7m.jspearmint.parser.api.SMParsedHeader;
 import com.io7m.jspearmint.parser.api.SMParsedInstruction;
@@ -59,15 +62,23 @@ public final class SMParser implements SMParserType
   private final BSSReaderSequentialType reader;
   private final boolean bigEndian;
   private final SMParsedHeader header;
+  private final SMMetricsListenerType metrics;
+  private final boolean reportModules;
+  private int[] buffer;
 
   private SMParser(
     final BSSReaderSequentialType inReader,
     final boolean inBigEndian,
-    final SMParsedHeader inHeader)
+    final SMParsedHeader inHeader,
+    final SMMetricsListenerType inMetrics,
+    final boolean inReportModules)
   {
     this.reader = Objects.requireNonNull(inReader, "reader");
     this.bigEndian = inBigEndian;
     this.header = Objects.requireNonNull(inHeader, "inHeader");
+    this.metrics = Objects.requireNonNull(inMetrics, "metrics");
+    this.reportModules = inReportModules;
+    this.buffer = new int[16];
   }
 
   /**
@@ -85,6 +96,52 @@ public final class SMParser implements SMParserType
     final BSSReaderSequentialType reader)
     throws IOException, SMParseException
   {
+    return create(reader, SMMetricsListenerType.noOp());
+  }
+
+  /**
+   * Create a parser.
+   *
+   * @param reader  The input reader
+   * @param metrics The metrics listener
+   *
+   * @return A new parser
+   *
+   * @throws IOException      On errors
+   * @throws SMParseException On errors
+   */
+
+  public static SMParser create(
+    final BSSReaderSequentialType reader,
+    final SMMetricsListenerType metrics)
+    throws IOException, SMParseException
+  {
+    return create(reader, metrics, true);
+  }
+
+  /**
+   * Create a parser.
+   *
+   * @param reader        The input reader
+   * @param metrics       The metrics listener
+   * @param reportModules {@code true} if completed passes over the module
+   *                      should be reported to the metrics listener and as
+   *                      events
+   *
+   * @return A new parser
+   *
+   * @throws IOException      On errors
+   * @throws SMParseException On errors
+   */
+
+  public static SMParser create(
+    final BSSReaderSequentialType reader,
+    final SMMetricsListenerType metrics,
+    final boolean reportModules)
+    throws IOException, SMParseException
+  {
+    Objects.requireNonNull(metrics, "metrics");
+
     final boolean bigEndian =
       determineEndianness(reader);
 
@@ -108,7 +165,9 @@ public final class SMParser implements SMParserType
     return new SMParser(
       reader,
       bigEndian,
-      header
+      header,
+      metrics,
+      reportModules
     );
   }
 
@@ -170,17 +229,64 @@ public final class SMParser implements SMParserType
     return this.header;
   }
 
+  private SMParseException parseException(
+    final IOException e)
+  {
+    final var exception =
+      new SMParseException(
+        e.getMessage(),
+        e,
+        this.reader.uri(),
+        BigInteger.valueOf(this.reader.offsetCurrentAbsolute())
+      );
+    this.metrics.onParseFailed(this.reader.uri(), exception);
+    return exception;
+  }
+
+  /**
+   * Read the word count/opcode word of the next instruction.
+   *
+   * @return The unsigned instruction header word, or {@code -1} on EOF
+   */
+
+  private long readInstructionHeader()
+    throws IOException
+  {
+    try {
+      return this.readWord("instructionHeader");
+    } catch (final EOFException e) {
+      return -1L;
+    }
+  }
+
+  private void readOperands(
+    final int[] operands,
+    final int offset,
+    final int count)
+    throws IOException
+  {
+    for (var index = 0; index < count; ++index) {
+      operands[offset + index] = (int) this.readWord("instructionOperand");
+    }
+  }
+
+  private int[] scratch(
+    final int size)
+  {
+    if (this.buffer.length < size) {
+      this.buffer = new int[Math.max(size, this.buffer.length * 2)];
+    }
+    return this.buffer;
+  }
+
   @Override
   public Optional<SMParsedInstruction> parseNextInstruction()
     throws SMParseException
   {
     try {
       final long offset = this.reader.offsetCurrentAbsolute();
-
-      final long instructionHeader;
-      try {
-        instructionHeader = this.readWord("instructionHeader");
-      } catch (final EOFException e) {
+      final long instructionHeader = this.readInstructionHeader();
+      if (instructionHeader == -1L) {
         return Optional.empty();
       }
 
@@ -197,26 +303,14 @@ public final class SMParser implements SMParserType
         );
       }
 
-      final var operands = new ArrayList<Long>((int) wordCount);
-      for (var index = 1L; index < wordCount; ++index) {
-        operands.add(Long.valueOf(this.readWord("instructionOperand")));
-      }
+      final var operands = new int[(int) Math.max(0L, wordCount - 1L)];
+      this.readOperands(operands, 0, operands.length);
 
       return Optional.of(
-        SMParsedInstruction.builder()
-          .setByteOffset(offset)
-          .setOpCode(opCode)
-          .setWordCount(wordCount)
-          .setOperands(operands)
-          .build()
+        SMParsedInstruction.ofOperandWords(offset, opCode, wordCount, operands)
       );
     } catch (final IOException e) {
-      throw new SMParseException(
-        e.getMessage(),
-        e,
-        this.reader.uri(),
-        BigInteger.valueOf(this.reader.offsetCurrentAbsolute())
-      );
+      throw this.parseException(e);
     }
   }
 
@@ -225,6 +319,10 @@ public final class SMParser implements SMParserType
     throws SMParseException
   {
     final var instructions = new ArrayList<SMParsedInstruction>();
+    final var event = new SMParseModuleEvent();
+    event.begin();
+    final var timeThen = System.nanoTime();
+    final var start = this.reader.offsetCurrentAbsolute();
 
     while (true) {
       final var result = this.parseNextInstruction();
@@ -234,9 +332,100 @@ public final class SMParser implements SMParserType
         break;
       }
     }
+
+    this.finishModule(event, timeThen, start, instructions.size());
     return List.copyOf(instructions);
   }
 
+  /**
+   * Commit the JFR event and report metrics for a complete pass over the
+   * instructions of the module.
+   */
+
+  private void finishModule(
+    final SMParseModuleEvent event,
+    final long timeThen,
+    final long start,
+    final long instructions)
+  {
+    if (!this.reportModules) {
+      return;
+    }
+
+    final var time = System.nanoTime() - timeThen;
+    event.end();
+
+    final var bytes = this.reader.offsetCurrentAbsolute() - start;
+    if (event.shouldCommit()) {
+      event.commitWith(this.reader.uri().toString(), bytes, instructions);
+    }
+    this.metrics.onModuleParsed(this.reader.uri(), bytes, instructions, time);
+  }
+
+  @Override
+  public SMModule parseModule()
+    throws SMParseException
+  {
+    final var builder =
+      SMModule.builder(this.header, this.reader.offsetCurrentAbsolute());
+
+    this.visitAllInstructions((opCode, wordCount, offset, instructionWords, start) -> {
+      builder.addInstruction(
+        opCode,
+        wordCount,
+        instructionWords,
+        start + 1,
+        Math.max(0, wordCount - 1)
+      );
+    });
+    return builder.build();
+  }
+
+  @Override
+  public void visitAllInstructions(
+    final SMInstructionVisitorType visitor)
+    throws SMParseException
+  {
+    Objects.requireNonNull(visitor, "visitor");
+
+    final var event = new SMParseModuleEvent();
+    event.begin();
+    final var timeThen = System.nanoTime();
+    final var start = this.reader.offsetCurrentAbsolute();
+    final var instructions = this.visitInstructions(visitor);
+    this.finishModule(event, timeThen, start, instructions);
+  }
+
+  private long visitInstructions(
+    final SMInstructionVisitorType visitor)
+    throws SMParseException
+  {
+    var instructions = 0L;
+
+    try {
+      while (true) {
+        final long offset = this.reader.offsetCurrentAbsolute();
+        final long instructionHeader = this.readInstructionHeader();
+        if (instructionHeader == -1L) {
+          break;
+        }
+
+        final var wordCount = (int) (instructionHeader >>> 16);
+        final var opCode = (int) (instructionHeader & 0xFFFFL);
+        final var operandCount = Math.max(0, wordCount - 1);
+        final var words = this.scratch(operandCount + 1);
+
+        words[0] = (int) instructionHeader;
+        this.readOperands(words, 1, operandCount);
+        visitor.visit(opCode, wordCount, offset, words, 0);
+        instructions += 1L;
+      }
+    } catch (final IOException e) {
+      throw this.parseException(e);
+    }
+    return instructions;
+  }
+
   @Override
   public void close()
     throws IOException
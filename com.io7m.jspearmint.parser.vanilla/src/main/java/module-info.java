@@ -24,6 +24,7 @@ module com.io7m.jspearmint.parser.vanilla
   requires static org.osgi.annotation.versioning;
   requires static org.osgi.service.component.annotations;
 
+  requires jdk.jfr;
   requires org.slf4j;
   requires transitive com.io7m.jbssio.api;
   requires transitive com.io7m.jspearmint.parser.api;
@@ -32,6 +33,7 @@ module com.io7m.jspearmint.parser.vanilla
     with com.io7m.jspearmint.parser.vanilla.SMParsers;
 
   uses com.io7m.jbssio.api.BSSReaderProviderType;
+  uses com.io7m.jspearmint.parser.api.SMMetricsListenerType;
 
   exports com.io7m.jspearmint.parser.vanilla;
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.synthetic;
+
+import com.io7m.immutables.styles.ImmutablesStyleType;
+import org.immutables.value.Value;
+
+import java.nio.ByteOrder;
+
+/**
+ * Parameters for generating synthetic modules. Generation is deterministic:
+ * the same parameters always produce the same module.
+ */
+
+@Value.Immutable
+@ImmutablesStyleType
+public interface SMSyntheticModuleParametersType
+{
+  /**
+   * @return The seed for the pseudo-random choices made during generation
+   */
+
+  @Value.Default
+  default long seed()
+  {
+    return 0L;
+  }
+
+  /**
+   * @return The byte order of the generated module
+   */
+
+  @Value.Default
+  default ByteOrder byteOrder()
+  {
+    return ByteOrder.LITTLE_ENDIAN;
+  }
+
+  /**
+   * The number of functions in the module, not including the entry point.
+   * The entry point calls each function exactly once.
+   *
+   * @return The number of functions
+   */
+
+  @Value.Default
+  default int functionCount()
+  {
+    return 1;
+  }
+
+  /**
+   * @return The number of arithmetic instructions in the body of each
+   * function
+   */
+
+  @Value.Default
+  default int instructionsPerFunction()
+  {
+    return 8;
+  }
+
+  /**
+   * The number of structure types in the module. Each structure has between
+   * one and four members drawn from the scalar, vector, and previously
+   * declared structure types. A small fixed set of scalar, vector, and
+   * function types is always present in addition to these.
+   *
+   * @return The number of structure types
+   */
+
+  @Value.Default
+  default int typeCount()
+  {
+    return 0;
+  }
+
+  /**
+   * The number of integer and floating-point constants in the module. A
+   * single integer constant used by the entry point is always present in
+   * addition to these.
+   *
+   * @return The number of constants
+   */
+
+  @Value.Default
+  default int constantCount()
+  {
+    return 0;
+  }
+
+  /**
+   * The number of decorations in the module. Each decoration assigns a
+   * unique {@code SpecId} to a specialization constant that exists for
+   * that purpose.
+   *
+   * @return The number of decorations
+   */
+
+  @Value.Default
+  default int decorationCount()
+  {
+    return 0;
+  }
+
+  /**
+   * @return The number of {@code OpName} instructions, each naming a
+   * result id chosen from the rest of the module
+   */
+
+  @Value.Default
+  default int nameCount()
+  {
+    return 0;
+  }
+
+  /**
+   * @return The amount by which the id bound exceeds the largest id used
+   * in the module, plus one
+   */
+
+  @Value.Default
+  default int idBoundPadding()
+  {
+    return 0;
+  }
+
+  /**
+   * Check preconditions for the type.
+   */
+
+  @Value.Check
+  default void checkPreconditions()
+  {
+    checkNonNegative("Function count", this.functionCount());
+    checkNonNegative(
+      "Instructions per function", this.instructionsPerFunction());
+    checkNonNegative("Type count", this.typeCount());
+    checkNonNegative("Constant count", this.constantCount());
+    checkNonNegative("Decoration count", this.decorationCount());
+    checkNonNegative("Name count", this.nameCount());
+    checkNonNegative("Id bound padding", this.idBoundPadding());
+  }
+
+  private static void checkNonNegative(
+    final String name,
+    final int value)
+  {
+    if (value < 0) {
+      throw new IllegalArgumentException(
+        String.format("%s %d must be non-negative", name, Integer.valueOf(value))
+      );
+    }
+  }
+}
@@ -0,0 +1,563 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.synthetic;
+
+import com.io7m.jspearmint.api.SMAddressingModel;
+import com.io7m.jspearmint.api.SMCapability;
+import com.io7m.jspearmint.api.SMDecoration;
+import com.io7m.jspearmint.api.SMExecutionMode;
+import com.io7m.jspearmint.api.SMExecutionModel;
+import com.io7m.jspearmint.api.SMFunctionControl;
+import com.io7m.jspearmint.api.SMInstruction;
+import com.io7m.jspearmint.api.SMMemoryModel;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A generator of synthetic SPIR-V modules of configurable size, for stress
+ * and scaling tests.
+ *
+ * <p>The generated modules are valid SPIR-V 1.3 shader modules with a
+ * single {@code GLCompute} entry point. The entry point calls every other
+ * function, and each function computes a chain of integer additions over
+ * its parameter and the module's integer constants. The pseudo-random
+ * choices made during generation (structure members, constant values,
+ * addition operands, and name targets) are derived from the seed, so
+ * the same parameters always produce the same module.</p>
+ */
+
+public final class SMSyntheticModules
+{
+  private static final int MAGIC = 0x07230203;
+  private static final int VERSION_1_3 = 0x00010300;
+  private static final char[] NAME_CHARACTERS =
+    "abcdefghijklmnopqrstuvwxyz0123456789_".toCharArray();
+
+  private SMSyntheticModules()
+  {
+
+  }
+
+  /**
+   * Generate a module.
+   *
+   * @param parameters The generation parameters
+   *
+   * @return A buffer containing the module, in the requested byte order
+   *
+   * @throws IllegalArgumentException If the module would be too large to
+   *                                  be represented
+   */
+
+  public static ByteBuffer generate(
+    final SMSyntheticModuleParameters parameters)
+  {
+    final var words = generateWords(parameters);
+    final var buffer =
+      ByteBuffer.allocate(Math.multiplyExact(words.length, 4))
+        .order(parameters.byteOrder());
+    buffer.asIntBuffer().put(words);
+    return buffer;
+  }
+
+  /**
+   * Generate the words of a module. The byte order specified in the
+   * parameters is ignored.
+   *
+   * @param parameters The generation parameters
+   *
+   * @return The words of the module
+   *
+   * @throws IllegalArgumentException If the module would be too large to
+   *                                  be represented
+   */
+
+  public static int[] generateWords(
+    final SMSyntheticModuleParameters parameters)
+  {
+    Objects.requireNonNull(parameters, "parameters");
+    return new Generator(parameters).run();
+  }
+
+  /**
+   * A growable array of words.
+   */
+
+  private static final class Words
+  {
+    private int[] data;
+    private int size;
+
+    Words()
+    {
+      this.data = new int[64];
+      this.size = 0;
+    }
+
+    void add(
+      final int word)
+    {
+      if (this.size == this.data.length) {
+        final var newLength = (long) this.data.length * 2L;
+        if (newLength > Integer.MAX_VALUE - 8) {
+          throw new IllegalArgumentException(
+            "The generated module would be too large to represent");
+        }
+        this.data = Arrays.copyOf(this.data, (int) newLength);
+      }
+      this.data[this.size] = word;
+      this.size += 1;
+    }
+
+    int get(
+      final int index)
+    {
+      Objects.checkIndex(index, this.size);
+      return this.data[index];
+    }
+
+    int size()
+    {
+      return this.size;
+    }
+
+    void copyTo(
+      final int[] target,
+      final int offset)
+    {
+      System.arraycopy(this.data, 0, target, offset, this.size);
+    }
+  }
+
+  /**
+   * A writer of instructions into a section of a module.
+   */
+
+  private static final class Section
+  {
+    private final Words words;
+
+    Section()
+    {
+      this.words = new Words();
+    }
+
+    void instruction(
+      final SMInstruction instruction,
+      final int... operands)
+    {
+      this.words.add(header(instruction, operands.length + 1));
+      for (final var operand : operands) {
+        this.words.add(operand);
+      }
+    }
+
+    void instructionWithString(
+      final SMInstruction instruction,
+      final int[] leading,
+      final String text)
+    {
+      final var bytes = text.getBytes(UTF_8);
+      final var stringWords = (bytes.length / 4) + 1;
+      final var wordCount = 1 + leading.length + stringWords;
+
+      this.words.add(header(instruction, wordCount));
+      for (final var word : leading) {
+        this.words.add(word);
+      }
+
+      final var packed =
+        ByteBuffer.allocate(stringWords * 4)
+          .order(ByteOrder.LITTLE_ENDIAN)
+          .put(bytes);
+      for (int index = 0; index < stringWords; ++index) {
+        this.words.add(packed.getInt(index * 4));
+      }
+    }
+
+    private static int header(
+      final SMInstruction instruction,
+      final int wordCount)
+    {
+      return (wordCount << 16) | instruction.value();
+    }
+  }
+
+  private static final class Generator
+  {
+    private final SMSyntheticModuleParameters parameters;
+    private final SplittableRandom random;
+    private final Section preamble;
+    private final Section debug;
+    private final Section annotations;
+    private final Section declarations;
+    private final Section functions;
+    private final Words resultIds;
+    private final Words memberTypes;
+    private final Words intConstants;
+    private long nextId;
+    private int typeVoid;
+    private int typeInt;
+    private int typeFloat;
+    private int typeFunctionVoid;
+    private int typeFunctionInt;
+    private int constantOne;
+
+    Generator(
+      final SMSyntheticModuleParameters inParameters)
+    {
+      this.parameters =
+        Objects.requireNonNull(inParameters, "parameters");
+      this.random =
+        new SplittableRandom(inParameters.seed());
+
+      this.preamble = new Section();
+      this.debug = new Section();
+      this.annotations = new Section();
+      this.declarations = new Section();
+      this.functions = new Section();
+      this.resultIds = new Words();
+      this.memberTypes = new Words();
+      this.intConstants = new Words();
+      this.nextId = 1L;
+    }
+
+    private int freshId()
+    {
+      if (this.nextId > 0xffff_ffffL) {
+        throw new IllegalArgumentException(
+          "The generated module would exceed the maximum id bound");
+      }
+      final var id = (int) this.nextId;
+      this.nextId += 1L;
+      this.resultIds.add(id);
+      return id;
+    }
+
+    int[] run()
+    {
+      this.generateBaseTypes();
+      this.generateStructures();
+      this.generateConstants();
+      this.generateSpecializationConstants();
+
+      final var functionIds = this.generateFunctions();
+      final var main = this.generateEntryPoint(functionIds);
+
+      this.generatePreamble(main);
+      this.generateNames();
+      return this.assemble();
+    }
+
+    private void generatePreamble(
+      final int main)
+    {
+      this.preamble.instruction(
+        SMInstruction.SM_OP_CAPABILITY,
+        SMCapability.SM_SHADER.value()
+      );
+      this.preamble.instruction(
+        SMInstruction.SM_OP_MEMORY_MODEL,
+        SMAddressingModel.SM_LOGICAL.value(),
+        SMMemoryModel.SM_GLSL450.value()
+      );
+      this.preamble.instructionWithString(
+        SMInstruction.SM_OP_ENTRY_POINT,
+        new int[]{SMExecutionModel.SM_GLCOMPUTE.value(), main},
+        "main"
+      );
+      this.preamble.instruction(
+        SMInstruction.SM_OP_EXECUTION_MODE,
+        main,
+        SMExecutionMode.SM_LOCAL_SIZE.value(),
+        1,
+        1,
+        1
+      );
+    }
+
+    private void generateBaseTypes()
+    {
+      final var d = this.declarations;
+
+      this.typeVoid = this.freshId();
+      d.instruction(SMInstruction.SM_OP_TYPE_VOID, this.typeVoid);
+      this.typeInt = this.freshId();
+      d.instruction(SMInstruction.SM_OP_TYPE_INT, this.typeInt, 32, 1);
+      this.typeFloat = this.freshId();
+      d.instruction(SMInstruction.SM_OP_TYPE_FLOAT, this.typeFloat, 32);
+
+      this.typeFunctionVoid = this.freshId();
+      d.instruction(
+        SMInstruction.SM_OP_TYPE_FUNCTION,
+        this.typeFunctionVoid,
+        this.typeVoid
+      );
+      this.typeFunctionInt = this.freshId();
+      d.instruction(
+        SMInstruction.SM_OP_TYPE_FUNCTION,
+        this.typeFunctionInt,
+        this.typeInt,
+        this.typeInt
+      );
+
+      this.memberTypes.add(this.typeInt);
+      this.memberTypes.add(this.typeFloat);
+      for (final var component : new int[]{this.typeInt, this.typeFloat}) {
+        for (int count = 2; count <= 4; ++count) {
+          final var vector = this.freshId();
+          d.instruction(
+            SMInstruction.SM_OP_TYPE_VECTOR,
+            vector,
+            component,
+            count
+          );
+          this.memberTypes.add(vector);
+        }
+      }
+    }
+
+    private void generateStructures()
+    {
+      for (int index = 0; index < this.parameters.typeCount(); ++index) {
+        final var members = new int[this.random.nextInt(1, 5)];
+        for (int member = 0; member < members.length; ++member) {
+          members[member] =
+            this.memberTypes.get(
+              this.random.nextInt(this.memberTypes.size()));
+        }
+
+        final var structure = this.freshId();
+        final var operands = new int[members.length + 1];
+        operands[0] = structure;
+        System.arraycopy(members, 0, operands, 1, members.length);
+        this.declarations.instruction(
+          SMInstruction.SM_OP_TYPE_STRUCT,
+          operands
+        );
+        this.memberTypes.add(structure);
+      }
+    }
+
+    private void generateConstants()
+    {
+      this.constantOne = this.freshId();
+      this.declarations.instruction(
+        SMInstruction.SM_OP_CONSTANT,
+        this.typeInt,
+        this.constantOne,
+        1
+      );
+      this.intConstants.add(this.constantOne);
+
+      for (int index = 0; index < this.parameters.constantCount(); ++index) {
+        final var constant = this.freshId();
+        if (this.random.nextBoolean()) {
+          this.declarations.instruction(
+            SMInstruction.SM_OP_CONSTANT,
+            this.typeInt,
+            constant,
+            this.random.nextInt()
+          );
+          this.intConstants.add(constant);
+        } else {
+          final var value = (float) this.random.nextDouble(-1000.0, 1000.0);
+          this.declarations.instruction(
+            SMInstruction.SM_OP_CONSTANT,
+            this.typeFloat,
+            constant,
+            Float.floatToRawIntBits(value)
+          );
+        }
+      }
+    }
+
+    private void generateSpecializationConstants()
+    {
+      for (int index = 0; index < this.parameters.decorationCount(); ++index) {
+        final var constant = this.freshId();
+        this.declarations.instruction(
+          SMInstruction.SM_OP_SPEC_CONSTANT,
+          this.typeInt,
+          constant,
+          this.random.nextInt()
+        );
+        this.annotations.instruction(
+          SMInstruction.SM_OP_DECORATE,
+          constant,
+          SMDecoration.SM_SPEC_ID.value(),
+          index
+        );
+        this.intConstants.add(constant);
+      }
+    }
+
+    private int[] generateFunctions()
+    {
+      final var count = this.parameters.functionCount();
+      final var functionIds = new int[count];
+      for (int index = 0; index < count; ++index) {
+        functionIds[index] = this.generateFunction();
+      }
+      return functionIds;
+    }
+
+    private int generateFunction()
+    {
+      final var f = this.functions;
+      final var function = this.freshId();
+      final var parameter = this.freshId();
+
+      f.instruction(
+        SMInstruction.SM_OP_FUNCTION,
+        this.typeInt,
+        function,
+        SMFunctionControl.SM_NONE.value(),
+        this.typeFunctionInt
+      );
+      f.instruction(
+        SMInstruction.SM_OP_FUNCTION_PARAMETER,
+        this.typeInt,
+        parameter
+      );
+      f.instruction(SMInstruction.SM_OP_LABEL, this.freshId());
+
+      var value = parameter;
+      final var instructions = this.parameters.instructionsPerFunction();
+      for (int index = 0; index < instructions; ++index) {
+        final var result = this.freshId();
+        final var constant =
+          this.intConstants.get(
+            this.random.nextInt(this.intConstants.size()));
+        f.instruction(
+          SMInstruction.SM_OP_IADD,
+          this.typeInt,
+          result,
+          value,
+          constant
+        );
+        value = result;
+      }
+
+      f.instruction(SMInstruction.SM_OP_RETURN_VALUE, value);
+      f.instruction(SMInstruction.SM_OP_FUNCTION_END);
+      return function;
+    }
+
+    private int generateEntryPoint(
+      final int[] functionIds)
+    {
+      final var f = this.functions;
+      final var main = this.freshId();
+
+      f.instruction(
+        SMInstruction.SM_OP_FUNCTION,
+        this.typeVoid,
+        main,
+        SMFunctionControl.SM_NONE.value(),
+        this.typeFunctionVoid
+      );
+      f.instruction(SMInstruction.SM_OP_LABEL, this.freshId());
+      for (final var function : functionIds) {
+        f.instruction(
+          SMInstruction.SM_OP_FUNCTION_CALL,
+          this.typeInt,
+          this.freshId(),
+          function,
+          this.constantOne
+        );
+      }
+      f.instruction(SMInstruction.SM_OP_RETURN);
+      f.instruction(SMInstruction.SM_OP_FUNCTION_END);
+      return main;
+    }
+
+    private void generateNames()
+    {
+      final var text = new StringBuilder(32);
+      for (int index = 0; index < this.parameters.nameCount(); ++index) {
+        final var target =
+          this.resultIds.get(this.random.nextInt(this.resultIds.size()));
+
+        text.setLength(0);
+        text.append("name_");
+        text.append(index);
+        final var extra = this.random.nextInt(0, 17);
+        if (extra > 0) {
+          text.append('_');
+        }
+        for (int character = 0; character < extra; ++character) {
+          text.append(NAME_CHARACTERS[
+            this.random.nextInt(NAME_CHARACTERS.length)]);
+        }
+
+        this.debug.instructionWithString(
+          SMInstruction.SM_OP_NAME,
+          new int[]{target},
+          text.toString()
+        );
+      }
+    }
+
+    private int[] assemble()
+    {
+      final var paddedBound =
+        this.nextId + (long) this.parameters.idBoundPadding();
+      if (paddedBound > 0xffff_ffffL) {
+        throw new IllegalArgumentException(
+          "The generated module would exceed the maximum id bound");
+      }
+
+      final var sections = new Section[]{
+        this.preamble,
+        this.debug,
+        this.annotations,
+        this.declarations,
+        this.functions,
+      };
+
+      var length = 5L;
+      for (final var section : sections) {
+        length += section.words.size();
+      }
+      if (length > Integer.MAX_VALUE / 4) {
+        throw new IllegalArgumentException(
+          "The generated module would be too large to represent");
+      }
+
+      final var output = new int[(int) length];
+      output[0] = MAGIC;
+      output[1] = VERSION_1_3;
+      output[2] = 0;
+      output[3] = (int) paddedBound;
+      output[4] = 0;
+
+      var offset = 5;
+      for (final var section : sections) {
+        section.words.copyTo(output, offset);
+        offset += section.words.size();
+      }
+      return output;
+    }
+  }
+}
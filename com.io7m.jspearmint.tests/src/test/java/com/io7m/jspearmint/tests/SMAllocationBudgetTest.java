@@ -0,0 +1,374 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.tests;
+
+import com.io7m.jbssio.vanilla.BSSReaders;
+import com.io7m.jspearmint.analysis.SMModuleAnalysis;
+import com.io7m.jspearmint.analysis.SMStrings;
+import com.io7m.jspearmint.api.SMInstruction;
+import com.io7m.jspearmint.disassembly.api.SMDisassemblerConfiguration;
+import com.io7m.jspearmint.disassembly.api.SMDisassemblerConfigurationType.Format;
+import com.io7m.jspearmint.disassembly.vanilla.SMDisassemblers;
+import com.io7m.jspearmint.parser.api.SMInstructionVisitorType;
+import com.io7m.jspearmint.parser.api.SMModule;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
+import com.io7m.jspearmint.parser.vanilla.SMParsers;
+import com.io7m.jspearmint.synthetic.SMSyntheticModuleParameters;
+import com.io7m.jspearmint.synthetic.SMSyntheticModules;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Allocation budgets for the per-instruction paths of the parser, the
+ * analyses, string decoding, and the disassembler. Each test measures the
+ * bytes allocated by the current thread while processing a synthetic
+ * module, and fails if the number of bytes per instruction exceeds a
+ * budget. The budgets are set with some headroom above the measured
+ * values, so a failure indicates a new allocation per instruction rather
+ * than noise.
+ */
+
+public final class SMAllocationBudgetTest
+{
+  private static final URI SOURCE = URI.create("urn:allocation");
+  private static final int WARMUP_RUNS = 10;
+  private static final int MEASURED_RUNS = 5;
+
+  private static final Logger LOGGER =
+    LoggerFactory.getLogger(SMAllocationBudgetTest.class);
+
+  /*
+   * Budgets in bytes per instruction (or per string, for string decoding).
+   * Paths that are expected to be allocation-free have a budget well below
+   * the size of the smallest possible object, so that a single allocation
+   * per instruction fails the test, while still permitting a constant
+   * amount of allocation per run such as the parser itself.
+   */
+
+  private static final double ALLOCATION_FREE_BUDGET = 0.5;
+  private static final double PARSE_MODULE_BUDGET = 192.0;
+  private static final double PARSE_NEXT_BUDGET = 128.0;
+  private static final double ANALYSIS_BUDGET = 112.0;
+  private static final double STRINGS_BUDGET = 224.0;
+
+  /*
+   * Text disassembly performs the identifier and type analyses, formats
+   * each ID once, and quotes each name. Operands are appended directly to
+   * the output, so the budget is little more than those costs, and a list
+   * or string allocated per instruction or operand exceeds it.
+   */
+
+  private static final double DISASSEMBLY_TEXT_BUDGET = 320.0;
+
+  private static final com.sun.management.ThreadMXBean THREADS =
+    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private SMParsers parsers;
+  private ByteBuffer data;
+  private SMModule module;
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    Assumptions.assumeTrue(
+      THREADS.isThreadAllocatedMemorySupported(),
+      "Thread allocation measurement is supported");
+    THREADS.setThreadAllocatedMemoryEnabled(true);
+
+    this.parsers = new SMParsers(new BSSReaders());
+    this.data =
+      SMSyntheticModules.generate(
+        SMSyntheticModuleParameters.builder()
+          .setSeed(0x5eedL)
+          .setFunctionCount(100)
+          .setInstructionsPerFunction(100)
+          .setTypeCount(500)
+          .setConstantCount(1_000)
+          .setDecorationCount(200)
+          .setNameCount(2_000)
+          .build()
+      );
+
+    try (var parser = this.parsers.createFromByteBuffer(SOURCE, this.data())) {
+      this.module = parser.parseModule();
+    }
+  }
+
+  private ByteBuffer data()
+  {
+    return this.data.duplicate().order(this.data.order());
+  }
+
+  private interface MeasuredType
+  {
+    void run()
+      throws Exception;
+  }
+
+  /**
+   * Measure the bytes allocated by the current thread while executing the
+   * given code, using {@code ThreadMXBean.getThreadAllocatedBytes}. The
+   * code is executed repeatedly first so that the measurement reflects
+   * compiled code, and the smallest of several measurements is returned to
+   * exclude one-off allocations such as class initialization.
+   */
+
+  private static long allocatedBytes(
+    final MeasuredType code)
+    throws Exception
+  {
+    for (var index = 0; index < WARMUP_RUNS; ++index) {
+      code.run();
+    }
+
+    final var thread = Thread.currentThread().threadId();
+    var minimum = Long.MAX_VALUE;
+    for (var index = 0; index < MEASURED_RUNS; ++index) {
+      final var before = THREADS.getThreadAllocatedBytes(thread);
+      code.run();
+      final var after = THREADS.getThreadAllocatedBytes(thread);
+      minimum = Math.min(minimum, after - before);
+    }
+    return minimum;
+  }
+
+  private static void checkBudget(
+    final String name,
+    final long bytes,
+    final long units,
+    final double budgetPerUnit)
+  {
+    final var perUnit = (double) bytes / (double) units;
+    LOGGER.debug(
+      "{}: {} bytes, {} bytes per unit (budget {})",
+      name,
+      Long.valueOf(bytes),
+      Double.valueOf(perUnit),
+      Double.valueOf(budgetPerUnit));
+
+    Assertions.assertTrue(
+      perUnit <= budgetPerUnit,
+      String.format(
+        "%s allocated %.2f bytes per unit, exceeding the budget of %.2f",
+        name,
+        Double.valueOf(perUnit),
+        Double.valueOf(budgetPerUnit))
+    );
+  }
+
+  /**
+   * Visiting the instructions of a module as it is parsed allocates nothing
+   * per instruction.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testParserVisit()
+    throws Exception
+  {
+    final var visitor = new CountingVisitor();
+    final var bytes = allocatedBytes(() -> {
+      try (var parser = this.parsers.createFromByteBuffer(SOURCE, this.data())) {
+        parser.visitAllInstructions(visitor);
+      }
+    });
+    checkBudget(
+      "parser visit",
+      bytes,
+      this.module.instructionCount(),
+      ALLOCATION_FREE_BUDGET);
+  }
+
+  /**
+   * Parsing a module allocates little more than the module's own storage.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testParseModule()
+    throws Exception
+  {
+    final var bytes = allocatedBytes(() -> {
+      try (var parser = this.parsers.createFromByteBuffer(SOURCE, this.data())) {
+        parser.parseModule();
+      }
+    });
+    checkBudget(
+      "parse module",
+      bytes,
+      this.module.instructionCount(),
+      PARSE_MODULE_BUDGET);
+  }
+
+  /**
+   * Parsing a module one instruction at a time allocates only the
+   * instructions that are returned.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testParseNextInstruction()
+    throws Exception
+  {
+    final var bytes = allocatedBytes(() -> {
+      try (var parser = this.parsers.createFromByteBuffer(SOURCE, this.data())) {
+        while (parser.parseNextInstruction().isPresent()) {
+          // Nothing to do
+        }
+      }
+    });
+    checkBudget(
+      "parse next instruction",
+      bytes,
+      this.module.instructionCount(),
+      PARSE_NEXT_BUDGET);
+  }
+
+  /**
+   * Visiting the instructions of a parsed module allocates nothing.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testModuleVisit()
+    throws Exception
+  {
+    final var visitor = new CountingVisitor();
+    final var bytes = allocatedBytes(() -> this.module.visit(visitor));
+    checkBudget(
+      "module visit",
+      bytes,
+      this.module.instructionCount(),
+      ALLOCATION_FREE_BUDGET);
+  }
+
+  /**
+   * The fused identifier and type analysis allocates only its results.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testAnalysis()
+    throws Exception
+  {
+    final var bytes = allocatedBytes(() -> {
+      SMModuleAnalysis.builder()
+        .withIdentifiers()
+        .withTypes()
+        .analyze(this.module);
+    });
+    checkBudget(
+      "analysis",
+      bytes,
+      this.module.instructionCount(),
+      ANALYSIS_BUDGET);
+  }
+
+  /**
+   * Decoding a string allocates only the string.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testStrings()
+    throws Exception
+  {
+    final List<SMParsedInstructionType> names =
+      this.module.instructions()
+        .stream()
+        .filter(i -> i.opCode() == SMInstruction.SM_OP_NAME.value())
+        .toList();
+
+    final var bytes = allocatedBytes(() -> {
+      for (final var name : names) {
+        SMStrings.consumeUTF8String(name, 1);
+      }
+    });
+    checkBudget("strings", bytes, names.size(), STRINGS_BUDGET);
+  }
+
+  /**
+   * Disassembling a module to text allocates a bounded amount per
+   * instruction.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testDisassemblyText()
+    throws Exception
+  {
+    final var configuration =
+      SMDisassemblerConfiguration.builder()
+        .setFormat(Format.TEXT)
+        .build();
+
+    try (var disassembler = new SMDisassemblers().create()) {
+      final var bytes = allocatedBytes(() -> {
+        disassembler.disassemble(
+          configuration,
+          this.module,
+          OutputStream.nullOutputStream()
+        );
+      });
+      checkBudget(
+        "disassembly (text)",
+        bytes,
+        this.module.instructionCount(),
+        DISASSEMBLY_TEXT_BUDGET);
+    }
+  }
+
+  private static final class CountingVisitor
+    implements SMInstructionVisitorType
+  {
+    private long words;
+
+    CountingVisitor()
+    {
+
+    }
+
+    @Override
+    public void visit(
+      final int opCode,
+      final int wordCount,
+      final long byteOffset,
+      final int[] instructionWords,
+      final int start)
+    {
+      this.words += wordCount;
+    }
+  }
+}
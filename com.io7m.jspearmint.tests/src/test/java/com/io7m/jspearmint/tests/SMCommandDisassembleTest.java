@@ -17,12 +17,16 @@
 package com.io7m.jspearmint.tests;
 
 import com.io7m.jspearmint.cmdline.MainExitless;
+import com.io7m.jspearmint.synthetic.SMSyntheticModuleParameters;
+import com.io7m.jspearmint.synthetic.SMSyntheticModules;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 public final class SMCommandDisassembleTest
 {
@@ -66,4 +70,220 @@ public final class SMCommandDisassembleTest
       }
     );
   }
+
+  @Test
+  public void disassembleFileParallel()
+    throws IOException
+  {
+    final var path =
+      SMJSONTestDirectories.resourceOf(
+        SMCommandDisassembleTest.class,
+        this.directory,
+        "clip_space_triangle.vert.spv"
+      ).toAbsolutePath();
+
+    MainExitless.main(
+      new String[]{
+        "disassemble",
+        "--inputFile",
+        path.toString(),
+        "--parallelism",
+        "2"
+      }
+    );
+  }
+
+  @Test
+  public void disassembleFileJSON()
+    throws IOException
+  {
+    final var path =
+      SMJSONTestDirectories.resourceOf(
+        SMCommandDisassembleTest.class,
+        this.directory,
+        "clip_space_triangle.vert.spv"
+      ).toAbsolutePath();
+
+    MainExitless.main(
+      new String[]{
+        "disassemble",
+        "--inputFile",
+        path.toString(),
+        "--format",
+        "JSON"
+      }
+    );
+  }
+
+  @Test
+  public void disassembleBatchDirectory()
+    throws IOException
+  {
+    final var path =
+      SMJSONTestDirectories.resourceOf(
+        SMCommandDisassembleTest.class,
+        this.directory,
+        "clip_space_triangle.vert.spv"
+      ).toAbsolutePath();
+
+    final var inputs = this.directory.resolve("inputs");
+    Files.createDirectories(inputs.resolve("nested"));
+    Files.copy(path, inputs.resolve("a.spv"));
+    Files.copy(path, inputs.resolve("nested").resolve("b.spv"));
+    Files.writeString(inputs.resolve("ignored.txt"), "Not SPIR-V");
+
+    final var outputs = this.directory.resolve("outputs");
+    MainExitless.main(
+      new String[]{
+        "disassemble-batch",
+        "--input",
+        inputs.toString(),
+        "--outputDirectory",
+        outputs.toString(),
+        "--threads",
+        "2"
+      }
+    );
+
+    final var expected =
+      Files.readString(
+        SMJSONTestDirectories.resourceOf(
+          SMCommandDisassembleTest.class,
+          this.directory,
+          "clip_space_triangle.vert.txt"));
+
+    Assertions.assertEquals(expected, Files.readString(outputs.resolve("a.txt")));
+    Assertions.assertEquals(
+      expected,
+      Files.readString(outputs.resolve("nested").resolve("b.txt")));
+    Assertions.assertFalse(Files.exists(outputs.resolve("ignored.txt")));
+  }
+
+  @Test
+  public void disassembleBatchGlob()
+    throws IOException
+  {
+    final var path =
+      SMJSONTestDirectories.resourceOf(
+        SMCommandDisassembleTest.class,
+        this.directory,
+        "clip_space_triangle.vert.spv"
+      ).toAbsolutePath();
+
+    final var outputs = this.directory.resolve("outputs");
+    MainExitless.main(
+      new String[]{
+        "disassemble-batch",
+        "--input",
+        path.getParent().resolve("*.vert.spv").toString(),
+        "--outputDirectory",
+        outputs.toString(),
+        "--format",
+        "JSON"
+      }
+    );
+
+    Assertions.assertTrue(
+      Files.size(outputs.resolve("clip_space_triangle.vert.json")) > 0L);
+  }
+
+  @Test
+  public void disassembleBatchErrorsCollected()
+    throws IOException
+  {
+    final var path =
+      SMJSONTestDirectories.resourceOf(
+        SMCommandDisassembleTest.class,
+        this.directory,
+        "clip_space_triangle.vert.spv"
+      ).toAbsolutePath();
+
+    final var inputs = this.directory.resolve("inputs");
+    Files.createDirectories(inputs);
+    Files.writeString(inputs.resolve("a_broken.spv"), "Not SPIR-V");
+    Files.copy(path, inputs.resolve("b.spv"));
+
+    final var outputs = this.directory.resolve("outputs");
+    Assertions.assertThrows(IOException.class, () -> {
+      MainExitless.main(
+        new String[]{
+          "disassemble-batch",
+          "--input",
+          inputs.toString(),
+          "--outputDirectory",
+          outputs.toString(),
+          "--threads",
+          "1"
+        }
+      );
+    });
+
+    Assertions.assertTrue(Files.size(outputs.resolve("b.txt")) > 0L);
+    Assertions.assertFalse(Files.exists(outputs.resolve("a_broken.txt")));
+    Assertions.assertFalse(Files.exists(outputs.resolve("a_broken.txt.tmp")));
+    assertNoTemporaryFiles(outputs);
+  }
+
+  private static void assertNoTemporaryFiles(
+    final Path directory)
+    throws IOException
+  {
+    try (var stream = Files.walk(directory)) {
+      Assertions.assertEquals(
+        List.of(),
+        stream.filter(p -> p.toString().endsWith(".tmp")).toList());
+    }
+  }
+
+  @Test
+  public void disassembleBatchDuplicateOutputs()
+    throws IOException
+  {
+    final var path =
+      SMJSONTestDirectories.resourceOf(
+        SMCommandDisassembleTest.class,
+        this.directory,
+        "clip_space_triangle.vert.spv"
+      ).toAbsolutePath();
+
+    final var inputs = this.directory.resolve("inputs");
+    Files.createDirectories(inputs.resolve("a"));
+    Files.createDirectories(inputs.resolve("b"));
+    Files.copy(path, inputs.resolve("a").resolve("x.spv"));
+
+    final var other =
+      SMSyntheticModules.generate(SMSyntheticModuleParameters.builder().build());
+    final var otherBytes = new byte[other.remaining()];
+    other.get(otherBytes);
+    Files.write(inputs.resolve("b").resolve("x.spv"), otherBytes);
+
+    final var outputs = this.directory.resolve("outputs");
+    Assertions.assertThrows(IOException.class, () -> {
+      MainExitless.main(
+        new String[]{
+          "disassemble-batch",
+          "--input",
+          inputs.resolve("a").resolve("x.spv").toString(),
+          "--input",
+          inputs.resolve("b").resolve("x.spv").toString(),
+          "--input",
+          inputs.resolve("a").resolve("x.spv").toString(),
+          "--outputDirectory",
+          outputs.toString(),
+          "--threads",
+          "2"
+        }
+      );
+    });
+
+    final var expected =
+      Files.readString(
+        SMJSONTestDirectories.resourceOf(
+          SMCommandDisassembleTest.class,
+          this.directory,
+          "clip_space_triangle.vert.txt"));
+
+    Assertions.assertEquals(expected, Files.readString(outputs.resolve("x.txt")));
+    assertNoTemporaryFiles(outputs);
+  }
 }
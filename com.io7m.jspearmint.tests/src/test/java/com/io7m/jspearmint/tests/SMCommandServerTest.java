@@ -0,0 +1,342 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.tests;
+
+import com.io7m.jspearmint.cmdline.MainExitless;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public final class SMCommandServerTest
+{
+  private Path directory;
+  private Path socket;
+  private Path file;
+  private Thread serverThread;
+  private AtomicReference<Exception> serverFailure;
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.directory = SMJSONTestDirectories.createTempDirectory();
+    this.socket = this.directory.resolve("server.sock");
+    this.file =
+      SMJSONTestDirectories.resourceOf(
+        SMCommandServerTest.class,
+        this.directory,
+        "clip_space_triangle.vert.spv"
+      ).toAbsolutePath();
+
+    this.serverFailure = new AtomicReference<>();
+    this.serverThread =
+      startServer(this.socket, this.serverFailure, "--allowShutdown");
+  }
+
+  private static Thread startServer(
+    final Path socket,
+    final AtomicReference<Exception> failure,
+    final String... options)
+    throws InterruptedException
+  {
+    final var arguments = new ArrayList<>(List.of(
+      "server",
+      "--socket",
+      socket.toString()
+    ));
+    arguments.addAll(List.of(options));
+
+    final var thread = new Thread(() -> {
+      try {
+        MainExitless.main(arguments.toArray(new String[0]));
+      } catch (final Exception e) {
+        failure.set(e);
+      }
+    });
+    thread.start();
+
+    /*
+     * Wait for a connection to succeed; the server treats a connection
+     * that closes without sending a request as a silent disconnect.
+     */
+
+    final var deadline = System.nanoTime() + 10_000_000_000L;
+    while (!serverAccepts(socket)) {
+      Assertions.assertTrue(System.nanoTime() < deadline, "Server started");
+      Assertions.assertNull(failure.get());
+      Thread.sleep(10L);
+    }
+    return thread;
+  }
+
+  private static boolean serverAccepts(
+    final Path socket)
+  {
+    try (var channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+      return channel.connect(UnixDomainSocketAddress.of(socket));
+    } catch (final IOException e) {
+      return false;
+    }
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws Exception
+  {
+    this.client("shutdown");
+    this.serverThread.join(10_000L);
+    Assertions.assertFalse(this.serverThread.isAlive());
+    Assertions.assertNull(this.serverFailure.get());
+    Assertions.assertFalse(Files.exists(this.socket));
+  }
+
+  private String client(
+    final String... request)
+    throws IOException
+  {
+    return client(this.socket, request);
+  }
+
+  private static String client(
+    final Path socket,
+    final String... request)
+    throws IOException
+  {
+    final var arguments = new ArrayList<>(List.of(
+      "client",
+      "--socket",
+      socket.toString(),
+      "--"
+    ));
+    arguments.addAll(List.of(request));
+
+    final var saved = System.out;
+    final var bytes = new ByteArrayOutputStream();
+    try (var capture = new PrintStream(bytes, true, UTF_8)) {
+      System.setOut(capture);
+      MainExitless.main(arguments.toArray(new String[0]));
+    } finally {
+      System.setOut(saved);
+    }
+    return bytes.toString(UTF_8);
+  }
+
+  @Test
+  public void testDisassemble()
+    throws Exception
+  {
+    final var expected =
+      Files.readString(
+        SMJSONTestDirectories.resourceOf(
+          SMCommandServerTest.class,
+          this.directory,
+          "clip_space_triangle.vert.txt"));
+
+    Assertions.assertEquals(
+      expected,
+      this.client("disassemble", "--inputFile", this.file.toString()));
+    Assertions.assertEquals(
+      expected,
+      this.client(
+        "disassemble",
+        "--inputFile",
+        this.file.toString(),
+        "--parallelism",
+        "2"));
+  }
+
+  @Test
+  public void testParse()
+    throws Exception
+  {
+    final var text =
+      this.client("parse", "--inputFile", this.file.toString());
+
+    Assertions.assertTrue(text.contains("bound: 33"), text);
+    Assertions.assertTrue(text.contains("instructions: 57"), text);
+  }
+
+  @Test
+  public void testAnalyze()
+    throws Exception
+  {
+    final var text =
+      this.client("analyze", "--inputFile", this.file.toString());
+
+    Assertions.assertTrue(text.contains("bound: 33"), text);
+    Assertions.assertTrue(
+      text.contains("entryPoint: R3_clip_triangle_vert_main %4"), text);
+  }
+
+  @Test
+  public void testConcurrentRequests()
+    throws Exception
+  {
+    final var threads = new ArrayList<Thread>();
+    final var failure = new AtomicReference<Exception>();
+    for (int index = 0; index < 8; ++index) {
+      final var thread = new Thread(() -> {
+        try {
+          MainExitless.main(new String[]{
+            "client",
+            "--socket",
+            this.socket.toString(),
+            "--",
+            "parse",
+            "--inputFile",
+            this.file.toString()
+          });
+        } catch (final Exception e) {
+          failure.set(e);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (final var thread : threads) {
+      thread.join();
+    }
+    Assertions.assertNull(failure.get());
+  }
+
+  @Test
+  public void testErrors()
+  {
+    Assertions.assertThrows(IOException.class, () -> {
+      this.client(
+        "disassemble",
+        "--inputFile",
+        this.directory.resolve("nonexistent.spv").toString());
+    });
+    Assertions.assertThrows(IOException.class, () -> {
+      this.client("nonexistent");
+    });
+    Assertions.assertThrows(IOException.class, () -> {
+      this.client();
+    });
+  }
+
+  /**
+   * A server that was not started with --allowShutdown rejects shutdown
+   * requests, and must be stopped by its owner.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testShutdownNotAllowed()
+    throws Exception
+  {
+    final var otherSocket = this.directory.resolve("other.sock");
+    final var failure = new AtomicReference<Exception>();
+    final var thread = startServer(otherSocket, failure);
+
+    Assertions.assertThrows(IOException.class, () -> {
+      client(otherSocket, "shutdown");
+    });
+
+    final var text =
+      client(otherSocket, "parse", "--inputFile", this.file.toString());
+    Assertions.assertTrue(text.contains("instructions: 57"), text);
+
+    /*
+     * Interrupting the server thread closes the listening channel.
+     */
+
+    thread.interrupt();
+    thread.join(10_000L);
+    Assertions.assertFalse(thread.isAlive());
+    Assertions.assertNull(failure.get());
+    Assertions.assertFalse(Files.exists(otherSocket));
+  }
+
+  /**
+   * A server started with --root refuses requests for files outside the
+   * root directory, including files reached through relative paths.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testRootConfinement()
+    throws Exception
+  {
+    final var root = this.directory.resolve("root");
+    Files.createDirectories(root);
+    final var inside = root.resolve("inside.spv");
+    Files.copy(this.file, inside);
+
+    final var otherSocket = this.directory.resolve("root.sock");
+    final var failure = new AtomicReference<Exception>();
+    final var thread =
+      startServer(otherSocket, failure, "--root", root.toString(), "--allowShutdown");
+
+    final var text =
+      client(otherSocket, "parse", "--inputFile", inside.toString());
+    Assertions.assertTrue(text.contains("instructions: 57"), text);
+
+    Assertions.assertThrows(IOException.class, () -> {
+      client(otherSocket, "parse", "--inputFile", this.file.toString());
+    });
+    Assertions.assertThrows(IOException.class, () -> {
+      client(
+        otherSocket,
+        "parse",
+        "--inputFile",
+        root.resolve("..").resolve(this.file.getFileName()).toString());
+    });
+    Assertions.assertThrows(IOException.class, () -> {
+      client(
+        otherSocket,
+        "parse",
+        "--inputFile",
+        root.resolve("nonexistent.spv").toString());
+    });
+
+    client(otherSocket, "shutdown");
+    thread.join(10_000L);
+    Assertions.assertFalse(thread.isAlive());
+    Assertions.assertNull(failure.get());
+  }
+
+  /**
+   * A server cannot listen on a TCP port without a root directory.
+   */
+
+  @Test
+  public void testPortRequiresRoot()
+  {
+    Assertions.assertThrows(IOException.class, () -> {
+      MainExitless.main(new String[]{"server", "--port", "0"});
+    });
+  }
+}
@@ -16,9 +16,19 @@
 
 package com.io7m.jspearmint.tests;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.io7m.jspearmint.api.SMInstruction;
+import com.io7m.jspearmint.api.SMInstructions;
 import com.io7m.jspearmint.disassembly.api.SMDisassemblerConfiguration;
+import com.io7m.jspearmint.disassembly.api.SMDisassemblerConfigurationType;
 import com.io7m.jspearmint.disassembly.api.SMDisassemblerProviderType;
+import com.io7m.jspearmint.parser.api.SMModule;
+import com.io7m.jspearmint.parser.api.SMParsedHeader;
+import com.io7m.jspearmint.parser.api.SMParsedInstruction;
 import com.io7m.jspearmint.parser.api.SMParserProviderType;
+import com.io7m.jspearmint.parser.api.SMParserSourceType;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -27,10 +37,15 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.io7m.jspearmint.tests.SMJSONTestDirectories.createTempDirectory;
+import static com.io7m.jspearmint.tests.SMJSONTestDirectories.resourceOf;
 import static com.io7m.jspearmint.tests.SMJSONTestDirectories.resourceStreamOf;
 import static java.nio.charset.StandardCharsets.*;
 
@@ -81,6 +96,785 @@ public abstract class SMDisassemblersContract
     }
   }
 
+  @Test
+  public void testExample0Module()
+    throws Exception
+  {
+    try (var stream = this.resource("clip_space_triangle.vert.spv")) {
+      try (var parser = this.parsers()
+        .create(URI.create("urn:unknown"), stream)) {
+        final var module = parser.parseModule();
+
+        final var byteOutput = new ByteArrayOutputStream();
+        try (var disassembler = this.disassemblers().create()) {
+          final var configuration =
+            SMDisassemblerConfiguration.builder()
+              .build();
+
+          disassembler.disassemble(
+            configuration,
+            module,
+            byteOutput
+          );
+        }
+
+        Assertions.assertEquals(
+          new String(byteOutput.toByteArray(), UTF_8),
+          new String(this.resource("clip_space_triangle.vert.txt").readAllBytes(), UTF_8)
+        );
+      }
+    }
+  }
+
+  /**
+   * Friendly identifiers name types and constants after their definitions.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testExample0Friendly()
+    throws Exception
+  {
+    try (var stream = this.resource("clip_space_triangle.vert.spv")) {
+      try (var parser = this.parsers()
+        .create(URI.create("urn:unknown"), stream)) {
+        final var module = parser.parseModule();
+
+        final var configuration =
+          SMDisassemblerConfiguration.builder()
+            .setIdentifiers(SMDisassemblerConfigurationType.Identifiers.FRIENDLY)
+            .build();
+
+        final var text =
+          new String(this.disassembleModule(configuration, module), UTF_8);
+
+        Assertions.assertTrue(
+          text.contains("OpTypePointer Output %v4float"), text);
+        Assertions.assertTrue(
+          text.contains("OpAccessChain %_ptr_Output_v4float %_ %int_0"), text);
+        Assertions.assertTrue(
+          text.contains("OpCompositeConstruct %v4float %19 %20 %float_0 %float_1"), text);
+        Assertions.assertTrue(
+          text.contains("OpFunction %void None %fn_void"), text);
+      }
+    }
+  }
+
+  /**
+   * Streaming disassembly from a buffer or a mapped file produces the same
+   * output as disassembly of a parsed module.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testExample0Streaming()
+    throws Exception
+  {
+    final var file =
+      resourceOf(SMDisassemblersContract.class, this.directory, "clip_space_triangle.vert.spv");
+    final var buffer =
+      ByteBuffer.wrap(Files.readAllBytes(file));
+
+    final var expected =
+      new String(this.resource("clip_space_triangle.vert.txt").readAllBytes(), UTF_8);
+
+    final var sources = List.of(
+      SMParserSourceType.ofPath(this.parsers(), file),
+      SMParserSourceType.ofByteBuffer(this.parsers(), file.toUri(), buffer)
+    );
+
+    for (final var source : sources) {
+      final var byteOutput = new ByteArrayOutputStream();
+      try (var disassembler = this.disassemblers().create()) {
+        disassembler.disassemble(
+          SMDisassemblerConfiguration.builder().build(),
+          source,
+          byteOutput
+        );
+      }
+      Assertions.assertEquals(expected, new String(byteOutput.toByteArray(), UTF_8));
+    }
+  }
+
+  /**
+   * A disassembler opened on a module produces the same lines for single
+   * functions, entry points, and byte ranges as a disassembly of the whole
+   * module.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testRandomAccess()
+    throws Exception
+  {
+    final var file =
+      resourceOf(SMDisassemblersContract.class, this.directory, "clip_space_triangle.vert.spv");
+
+    final SMModule module;
+    try (var parser = this.parsers().createFromPath(file)) {
+      module = parser.parseModule();
+    }
+
+    final var lines =
+      new String(this.resource("clip_space_triangle.vert.txt").readAllBytes(), UTF_8)
+        .lines()
+        .toList();
+
+    final var functionStart =
+      lines.stream()
+        .filter(line -> line.contains(" OpFunction "))
+        .findFirst()
+        .orElseThrow();
+    final var functionEnd =
+      lines.stream()
+        .filter(line -> line.endsWith(" OpFunctionEnd"))
+        .findFirst()
+        .orElseThrow();
+    final var expectedFunction =
+      lines.subList(lines.indexOf(functionStart), lines.indexOf(functionEnd) + 1);
+
+    try (var disassembler = this.disassemblers().create()) {
+      final var configuration =
+        SMDisassemblerConfiguration.builder()
+          .build();
+      final var opened =
+        disassembler.openModule(configuration, module);
+
+      Assertions.assertEquals(List.of(Long.valueOf(4L)), opened.functions());
+      Assertions.assertEquals(
+        Long.valueOf(4L),
+        opened.entryPoints().get("R3_clip_triangle_vert_main"));
+
+      final var function = new ByteArrayOutputStream();
+      opened.disassembleFunction(4L, function);
+      Assertions.assertEquals(
+        expectedFunction,
+        new String(function.toByteArray(), UTF_8).lines().toList());
+
+      final var entryPoint = new ByteArrayOutputStream();
+      opened.disassembleEntryPoint("R3_clip_triangle_vert_main", entryPoint);
+      Assertions.assertArrayEquals(function.toByteArray(), entryPoint.toByteArray());
+
+      final var exact = new ByteArrayOutputStream();
+      opened.disassembleRange(0x1cL, 0x34L, exact);
+      Assertions.assertEquals(
+        List.of(lines.get(7)),
+        new String(exact.toByteArray(), UTF_8).lines().toList());
+
+      final var overlapping = new ByteArrayOutputStream();
+      opened.disassembleRange(0x1dL, 0x35L, overlapping);
+      Assertions.assertEquals(
+        lines.subList(7, 9),
+        new String(overlapping.toByteArray(), UTF_8).lines().toList());
+
+      final var header = new ByteArrayOutputStream();
+      opened.disassembleRange(0L, 0x14L, header);
+      Assertions.assertEquals(0, header.size());
+
+      final var all = new ByteArrayOutputStream();
+      opened.disassembleRange(0L, Long.MAX_VALUE, all);
+      Assertions.assertEquals(
+        lines.subList(6, lines.size()),
+        new String(all.toByteArray(), UTF_8).lines().toList());
+
+      Assertions.assertThrows(IllegalArgumentException.class, () -> {
+        opened.disassembleFunction(5L, new ByteArrayOutputStream());
+      });
+      Assertions.assertThrows(IllegalArgumentException.class, () -> {
+        opened.disassembleEntryPoint("nonexistent", new ByteArrayOutputStream());
+      });
+      Assertions.assertThrows(IllegalArgumentException.class, () -> {
+        opened.disassembleRange(0x34L, 0x1cL, new ByteArrayOutputStream());
+      });
+
+      final var jsonFunction = new ByteArrayOutputStream();
+      disassembler.openModule(
+          SMDisassemblerConfiguration.builder()
+            .setFormat(SMDisassemblerConfigurationType.Format.JSON)
+            .build(),
+          module)
+        .disassembleFunction(4L, jsonFunction);
+
+      final var records =
+        readRecords(new ObjectMapper(), jsonFunction.toByteArray());
+      Assertions.assertEquals(expectedFunction.size(), records.size());
+      Assertions.assertEquals("OpFunction", records.get(0).get("opcode").asText());
+      Assertions.assertEquals(
+        "OpFunctionEnd",
+        records.get(records.size() - 1).get("opcode").asText());
+    }
+  }
+
+  /**
+   * Random access requests flush, but never close, the caller's stream.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testRandomAccessStreamOwnership()
+    throws Exception
+  {
+    final var file =
+      resourceOf(SMDisassemblersContract.class, this.directory, "clip_space_triangle.vert.spv");
+
+    final SMModule module;
+    try (var parser = this.parsers().createFromPath(file)) {
+      module = parser.parseModule();
+    }
+
+    try (var disassembler = this.disassemblers().create()) {
+      final var single = new ByteArrayOutputStream();
+      disassembler.openModule(SMDisassemblerConfiguration.builder().build(), module)
+        .disassembleFunction(4L, single);
+
+      final var text = new UncloseableOutputStream();
+      final var opened =
+        disassembler.openModule(SMDisassemblerConfiguration.builder().build(), module);
+      opened.disassembleFunction(4L, text);
+      opened.disassembleEntryPoint("R3_clip_triangle_vert_main", text);
+
+      final var expected = new ByteArrayOutputStream();
+      expected.write(single.toByteArray());
+      expected.write(single.toByteArray());
+      Assertions.assertArrayEquals(expected.toByteArray(), text.toByteArray());
+
+      final var json = new UncloseableOutputStream();
+      final var openedJSON =
+        disassembler.openModule(
+          SMDisassemblerConfiguration.builder()
+            .setFormat(SMDisassemblerConfigurationType.Format.JSON)
+            .build(),
+          module);
+      openedJSON.disassembleFunction(4L, json);
+      openedJSON.disassembleFunction(4L, json);
+
+      final var records = readRecords(new ObjectMapper(), json.toByteArray());
+      Assertions.assertEquals(
+        (int) single.toString(UTF_8).lines().count() * 2,
+        records.size());
+    }
+  }
+
+  /**
+   * Whole-module disassembly flushes, but never closes, the caller's stream.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testModuleStreamOwnership()
+    throws Exception
+  {
+    final var file =
+      resourceOf(SMDisassemblersContract.class, this.directory, "clip_space_triangle.vert.spv");
+
+    final SMModule module;
+    try (var parser = this.parsers().createFromPath(file)) {
+      module = parser.parseModule();
+    }
+
+    final var expected =
+      new String(this.resource("clip_space_triangle.vert.txt").readAllBytes(), UTF_8);
+
+    try (var disassembler = this.disassemblers().create()) {
+      final var text = new UncloseableOutputStream();
+      disassembler.disassemble(SMDisassemblerConfiguration.builder().build(), module, text);
+      disassembler.disassemble(SMDisassemblerConfiguration.builder().build(), module, text);
+      Assertions.assertEquals(expected + expected, text.toString(UTF_8));
+
+      final var json = new UncloseableOutputStream();
+      disassembler.disassemble(
+        SMDisassemblerConfiguration.builder()
+          .setFormat(SMDisassemblerConfigurationType.Format.JSON)
+          .build(),
+        module,
+        json);
+      Assertions.assertFalse(
+        readRecords(new ObjectMapper(), json.toByteArray()).isEmpty());
+    }
+  }
+
+  /**
+   * An output stream that may not be closed.
+   */
+
+  private static final class UncloseableOutputStream
+    extends ByteArrayOutputStream
+  {
+    UncloseableOutputStream()
+    {
+
+    }
+
+    @Override
+    public void close()
+    {
+      throw new IllegalStateException("The stream must not be closed");
+    }
+  }
+
+  /**
+   * Structured output contains a header record followed by one record per
+   * instruction, and is identical in JSON and CBOR form.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testStructured()
+    throws Exception
+  {
+    final var file =
+      resourceOf(SMDisassemblersContract.class, this.directory, "clip_space_triangle.vert.spv");
+
+    final SMModule module;
+    try (var parser = this.parsers().createFromPath(file)) {
+      module = parser.parseModule();
+    }
+
+    final var jsonConfiguration =
+      SMDisassemblerConfiguration.builder()
+        .setFormat(SMDisassemblerConfigurationType.Format.JSON)
+        .build();
+    final var cborConfiguration =
+      SMDisassemblerConfiguration.builder()
+        .setFormat(SMDisassemblerConfigurationType.Format.CBOR)
+        .build();
+
+    final var jsonRecords =
+      readRecords(new ObjectMapper(), this.disassembleModule(jsonConfiguration, module));
+    final var cborRecords =
+      readRecords(new ObjectMapper(new CBORFactory()), this.disassembleModule(cborConfiguration, module));
+
+    /*
+     * The formats decode numbers into different node types, so the records
+     * are compared by their textual form.
+     */
+
+    Assertions.assertEquals(jsonRecords.toString(), cborRecords.toString());
+    Assertions.assertEquals(module.instructionCount() + 1, jsonRecords.size());
+
+    final var header = jsonRecords.get(0);
+    Assertions.assertEquals("header", header.get("record").asText());
+    Assertions.assertEquals(module.header().idBound(), header.get("bound").asLong());
+
+    for (var index = 0; index < module.instructionCount(); ++index) {
+      final var record = jsonRecords.get(index + 1);
+      Assertions.assertEquals("instruction", record.get("record").asText());
+      Assertions.assertEquals(module.byteOffset(index), record.get("offset").asLong());
+      Assertions.assertEquals(
+        SMInstructions.byOpCodeOrNull(module.opCode(index)).spirName(),
+        record.get("opcode").asText());
+    }
+
+    final var named =
+      jsonRecords.stream()
+        .filter(r -> "OpVariable".equals(r.path("opcode").asText()))
+        .filter(r -> "attrPosition".equals(r.path("name").asText()))
+        .findFirst()
+        .orElseThrow();
+
+    final var resultId = named.get("resultId").asLong();
+    final var nameRecord =
+      jsonRecords.stream()
+        .filter(r -> "OpName".equals(r.path("opcode").asText()))
+        .filter(r -> r.get("operands").get(0).get("id").asLong() == resultId)
+        .findFirst()
+        .orElseThrow();
+
+    final var operands = nameRecord.get("operands");
+    Assertions.assertEquals("IdRef", operands.get(0).get("kind").asText());
+    Assertions.assertEquals("attrPosition", operands.get(0).get("name").asText());
+    Assertions.assertEquals("LiteralString", operands.get(1).get("kind").asText());
+    Assertions.assertEquals("attrPosition", operands.get(1).get("value").asText());
+
+    final var streamed = new ByteArrayOutputStream();
+    try (var disassembler = this.disassemblers().create()) {
+      disassembler.disassemble(
+        jsonConfiguration,
+        SMParserSourceType.ofPath(this.parsers(), file),
+        streamed
+      );
+    }
+    Assertions.assertEquals(
+      jsonRecords,
+      readRecords(new ObjectMapper(), streamed.toByteArray()));
+  }
+
+  /**
+   * Output larger than any internal buffer is written completely and in
+   * order.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testLargeOutput()
+    throws Exception
+  {
+    try (var stream = this.resource("clip_space_triangle.vert.spv")) {
+      try (var parser = this.parsers()
+        .create(URI.create("urn:unknown"), stream)) {
+        final var header = parser.header();
+        final var instructions = parser.parseAllInstructions();
+
+        /*
+         * Names may only be defined once, so only the first copy of the
+         * instructions contains OpName instructions.
+         */
+
+        final var repeats = 500;
+        final var repeated = new ArrayList<SMParsedInstruction>(instructions);
+        for (int index = 1; index < repeats; ++index) {
+          for (final var instruction : instructions) {
+            if (instruction.opCode() != SMInstruction.SM_OP_NAME.value()) {
+              repeated.add(instruction);
+            }
+          }
+        }
+
+        final var byteOutput = new ByteArrayOutputStream();
+        try (var disassembler = this.disassemblers().create()) {
+          disassembler.disassemble(
+            SMDisassemblerConfiguration.builder().build(),
+            header,
+            repeated,
+            byteOutput
+          );
+        }
+
+        final var expected =
+          new String(this.resource("clip_space_triangle.vert.txt").readAllBytes(), UTF_8);
+        final var separator = System.lineSeparator();
+        final var bodyStart =
+          expected.indexOf(separator + separator) + 2 * separator.length();
+
+        final var unnamedBody = new StringBuilder(expected.length());
+        for (final var line : expected.substring(bodyStart).split(separator)) {
+          if (!line.contains(" OpName ")) {
+            unnamedBody.append(line);
+            unnamedBody.append(separator);
+          }
+        }
+
+        final var expectedText = new StringBuilder(expected.length() * repeats);
+        expectedText.append(expected);
+        for (int index = 1; index < repeats; ++index) {
+          expectedText.append(unnamedBody);
+        }
+
+        Assertions.assertEquals(
+          expectedText.toString(),
+          new String(byteOutput.toByteArray(), UTF_8)
+        );
+      }
+    }
+  }
+
+  /**
+   * Parallel disassembly produces output identical to sequential
+   * disassembly.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testParallelIdentical()
+    throws Exception
+  {
+    try (var stream = this.resource("clip_space_triangle.vert.spv")) {
+      try (var parser = this.parsers()
+        .create(URI.create("urn:unknown"), stream)) {
+        final var header = parser.header();
+        final var instructions = parser.parseAllInstructions();
+
+        final var repeated = new ArrayList<SMParsedInstruction>(instructions);
+        for (int index = 1; index < 100; ++index) {
+          for (final var instruction : instructions) {
+            if (instruction.opCode() != SMInstruction.SM_OP_NAME.value()) {
+              repeated.add(instruction);
+            }
+          }
+        }
+
+        final var expected =
+          this.disassembleWith(
+            SMDisassemblerConfiguration.builder().build(),
+            header,
+            repeated);
+
+        for (final var parallelism : List.of(2, 3, 8)) {
+          for (final var chunkSize : List.of(1, 7, 64, 1000, 100000)) {
+            final var configuration =
+              SMDisassemblerConfiguration.builder()
+                .setParallelism(parallelism.intValue())
+                .setChunkSize(chunkSize.intValue())
+                .build();
+
+            Assertions.assertEquals(
+              expected,
+              this.disassembleWith(configuration, header, repeated),
+              configuration.toString()
+            );
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Invalid parallelism settings are rejected.
+   */
+
+  @Test
+  public void testParallelInvalid()
+  {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> {
+      SMDisassemblerConfiguration.builder()
+        .setParallelism(0)
+        .build();
+    });
+    Assertions.assertThrows(IllegalArgumentException.class, () -> {
+      SMDisassemblerConfiguration.builder()
+        .setChunkSize(0)
+        .build();
+    });
+  }
+
+  /**
+   * A module declaring 16-bit and 64-bit scalar types and constants of those
+   * types.
+   */
+
+  private static List<SMParsedInstruction> wideConstants()
+  {
+    final var instructions = new ArrayList<SMParsedInstruction>();
+    instructions.add(instruction(SMInstruction.SM_OP_TYPE_FLOAT, 1, 64));
+    instructions.add(instruction(SMInstruction.SM_OP_TYPE_INT, 2, 64, 0));
+    instructions.add(instruction(SMInstruction.SM_OP_TYPE_FLOAT, 3, 16));
+    instructions.add(instruction(SMInstruction.SM_OP_CONSTANT, 1, 4, 0, 0x3ff8_0000));
+    instructions.add(instruction(SMInstruction.SM_OP_SPEC_CONSTANT, 2, 5, 2, 1));
+    instructions.add(instruction(SMInstruction.SM_OP_CONSTANT, 3, 6, 0x3c00));
+    return instructions;
+  }
+
+  private static SMParsedInstruction instruction(
+    final SMInstruction instruction,
+    final int... operands)
+  {
+    return SMParsedInstruction.ofOperandWords(
+      0L,
+      instruction.value(),
+      operands.length + 1L,
+      operands
+    );
+  }
+
+  private static SMParsedHeader wideConstantsHeader()
+  {
+    return SMParsedHeader.builder()
+      .setGeneratorMagicNumber(0L)
+      .setIdBound(7L)
+      .setRawVersionNumber(0x10300L)
+      .setSchema(0L)
+      .build();
+  }
+
+  /**
+   * Literals of 64-bit types occupy two words, and literals of 16-bit types
+   * occupy the low bits of one word.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testWideConstantsText()
+    throws Exception
+  {
+    final var text =
+      this.disassembleWith(
+        SMDisassemblerConfiguration.builder().build(),
+        wideConstantsHeader(),
+        wideConstants());
+
+    final var lines = text.lines().toList();
+    Assertions.assertTrue(
+      lines.stream().anyMatch(line -> line.endsWith("OpConstant %1 $1.5")),
+      text);
+    Assertions.assertTrue(
+      lines.stream().anyMatch(line -> line.endsWith("OpSpecConstant %2 $4294967298")),
+      text);
+    Assertions.assertTrue(
+      lines.stream().anyMatch(line -> line.endsWith("OpConstant %3 $1.0")),
+      text);
+  }
+
+  /**
+   * Literals of 64-bit types occupy two words, and literals of 16-bit types
+   * occupy the low bits of one word.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testWideConstantsJSON()
+    throws Exception
+  {
+    final var output = new ByteArrayOutputStream();
+    try (var disassembler = this.disassemblers().create()) {
+      disassembler.disassemble(
+        SMDisassemblerConfiguration.builder()
+          .setFormat(SMDisassemblerConfigurationType.Format.JSON)
+          .build(),
+        wideConstantsHeader(),
+        wideConstants(),
+        output
+      );
+    }
+
+    final var records =
+      readRecords(new ObjectMapper(), output.toByteArray());
+
+    final var double0 = records.get(4).get("operands");
+    Assertions.assertEquals(2, double0.size(), double0.toString());
+    Assertions.assertEquals(1.5, double0.get(1).get("value").asDouble());
+
+    final var long0 = records.get(5).get("operands");
+    Assertions.assertEquals(2, long0.size(), long0.toString());
+    Assertions.assertEquals(4294967298L, long0.get(1).get("value").asLong());
+
+    final var half0 = records.get(6).get("operands");
+    Assertions.assertEquals(2, half0.size(), half0.toString());
+    Assertions.assertEquals(1.0, half0.get(1).get("value").asDouble());
+  }
+
+  /**
+   * A module declaring signed and unsigned integer types and negative
+   * constants of those types.
+   */
+
+  private static List<SMParsedInstruction> signedConstants()
+  {
+    final var instructions = new ArrayList<SMParsedInstruction>();
+    instructions.add(instruction(SMInstruction.SM_OP_TYPE_INT, 1, 32, 1));
+    instructions.add(instruction(SMInstruction.SM_OP_TYPE_INT, 2, 64, 1));
+    instructions.add(instruction(SMInstruction.SM_OP_TYPE_INT, 3, 64, 0));
+    instructions.add(instruction(SMInstruction.SM_OP_CONSTANT, 1, 4, -1));
+    instructions.add(instruction(SMInstruction.SM_OP_CONSTANT, 2, 5, -2, -1));
+    instructions.add(instruction(SMInstruction.SM_OP_CONSTANT, 3, 6, 0, 0x8000_0000));
+    return instructions;
+  }
+
+  /**
+   * Constants of signed integer types are sign-extended, and constants of
+   * unsigned integer types are not.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testSignedConstantsText()
+    throws Exception
+  {
+    final var text =
+      this.disassembleWith(
+        SMDisassemblerConfiguration.builder().build(),
+        wideConstantsHeader(),
+        signedConstants());
+
+    final var lines = text.lines().toList();
+    Assertions.assertTrue(
+      lines.stream().anyMatch(line -> line.endsWith("OpConstant %1 $-1")),
+      text);
+    Assertions.assertTrue(
+      lines.stream().anyMatch(line -> line.endsWith("OpConstant %2 $-2")),
+      text);
+    Assertions.assertTrue(
+      lines.stream().anyMatch(line -> line.endsWith("OpConstant %3 $9223372036854775808")),
+      text);
+  }
+
+  /**
+   * Constants of signed integer types are sign-extended, and constants of
+   * unsigned integer types are not.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testSignedConstantsJSON()
+    throws Exception
+  {
+    final var output = new ByteArrayOutputStream();
+    try (var disassembler = this.disassemblers().create()) {
+      disassembler.disassemble(
+        SMDisassemblerConfiguration.builder()
+          .setFormat(SMDisassemblerConfigurationType.Format.JSON)
+          .build(),
+        wideConstantsHeader(),
+        signedConstants(),
+        output
+      );
+    }
+
+    final var records =
+      readRecords(new ObjectMapper(), output.toByteArray());
+
+    final var int0 = records.get(4).get("operands").get(1).get("value");
+    Assertions.assertTrue(int0.canConvertToLong(), int0.toString());
+    Assertions.assertEquals(-1L, int0.asLong());
+
+    final var long0 = records.get(5).get("operands").get(1).get("value");
+    Assertions.assertEquals(-2L, long0.asLong());
+
+    final var ulong0 = records.get(6).get("operands").get(1).get("value");
+    Assertions.assertEquals("9223372036854775808", ulong0.asText());
+  }
+
+  private String disassembleWith(
+    final SMDisassemblerConfiguration configuration,
+    final SMParsedHeader header,
+    final List<SMParsedInstruction> instructions)
+    throws IOException
+  {
+    final var byteOutput = new ByteArrayOutputStream();
+    try (var disassembler = this.disassemblers().create()) {
+      disassembler.disassemble(
+        configuration,
+        header,
+        instructions,
+        byteOutput
+      );
+    }
+    return new String(byteOutput.toByteArray(), UTF_8);
+  }
+
+  private byte[] disassembleModule(
+    final SMDisassemblerConfiguration configuration,
+    final SMModule module)
+    throws IOException
+  {
+    final var byteOutput = new ByteArrayOutputStream();
+    try (var disassembler = this.disassemblers().create()) {
+      disassembler.disassemble(configuration, module, byteOutput);
+    }
+    return byteOutput.toByteArray();
+  }
+
+  private static List<JsonNode> readRecords(
+    final ObjectMapper mapper,
+    final byte[] data)
+    throws IOException
+  {
+    try (var iterator = mapper.readerFor(JsonNode.class).<JsonNode>readValues(data)) {
+      return iterator.readAll();
+    }
+  }
+
   private InputStream resource(final String name)
     throws IOException
   {
@@ -0,0 +1,252 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.tests;
+
+import com.io7m.jspearmint.api.SMDecoration;
+import com.io7m.jspearmint.api.SMFunctionControl;
+import com.io7m.jspearmint.api.SMImageOperands;
+import com.io7m.jspearmint.api.SMMemoryAccess;
+import com.io7m.jspearmint.api.SMOperand;
+import com.io7m.jspearmint.api.SMOperandKind;
+import com.io7m.jspearmint.api.SMOperandKindCategory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public final class SMEnumLookupTest
+{
+  /**
+   * Value lookups agree with a scan over the declared values, where the
+   * first declared enumerant with a given value wins.
+   */
+
+  @Test
+  public void testOfIntegerFirstWins()
+  {
+    final var expected = new HashMap<Integer, SMMemoryAccess>();
+    for (final var access : SMMemoryAccess.values()) {
+      expected.putIfAbsent(Integer.valueOf(access.value()), access);
+    }
+
+    for (final var access : SMMemoryAccess.values()) {
+      Assertions.assertEquals(
+        expected.get(Integer.valueOf(access.value())),
+        SMMemoryAccess.ofInteger(access.value())
+      );
+    }
+
+    Assertions.assertEquals(
+      SMMemoryAccess.SM_MAKE_POINTER_AVAILABLE,
+      SMMemoryAccess.ofInteger(0x8)
+    );
+  }
+
+  /**
+   * Unknown values are rejected.
+   */
+
+  @Test
+  public void testOfIntegerUnknown()
+  {
+    Assertions.assertThrows(
+      IllegalArgumentException.class,
+      () -> SMDecoration.ofInteger(-1));
+    Assertions.assertThrows(
+      IllegalArgumentException.class,
+      () -> SMDecoration.ofInteger(Integer.MAX_VALUE));
+  }
+
+  /**
+   * Masks decompose into their single-bit enumerants.
+   */
+
+  @Test
+  public void testOfMask()
+  {
+    Assertions.assertEquals(
+      EnumSet.of(SMMemoryAccess.SM_VOLATILE, SMMemoryAccess.SM_ALIGNED),
+      SMMemoryAccess.ofMask(0x3L)
+    );
+    Assertions.assertEquals(
+      EnumSet.of(SMMemoryAccess.SM_MAKE_POINTER_AVAILABLE),
+      SMMemoryAccess.ofMask(0x8L)
+    );
+    Assertions.assertEquals(
+      EnumSet.of(SMFunctionControl.SM_INLINE, SMFunctionControl.SM_CONST),
+      SMFunctionControl.ofMask(0x9L)
+    );
+  }
+
+  /**
+   * A zero mask yields the zero-valued enumerant.
+   */
+
+  @Test
+  public void testOfMaskZero()
+  {
+    Assertions.assertEquals(
+      EnumSet.of(SMMemoryAccess.SM_NONE),
+      SMMemoryAccess.ofMask(0L)
+    );
+    Assertions.assertEquals(
+      EnumSet.of(SMImageOperands.SM_NONE),
+      SMImageOperands.ofMask(0L)
+    );
+  }
+
+  /**
+   * Every single-bit enumerant round-trips through a mask.
+   */
+
+  @Test
+  public void testOfMaskSingleBits()
+  {
+    for (final var operand : SMImageOperands.values()) {
+      final var value = operand.value();
+      if (Integer.bitCount(value) == 1) {
+        final var decoded = SMImageOperands.ofMask(value);
+        Assertions.assertEquals(1, decoded.size());
+        Assertions.assertEquals(
+          value,
+          decoded.iterator().next().value()
+        );
+      }
+    }
+  }
+
+  /**
+   * Masks with unknown bits are rejected.
+   */
+
+  @Test
+  public void testOfMaskUnknown()
+  {
+    Assertions.assertThrows(
+      IllegalArgumentException.class,
+      () -> SMMemoryAccess.ofMask(0x8000_0000L));
+    Assertions.assertThrows(
+      IllegalArgumentException.class,
+      () -> SMMemoryAccess.ofMask(0x1_0000_0001L));
+    Assertions.assertThrows(
+      IllegalArgumentException.class,
+      () -> SMMemoryAccess.ofMask(-1L));
+  }
+
+  /**
+   * Operand kinds expose the categories, composite bases, and enumerant
+   * parameters declared in the grammar.
+   */
+
+  @Test
+  public void testOperandKindMetadata()
+  {
+    Assertions.assertEquals(
+      SMOperandKindCategory.SM_VALUE_ENUM,
+      SMOperandKind.SM_DECORATION.category());
+    Assertions.assertEquals(
+      SMOperandKindCategory.SM_BIT_ENUM,
+      SMOperandKind.SM_MEMORY_ACCESS.category());
+    Assertions.assertEquals(
+      SMOperandKindCategory.SM_ID,
+      SMOperandKind.SM_ID_REF.category());
+    Assertions.assertEquals(
+      SMOperandKindCategory.SM_LITERAL,
+      SMOperandKind.SM_LITERAL_STRING.category());
+    Assertions.assertEquals(
+      SMOperandKindCategory.SM_COMPOSITE,
+      SMOperandKind.SM_PAIR_LITERAL_INTEGER_ID_REF.category());
+
+    Assertions.assertEquals(
+      List.of(SMOperandKind.SM_LITERAL_INTEGER, SMOperandKind.SM_ID_REF),
+      SMOperandKind.SM_PAIR_LITERAL_INTEGER_ID_REF.bases());
+    Assertions.assertEquals(List.of(), SMOperandKind.SM_ID_REF.bases());
+
+    Assertions.assertEquals(
+      List.of(SMOperandKind.SM_BUILT_IN),
+      SMDecoration.SM_BUILT_IN.parameters()
+        .stream()
+        .map(SMOperand::kind)
+        .collect(Collectors.toList()));
+    Assertions.assertEquals(
+      List.of(SMOperandKind.SM_LITERAL_INTEGER),
+      SMMemoryAccess.SM_ALIGNED.parameters()
+        .stream()
+        .map(SMOperand::kind)
+        .collect(Collectors.toList()));
+    Assertions.assertEquals(List.of(), SMMemoryAccess.SM_VOLATILE.parameters());
+  }
+
+  /**
+   * Enumerants can be found through their operand kinds.
+   */
+
+  @Test
+  public void testOperandKindEnumerants()
+  {
+    Assertions.assertEquals(
+      SMDecoration.SM_BUILT_IN,
+      SMOperandKind.SM_DECORATION.valueEnumerant(SMDecoration.SM_BUILT_IN.value()));
+    Assertions.assertEquals(
+      EnumSet.of(SMMemoryAccess.SM_VOLATILE, SMMemoryAccess.SM_ALIGNED),
+      SMOperandKind.SM_MEMORY_ACCESS.bitEnumerants(
+        SMMemoryAccess.SM_VOLATILE.value() | SMMemoryAccess.SM_ALIGNED.value()));
+
+    Assertions.assertThrows(
+      UnsupportedOperationException.class,
+      () -> SMOperandKind.SM_MEMORY_ACCESS.valueEnumerant(0));
+    Assertions.assertThrows(
+      UnsupportedOperationException.class,
+      () -> SMOperandKind.SM_DECORATION.bitEnumerants(0L));
+    Assertions.assertThrows(
+      IllegalArgumentException.class,
+      () -> SMOperandKind.SM_DECORATION.valueEnumerant(0x7fff_fff0));
+  }
+
+  /**
+   * Unknown values and masks yield null from the non-throwing lookups.
+   */
+
+  @Test
+  public void testOrNullUnknown()
+  {
+    Assertions.assertNull(SMDecoration.ofIntegerOrNull(-1));
+    Assertions.assertEquals(
+      SMDecoration.SM_BUILT_IN,
+      SMDecoration.ofIntegerOrNull(SMDecoration.SM_BUILT_IN.value()));
+
+    Assertions.assertNull(SMMemoryAccess.ofMaskOrNull(0x8000_0000L));
+    Assertions.assertNull(SMMemoryAccess.ofMaskOrNull(0x1_0000_0001L));
+    Assertions.assertEquals(
+      EnumSet.of(SMMemoryAccess.SM_VOLATILE),
+      SMMemoryAccess.ofMaskOrNull(0x1L));
+
+    Assertions.assertNull(
+      SMOperandKind.SM_DECORATION.valueEnumerantOrNull(0x7fff_fff0));
+    Assertions.assertNull(
+      SMOperandKind.SM_MEMORY_ACCESS.bitEnumerantsOrNull(0x8000_0000L));
+    Assertions.assertThrows(
+      UnsupportedOperationException.class,
+      () -> SMOperandKind.SM_MEMORY_ACCESS.valueEnumerantOrNull(0));
+    Assertions.assertThrows(
+      UnsupportedOperationException.class,
+      () -> SMOperandKind.SM_DECORATION.bitEnumerantsOrNull(0L));
+  }
+}
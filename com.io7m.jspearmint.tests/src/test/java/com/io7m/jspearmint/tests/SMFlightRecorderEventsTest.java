@@ -0,0 +1,189 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.tests;
+
+import com.io7m.jbssio.vanilla.BSSReaders;
+import com.io7m.jspearmint.analysis.SMModuleAnalysis;
+import com.io7m.jspearmint.disassembly.api.SMDisassemblerConfiguration;
+import com.io7m.jspearmint.disassembly.vanilla.SMDisassemblers;
+import com.io7m.jspearmint.parser.vanilla.SMParsers;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.io7m.jspearmint.tests.SMJSONTestDirectories.createTempDirectory;
+import static com.io7m.jspearmint.tests.SMJSONTestDirectories.resourceOf;
+
+public final class SMFlightRecorderEventsTest
+{
+  private Path directory;
+  private SMParsers parsers;
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.directory = createTempDirectory();
+    this.parsers = new SMParsers(new BSSReaders());
+  }
+
+  private static RecordedEvent single(
+    final List<RecordedEvent> events,
+    final String name)
+  {
+    final var matching =
+      events.stream()
+        .filter(e -> e.getEventType().getName().equals(name))
+        .toList();
+    Assertions.assertEquals(1, matching.size(), name);
+    return matching.get(0);
+  }
+
+  /**
+   * Parsing, analysis, and disassembly emit JFR events when enabled.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testEvents()
+    throws Exception
+  {
+    final var file =
+      resourceOf(
+        SMFlightRecorderEventsTest.class,
+        this.directory,
+        "clip_space_triangle.vert.spv");
+    final var output = new ByteArrayOutputStream();
+    final var recordingFile = this.directory.resolve("events.jfr");
+
+    try (var recording = new Recording()) {
+      recording.enable("com.io7m.jspearmint.ParseModule");
+      recording.enable("com.io7m.jspearmint.Analysis");
+      recording.enable("com.io7m.jspearmint.Analyzer");
+      recording.enable("com.io7m.jspearmint.Disassemble");
+      recording.start();
+
+      try (var parser = this.parsers.createFromPath(file)) {
+        final var module = parser.parseModule();
+        SMModuleAnalysis.builder()
+          .withIdentifiers()
+          .withTypes()
+          .analyze(module);
+
+        try (var disassembler = new SMDisassemblers().create()) {
+          disassembler.disassemble(
+            SMDisassemblerConfiguration.builder().build(),
+            module,
+            output
+          );
+        }
+      }
+
+      recording.stop();
+      recording.dump(recordingFile);
+    }
+
+    final var events = RecordingFile.readAllEvents(recordingFile);
+
+    final var parse = single(events, "com.io7m.jspearmint.ParseModule");
+    Assertions.assertEquals(57L, parse.getLong("instructions"));
+    Assertions.assertEquals(file.toUri().toString(), parse.getString("uri"));
+    Assertions.assertEquals(992L - 20L, parse.getLong("bytes"));
+
+    final var analyses =
+      events.stream()
+        .filter(e -> e.getEventType().getName().equals("com.io7m.jspearmint.Analysis"))
+        .toList();
+    Assertions.assertEquals(2, analyses.size());
+    for (final var analysis : analyses) {
+      Assertions.assertEquals(57L, analysis.getLong("instructions"));
+    }
+    Assertions.assertTrue(
+      analyses.stream()
+        .map(e -> e.getString("analyzers"))
+        .anyMatch(a -> a.contains("SMIdentifiers") && a.contains("SMTypes")));
+
+    Assertions.assertTrue(
+      events.stream()
+        .filter(e -> e.getEventType().getName().equals("com.io7m.jspearmint.Analyzer"))
+        .count() >= 2L);
+
+    final var disassemble = single(events, "com.io7m.jspearmint.Disassemble");
+    Assertions.assertEquals("TEXT", disassemble.getString("format"));
+    Assertions.assertEquals(
+      (long) output.size(),
+      disassemble.getLong("bytesWritten"));
+  }
+
+  /**
+   * Parsing into a list of instructions emits a parse event for both the
+   * stream and buffer parsers.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testEventsParseAllInstructions()
+    throws Exception
+  {
+    final var file =
+      resourceOf(
+        SMFlightRecorderEventsTest.class,
+        this.directory,
+        "clip_space_triangle.vert.spv");
+    final var recordingFile = this.directory.resolve("events.jfr");
+
+    try (var recording = new Recording()) {
+      recording.enable("com.io7m.jspearmint.ParseModule");
+      recording.start();
+
+      try (var stream = Files.newInputStream(file)) {
+        try (var parser = this.parsers.create(file.toUri(), stream)) {
+          Assertions.assertEquals(57, parser.parseAllInstructions().size());
+        }
+      }
+      try (var parser = this.parsers.createFromPath(file)) {
+        Assertions.assertEquals(57, parser.parseAllInstructions().size());
+      }
+
+      recording.stop();
+      recording.dump(recordingFile);
+    }
+
+    final var parses =
+      RecordingFile.readAllEvents(recordingFile)
+        .stream()
+        .filter(e -> e.getEventType().getName().equals("com.io7m.jspearmint.ParseModule"))
+        .toList();
+
+    Assertions.assertEquals(2, parses.size());
+    for (final var parse : parses) {
+      Assertions.assertEquals(57L, parse.getLong("instructions"));
+      Assertions.assertEquals(992L - 20L, parse.getLong("bytes"));
+      Assertions.assertEquals(file.toUri().toString(), parse.getString("uri"));
+    }
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.jspearmint.tests;
+
+import com.io7m.jbssio.vanilla.BSSReaders;
+import com.io7m.jspearmint.parser.api.SMInstructionVisitorType;
+import com.io7m.jspearmint.parser.api.SMParseException;
+import com.io7m.jspearmint.parser.api.SMParsedInstruction;
+import com.io7m.jspearmint.parser.api.SMParserType;
+import com.io7m.jspearmint.parser.vanilla.SMParsers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.io7m.jspearmint.tests.SMJSONTestDirectories.createTempDirectory;
+import static com.io7m.jspearmint.tests.SMJSONTestDirectories.resourceOf;
+
+public final class SMInstructionVisitorTest
+{
+  private Path directory;
+  private SMParsers parsers;
+
+  @BeforeEach
+  public void setup()
+    throws IOException
+  {
+    this.directory = createTempDirectory();
+    this.parsers = new SMParsers(new BSSReaders());
+  }
+
+  /**
+   * Visiting instructions produces exactly the instructions that would be
+   * parsed individually.
+   *
+   * @return The tests
+   */
+
+  @TestFactory
+  public Stream<DynamicTest> testVisitorMatchesInstructions()
+  {
+    return Stream.of(
+      "clip_space_triangle.vert.spv",
+      "clip_space_triangle.vert_big.spv"
+    ).flatMap(name -> Stream.of(
+      DynamicTest.dynamicTest(
+        "testVisitorMatchesInstructionsStream_" + name,
+        () -> this.checkVisitorMatchesInstructions(name, false)),
+      DynamicTest.dynamicTest(
+        "testVisitorMatchesInstructionsMapped_" + name,
+        () -> this.checkVisitorMatchesInstructions(name, true))
+    ));
+  }
+
+  private SMParserType open(
+    final Path file,
+    final boolean mapped)
+    throws Exception
+  {
+    if (mapped) {
+      return this.parsers.createFromPath(file);
+    }
+    return this.parsers.create(file.toUri(), Files.newInputStream(file));
+  }
+
+  private void checkVisitorMatchesInstructions(
+    final String name,
+    final boolean mapped)
+    throws Exception
+  {
+    final var file = this.resource(name);
+
+    final List<SMParsedInstruction> expected;
+    try (var parser = this.open(file, mapped)) {
+      expected = parser.parseAllInstructions();
+    }
+
+    final var received = new ArrayList<SMParsedInstruction>();
+    final var buffers = new ArrayList<int[]>();
+    try (var parser = this.open(file, mapped)) {
+      parser.visitAllInstructions((opCode, wordCount, byteOffset, words, start) -> {
+        Assertions.assertEquals(opCode, words[start] & 0xffff);
+        Assertions.assertEquals(wordCount, words[start] >>> 16);
+
+        final var builder =
+          SMParsedInstruction.builder()
+            .setOpCode(opCode)
+            .setWordCount(wordCount)
+            .setByteOffset(byteOffset);
+
+        for (var index = 1; index < wordCount; ++index) {
+          builder.addOperands(Integer.toUnsignedLong(words[start + index]));
+        }
+        received.add(builder.build());
+        if (buffers.stream().noneMatch(b -> b == words)) {
+          buffers.add(words);
+        }
+      });
+    }
+
+    Assertions.assertEquals(expected, received);
+    Assertions.assertTrue(
+      buffers.size() < 4,
+      "Buffers must be reused across instructions");
+  }
+
+  /**
+   * Visiting a module produces exactly the instructions in the module.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testModuleVisitor()
+    throws Exception
+  {
+    final var file = this.resource("clip_space_triangle.vert.spv");
+
+    try (var parser = this.parsers.createFromPath(file)) {
+      final var module = parser.parseModule();
+      final var count = new int[1];
+
+      final SMInstructionVisitorType visitor =
+        (opCode, wordCount, byteOffset, words, start) -> {
+          final var index = count[0];
+          Assertions.assertEquals(module.opCode(index), opCode);
+          Assertions.assertEquals(module.wordCount(index), wordCount);
+          Assertions.assertEquals(module.byteOffset(index), byteOffset);
+          for (var operand = 0; operand < module.operandCount(index); ++operand) {
+            Assertions.assertEquals(
+              module.operand(index, operand),
+              Integer.toUnsignedLong(words[start + 1 + operand]));
+          }
+          ++count[0];
+        };
+
+      module.visit(visitor);
+      Assertions.assertEquals(module.instructionCount(), count[0]);
+    }
+  }
+
+  /**
+   * A truncated file fails when visited.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testVisitorTruncated()
+    throws Exception
+  {
+    final var file = this.resource("clip_space_triangle_truncated.spv");
+
+    for (final var mapped : List.of(Boolean.FALSE, Boolean.TRUE)) {
+      Assertions.assertThrows(SMParseException.class, () -> {
+        try (var parser = this.open(file, mapped.booleanValue())) {
+          parser.visitAllInstructions((opCode, wordCount, byteOffset, words, start) -> {
+          });
+        }
+      });
+    }
+  }
+
+  private Path resource(
+    final String name)
+    throws IOException
+  {
+    return resourceOf(
+      SMInstructionVisitorTest.class,
+      Files.createTempDirectory(this.directory, "visitor"),
+      name);
+  }
+}
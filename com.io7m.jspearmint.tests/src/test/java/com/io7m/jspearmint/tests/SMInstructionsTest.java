@@ -0,0 +1,175 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.jspearmint.tests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.io7m.jspearmint.api.SMInstruction;
+import com.io7m.jspearmint.api.SMInstructions;
+import com.io7m.jspearmint.api.SMOperand;
+import com.io7m.jspearmint.api.SMOperandKind;
+import com.io7m.jspearmint.api.SMOperandQuantifier;
+import com.io7m.jspearmint.json_registry.SMJSONRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static com.io7m.jspearmint.tests.SMJSONTestDirectories.createTempDirectory;
+import static com.io7m.jspearmint.tests.SMJSONTestDirectories.resourceStreamOf;
+
+public final class SMInstructionsTest
+{
+  private Path directory;
+
+  @BeforeEach
+  public void setup()
+    throws IOException
+  {
+    this.directory = createTempDirectory();
+  }
+
+  /**
+   * Opcode lookups agree with a map of opcodes to instructions, where the
+   * last declared instruction with a given opcode wins.
+   */
+
+  @Test
+  public void testByOpCode()
+  {
+    final var expected = new HashMap<Integer, SMInstruction>();
+    for (final var instruction : SMInstruction.values()) {
+      expected.put(Integer.valueOf(instruction.value()), instruction);
+    }
+
+    for (final var instruction : SMInstruction.values()) {
+      final var opCode = instruction.value();
+      final var wanted = expected.get(Integer.valueOf(opCode));
+      Assertions.assertEquals(wanted, SMInstructions.byOpCodeOrNull(opCode));
+      Assertions.assertEquals(wanted, SMInstructions.byOpCodeOrNull((long) opCode));
+      Assertions.assertEquals(wanted, SMInstructions.byOpCode(opCode).orElseThrow());
+    }
+  }
+
+  /**
+   * Unknown opcodes are not found.
+   */
+
+  @Test
+  public void testByOpCodeUnknown()
+  {
+    Assertions.assertNull(SMInstructions.byOpCodeOrNull(-1));
+    Assertions.assertNull(SMInstructions.byOpCodeOrNull(0xffff));
+    Assertions.assertNull(SMInstructions.byOpCodeOrNull(Integer.MAX_VALUE));
+    Assertions.assertNull(SMInstructions.byOpCodeOrNull(-1L));
+    Assertions.assertNull(SMInstructions.byOpCodeOrNull(0x1_0000_0011L));
+    Assertions.assertTrue(SMInstructions.byOpCode(0x1_0000_0011L).isEmpty());
+  }
+
+  /**
+   * Operands decoded from the packed operand table are stable and agree
+   * with the minimum operand counts.
+   */
+
+  @Test
+  public void testOperands()
+  {
+    for (final var instruction : SMInstruction.values()) {
+      final var operands = instruction.operands();
+      Assertions.assertSame(operands, instruction.operands());
+      Assertions.assertTrue(operands.size() >= instruction.minimumOperandCount());
+      for (var index = 0; index < instruction.minimumOperandCount(); ++index) {
+        Assertions.assertEquals(
+          SMOperandQuantifier.SM_ONE,
+          operands.get(index).quantifier());
+      }
+    }
+
+    Assertions.assertEquals(List.of(), SMInstruction.SM_OP_NOP.operands());
+    Assertions.assertEquals(
+      List.of(
+        SMOperand.of(SMOperandKind.SM_ID_RESULT_TYPE, SMOperandQuantifier.SM_ONE, ""),
+        SMOperand.of(SMOperandKind.SM_ID_RESULT, SMOperandQuantifier.SM_ONE, "")
+      ),
+      SMInstruction.SM_OP_UNDEF.operands());
+  }
+
+  /**
+   * The operands of every instruction have the kinds and names declared in
+   * the grammar, including instructions declared after those with
+   * multi-line operand names.
+   *
+   * @throws IOException On errors
+   */
+
+  @Test
+  public void testOperandsMatchGrammar()
+    throws IOException
+  {
+    final SMJSONRegistry registry;
+    try (var stream = resourceStreamOf(
+      SMInstructionsTest.class,
+      this.directory,
+      "spirv_headers/include/spirv/unified1/spirv.core.grammar.json")) {
+      registry = new ObjectMapper().readValue(stream, SMJSONRegistry.class);
+    }
+
+    final var byName = new HashMap<String, SMInstruction>();
+    for (final var instruction : SMInstruction.values()) {
+      byName.put(instruction.spirName(), instruction);
+    }
+
+    for (final var declared : registry.instructions) {
+      final var instruction = byName.get(declared.name);
+      Assertions.assertNotNull(instruction, declared.name);
+
+      final var expectedNames =
+        declared.operands.stream()
+          .map(operand -> Optional.ofNullable(operand.name).orElse("").replace("'", ""))
+          .collect(Collectors.toList());
+      final var expectedKinds =
+        declared.operands.stream()
+          .map(operand -> operand.kind)
+          .collect(Collectors.toList());
+
+      final var operands = instruction.operands();
+      Assertions.assertEquals(
+        expectedNames,
+        operands.stream()
+          .map(SMOperand::name)
+          .collect(Collectors.toList()),
+        declared.name);
+      Assertions.assertEquals(
+        expectedKinds,
+        operands.stream()
+          .map(operand -> operand.kind().spirName())
+          .collect(Collectors.toList()),
+        declared.name);
+    }
+
+    Assertions.assertEquals(
+      List.of("Pointer", "Object", ""),
+      SMInstruction.SM_OP_STORE.operands()
+        .stream()
+        .map(SMOperand::name)
+        .collect(Collectors.toList()));
+  }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.tests;
+
+import com.io7m.jbssio.vanilla.BSSReaders;
+import com.io7m.jspearmint.disassembly.api.SMDisassemblerConfiguration;
+import com.io7m.jspearmint.disassembly.vanilla.SMDisassemblers;
+import com.io7m.jspearmint.parser.api.SMMetricsListenerType;
+import com.io7m.jspearmint.parser.api.SMParseException;
+import com.io7m.jspearmint.parser.api.SMParserSourceType;
+import com.io7m.jspearmint.parser.vanilla.SMParsers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.io7m.jspearmint.disassembly.api.SMDisassemblerConfigurationType.Format.JSON;
+import static com.io7m.jspearmint.disassembly.api.SMDisassemblerConfigurationType.Format.TEXT;
+import static com.io7m.jspearmint.tests.SMJSONTestDirectories.createTempDirectory;
+import static com.io7m.jspearmint.tests.SMJSONTestDirectories.resourceOf;
+
+public final class SMMetricsListenerTest
+{
+  private static final URI URI_0 = URI.create("urn:test");
+
+  private Path directory;
+  private Recorder metrics;
+  private SMParsers parsers;
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.directory = createTempDirectory();
+    this.metrics = new Recorder();
+    this.parsers = new SMParsers(new BSSReaders(), this.metrics);
+  }
+
+  private byte[] triangle()
+    throws Exception
+  {
+    return Files.readAllBytes(
+      resourceOf(
+        SMMetricsListenerTest.class,
+        this.directory,
+        "clip_space_triangle.vert.spv"));
+  }
+
+  /**
+   * Parsing a module reports the module exactly once.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testModuleParsed()
+    throws Exception
+  {
+    final var data = this.triangle();
+
+    try (var parser = this.parsers.createFromByteBuffer(URI_0, ByteBuffer.wrap(data))) {
+      parser.parseModule();
+    }
+    try (var parser = this.parsers.create(URI_0, new ByteArrayInputStream(data))) {
+      parser.parseAllInstructions();
+    }
+
+    Assertions.assertEquals(
+      List.of(
+        "parsed urn:test 972 57",
+        "parsed urn:test 972 57"),
+      this.metrics.events
+    );
+  }
+
+  /**
+   * Truncated modules and bad magic numbers are reported as failures.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testParseFailed()
+    throws Exception
+  {
+    final var data = this.triangle();
+    final var truncated = ByteBuffer.wrap(data, 0, data.length - 12).slice();
+
+    try (var parser = this.parsers.createFromByteBuffer(URI_0, truncated)) {
+      Assertions.assertThrows(SMParseException.class, parser::parseModule);
+    }
+    try (var parser = this.parsers.create(
+      URI_0, new ByteArrayInputStream(data, 0, data.length - 12))) {
+      Assertions.assertThrows(SMParseException.class, parser::parseModule);
+    }
+    Assertions.assertThrows(SMParseException.class, () -> {
+      this.parsers.create(URI_0, new ByteArrayInputStream(new byte[20]));
+    });
+
+    Assertions.assertEquals(3, this.metrics.events.size());
+    for (final var event : this.metrics.events) {
+      Assertions.assertTrue(event.startsWith("failed urn:test "), event);
+    }
+  }
+
+  /**
+   * Disassembly reports the number of unrecognized instructions once per
+   * module.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testModuleDisassembled()
+    throws Exception
+  {
+    final var data = this.triangle();
+    final var buffer =
+      ByteBuffer.allocate(data.length + 4)
+        .order(ByteOrder.LITTLE_ENDIAN);
+    buffer.put(data);
+    buffer.putInt((1 << 16) | 0xfffe);
+
+    final var disassemblers = new SMDisassemblers(this.metrics);
+    buffer.flip();
+
+    try (var parser = this.parsers.createFromByteBuffer(URI_0, buffer)) {
+      final var module = parser.parseModule();
+      try (var disassembler = disassemblers.create()) {
+        disassembler.disassemble(
+          SMDisassemblerConfiguration.builder()
+            .setFormat(TEXT)
+            .build(),
+          module,
+          new ByteArrayOutputStream()
+        );
+        disassembler.disassemble(
+          SMDisassemblerConfiguration.builder()
+            .setFormat(JSON)
+            .build(),
+          module,
+          new ByteArrayOutputStream()
+        );
+      }
+    }
+
+    /*
+     * Disassembling from a source makes two passes over the module, but
+     * the module is reported as parsed once for each disassembly.
+     */
+
+    final var source =
+      SMParserSourceType.ofByteBuffer(this.parsers, URI_0, buffer);
+
+    try (var disassembler = disassemblers.create()) {
+      disassembler.disassemble(
+        SMDisassemblerConfiguration.builder()
+          .setFormat(TEXT)
+          .build(),
+        source,
+        new ByteArrayOutputStream()
+      );
+      disassembler.disassemble(
+        SMDisassemblerConfiguration.builder()
+          .setFormat(JSON)
+          .build(),
+        source,
+        new ByteArrayOutputStream()
+      );
+    }
+
+    Assertions.assertEquals(
+      List.of(
+        "parsed urn:test 976 58",
+        "disassembled TEXT 58 1",
+        "disassembled JSON 58 1",
+        "parsed urn:test 976 58",
+        "disassembled TEXT 58 1",
+        "parsed urn:test 976 58",
+        "disassembled JSON 58 1"),
+      this.metrics.events
+    );
+  }
+
+  /**
+   * The default listener ignores everything.
+   */
+
+  @Test
+  public void testNoOp()
+  {
+    final var listener = SMMetricsListenerType.noOp();
+    Assertions.assertSame(listener, SMMetricsListenerType.noOp());
+    listener.onModuleParsed(URI_0, 0L, 0L, 0L);
+    listener.onModuleDisassembled("TEXT", 0L, 0L, 0L);
+  }
+
+  private static final class Recorder implements SMMetricsListenerType
+  {
+    private final List<String> events = new ArrayList<>();
+
+    Recorder()
+    {
+
+    }
+
+    @Override
+    public void onModuleParsed(
+      final URI uri,
+      final long bytes,
+      final long instructions,
+      final long timeNanos)
+    {
+      Assertions.assertTrue(timeNanos >= 0L);
+      this.events.add(String.format("parsed %s %d %d", uri, bytes, instructions));
+    }
+
+    @Override
+    public void onParseFailed(
+      final URI uri,
+      final SMParseException exception)
+    {
+      this.events.add(String.format("failed %s %s", uri, exception.getMessage()));
+    }
+
+    @Override
+    public void onModuleDisassembled(
+      final String format,
+      final long instructions,
+      final long unrecognizedInstructions,
+      final long timeNanos)
+    {
+      Assertions.assertTrue(timeNanos >= 0L);
+      this.events.add(String.format(
+        "disassembled %s %d %d", format, instructions, unrecognizedInstructions));
+    }
+  }
+}
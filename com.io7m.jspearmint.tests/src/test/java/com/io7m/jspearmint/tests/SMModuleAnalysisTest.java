@@ -0,0 +1,597 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.tests;
+
+import com.io7m.jbssio.vanilla.BSSReaders;
+import com.io7m.jspearmint.analysis.SMAnalyzerType;
+import com.io7m.jspearmint.analysis.SMFriendlyNames;
+import com.io7m.jspearmint.analysis.SMFunctions;
+import com.io7m.jspearmint.analysis.SMIdentifiers;
+import com.io7m.jspearmint.analysis.SMModuleAnalysis;
+import com.io7m.jspearmint.analysis.SMTypes;
+import com.io7m.jspearmint.api.SMInstruction;
+import com.io7m.jspearmint.api.SMInstructions;
+import com.io7m.jspearmint.parser.api.SMParsedHeader;
+import com.io7m.jspearmint.parser.api.SMParsedInstruction;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
+import com.io7m.jspearmint.parser.vanilla.SMParsers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.io7m.jspearmint.tests.SMJSONTestDirectories.createTempDirectory;
+import static com.io7m.jspearmint.tests.SMJSONTestDirectories.resourceOf;
+
+public final class SMModuleAnalysisTest
+{
+  private Path directory;
+  private SMParsers parsers;
+
+  @BeforeEach
+  public void setup()
+    throws IOException
+  {
+    this.directory = createTempDirectory();
+    this.parsers = new SMParsers(new BSSReaders());
+  }
+
+  /**
+   * A fused analysis produces the same results as the individual analyses,
+   * and drives additional analyzers over every known instruction once.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testFusedAnalysis()
+    throws Exception
+  {
+    final var file = this.resource("clip_space_triangle.vert.spv");
+
+    try (var parser = this.parsers.createFromPath(file)) {
+      final var module = parser.parseModule();
+      final var recorder = new Recorder();
+
+      final var analysis =
+        SMModuleAnalysis.builder()
+          .withIdentifiers()
+          .withTypes()
+          .withAnalyzer(recorder)
+          .analyze(module);
+
+      Assertions.assertEquals(module.header(), analysis.header());
+      Assertions.assertEquals(
+        SMIdentifiers.of(module).idToName(),
+        analysis.idToName());
+      Assertions.assertEquals(
+        SMTypes.of(module).idToType(),
+        analysis.idToType());
+      Assertions.assertTrue(analysis.idToName().containsValue("attrPosition"));
+      Assertions.assertTrue(
+        analysis.idToType().containsValue(SMInstruction.SM_OP_TYPE_FLOAT));
+
+      Assertions.assertEquals(List.of(module.header()), recorder.headers);
+      Assertions.assertEquals(module.instructionCount(), recorder.definitions.size());
+      for (var index = 0; index < module.instructionCount(); ++index) {
+        Assertions.assertEquals(
+          SMInstructions.byOpCodeOrNull(module.opCode(index)),
+          recorder.definitions.get(index));
+        Assertions.assertEquals(
+          module.byteOffset(index),
+          recorder.offsets.get(index).longValue());
+      }
+    }
+  }
+
+  /**
+   * Analyzing a module as it is parsed produces the same results as
+   * analyzing the parsed module.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testStreamingAnalysis()
+    throws Exception
+  {
+    final var file = this.resource("clip_space_triangle.vert.spv");
+
+    final SMModuleAnalysis expected;
+    try (var parser = this.parsers.createFromPath(file)) {
+      expected =
+        SMModuleAnalysis.builder()
+          .withIdentifiers()
+          .withTypes()
+          .analyze(parser.parseModule());
+    }
+
+    final var recorder = new Recorder();
+    final SMModuleAnalysis received;
+    try (var parser = this.parsers.createFromPath(file)) {
+      received =
+        SMModuleAnalysis.builder()
+          .withIdentifiers()
+          .withTypes()
+          .withAnalyzer(recorder)
+          .analyze(parser);
+    }
+
+    Assertions.assertEquals(expected.header(), received.header());
+    Assertions.assertEquals(expected.idToName(), received.idToName());
+    Assertions.assertEquals(expected.idToType(), received.idToType());
+    Assertions.assertEquals(57, recorder.offsets.size());
+    Assertions.assertEquals(20L, recorder.offsets.get(0).longValue());
+  }
+
+  /**
+   * Analyses that were not requested are not present.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testUnrequested()
+    throws Exception
+  {
+    final var file = this.resource("clip_space_triangle.vert.spv");
+
+    try (var parser = this.parsers.createFromPath(file)) {
+      final var analysis =
+        SMModuleAnalysis.builder()
+          .analyze(parser.parseModule());
+
+      Assertions.assertTrue(analysis.identifiers().isEmpty());
+      Assertions.assertTrue(analysis.types().isEmpty());
+      Assertions.assertTrue(analysis.idToName().isEmpty());
+      Assertions.assertTrue(analysis.idToType().isEmpty());
+    }
+  }
+
+  /**
+   * Instructions with unknown opcodes are not passed to analyzers.
+   */
+
+  @Test
+  public void testUnknownOpCodesSkipped()
+  {
+    final var header =
+      SMParsedHeader.builder()
+        .setRawVersionNumber(0x10000L)
+        .setGeneratorMagicNumber(0L)
+        .setIdBound(10L)
+        .setSchema(0L)
+        .build();
+
+    final var instructions = List.of(
+      SMParsedInstruction.builder()
+        .setByteOffset(20L)
+        .setOpCode(0xfffe)
+        .setWordCount(2)
+        .addOperands(1L)
+        .build(),
+      SMParsedInstruction.builder()
+        .setByteOffset(28L)
+        .setOpCode(SMInstruction.SM_OP_TYPE_VOID.value())
+        .setWordCount(2)
+        .addOperands(2L)
+        .build()
+    );
+
+    final var recorder = new Recorder();
+    final var analysis =
+      SMModuleAnalysis.builder()
+        .withTypes()
+        .withAnalyzer(recorder)
+        .analyze(header, instructions);
+
+    Assertions.assertEquals(
+      List.of(SMInstruction.SM_OP_TYPE_VOID),
+      recorder.definitions);
+    Assertions.assertEquals(
+      SMInstruction.SM_OP_TYPE_VOID,
+      analysis.idToType().get(Long.valueOf(2L)));
+    Assertions.assertEquals(1, analysis.idToType().size());
+  }
+
+  /**
+   * Primitive ID lookups agree with the map views.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testIdLookups()
+    throws Exception
+  {
+    final var file = this.resource("clip_space_triangle.vert.spv");
+
+    try (var parser = this.parsers.createFromPath(file)) {
+      final var module = parser.parseModule();
+      final var analysis =
+        SMModuleAnalysis.builder()
+          .withIdentifiers()
+          .withTypes()
+          .analyze(module);
+
+      final var bound = module.header().idBound();
+      for (long id = 0L; id <= bound; ++id) {
+        final var boxed = Long.valueOf(id);
+        Assertions.assertEquals(
+          analysis.idToName().get(boxed),
+          analysis.nameOrNull(id));
+        Assertions.assertEquals(
+          analysis.idToType().get(boxed),
+          analysis.typeOrNull(id));
+      }
+      Assertions.assertNull(analysis.nameOrNull(-1L));
+      Assertions.assertNull(analysis.typeOrNull(-1L));
+    }
+  }
+
+  /**
+   * Modules with very large ID bounds, and IDs beyond the declared bound,
+   * are handled.
+   */
+
+  @Test
+  public void testIdLookupsSparse()
+  {
+    for (final var bound : List.of(Long.valueOf(4L), Long.valueOf(0xffff_ffffL))) {
+      final var header =
+        SMParsedHeader.builder()
+          .setRawVersionNumber(0x10000L)
+          .setGeneratorMagicNumber(0L)
+          .setIdBound(bound.longValue())
+          .setSchema(0L)
+          .build();
+
+      final var instructions = List.of(
+        SMParsedInstruction.builder()
+          .setByteOffset(20L)
+          .setOpCode(SMInstruction.SM_OP_TYPE_VOID.value())
+          .setWordCount(2)
+          .addOperands(2L)
+          .build(),
+        SMParsedInstruction.builder()
+          .setByteOffset(28L)
+          .setOpCode(SMInstruction.SM_OP_TYPE_BOOL.value())
+          .setWordCount(2)
+          .addOperands(0xffff_fff0L)
+          .build()
+      );
+
+      final var analysis =
+        SMModuleAnalysis.builder()
+          .withIdentifiers()
+          .withTypes()
+          .analyze(header, instructions);
+
+      Assertions.assertEquals(
+        SMInstruction.SM_OP_TYPE_VOID,
+        analysis.typeOrNull(2L));
+      Assertions.assertEquals(
+        SMInstruction.SM_OP_TYPE_BOOL,
+        analysis.typeOrNull(0xffff_fff0L));
+      Assertions.assertNull(analysis.typeOrNull(3L));
+      Assertions.assertNull(analysis.nameOrNull(2L));
+      Assertions.assertEquals(2, analysis.idToType().size());
+    }
+  }
+
+  /**
+   * The widths and signedness of scalar numeric types are recorded for IDs
+   * inside and outside of the dense range.
+   */
+
+  @Test
+  public void testScalarWidths()
+  {
+    for (final var bound : List.of(Long.valueOf(4L), Long.valueOf(0xffff_ffffL))) {
+      final var header =
+        SMParsedHeader.builder()
+          .setRawVersionNumber(0x10000L)
+          .setGeneratorMagicNumber(0L)
+          .setIdBound(bound.longValue())
+          .setSchema(0L)
+          .build();
+
+      final var instructions = List.of(
+        instruction(SMInstruction.SM_OP_TYPE_INT, 2L, 64L, 1L),
+        instruction(SMInstruction.SM_OP_TYPE_FLOAT, 0xffff_fff0L, 16L),
+        instruction(SMInstruction.SM_OP_TYPE_BOOL, 3L)
+      );
+
+      final var analysis =
+        SMModuleAnalysis.builder()
+          .withTypes()
+          .analyze(header, instructions);
+
+      Assertions.assertEquals(64, analysis.scalarWidth(2L));
+      Assertions.assertEquals(16, analysis.scalarWidth(0xffff_fff0L));
+      Assertions.assertEquals(0, analysis.scalarWidth(3L));
+      Assertions.assertEquals(0, analysis.scalarWidth(1L));
+      Assertions.assertTrue(analysis.scalarSigned(2L));
+      Assertions.assertFalse(analysis.scalarSigned(0xffff_fff0L));
+    }
+  }
+
+  private Path resource(
+    final String name)
+    throws IOException
+  {
+    return resourceOf(SMModuleAnalysisTest.class, this.directory, name);
+  }
+
+  /**
+   * Function extents and entry points are recorded.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testFunctions()
+    throws Exception
+  {
+    final var file = this.resource("clip_space_triangle.vert.spv");
+
+    try (var parser = this.parsers.createFromPath(file)) {
+      final var module = parser.parseModule();
+      final var functions = SMFunctions.of(module);
+
+      Assertions.assertEquals(1, functions.extents().size());
+      final var extent = functions.extents().get(0);
+      Assertions.assertEquals(extent, functions.extentOrNull(4L));
+      Assertions.assertNull(functions.extentOrNull(5L));
+      Assertions.assertEquals(
+        Map.of("R3_clip_triangle_vert_main", Long.valueOf(4L)),
+        functions.entryPoints());
+
+      final var first = module.instructionAtByteOffset(extent.startByteOffset());
+      final var last = module.instructionAtByteOffset(extent.endByteOffset() - 1L);
+      Assertions.assertEquals(
+        SMInstruction.SM_OP_FUNCTION.value(),
+        module.opCode(first));
+      Assertions.assertEquals(
+        SMInstruction.SM_OP_FUNCTION_END.value(),
+        module.opCode(last));
+      Assertions.assertEquals(
+        module.byteOffset(last) + module.wordCount(last) * 4L,
+        extent.endByteOffset());
+    }
+  }
+
+  /**
+   * Friendly names are derived from OpName and from the type graph.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testFriendlyNames()
+    throws Exception
+  {
+    final var file = this.resource("clip_space_triangle.vert.spv");
+
+    try (var parser = this.parsers.createFromPath(file)) {
+      final var module = parser.parseModule();
+      final var analysis =
+        SMModuleAnalysis.builder()
+          .withFriendlyNames()
+          .analyze(module);
+
+      final var names = analysis.friendlyNames().orElseThrow();
+      Assertions.assertEquals(SMFriendlyNames.of(module).idToName(), names.idToName());
+      Assertions.assertEquals("void", names.nameOrNull(2L));
+      Assertions.assertEquals("fn_void", names.nameOrNull(3L));
+      Assertions.assertEquals("R3_clip_triangle_vert_main", names.nameOrNull(4L));
+      Assertions.assertEquals("float", names.nameOrNull(6L));
+      Assertions.assertEquals("v4float", names.nameOrNull(7L));
+      Assertions.assertEquals("gl_PerVertex", names.nameOrNull(8L));
+      Assertions.assertEquals("_ptr_Output_gl_PerVertex", names.nameOrNull(9L));
+      Assertions.assertEquals("_", names.nameOrNull(10L));
+      Assertions.assertEquals("int", names.nameOrNull(11L));
+      Assertions.assertEquals("int_0", names.nameOrNull(12L));
+      Assertions.assertEquals("_ptr_Input_v2float", names.nameOrNull(14L));
+      Assertions.assertEquals("float_0", names.nameOrNull(17L));
+      Assertions.assertEquals("float_1", names.nameOrNull(18L));
+      Assertions.assertEquals("_ptr_Output_v4float", names.nameOrNull(22L));
+      Assertions.assertNull(names.nameOrNull(5L));
+      Assertions.assertNull(names.nameOrNull(16L));
+
+      final var values = names.idToName().values();
+      Assertions.assertEquals(values.size(), Set.copyOf(values).size());
+      Assertions.assertTrue(analysis.identifiers().isEmpty());
+    }
+  }
+
+  /**
+   * Colliding friendly names are made unique with suffixes, and names
+   * are sanitized.
+   */
+
+  @Test
+  public void testFriendlyNameCollisions()
+  {
+    final var header =
+      SMParsedHeader.builder()
+        .setRawVersionNumber(0x10000L)
+        .setGeneratorMagicNumber(0L)
+        .setIdBound(10L)
+        .setSchema(0L)
+        .build();
+
+    final var instructions = List.of(
+      instruction(SMInstruction.SM_OP_TYPE_FLOAT, 1L, 32L),
+      instruction(SMInstruction.SM_OP_TYPE_FLOAT, 2L, 32L),
+      instruction(SMInstruction.SM_OP_TYPE_FLOAT, 3L, 32L),
+      instruction(SMInstruction.SM_OP_TYPE_INT, 4L, 32L, 1L),
+      instruction(SMInstruction.SM_OP_CONSTANT, 4L, 5L, 0xffff_fffeL),
+      instruction(SMInstruction.SM_OP_CONSTANT, 1L, 6L, 0xbf00_0000L),
+      instruction(SMInstruction.SM_OP_TYPE_INT, 7L, 32L, 0L),
+      instruction(SMInstruction.SM_OP_CONSTANT, 1L, 8L, 0L),
+      instruction(SMInstruction.SM_OP_TYPE_INT, 9L, 12L, 0L)
+    );
+
+    final var names = SMFriendlyNames.of(header, instructions);
+    Assertions.assertEquals("float", names.nameOrNull(1L));
+    Assertions.assertEquals("float_0", names.nameOrNull(2L));
+    Assertions.assertEquals("float_1", names.nameOrNull(3L));
+    Assertions.assertEquals("int", names.nameOrNull(4L));
+    Assertions.assertEquals("int_n2", names.nameOrNull(5L));
+    Assertions.assertEquals("float_n0_5", names.nameOrNull(6L));
+    Assertions.assertEquals("uint", names.nameOrNull(7L));
+    Assertions.assertEquals("float_0_0", names.nameOrNull(8L));
+    Assertions.assertEquals("u12", names.nameOrNull(9L));
+  }
+
+  /**
+   * The most negative 64-bit constant is named by its magnitude.
+   */
+
+  @Test
+  public void testFriendlyNameMinimumConstant()
+  {
+    final var header =
+      SMParsedHeader.builder()
+        .setRawVersionNumber(0x10000L)
+        .setGeneratorMagicNumber(0L)
+        .setIdBound(3L)
+        .setSchema(0L)
+        .build();
+
+    final var instructions = List.of(
+      instruction(SMInstruction.SM_OP_TYPE_INT, 1L, 64L, 1L),
+      instruction(SMInstruction.SM_OP_CONSTANT, 1L, 2L, 0L, 0x8000_0000L)
+    );
+
+    final var names = SMFriendlyNames.of(header, instructions);
+    Assertions.assertEquals("long", names.nameOrNull(1L));
+    Assertions.assertEquals("long_n9223372036854775808", names.nameOrNull(2L));
+  }
+
+  /**
+   * Constants are named according to the widths of their types.
+   */
+
+  @Test
+  public void testFriendlyNameConstantWidths()
+  {
+    final var header =
+      SMParsedHeader.builder()
+        .setRawVersionNumber(0x10000L)
+        .setGeneratorMagicNumber(0L)
+        .setIdBound(7L)
+        .setSchema(0L)
+        .build();
+
+    final var instructions = List.of(
+      instruction(SMInstruction.SM_OP_TYPE_FLOAT, 1L, 16L),
+      instruction(SMInstruction.SM_OP_CONSTANT, 1L, 2L, 0xbc00L),
+      instruction(SMInstruction.SM_OP_TYPE_FLOAT, 3L, 64L),
+      instruction(SMInstruction.SM_OP_CONSTANT, 3L, 4L, 0L, 0x3ff8_0000L),
+      instruction(SMInstruction.SM_OP_TYPE_INT, 5L, 16L, 1L),
+      instruction(SMInstruction.SM_OP_CONSTANT, 5L, 6L, 0xffff_ffffL)
+    );
+
+    final var names = SMFriendlyNames.of(header, instructions);
+    Assertions.assertEquals("half_n1", names.nameOrNull(2L));
+    Assertions.assertEquals("double_1_5", names.nameOrNull(4L));
+    Assertions.assertEquals("short_n1", names.nameOrNull(6L));
+  }
+
+  /**
+   * Declarations that are missing operands are not named.
+   */
+
+  @Test
+  public void testFriendlyNameMissingOperands()
+  {
+    final var header =
+      SMParsedHeader.builder()
+        .setRawVersionNumber(0x10000L)
+        .setGeneratorMagicNumber(0L)
+        .setIdBound(8L)
+        .setSchema(0L)
+        .build();
+
+    final var instructions = List.of(
+      instruction(SMInstruction.SM_OP_TYPE_INT, 1L, 32L),
+      instruction(SMInstruction.SM_OP_TYPE_FLOAT, 2L),
+      instruction(SMInstruction.SM_OP_TYPE_VECTOR, 3L, 2L),
+      instruction(SMInstruction.SM_OP_TYPE_POINTER, 4L, 7L),
+      instruction(SMInstruction.SM_OP_TYPE_RUNTIME_ARRAY, 5L),
+      instruction(SMInstruction.SM_OP_CONSTANT, 1L, 6L),
+      instruction(SMInstruction.SM_OP_NAME, 7L),
+      instruction(SMInstruction.SM_OP_TYPE_VOID)
+    );
+
+    final var names = SMFriendlyNames.of(header, instructions);
+    for (long id = 1L; id < 8L; ++id) {
+      Assertions.assertNull(names.nameOrNull(id));
+    }
+  }
+
+  private static SMParsedInstruction instruction(
+    final SMInstruction definition,
+    final long... operands)
+  {
+    final var builder =
+      SMParsedInstruction.builder()
+        .setByteOffset(20L)
+        .setOpCode(definition.value())
+        .setWordCount(operands.length + 1);
+    for (final var operand : operands) {
+      builder.addOperands(operand);
+    }
+    return builder.build();
+  }
+
+  private static final class Recorder implements SMAnalyzerType
+  {
+    private final List<SMParsedHeader> headers = new ArrayList<>();
+    private final List<SMInstruction> definitions = new ArrayList<>();
+    private final List<Long> offsets = new ArrayList<>();
+
+    Recorder()
+    {
+
+    }
+
+    @Override
+    public void begin(
+      final SMParsedHeader header)
+    {
+      this.headers.add(header);
+    }
+
+    @Override
+    public void analyze(
+      final SMInstruction definition,
+      final SMParsedInstructionType instruction)
+    {
+      this.definitions.add(definition);
+      this.offsets.add(Long.valueOf(instruction.byteOffset()));
+    }
+  }
+}
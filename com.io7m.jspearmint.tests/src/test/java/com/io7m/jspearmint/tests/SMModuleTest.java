@@ -0,0 +1,236 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.jspearmint.tests;
+
+import com.io7m.jbssio.vanilla.BSSReaders;
+import com.io7m.jspearmint.analysis.SMIdentifiers;
+import com.io7m.jspearmint.analysis.SMTypes;
+import com.io7m.jspearmint.parser.api.SMModule;
+import com.io7m.jspearmint.parser.api.SMParseException;
+import com.io7m.jspearmint.parser.api.SMParsedInstruction;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
+import com.io7m.jspearmint.parser.vanilla.SMParsers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.io7m.jspearmint.tests.SMJSONTestDirectories.createTempDirectory;
+import static com.io7m.jspearmint.tests.SMJSONTestDirectories.resourceOf;
+
+public final class SMModuleTest
+{
+  private Path directory;
+  private SMParsers parsers;
+
+  private static void checkSameInstruction(
+    final SMParsedInstructionType expected,
+    final SMParsedInstructionType received)
+  {
+    Assertions.assertEquals(expected.opCode(), received.opCode());
+    Assertions.assertEquals(expected.wordCount(), received.wordCount());
+    Assertions.assertEquals(expected.byteOffset(), received.byteOffset());
+    Assertions.assertEquals(expected.operandCount(), received.operandCount());
+    Assertions.assertEquals(expected.operands(), received.operands());
+  }
+
+  @BeforeEach
+  public void setup()
+    throws IOException
+  {
+    this.directory = createTempDirectory();
+    this.parsers = new SMParsers(new BSSReaders());
+  }
+
+  /**
+   * Modules parsed from streams and mapped files contain exactly the
+   * instructions that would be parsed individually.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testModuleMatchesInstructions()
+    throws Exception
+  {
+    final var file = this.resource("clip_space_triangle.vert.spv");
+
+    final List<SMParsedInstruction> instructions;
+    try (var parser = this.parsers.createFromPath(file)) {
+      instructions = parser.parseAllInstructions();
+    }
+
+    final SMModule streamModule;
+    try (var stream = Files.newInputStream(file)) {
+      try (var parser = this.parsers.create(file.toUri(), stream)) {
+        streamModule = parser.parseModule();
+      }
+    }
+
+    final SMModule mappedModule;
+    try (var parser = this.parsers.createFromPath(file)) {
+      mappedModule = parser.parseModule();
+    }
+
+    for (final var module : List.of(streamModule, mappedModule)) {
+      Assertions.assertEquals(57, module.instructionCount());
+      Assertions.assertEquals(33L, module.header().idBound());
+      Assertions.assertEquals(instructions.size(), module.instructions().size());
+
+      for (var index = 0; index < instructions.size(); ++index) {
+        final var expected = instructions.get(index);
+        checkSameInstruction(expected, module.instruction(index));
+        checkSameInstruction(expected, module.instructions().get(index));
+        Assertions.assertEquals(expected.opCode(), module.opCode(index));
+        Assertions.assertEquals(expected.wordCount(), module.wordCount(index));
+        Assertions.assertEquals(expected.byteOffset(), module.byteOffset(index));
+        Assertions.assertEquals(
+          expected.operandCount(),
+          module.operandCount(index));
+      }
+    }
+  }
+
+  /**
+   * Instructions can be located by byte offset.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testModuleByteOffsets()
+    throws Exception
+  {
+    final var file = this.resource("clip_space_triangle.vert.spv");
+
+    final SMModule module;
+    try (var parser = this.parsers.createFromPath(file)) {
+      module = parser.parseModule();
+    }
+
+    Assertions.assertEquals(-1, module.instructionAtByteOffset(0L));
+    Assertions.assertEquals(-1, module.instructionAtByteOffset(19L));
+    Assertions.assertEquals(0, module.instructionAtByteOffset(20L));
+
+    for (var index = 0; index < module.instructionCount(); ++index) {
+      final var start = module.byteOffset(index);
+      final var size = (long) (module.operandCount(index) + 1) * 4L;
+      Assertions.assertEquals(index, module.instructionAtByteOffset(start));
+      Assertions.assertEquals(
+        index,
+        module.instructionAtByteOffset(start + size - 1L));
+    }
+
+    final var end = 20L + (long) module.sizeInWords() * 4L;
+    Assertions.assertEquals(Files.size(file), end);
+    Assertions.assertEquals(-1, module.instructionAtByteOffset(end));
+  }
+
+  /**
+   * Modules can be constructed from instruction lists, and analyses produce
+   * the same results for both.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testModuleOfInstructions()
+    throws Exception
+  {
+    final var file = this.resource("clip_space_triangle.vert.spv");
+
+    try (var parser = this.parsers.createFromPath(file)) {
+      final var header = parser.header();
+      final var instructions = parser.parseAllInstructions();
+      final var module = SMModule.of(header, instructions);
+
+      Assertions.assertEquals(instructions.size(), module.instructionCount());
+      for (var index = 0; index < instructions.size(); ++index) {
+        checkSameInstruction(instructions.get(index), module.instruction(index));
+      }
+
+      Assertions.assertEquals(
+        SMIdentifiers.of(header, instructions).idToName(),
+        SMIdentifiers.of(module).idToName());
+      Assertions.assertEquals(
+        SMTypes.of(header, instructions).idToType(),
+        SMTypes.of(module).idToType());
+    }
+  }
+
+  /**
+   * Out of range operands are rejected.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testModuleOperandBounds()
+    throws Exception
+  {
+    final var file = this.resource("clip_space_triangle.vert.spv");
+
+    final SMModule module;
+    try (var parser = this.parsers.createFromPath(file)) {
+      module = parser.parseModule();
+    }
+
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> {
+      module.operand(0, module.operandCount(0));
+    });
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> {
+      module.instruction(module.instructionCount());
+    });
+  }
+
+  /**
+   * A truncated file can't be parsed as a module.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testModuleTruncated()
+    throws Exception
+  {
+    final var file = this.resource("clip_space_triangle_truncated.spv");
+
+    Assertions.assertThrows(SMParseException.class, () -> {
+      try (var parser = this.parsers.createFromPath(file)) {
+        parser.parseModule();
+      }
+    });
+
+    Assertions.assertThrows(SMParseException.class, () -> {
+      try (var stream = Files.newInputStream(file)) {
+        try (var parser = this.parsers.create(file.toUri(), stream)) {
+          parser.parseModule();
+        }
+      }
+    });
+  }
+
+  private Path resource(
+    final String name)
+    throws IOException
+  {
+    return resourceOf(SMModuleTest.class, this.directory, name);
+  }
+}
@@ -17,8 +17,12 @@
 package com.io7m.jspearmint.tests;
 
 import com.io7m.jspearmint.analysis.SMString;
+import com.io7m.jspearmint.analysis.SMStrings;
 import com.io7m.jspearmint.api.SMAddressingModel;
+import com.io7m.jspearmint.api.SMBuiltIn;
 import com.io7m.jspearmint.api.SMCapability;
+import com.io7m.jspearmint.api.SMDecoration;
+import com.io7m.jspearmint.api.SMExecutionMode;
 import com.io7m.jspearmint.api.SMFunctionControl;
 import com.io7m.jspearmint.api.SMMemoryAccess;
 import com.io7m.jspearmint.api.SMMemoryModel;
@@ -47,14 +51,22 @@ import com.io7m.jspearmint.disassembly.vanilla.internal.SMDOpTypeStruct;
 import com.io7m.jspearmint.disassembly.vanilla.internal.SMDOpTypeVector;
 import com.io7m.jspearmint.disassembly.vanilla.internal.SMDOpTypeVoid;
 import com.io7m.jspearmint.disassembly.vanilla.internal.SMDOpVariable;
+import com.io7m.jspearmint.disassembly.vanilla.internal.SMDGenericOpDisassembler;
 import com.io7m.jspearmint.disassembly.vanilla.internal.SMFormatting;
 import com.io7m.jspearmint.disassembly.vanilla.internal.SMOpDisassemblerContextType;
+import com.io7m.jspearmint.disassembly.vanilla.internal.SMTextOutput;
 import com.io7m.jspearmint.parser.api.SMParsedInstruction;
+import com.io7m.jspearmint.parser.api.SMParsedInstructionType;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+
 import static com.io7m.jspearmint.api.SMInstruction.*;
 
 public final class SMOpDisassemblersTest
@@ -67,22 +79,41 @@ public final class SMOpDisassemblersTest
     this.context = Mockito.mock(SMOpDisassemblerContextType.class);
 
     Mockito.when(
-      this.context.idString(Mockito.any()))
+      this.context.idString(Mockito.anyLong()))
       .thenAnswer(invocationOnMock -> {
         return "%" + invocationOnMock.getArgument(0);
       });
 
     Mockito.when(
-      this.context.literal(Mockito.any()))
+      this.context.literal(Mockito.anyLong()))
       .thenAnswer(invocationOnMock -> {
         return "$" + invocationOnMock.getArgument(0);
       });
 
+    Mockito.when(
+      this.context.literalTyped(Mockito.anyLong(), Mockito.anyLong()))
+      .thenAnswer(invocationOnMock -> {
+        return "$" + invocationOnMock.getArgument(1);
+      });
+
+    Mockito.when(
+      this.context.string(Mockito.any(), Mockito.anyInt()))
+      .thenAnswer(invocationOnMock -> {
+        return SMStrings.consumeUTF8String(
+          (SMParsedInstructionType) invocationOnMock.getArgument(0),
+          ((Integer) invocationOnMock.getArgument(1)).intValue()
+        );
+      });
+
     Mockito.when(
       this.context.quoteString(Mockito.any()))
       .thenAnswer(invocationOnMock -> {
         return SMFormatting.quoteString((SMString) invocationOnMock.getArgument(0));
       });
+
+    Mockito.when(
+      this.context.textReceiver(Mockito.any()))
+      .thenCallRealMethod();
   }
 
   @Test
@@ -91,7 +122,7 @@ public final class SMOpDisassemblersTest
     final var instruction =
       createInstruction(SM_OP_NAME.value(), 0L, 0x434241L);
     final var tokens =
-      new SMDOpName().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpName()::disassemble, instruction);
     Assertions.assertEquals( "%0", tokens.get(0));
     Assertions.assertEquals( "\"ABC\"", tokens.get(1));
   }
@@ -102,7 +133,7 @@ public final class SMOpDisassemblersTest
     final var instruction =
       createInstruction(SM_OP_RETURN.value());
     final var tokens =
-      new SMDOpReturn().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpReturn()::disassemble, instruction);
     Assertions.assertEquals( 0, tokens.size());
   }
 
@@ -112,7 +143,7 @@ public final class SMOpDisassemblersTest
     final var instruction =
       createInstruction(SM_OP_SOURCE.value(), SMSourceLanguage.SM_GLSL.value(), 450L);
     final var tokens =
-      new SMDOpSource().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpSource()::disassemble, instruction);
     Assertions.assertEquals( "GLSL", tokens.get(0));
     Assertions.assertEquals( "$450", tokens.get(1));
     Assertions.assertEquals( 2, tokens.size());
@@ -124,7 +155,7 @@ public final class SMOpDisassemblersTest
     final var instruction =
       createInstruction(SM_OP_LABEL.value(), 0x5L);
     final var tokens =
-      new SMDOpLabel().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpLabel()::disassemble, instruction);
     Assertions.assertEquals( 0, tokens.size());
   }
 
@@ -134,7 +165,7 @@ public final class SMOpDisassemblersTest
     final var instruction =
       createInstruction(SM_OP_LOAD.value(), 3L, 5L, 7L);
     final var tokens =
-      new SMDOpLoad().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpLoad()::disassemble, instruction);
     Assertions.assertEquals( "%3", tokens.get(0));
     Assertions.assertEquals( "%7", tokens.get(1));
     Assertions.assertEquals( 2, tokens.size());
@@ -146,20 +177,64 @@ public final class SMOpDisassemblersTest
     final var instruction =
       createInstruction(SM_OP_STORE.value(), 3L, 5L, SMMemoryAccess.SM_ALIGNED.value());
     final var tokens =
-      new SMDOpStore().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpStore()::disassemble, instruction);
     Assertions.assertEquals( "%3", tokens.get(0));
     Assertions.assertEquals( "%5", tokens.get(1));
     Assertions.assertEquals( "Aligned", tokens.get(2));
     Assertions.assertEquals( 3, tokens.size());
   }
 
+  @Test
+  public void opStoreMask()
+  {
+    final var instruction =
+      createInstruction(
+        SM_OP_STORE.value(),
+        3L,
+        5L,
+        SMMemoryAccess.SM_VOLATILE.value() | SMMemoryAccess.SM_NONTEMPORAL.value());
+    final var tokens =
+      this.disassemble(new SMDOpStore()::disassemble, instruction);
+    Assertions.assertEquals( "%3", tokens.get(0));
+    Assertions.assertEquals( "%5", tokens.get(1));
+    Assertions.assertEquals( "Volatile|Nontemporal", tokens.get(2));
+    Assertions.assertEquals( 3, tokens.size());
+  }
+
+  @Test
+  public void opStoreParameters()
+  {
+    final var instruction =
+      createInstruction(
+        SM_OP_STORE.value(),
+        3L,
+        5L,
+        SMMemoryAccess.SM_VOLATILE.value() | SMMemoryAccess.SM_ALIGNED.value(),
+        16L);
+    final var tokens =
+      this.disassemble(new SMDOpStore()::disassemble, instruction);
+    Assertions.assertEquals(
+      List.of("%3", "%5", "Volatile|Aligned", "$16"),
+      tokens);
+  }
+
+  @Test
+  public void opStoreUnknownMask()
+  {
+    final var instruction =
+      createInstruction(SM_OP_STORE.value(), 3L, 5L, 0x4000_0000L);
+    final var tokens =
+      this.disassemble(new SMDOpStore()::disassemble, instruction);
+    Assertions.assertEquals(List.of("%3", "%5", "$0x40000000"), tokens);
+  }
+
   @Test
   public void opStoreNone()
   {
     final var instruction =
       createInstruction(SM_OP_STORE.value(), 3L, 5L);
     final var tokens =
-      new SMDOpStore().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpStore()::disassemble, instruction);
     Assertions.assertEquals( "%3", tokens.get(0));
     Assertions.assertEquals( "%5", tokens.get(1));
     Assertions.assertEquals( "None", tokens.get(2));
@@ -172,7 +247,7 @@ public final class SMOpDisassemblersTest
     final var instruction =
       createInstruction(SM_OP_TYPE_FLOAT.value(), 0L, 32L);
     final var tokens =
-      new SMDOpTypeFloat().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpTypeFloat()::disassemble, instruction);
     Assertions.assertEquals( "$32", tokens.get(0));
     Assertions.assertEquals( 1, tokens.size());
   }
@@ -183,7 +258,7 @@ public final class SMOpDisassemblersTest
     final var instruction =
       createInstruction(SM_OP_TYPE_INT.value(), 0L, 32L, 1L);
     final var tokens =
-      new SMDOpTypeInt().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpTypeInt()::disassemble, instruction);
     Assertions.assertEquals( "$32", tokens.get(0));
     Assertions.assertEquals( "$1", tokens.get(1));
     Assertions.assertEquals( 2, tokens.size());
@@ -195,7 +270,7 @@ public final class SMOpDisassemblersTest
     final var instruction =
       createInstruction(SM_OP_TYPE_VOID.value(), 0L);
     final var tokens =
-      new SMDOpTypeVoid().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpTypeVoid()::disassemble, instruction);
     Assertions.assertEquals( 0, tokens.size());
   }
 
@@ -205,7 +280,7 @@ public final class SMOpDisassemblersTest
     final var instruction =
       createInstruction(SM_OP_TYPE_POINTER.value(), 0L, SMStorageClass.SM_INPUT.value(), 7L);
     final var tokens =
-      new SMDOpTypePointer().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpTypePointer()::disassemble, instruction);
     Assertions.assertEquals( "Input", tokens.get(0));
     Assertions.assertEquals( "%7", tokens.get(1));
     Assertions.assertEquals( 2, tokens.size());
@@ -217,7 +292,7 @@ public final class SMOpDisassemblersTest
     final var instruction =
       createInstruction(SM_OP_TYPE_STRUCT.value(), 0L, 7L);
     final var tokens =
-      new SMDOpTypeStruct().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpTypeStruct()::disassemble, instruction);
     Assertions.assertEquals( "%7", tokens.get(0));
     Assertions.assertEquals( 1, tokens.size());
   }
@@ -228,7 +303,7 @@ public final class SMOpDisassemblersTest
     final var instruction =
       createInstruction(SM_OP_TYPE_VECTOR.value(), 0L, 7L, 3L);
     final var tokens =
-      new SMDOpTypeVector().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpTypeVector()::disassemble, instruction);
     Assertions.assertEquals( "%7", tokens.get(0));
     Assertions.assertEquals( "$3", tokens.get(1));
     Assertions.assertEquals( 2, tokens.size());
@@ -240,7 +315,7 @@ public final class SMOpDisassemblersTest
     final var instruction =
       createInstruction(SM_OP_CAPABILITY.value(), SMCapability.SM_SHADER.value());
     final var tokens =
-      new SMDOpCapability().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpCapability()::disassemble, instruction);
     Assertions.assertEquals( "Shader", tokens.get(0));
     Assertions.assertEquals( 1, tokens.size());
   }
@@ -251,7 +326,7 @@ public final class SMOpDisassemblersTest
     final var instruction =
       createInstruction(SM_OP_EXT_INST_IMPORT.value(), 0L, 0x434241L);
     final var tokens =
-      new SMDOpExtInstImport().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpExtInstImport()::disassemble, instruction);
     Assertions.assertEquals( "\"ABC\"", tokens.get(0));
     Assertions.assertEquals( 1, tokens.size());
   }
@@ -264,7 +339,7 @@ public final class SMOpDisassemblersTest
                         SMAddressingModel.SM_LOGICAL.value(),
                         SMMemoryModel.SM_GLSL450.value());
     final var tokens =
-      new SMDOpMemoryModel().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpMemoryModel()::disassemble, instruction);
     Assertions.assertEquals( "Logical", tokens.get(0));
     Assertions.assertEquals( "GLSL450", tokens.get(1));
     Assertions.assertEquals( 2, tokens.size());
@@ -279,7 +354,7 @@ public final class SMOpDisassemblersTest
                         0L,
                         0x434241L);
     final var tokens =
-      new SMDOpMemberName().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpMemberName()::disassemble, instruction);
     Assertions.assertEquals( "%8", tokens.get(0));
     Assertions.assertEquals( "$0", tokens.get(1));
     Assertions.assertEquals( "\"ABC\"", tokens.get(2));
@@ -295,7 +370,7 @@ public final class SMOpDisassemblersTest
                         0L,
                         SMStorageClass.SM_OUTPUT.value());
     final var tokens =
-      new SMDOpVariable().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpVariable()::disassemble, instruction);
     Assertions.assertEquals( "%14", tokens.get(0));
     Assertions.assertEquals( "Output", tokens.get(1));
     Assertions.assertEquals( 2, tokens.size());
@@ -311,7 +386,7 @@ public final class SMOpDisassemblersTest
                         SMStorageClass.SM_OUTPUT.value(),
                         33L);
     final var tokens =
-      new SMDOpVariable().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpVariable()::disassemble, instruction);
     Assertions.assertEquals( "%14", tokens.get(0));
     Assertions.assertEquals( "Output", tokens.get(1));
     Assertions.assertEquals( "%33", tokens.get(2));
@@ -324,7 +399,7 @@ public final class SMOpDisassemblersTest
     final var instruction =
       createInstruction(SM_OP_FUNCTION_END.value());
     final var tokens =
-      new SMDOpFunctionEnd().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpFunctionEnd()::disassemble, instruction);
     Assertions.assertEquals( 0, tokens.size());
   }
 
@@ -339,7 +414,7 @@ public final class SMOpDisassemblersTest
                         23L
       );
     final var tokens =
-      new SMDOpCompositeExtract().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpCompositeExtract()::disassemble, instruction);
     Assertions.assertEquals( "%13", tokens.get(0));
     Assertions.assertEquals( "%17", tokens.get(1));
     Assertions.assertEquals( "$23", tokens.get(2));
@@ -357,7 +432,7 @@ public final class SMOpDisassemblersTest
                         23L
       );
     final var tokens =
-      new SMDOpCompositeConstruct().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpCompositeConstruct()::disassemble, instruction);
     Assertions.assertEquals( "%13", tokens.get(0));
     Assertions.assertEquals( "%17", tokens.get(1));
     Assertions.assertEquals( "%23", tokens.get(2));
@@ -375,7 +450,7 @@ public final class SMOpDisassemblersTest
                         23L
       );
     final var tokens =
-      new SMDOpAccessChain().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpAccessChain()::disassemble, instruction);
     Assertions.assertEquals( "%13", tokens.get(0));
     Assertions.assertEquals( "%17", tokens.get(1));
     Assertions.assertEquals( "%23", tokens.get(2));
@@ -386,7 +461,7 @@ public final class SMOpDisassemblersTest
   public void opConstantIntegral()
   {
     Mockito.when(
-      this.context.literalTyped(Mockito.any(), Mockito.any()))
+      this.context.literalTyped(Mockito.anyLong(), Mockito.anyLong()))
       .thenAnswer(invocationOnMock -> {
         return "$" + invocationOnMock.getArgument(1);
       });
@@ -398,7 +473,7 @@ public final class SMOpDisassemblersTest
                         1L
       );
     final var tokens =
-      new SMDOpConstant().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpConstant()::disassemble, instruction);
     Assertions.assertEquals( "%13", tokens.get(0));
     Assertions.assertEquals( "$1", tokens.get(1));
     Assertions.assertEquals( 2, tokens.size());
@@ -408,7 +483,7 @@ public final class SMOpDisassemblersTest
   public void opConstantFloat()
   {
     Mockito.when(
-      this.context.literalTyped(Mockito.any(), Mockito.any()))
+      this.context.literalTyped(Mockito.anyLong(), Mockito.anyLong()))
       .thenAnswer(invocationOnMock -> {
         return "$" + ((Long) invocationOnMock.getArgument(1)).floatValue();
       });
@@ -420,7 +495,7 @@ public final class SMOpDisassemblersTest
                         1L
       );
     final var tokens =
-      new SMDOpConstant().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpConstant()::disassemble, instruction);
     Assertions.assertEquals( "%13", tokens.get(0));
     Assertions.assertEquals( "$1.0", tokens.get(1));
     Assertions.assertEquals( 2, tokens.size());
@@ -437,13 +512,221 @@ public final class SMOpDisassemblersTest
                         17L
       );
     final var tokens =
-      new SMDOpFunction().disassemble(this.context, instruction);
+      this.disassemble(new SMDOpFunction()::disassemble, instruction);
     Assertions.assertEquals( "%13", tokens.get(0));
     Assertions.assertEquals( "Const", tokens.get(1));
     Assertions.assertEquals( "%17", tokens.get(2));
     Assertions.assertEquals( 3, tokens.size());
   }
 
+  @Test
+  public void opFunctionMask()
+  {
+    final var instruction =
+      createInstruction(SM_OP_FUNCTION.value(),
+                        13L,
+                        0L,
+                        SMFunctionControl.SM_INLINE.value()
+                          | SMFunctionControl.SM_PURE.value(),
+                        17L
+      );
+    final var tokens =
+      this.disassemble(new SMDOpFunction()::disassemble, instruction);
+    Assertions.assertEquals( "%13", tokens.get(0));
+    Assertions.assertEquals( "Inline|Pure", tokens.get(1));
+    Assertions.assertEquals( "%17", tokens.get(2));
+    Assertions.assertEquals( 3, tokens.size());
+  }
+
+  @Test
+  public void opFunctionUnknownMask()
+  {
+    final var instruction =
+      createInstruction(SM_OP_FUNCTION.value(),
+                        13L,
+                        0L,
+                        0x4000_0000L,
+                        17L
+      );
+    final var tokens =
+      this.disassemble(new SMDOpFunction()::disassemble, instruction);
+    Assertions.assertEquals(List.of("%13", "$0x40000000", "%17"), tokens);
+  }
+
+  @Test
+  public void genericValueEnumParameters()
+  {
+    final var instruction =
+      createInstruction(
+        SM_OP_DECORATE.value(),
+        3L,
+        SMDecoration.SM_BUILT_IN.value(),
+        SMBuiltIn.SM_POSITION.value()
+      );
+    final var tokens =
+      this.disassemble(new SMDGenericOpDisassembler(SM_OP_DECORATE)::disassemble, instruction);
+    Assertions.assertEquals(List.of("%3", "BuiltIn", "Position"), tokens);
+  }
+
+  @Test
+  public void genericValueEnumMultipleParameters()
+  {
+    final var instruction =
+      createInstruction(
+        SM_OP_EXECUTION_MODE.value(),
+        4L,
+        SMExecutionMode.SM_LOCAL_SIZE.value(),
+        8L,
+        4L,
+        1L
+      );
+    final var tokens =
+      this.disassemble(new SMDGenericOpDisassembler(SM_OP_EXECUTION_MODE)::disassemble, instruction);
+    Assertions.assertEquals(
+      List.of("%4", "LocalSize", "$8", "$4", "$1"),
+      tokens);
+  }
+
+  @Test
+  public void genericBitEnumParameters()
+  {
+    final var instruction =
+      createInstruction(
+        SM_OP_LOAD.value(),
+        3L,
+        5L,
+        7L,
+        SMMemoryAccess.SM_VOLATILE.value() | SMMemoryAccess.SM_ALIGNED.value(),
+        16L
+      );
+    final var tokens =
+      this.disassemble(new SMDGenericOpDisassembler(SM_OP_LOAD)::disassemble, instruction);
+    Assertions.assertEquals(
+      List.of("%3", "%7", "Volatile|Aligned", "$16"),
+      tokens);
+  }
+
+  @Test
+  public void genericBitEnumUnknownMask()
+  {
+    final var instruction =
+      createInstruction(SM_OP_LOAD.value(), 3L, 5L, 7L, 0x4000_0000L, 16L);
+    final var tokens =
+      this.disassemble(new SMDGenericOpDisassembler(SM_OP_LOAD)::disassemble, instruction);
+    Assertions.assertEquals(
+      List.of("%3", "%7", "$0x40000000", "$16"),
+      tokens);
+  }
+
+  @Test
+  public void genericOptionalAbsent()
+  {
+    final var instruction =
+      createInstruction(SM_OP_LOAD.value(), 3L, 5L, 7L);
+    final var tokens =
+      this.disassemble(new SMDGenericOpDisassembler(SM_OP_LOAD)::disassemble, instruction);
+    Assertions.assertEquals(List.of("%3", "%7"), tokens);
+  }
+
+  @Test
+  public void genericRepeatedPairs()
+  {
+    final var instruction =
+      createInstruction(SM_OP_PHI.value(), 1L, 2L, 10L, 11L, 12L, 13L);
+    final var tokens =
+      this.disassemble(new SMDGenericOpDisassembler(SM_OP_PHI)::disassemble, instruction);
+    Assertions.assertEquals(List.of("%1", "%10", "%11", "%12", "%13"), tokens);
+  }
+
+  @Test
+  public void genericRepeatedLiteralPairs()
+  {
+    final var instruction =
+      createInstruction(SM_OP_SWITCH.value(), 3L, 4L, 1L, 5L, 2L, 6L);
+    final var tokens =
+      this.disassemble(new SMDGenericOpDisassembler(SM_OP_SWITCH)::disassemble, instruction);
+    Assertions.assertEquals(
+      List.of("%3", "%4", "$1", "%5", "$2", "%6"),
+      tokens);
+  }
+
+  @Test
+  public void genericString()
+  {
+    final var instruction =
+      createInstruction(SM_OP_EXTENSION.value(), 0x434241L);
+    final var tokens =
+      this.disassemble(new SMDGenericOpDisassembler(SM_OP_EXTENSION)::disassemble, instruction);
+    Assertions.assertEquals(List.of("\"ABC\""), tokens);
+  }
+
+  @Test
+  public void genericUnknownEnumerant()
+  {
+    final var instruction =
+      createInstruction(SM_OP_DECORATE.value(), 3L, 0x7fff_fff0L);
+    final var tokens =
+      this.disassemble(new SMDGenericOpDisassembler(SM_OP_DECORATE)::disassemble, instruction);
+    Assertions.assertEquals(List.of("%3", "$2147483632"), tokens);
+  }
+
+  @Test
+  public void genericTrailingWords()
+  {
+    final var instruction =
+      createInstruction(SM_OP_COPY_MEMORY.value(), 3L, 4L, 0L, 0L, 9L);
+    final var tokens =
+      this.disassemble(new SMDGenericOpDisassembler(SM_OP_COPY_MEMORY)::disassemble, instruction);
+    Assertions.assertEquals(List.of("%3", "%4", "None", "None", "$9"), tokens);
+  }
+
+  @Test
+  public void genericAllInstructions()
+  {
+    for (final var definition : values()) {
+      final var operands = new long[definition.minimumOperandCount()];
+      final var instruction =
+        createInstruction(definition.value(), operands);
+      Assertions.assertNotNull(
+        this.disassemble(
+          new SMDGenericOpDisassembler(definition)::disassemble,
+          instruction),
+        definition.spirName());
+    }
+  }
+
+  private interface OpDisassemblerType
+  {
+    void disassemble(
+      SMOpDisassemblerContextType context,
+      SMParsedInstructionType instruction,
+      SMTextOutput output);
+  }
+
+  /**
+   * Disassemble the given instruction and split the output into the
+   * operand tokens that were appended.
+   */
+
+  private List<String> disassemble(
+    final OpDisassemblerType disassembler,
+    final SMParsedInstructionType instruction)
+  {
+    final var writer = new StringWriter();
+    try (var output = new SMTextOutput(writer)) {
+      disassembler.disassemble(this.context, instruction, output);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    final var text = writer.toString();
+    if (text.isEmpty()) {
+      return List.of();
+    }
+    Assertions.assertTrue(text.startsWith(" "), text);
+    return List.of(text.substring(1).split(" "));
+  }
+
   private static SMParsedInstruction createInstruction(
     final int opcode,
     final long... operands)
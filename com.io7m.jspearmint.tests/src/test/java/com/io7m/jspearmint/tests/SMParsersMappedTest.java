@@ -0,0 +1,242 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.jspearmint.tests;
+
+import com.io7m.jbssio.vanilla.BSSReaders;
+import com.io7m.jspearmint.parser.api.SMParseException;
+import com.io7m.jspearmint.parser.api.SMParserType;
+import com.io7m.jspearmint.parser.vanilla.SMParsers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static com.io7m.jspearmint.tests.SMJSONTestDirectories.createTempDirectory;
+import static com.io7m.jspearmint.tests.SMJSONTestDirectories.resourceOf;
+
+public final class SMParsersMappedTest
+{
+  private Path directory;
+  private SMParsers parsers;
+
+  @BeforeEach
+  public void setup()
+    throws IOException
+  {
+    this.directory = createTempDirectory();
+    this.parsers = new SMParsers(new BSSReaders());
+  }
+
+  /**
+   * Parsing a memory-mapped file produces exactly the same results as
+   * parsing a stream.
+   *
+   * @return The tests
+   */
+
+  @TestFactory
+  public Stream<DynamicTest> testMappedFileMatchesStream()
+  {
+    return Stream.of(
+      "trivialBig.sv",
+      "trivialLittle.sv",
+      "clip_space_triangle.vert.spv",
+      "clip_space_triangle.vert_big.spv"
+    ).map(name -> DynamicTest.dynamicTest(
+      "testMappedFileMatchesStream_" + name,
+      () -> this.checkMappedFileMatchesStream(name)));
+  }
+
+  private void checkMappedFileMatchesStream(
+    final String name)
+    throws Exception
+  {
+    final var file = this.resource(name);
+
+    try (var stream = Files.newInputStream(file)) {
+      try (var streamParser = this.parsers.create(file.toUri(), stream)) {
+        try (var mappedParser = this.parsers.createFromPath(file)) {
+          Assertions.assertEquals(
+            streamParser.header(),
+            mappedParser.header());
+          Assertions.assertEquals(
+            streamParser.parseAllInstructions(),
+            mappedParser.parseAllInstructions());
+        }
+      }
+    }
+  }
+
+  /**
+   * Parsing a heap buffer produces exactly the same results as parsing a
+   * memory-mapped file, and the buffer's position is respected.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void heapBufferMatchesMappedFile()
+    throws Exception
+  {
+    final var file = this.resource("clip_space_triangle.vert.spv");
+    final var data = Files.readAllBytes(file);
+    final var padded = new byte[data.length + 3];
+    System.arraycopy(data, 0, padded, 3, data.length);
+
+    final var buffer = ByteBuffer.wrap(padded);
+    buffer.position(3);
+
+    try (var mappedParser = this.parsers.createFromPath(file)) {
+      try (var bufferParser =
+             this.parsers.createFromByteBuffer(file.toUri(), buffer)) {
+        Assertions.assertEquals(
+          mappedParser.header(),
+          bufferParser.header());
+        Assertions.assertEquals(
+          mappedParser.parseAllInstructions(),
+          bufferParser.parseAllInstructions());
+      }
+    }
+
+    Assertions.assertEquals(3, buffer.position());
+  }
+
+  /**
+   * Instructions can be parsed one at a time from a mapped file.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void mappedFileIncremental()
+    throws Exception
+  {
+    final var file = this.resource("clip_space_triangle.vert.spv");
+
+    try (var parser = this.parsers.createFromPath(file)) {
+      var count = 0;
+      while (parser.parseNextInstruction().isPresent()) {
+        ++count;
+      }
+      Assertions.assertEquals(57, count);
+      Assertions.assertTrue(parser.parseNextInstruction().isEmpty());
+    }
+  }
+
+  /**
+   * An empty file immediately results in an exception.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void emptyFileCannotBeParsed()
+    throws Exception
+  {
+    final var file = this.resource("empty.sv");
+    Assertions.assertThrows(SMParseException.class, () -> {
+      this.parsers.createFromPath(file);
+    });
+  }
+
+  /**
+   * A bad magic number can't be parsed.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void badMagicNumberFails()
+    throws Exception
+  {
+    final var file = this.resource("badMagicNumber.sv");
+    Assertions.assertThrows(SMParseException.class, () -> {
+      this.parsers.createFromPath(file);
+    });
+  }
+
+  /**
+   * A truncated file can't be parsed.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void truncatedFileFails()
+    throws Exception
+  {
+    final var file = this.resource("clip_space_triangle_truncated.spv");
+    Assertions.assertThrows(SMParseException.class, () -> {
+      try (SMParserType parser = this.parsers.createFromPath(file)) {
+        parser.parseAllInstructions();
+      }
+    });
+  }
+
+  /**
+   * A header that is cut short can't be parsed.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void truncatedHeaderFails()
+    throws Exception
+  {
+    final var file = this.resource("trivialLittle.sv");
+    final var data = Files.readAllBytes(file);
+    final var buffer = ByteBuffer.wrap(data, 0, 8);
+
+    Assertions.assertThrows(SMParseException.class, () -> {
+      this.parsers.createFromByteBuffer(URI.create("urn:unknown"), buffer);
+    });
+  }
+
+  /**
+   * A buffer that ends with a partial word can't be parsed.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void trailingPartialWordFails()
+    throws Exception
+  {
+    final var file = this.resource("trivialLittle.sv");
+    final var data = Files.readAllBytes(file);
+    final var buffer = ByteBuffer.wrap(Arrays.copyOf(data, data.length + 1));
+
+    Assertions.assertThrows(SMParseException.class, () -> {
+      this.parsers.createFromByteBuffer(URI.create("urn:unknown"), buffer);
+    });
+  }
+
+  private Path resource(
+    final String name)
+    throws IOException
+  {
+    return resourceOf(SMParsersMappedTest.class, this.directory, name);
+  }
+}
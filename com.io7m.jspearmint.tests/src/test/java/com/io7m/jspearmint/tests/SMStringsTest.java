@@ -0,0 +1,224 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.tests;
+
+import com.io7m.jspearmint.analysis.SMStringPool;
+import com.io7m.jspearmint.analysis.SMStrings;
+import com.io7m.jspearmint.parser.api.SMParsedInstruction;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public final class SMStringsTest
+{
+  private static final List<String> STRINGS = List.of(
+    "",
+    "A",
+    "AB",
+    "ABC",
+    "ABCD",
+    "main",
+    "gl_PerVertex",
+    "  padded  ",
+    "\ttabbed\n",
+    "   ",
+    "café",
+    "日本語",
+    " über ",
+    "😀 emoji"
+  );
+
+  /**
+   * Encode a string as NUL-terminated operand words, preceded by a single
+   * ID operand, optionally followed by a trailing operand.
+   */
+
+  private static SMParsedInstruction encode(
+    final String text,
+    final boolean terminated,
+    final boolean trailing)
+  {
+    final var bytes = new ByteArrayOutputStream();
+    bytes.writeBytes(text.getBytes(UTF_8));
+    if (terminated) {
+      bytes.write(0);
+    }
+    while (bytes.size() % 4 != 0) {
+      bytes.write(0);
+    }
+
+    final var data = bytes.toByteArray();
+    final var words = new ArrayList<Integer>();
+    words.add(Integer.valueOf(23));
+    for (int index = 0; index < data.length; index += 4) {
+      words.add(Integer.valueOf(
+        (data[index] & 0xff)
+          | (data[index + 1] & 0xff) << 8
+          | (data[index + 2] & 0xff) << 16
+          | (data[index + 3] & 0xff) << 24
+      ));
+    }
+    if (trailing) {
+      words.add(Integer.valueOf(29));
+    }
+
+    final var operands = new int[words.size()];
+    for (int index = 0; index < operands.length; ++index) {
+      operands[index] = words.get(index).intValue();
+    }
+    return SMParsedInstruction.ofOperandWords(
+      0L, 5L, operands.length + 1L, operands);
+  }
+
+  /**
+   * The number of words the original implementation counted for a string.
+   */
+
+  private static int expectedUsedWords(
+    final String text)
+  {
+    return (text.getBytes(UTF_8).length / 4) + 1;
+  }
+
+  /**
+   * All decoding paths agree with each other and with the trimmed text.
+   *
+   * @return A set of tests
+   */
+
+  @TestFactory
+  public Stream<DynamicTest> testDecode()
+  {
+    return STRINGS.stream()
+      .map(text -> DynamicTest.dynamicTest(
+        "testDecode_" + text.strip(),
+        () -> {
+          final var pool = SMStringPool.create();
+          for (final var trailing : List.of(Boolean.FALSE, Boolean.TRUE)) {
+            final var instruction =
+              encode(text, true, trailing.booleanValue());
+
+            final var string = SMStrings.consumeUTF8String(instruction, 1);
+            Assertions.assertEquals(text.trim(), string.text());
+            Assertions.assertEquals(expectedUsedWords(text), string.usedWords());
+
+            Assertions.assertEquals(
+              string,
+              SMStrings.consumeUTF8String(instruction.operands(), 1));
+            Assertions.assertEquals(
+              text.trim(),
+              SMStrings.decodeUTF8(instruction, 1));
+            Assertions.assertEquals(
+              string.usedWords(),
+              SMStrings.usedWordsUTF8(instruction, 1));
+            Assertions.assertEquals(string, pool.intern(instruction, 1));
+
+            final var view = SMStrings.viewUTF8String(instruction, 1);
+            Assertions.assertEquals(text.trim(), view.toString());
+            Assertions.assertEquals(text.trim().hashCode(), view.hashCode());
+            Assertions.assertEquals(text.trim().length(), view.length());
+            Assertions.assertTrue(view.contentEquals(text.trim()));
+            Assertions.assertEquals(string.usedWords(), view.usedWords());
+            Assertions.assertEquals(
+              view,
+              SMStrings.viewUTF8String(instruction, 1));
+            for (int index = 0; index < view.length(); ++index) {
+              Assertions.assertEquals(
+                text.trim().charAt(index),
+                view.charAt(index));
+            }
+          }
+          Assertions.assertEquals(1, pool.size());
+        }));
+  }
+
+  /**
+   * Strings that are not terminated before the end of the instruction are
+   * counted as if they had been terminated.
+   */
+
+  @Test
+  public void testUnterminated()
+  {
+    final var instruction = encode("ABCDEFGH", false, false);
+    final var string = SMStrings.consumeUTF8String(instruction, 1);
+    Assertions.assertEquals("ABCDEFGH", string.text());
+    Assertions.assertEquals(3, string.usedWords());
+    Assertions.assertEquals(3, SMStrings.usedWordsUTF8(instruction, 1));
+  }
+
+  /**
+   * Pools return the same string for the same bytes, and grow as needed.
+   */
+
+  @Test
+  public void testPoolIdentity()
+  {
+    final var pool = SMStringPool.create();
+    final var strings = new ArrayList<Object>();
+    for (int index = 0; index < 1000; ++index) {
+      strings.add(pool.intern(encode("name" + index, true, false), 1));
+    }
+    Assertions.assertEquals(1000, pool.size());
+
+    for (int index = 0; index < 1000; ++index) {
+      Assertions.assertSame(
+        strings.get(index),
+        pool.intern(encode("name" + index, true, true), 1));
+    }
+    Assertions.assertEquals(1000, pool.size());
+  }
+
+  /**
+   * Strings that differ only in surrounding whitespace are distinct in the
+   * pool, but have the same text.
+   */
+
+  @Test
+  public void testPoolWhitespace()
+  {
+    final var pool = SMStringPool.create();
+    final var a = pool.intern(encode("x", true, false), 1);
+    final var b = pool.intern(encode(" x", true, false), 1);
+    Assertions.assertEquals(a.text(), b.text());
+    Assertions.assertEquals(2, pool.size());
+  }
+
+  /**
+   * Out of range indices are rejected.
+   */
+
+  @Test
+  public void testIndexOutOfRange()
+  {
+    final var instruction = encode("A", true, false);
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> SMStrings.consumeUTF8String(instruction, 3));
+    Assertions.assertThrows(
+      IndexOutOfBoundsException.class,
+      () -> SMStrings.viewUTF8String(instruction, -1));
+  }
+}
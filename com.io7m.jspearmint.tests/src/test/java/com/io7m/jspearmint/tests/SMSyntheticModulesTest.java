@@ -0,0 +1,221 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.jspearmint.tests;
+
+import com.io7m.jbssio.vanilla.BSSReaders;
+import com.io7m.jspearmint.analysis.SMFunctions;
+import com.io7m.jspearmint.analysis.SMIdentifiers;
+import com.io7m.jspearmint.analysis.SMTypes;
+import com.io7m.jspearmint.api.SMInstruction;
+import com.io7m.jspearmint.api.SMOperand;
+import com.io7m.jspearmint.api.SMOperandKind;
+import com.io7m.jspearmint.parser.api.SMModule;
+import com.io7m.jspearmint.parser.vanilla.SMParsers;
+import com.io7m.jspearmint.synthetic.SMSyntheticModuleParameters;
+import com.io7m.jspearmint.synthetic.SMSyntheticModules;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashSet;
+
+public final class SMSyntheticModulesTest
+{
+  private SMParsers parsers;
+
+  @BeforeEach
+  public void setup()
+  {
+    this.parsers = new SMParsers(new BSSReaders());
+  }
+
+  private SMModule parse(
+    final SMSyntheticModuleParameters parameters)
+    throws Exception
+  {
+    final var buffer = SMSyntheticModules.generate(parameters);
+    try (var parser =
+           this.parsers.createFromByteBuffer(URI.create("urn:synthetic"), buffer)) {
+      return parser.parseModule();
+    }
+  }
+
+  private static int count(
+    final SMModule module,
+    final SMInstruction instruction)
+  {
+    var count = 0;
+    for (var index = 0; index < module.instructionCount(); ++index) {
+      if (module.opCode(index) == instruction.value()) {
+        ++count;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Generation is deterministic, and the seed affects the output.
+   */
+
+  @Test
+  public void testDeterministic()
+  {
+    final var parameters =
+      SMSyntheticModuleParameters.builder()
+        .setSeed(23L)
+        .setFunctionCount(10)
+        .setTypeCount(10)
+        .setConstantCount(10)
+        .setNameCount(10)
+        .build();
+
+    Assertions.assertArrayEquals(
+      SMSyntheticModules.generateWords(parameters),
+      SMSyntheticModules.generateWords(parameters));
+    Assertions.assertFalse(
+      Arrays.equals(
+        SMSyntheticModules.generateWords(parameters),
+        SMSyntheticModules.generateWords(parameters.withSeed(24L))));
+  }
+
+  /**
+   * The generated module contains the requested numbers of each kind of
+   * declaration, and the analyses accept it.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCounts()
+    throws Exception
+  {
+    final var parameters =
+      SMSyntheticModuleParameters.builder()
+        .setSeed(1L)
+        .setFunctionCount(17)
+        .setInstructionsPerFunction(13)
+        .setTypeCount(31)
+        .setConstantCount(41)
+        .setDecorationCount(19)
+        .setNameCount(53)
+        .setIdBoundPadding(100)
+        .build();
+
+    final var module = this.parse(parameters);
+
+    Assertions.assertEquals(31, count(module, SMInstruction.SM_OP_TYPE_STRUCT));
+    Assertions.assertEquals(42, count(module, SMInstruction.SM_OP_CONSTANT));
+    Assertions.assertEquals(19, count(module, SMInstruction.SM_OP_SPEC_CONSTANT));
+    Assertions.assertEquals(19, count(module, SMInstruction.SM_OP_DECORATE));
+    Assertions.assertEquals(53, count(module, SMInstruction.SM_OP_NAME));
+    Assertions.assertEquals(17 * 13, count(module, SMInstruction.SM_OP_IADD));
+    Assertions.assertEquals(17, count(module, SMInstruction.SM_OP_FUNCTION_CALL));
+    Assertions.assertEquals(18, count(module, SMInstruction.SM_OP_FUNCTION));
+
+    final var functions = SMFunctions.of(module);
+    Assertions.assertEquals(18, functions.extents().size());
+    Assertions.assertEquals(1, functions.entryPoints().size());
+    Assertions.assertTrue(functions.entryPoints().containsKey("main"));
+
+    final var types = SMTypes.of(module);
+    Assertions.assertEquals(
+      31L,
+      types.idToType()
+        .values()
+        .stream()
+        .filter(t -> t == SMInstruction.SM_OP_TYPE_STRUCT)
+        .count());
+
+    final var identifiers = SMIdentifiers.of(module);
+    Assertions.assertFalse(identifiers.nameToId().isEmpty());
+
+    final var ids = new HashSet<Long>();
+    var maximumId = 0L;
+    for (var index = 0; index < module.instructionCount(); ++index) {
+      final var operands =
+        SMInstruction.byOpCodeOrNull(module.opCode(index)).operands();
+      final var resultIndex =
+        operands.stream()
+          .map(SMOperand::kind)
+          .toList()
+          .indexOf(SMOperandKind.SM_ID_RESULT);
+      if (resultIndex >= 0) {
+        final var id = module.operand(index, resultIndex);
+        Assertions.assertTrue(ids.add(Long.valueOf(id)), "Unique id " + id);
+        maximumId = Math.max(maximumId, id);
+      }
+    }
+    Assertions.assertEquals(maximumId + 1L + 100L, module.header().idBound());
+  }
+
+  /**
+   * Both byte orders produce the same module.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testByteOrders()
+    throws Exception
+  {
+    final var parameters =
+      SMSyntheticModuleParameters.builder()
+        .setFunctionCount(5)
+        .setTypeCount(5)
+        .setConstantCount(5)
+        .setDecorationCount(5)
+        .setNameCount(5)
+        .build();
+
+    final var little =
+      this.parse(parameters.withByteOrder(ByteOrder.LITTLE_ENDIAN));
+    final var big =
+      this.parse(parameters.withByteOrder(ByteOrder.BIG_ENDIAN));
+
+    Assertions.assertEquals(little.header(), big.header());
+    Assertions.assertEquals(little.instructionCount(), big.instructionCount());
+    for (var index = 0; index < little.instructionCount(); ++index) {
+      Assertions.assertEquals(little.opCode(index), big.opCode(index));
+      Assertions.assertEquals(little.byteOffset(index), big.byteOffset(index));
+      Assertions.assertEquals(
+        little.instruction(index).operands(),
+        big.instruction(index).operands());
+    }
+  }
+
+  /**
+   * Negative counts are rejected.
+   */
+
+  @Test
+  public void testNegativeCounts()
+  {
+    Assertions.assertThrows(
+      IllegalArgumentException.class,
+      () -> SMSyntheticModuleParameters.builder()
+        .setFunctionCount(-1)
+        .build());
+    Assertions.assertThrows(
+      IllegalArgumentException.class,
+      () -> SMSyntheticModuleParameters.builder()
+        .setNameCount(-1)
+        .build());
+  }
+}